@@ -0,0 +1,273 @@
+package com.austa.vendas.ans;
+
+import com.austa.vendas.validation.TaxIdValidator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * BeneficiaryValidator - Checks a beneficiary roster against the ANS registration rules
+ *
+ * Purpose: ANSRegistrationDelegate used to stop at the first invalid beneficiary, so an
+ * HR contact fixing a roster of thousands of lives saw one error per submission cycle
+ * against the 72-hour deadline. This validator checks every row and reports every
+ * problem, so the whole file can be corrected in one round-trip.
+ *
+ * Rules per beneficiary (each violation reported separately):
+ * - Required: cpf, fullName, birthDate, gender, planCode, beneficiaryType
+ * - cpf: valid per TaxIdValidator (11 digits, formatting ignored, check digits)
+ * - birthDate: YYYY-MM-DD, age between 0 and 120 years
+ * - gender: M or F
+ *
+ * Execution: rosters above PARALLEL_THRESHOLD rows are split into chunks and validated
+ * with fork-join on the common pool; violations are merged back in row order. The checks
+ * scan characters directly (no regular expressions, no date parsing objects), so a row
+ * without violations allocates nothing.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class BeneficiaryValidator {
+
+    static final int PARALLEL_THRESHOLD = 2048;
+    private static final int MAX_AGE_YEARS = 120;
+    private static final String[] REQUIRED_FIELDS = {
+        "cpf", "fullName", "birthDate", "gender", "planCode", "beneficiaryType"
+    };
+
+    private final ForkJoinPool pool;
+
+    public BeneficiaryValidator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BeneficiaryValidator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Validates every beneficiary as of today
+     */
+    public ValidationReport validate(List<Map<String, Object>> beneficiaries) {
+        return validate(beneficiaries, LocalDate.now());
+    }
+
+    /**
+     * Validates every beneficiary, computing ages as of the given date
+     */
+    public ValidationReport validate(List<Map<String, Object>> beneficiaries, LocalDate today) {
+        if (beneficiaries == null || beneficiaries.isEmpty()) {
+            return new ValidationReport(0, List.of(new Violation(0, null, "No beneficiary data provided")));
+        }
+        Today date = new Today(today.getYear(), today.getMonthValue(), today.getDayOfMonth());
+        ValidateChunk all = new ValidateChunk(beneficiaries, 0, beneficiaries.size(), date);
+        List<Violation> violations = beneficiaries.size() > PARALLEL_THRESHOLD ? pool.invoke(all) : all.compute();
+        return new ValidationReport(beneficiaries.size(), violations);
+    }
+
+    private static void validateRow(Map<String, Object> beneficiary, int row, Today today,
+                                    List<Violation> violations) {
+        if (beneficiary == null) {
+            violations.add(new Violation(row, null, "Missing beneficiary record"));
+            return;
+        }
+        for (String field : REQUIRED_FIELDS) {
+            Object value = beneficiary.get(field);
+            if (value == null || value.toString().isEmpty()) {
+                violations.add(new Violation(row, field, "Missing required field: " + field));
+            }
+        }
+
+        if (beneficiary.get("cpf") instanceof String cpf && !cpf.isEmpty() && !TaxIdValidator.isValidCpf(cpf)) {
+            violations.add(new Violation(row, "cpf", "Invalid CPF: " + cpf));
+        }
+
+        if (beneficiary.get("birthDate") instanceof String birthDate && !birthDate.isEmpty()) {
+            int age = ageInYears(birthDate, today);
+            if (age == Integer.MIN_VALUE) {
+                violations.add(new Violation(row, "birthDate", "Invalid birth date (expected YYYY-MM-DD): "
+                    + birthDate));
+            } else if (age < 0 || age > MAX_AGE_YEARS) {
+                violations.add(new Violation(row, "birthDate", "Invalid age: " + age));
+            }
+        }
+
+        if (beneficiary.get("gender") instanceof String gender && !gender.isEmpty()
+                && !(gender.length() == 1 && (gender.charAt(0) == 'M' || gender.charAt(0) == 'F'))) {
+            violations.add(new Violation(row, "gender", "Invalid gender: " + gender));
+        }
+    }
+
+    /**
+     * Completed years since a YYYY-MM-DD date, or Integer.MIN_VALUE if it is not a valid date
+     */
+    static int ageInYears(String date, Today today) {
+        if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return Integer.MIN_VALUE;
+        }
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 7);
+        int day = digits(date, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return Integer.MIN_VALUE;
+        }
+        int age = today.year - year;
+        if (today.month < month || (today.month == month && today.day < day)) {
+            age--;
+        }
+        return age;
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    record Today(int year, int month, int day) {
+    }
+
+    /**
+     * Validates rows [from, to), splitting above the parallel threshold
+     */
+    private static final class ValidateChunk extends RecursiveTask<List<Violation>> {
+        private final List<Map<String, Object>> beneficiaries;
+        private final int from;
+        private final int to;
+        private final Today today;
+
+        ValidateChunk(List<Map<String, Object>> beneficiaries, int from, int to, Today today) {
+            this.beneficiaries = beneficiaries;
+            this.from = from;
+            this.to = to;
+            this.today = today;
+        }
+
+        @Override
+        protected List<Violation> compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                List<Violation> violations = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    validateRow(beneficiaries.get(i), i + 1, today, violations);
+                }
+                return violations;
+            }
+            int middle = (from + to) >>> 1;
+            ValidateChunk left = new ValidateChunk(beneficiaries, from, middle, today);
+            ValidateChunk right = new ValidateChunk(beneficiaries, middle, to, today);
+            left.fork();
+            List<Violation> rightViolations = right.compute();
+            List<Violation> violations = left.join();
+            if (violations.isEmpty()) {
+                return rightViolations;
+            }
+            violations.addAll(rightViolations);
+            return violations;
+        }
+    }
+
+    /**
+     * One rule broken by one beneficiary; row is 1-based (0 for the roster as a whole) and
+     * field is null when the whole record is concerned
+     */
+    public record Violation(int row, String field, String message) {
+
+        public Map<String, Object> toMap() {
+            return Map.of("row", row, "field", field != null ? field : "", "message", message);
+        }
+
+        @Override
+        public String toString() {
+            return row > 0 ? "Beneficiary #" + row + ": " + message : message;
+        }
+    }
+
+    /**
+     * All violations of a roster, in row order
+     */
+    public static final class ValidationReport {
+
+        private final int beneficiaries;
+        private final List<Violation> violations;
+
+        ValidationReport(int beneficiaries, List<Violation> violations) {
+            this.beneficiaries = beneficiaries;
+            this.violations = List.copyOf(violations);
+        }
+
+        public boolean isValid() {
+            return violations.isEmpty();
+        }
+
+        public int getBeneficiaries() {
+            return beneficiaries;
+        }
+
+        public List<Violation> getViolations() {
+            return violations;
+        }
+
+        /**
+         * Number of distinct rows with at least one violation
+         */
+        public int getInvalidRows() {
+            int rows = 0;
+            int last = -1;
+            for (Violation violation : violations) {
+                if (violation.row() != last) {
+                    rows++;
+                    last = violation.row();
+                }
+            }
+            return rows;
+        }
+
+        /**
+         * Violations as row/field/message maps, e.g. for a process variable
+         */
+        public List<Map<String, Object>> toMaps() {
+            List<Map<String, Object>> maps = new ArrayList<>(violations.size());
+            for (Violation violation : violations) {
+                maps.add(violation.toMap());
+            }
+            return maps;
+        }
+
+        /**
+         * Counts followed by the first maxListed violations
+         */
+        public String summary(int maxListed) {
+            if (beneficiaries == 0) {
+                return violations.get(0).message();
+            }
+            StringBuilder summary = new StringBuilder()
+                .append(violations.size()).append(" violation(s) in ")
+                .append(getInvalidRows()).append(" of ").append(beneficiaries).append(" beneficiaries");
+            for (int i = 0; i < Math.min(maxListed, violations.size()); i++) {
+                summary.append("; ").append(violations.get(i));
+            }
+            if (violations.size() > maxListed) {
+                summary.append("; ...");
+            }
+            return summary.toString();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.austa.vendas.ans;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * TissBeneficiaryWriter - Streams a TISS beneficiary registration as escaped XML
+ *
+ * Purpose: ANSRegistrationDelegate used to build the whole document in one StringBuilder,
+ * without escaping, so a 50,000-life contract meant a very large string in memory. This
+ * writer emits each element through a StAX writer straight to the target stream: memory
+ * stays constant whatever the number of beneficiaries, names like "D'Ávila & Filhos" are
+ * escaped, and the document can be consumed (e.g. as an HTTP request body) while it is
+ * still being written.
+ *
+ * Document layout (one per {@link TissTransmission}):
+ * <pre>
+ *   tissTransaction
+ *     header: operatorCode, transactionDate, contractId, sequenceNumber, totalTransmissions
+ *     beneficiaries: beneficiary (cpf, fullName, birthDate, gender, planCode,
+ *                    beneficiaryType, registrationDate)*
+ * </pre>
+ *
+ * Instances are stateless and thread-safe.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class TissBeneficiaryWriter {
+
+    public static final String TISS_NAMESPACE = "http://www.ans.gov.br/padroes/tiss/schemas";
+
+    private static final XMLOutputFactory XML_OUTPUT = XMLOutputFactory.newFactory();
+    private static final int BUFFER_BYTES = 16 * 1024;
+    private static final String[] BENEFICIARY_FIELDS = {
+        "cpf", "fullName", "birthDate", "gender", "planCode", "beneficiaryType"
+    };
+
+    private final String operatorCode;
+
+    public TissBeneficiaryWriter(String operatorCode) {
+        if (operatorCode == null || operatorCode.isBlank()) {
+            throw new IllegalArgumentException("ANS operator code is required");
+        }
+        this.operatorCode = operatorCode;
+    }
+
+    /**
+     * Writes the transmission as UTF-8 XML and flushes; the stream is left open
+     */
+    public void write(TissTransmission transmission, OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_BYTES);
+        XMLStreamWriter xml = null;
+        try {
+            xml = XML_OUTPUT.createXMLStreamWriter(buffered, "UTF-8");
+            writeDocument(xml, transmission);
+            xml.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("TISS transmission " + transmission.getSequenceNumber() + " not written", e);
+        } finally {
+            if (xml != null) {
+                try {
+                    xml.close();
+                } catch (XMLStreamException e) {
+                    // Already failed or flushed; close() never closes the underlying stream
+                }
+            }
+        }
+        buffered.flush();
+    }
+
+    /**
+     * Writes the transmission to a channel, which is left open
+     */
+    public void write(TissTransmission transmission, WritableByteChannel channel) throws IOException {
+        write(transmission, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Writes the transmission to a file, replacing it
+     */
+    public void write(TissTransmission transmission, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(transmission, out);
+        }
+    }
+
+    private void writeDocument(XMLStreamWriter xml, TissTransmission transmission) throws XMLStreamException {
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeStartElement("tissTransaction");
+        xml.writeDefaultNamespace(TISS_NAMESPACE);
+
+        xml.writeStartElement("header");
+        element(xml, "operatorCode", operatorCode);
+        element(xml, "transactionDate", transmission.getTransactionDate());
+        element(xml, "contractId", transmission.getContractId());
+        element(xml, "sequenceNumber", String.valueOf(transmission.getSequenceNumber()));
+        element(xml, "totalTransmissions", String.valueOf(transmission.getTotalTransmissions()));
+        xml.writeEndElement();
+
+        xml.writeStartElement("beneficiaries");
+        for (Map<String, Object> beneficiary : transmission.getBeneficiaries()) {
+            xml.writeStartElement("beneficiary");
+            for (String field : BENEFICIARY_FIELDS) {
+                Object value = beneficiary.get(field);
+                element(xml, field, value != null ? value.toString() : "");
+            }
+            element(xml, "registrationDate", transmission.getTransactionDate());
+            xml.writeEndElement();
+        }
+        xml.writeEndElement();
+
+        xml.writeEndElement();
+        xml.writeEndDocument();
+    }
+
+    private static void element(XMLStreamWriter xml, String name, String text) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeCharacters(text != null ? text : "");
+        xml.writeEndElement();
+    }
+}
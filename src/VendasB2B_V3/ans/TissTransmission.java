@@ -0,0 +1,82 @@
+package com.austa.vendas.ans;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TissTransmission - One TISS document of a chunked beneficiary registration
+ *
+ * A registration of many lives is sent as several transmissions of at most N beneficiaries
+ * each. Every transmission is a complete TISS document carrying the contract, the
+ * registration's transaction date and its position (sequenceNumber of totalTransmissions),
+ * so ANS can receive and acknowledge them independently.
+ *
+ * The beneficiaries are a view on the registration's list, not a copy.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class TissTransmission {
+
+    private final String contractId;
+    private final String transactionDate;
+    private final int sequenceNumber;
+    private final int totalTransmissions;
+    private final List<Map<String, Object>> beneficiaries;
+
+    public TissTransmission(String contractId, String transactionDate, int sequenceNumber, int totalTransmissions,
+                            List<Map<String, Object>> beneficiaries) {
+        if (sequenceNumber < 1 || sequenceNumber > totalTransmissions) {
+            throw new IllegalArgumentException("Transmission " + sequenceNumber + " of " + totalTransmissions);
+        }
+        this.contractId = contractId;
+        this.transactionDate = transactionDate;
+        this.sequenceNumber = sequenceNumber;
+        this.totalTransmissions = totalTransmissions;
+        this.beneficiaries = Collections.unmodifiableList(beneficiaries);
+    }
+
+    /**
+     * Splits the beneficiaries into transmissions of at most beneficiariesPerTransmission
+     */
+    public static List<TissTransmission> split(String contractId, String transactionDate,
+                                               List<Map<String, Object>> beneficiaries,
+                                               int beneficiariesPerTransmission) {
+        if (beneficiariesPerTransmission < 1) {
+            throw new IllegalArgumentException("Beneficiaries per transmission must be positive: "
+                + beneficiariesPerTransmission);
+        }
+        int total = Math.max(1, (beneficiaries.size() + beneficiariesPerTransmission - 1)
+            / beneficiariesPerTransmission);
+        List<TissTransmission> transmissions = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            int from = i * beneficiariesPerTransmission;
+            int to = Math.min(beneficiaries.size(), from + beneficiariesPerTransmission);
+            transmissions.add(new TissTransmission(contractId, transactionDate, i + 1, total,
+                beneficiaries.subList(from, to)));
+        }
+        return transmissions;
+    }
+
+    public String getContractId() {
+        return contractId;
+    }
+
+    public String getTransactionDate() {
+        return transactionDate;
+    }
+
+    public int getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public int getTotalTransmissions() {
+        return totalTransmissions;
+    }
+
+    public List<Map<String, Object>> getBeneficiaries() {
+        return beneficiaries;
+    }
+}
@@ -0,0 +1,117 @@
+package com.austa.vendas.ans;
+
+import com.austa.vendas.queue.DurableQueue;
+import com.austa.vendas.queue.QueuedEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * TransmissionLedger - Protocol numbers of the TISS transmissions ANS already accepted
+ *
+ * Purpose: A registration is sent as several transmissions. When one fails, the job is
+ * retried and the engine rolls back the process variables set so far, so without a
+ * record outside the transaction the retry would send the accepted transmissions again
+ * and ANS would register those beneficiaries twice.
+ *
+ * - Each accepted transmission is appended to the ans-transmissions durable queue
+ *   (fsynced) under its registration key, with its sequence number and protocol
+ * - A retry of the same registration reads them back and sends only the missing
+ *   sequences, with the same transaction date as the first attempt
+ * - Once the registration has every protocol and the delegate has stored them,
+ *   {@link #complete} removes its entries
+ *
+ * A registration key is the process instance and contract; entries recorded for a
+ * different number of transmissions (the roster or chunk size changed) are ignored.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class TransmissionLedger {
+
+    private static volatile TransmissionLedger shared;
+
+    private final DurableQueue queue;
+
+    TransmissionLedger(DurableQueue queue) {
+        this.queue = queue;
+    }
+
+    public static TransmissionLedger shared() {
+        TransmissionLedger ledger = shared;
+        if (ledger == null) {
+            synchronized (TransmissionLedger.class) {
+                ledger = shared;
+                if (ledger == null) {
+                    ledger = new TransmissionLedger(DurableQueue.named("ans-transmissions"));
+                    shared = ledger;
+                }
+            }
+        }
+        return ledger;
+    }
+
+    public static String registrationKey(String processInstanceId, String contractId) {
+        return processInstanceId + "/" + contractId;
+    }
+
+    /**
+     * Transaction date of the registration's first accepted transmission, or null
+     */
+    public String transactionDate(String registrationKey) {
+        List<QueuedEntry> entries = entries(registrationKey);
+        return entries.isEmpty() ? null : (String) entries.get(0).getPayload().get("transactionDate");
+    }
+
+    /**
+     * Protocol numbers already received, by sequence number
+     */
+    public Map<Integer, String> protocols(String registrationKey, int totalTransmissions) {
+        Map<Integer, String> protocols = new TreeMap<>();
+        for (QueuedEntry entry : entries(registrationKey)) {
+            Map<String, Object> payload = entry.getPayload();
+            if (((Integer) payload.get("totalTransmissions")) == totalTransmissions) {
+                protocols.put((Integer) payload.get("sequenceNumber"), (String) payload.get("protocolNumber"));
+            }
+        }
+        return protocols;
+    }
+
+    /**
+     * Records an accepted transmission; returns once it is durable
+     */
+    public void record(String registrationKey, TissTransmission transmission, String protocolNumber)
+            throws IOException {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("sequenceNumber", transmission.getSequenceNumber());
+        payload.put("totalTransmissions", transmission.getTotalTransmissions());
+        payload.put("transactionDate", transmission.getTransactionDate());
+        payload.put("protocolNumber", protocolNumber);
+        queue.append(registrationKey, payload);
+    }
+
+    /**
+     * Forgets the registration once its protocols are stored with the process
+     */
+    public void complete(String registrationKey) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (QueuedEntry entry : entries(registrationKey)) {
+            ids.add(entry.getId());
+        }
+        queue.ack(ids);
+    }
+
+    private List<QueuedEntry> entries(String registrationKey) {
+        List<QueuedEntry> entries = new ArrayList<>();
+        for (QueuedEntry entry : queue.peek(Integer.MAX_VALUE)) {
+            if (entry.getKey().equals(registrationKey)) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,213 @@
+package com.austa.vendas.benchmarks;
+
+import com.austa.vendas.validation.TaxIdValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaxIdValidatorBenchmark - JMH throughput of CPF/CNPJ validation
+ *
+ * Purpose: Compares TaxIdValidator with the regex-and-substring style it replaced in the
+ * delegates, on a roster of formatted ids of which one in eight is invalid, and measures
+ * the bulk line API on the same roster as one ASCII buffer. Run with the JMH runner and
+ * -prof gc to confirm the validator allocates nothing per id:
+ * <pre>
+ *   java -jar benchmarks.jar TaxIdValidatorBenchmark -prof gc
+ * </pre>
+ *
+ * Scores are per id (OperationsPerInvocation = ROSTER_SIZE).
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaxIdValidatorBenchmark {
+
+    private static final int ROSTER_SIZE = 10_000;
+
+    private List<String> cpfs;
+    private List<String> cnpjs;
+    private byte[] cpfLines;
+    private boolean[] results;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        cpfs = new ArrayList<>(ROSTER_SIZE);
+        cnpjs = new ArrayList<>(ROSTER_SIZE);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < ROSTER_SIZE; i++) {
+            boolean corrupt = i % 8 == 0;
+            String cpf = formatCpf(randomCpf(random, corrupt));
+            cpfs.add(cpf);
+            cnpjs.add(formatCnpj(randomCnpj(random, corrupt)));
+            lines.append(cpf).append('\n');
+        }
+        cpfLines = lines.toString().getBytes(StandardCharsets.US_ASCII);
+        results = new boolean[ROSTER_SIZE];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROSTER_SIZE)
+    public void cpf(Blackhole blackhole) {
+        for (String cpf : cpfs) {
+            blackhole.consume(TaxIdValidator.isValidCpf(cpf));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROSTER_SIZE)
+    public void cpfRegexBaseline(Blackhole blackhole) {
+        for (String cpf : cpfs) {
+            blackhole.consume(regexCpf(cpf));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROSTER_SIZE)
+    public void cnpj(Blackhole blackhole) {
+        for (String cnpj : cnpjs) {
+            blackhole.consume(TaxIdValidator.isValidCnpj(cnpj));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROSTER_SIZE)
+    public void cnpjRegexBaseline(Blackhole blackhole) {
+        for (String cnpj : cnpjs) {
+            blackhole.consume(regexCnpj(cnpj));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROSTER_SIZE)
+    public int cpfBulkList() {
+        return TaxIdValidator.validateCpfs(cpfs, results);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROSTER_SIZE)
+    public int cpfBulkLines() {
+        return TaxIdValidator.validateCpfLines(cpfLines, 0, cpfLines.length, results);
+    }
+
+    /**
+     * Strip with a regex, then parse each digit from a substring
+     */
+    private static boolean regexCpf(String cpf) {
+        String digits = cpf.replaceAll("[^0-9]", "");
+        if (digits.length() != 11 || digits.matches("(\\d)\\1{10}")) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 9; i++) {
+            sum += Integer.parseInt(digits.substring(i, i + 1)) * (10 - i);
+        }
+        int check1 = 11 - sum % 11;
+        check1 = check1 >= 10 ? 0 : check1;
+        sum = 0;
+        for (int i = 0; i < 10; i++) {
+            sum += Integer.parseInt(digits.substring(i, i + 1)) * (11 - i);
+        }
+        int check2 = 11 - sum % 11;
+        check2 = check2 >= 10 ? 0 : check2;
+        return check1 == digits.charAt(9) - '0' && check2 == digits.charAt(10) - '0';
+    }
+
+    private static boolean regexCnpj(String cnpj) {
+        String digits = cnpj.replaceAll("[^0-9]", "");
+        if (digits.length() != 14 || digits.matches("(\\d)\\1{13}")) {
+            return false;
+        }
+        int[] weights = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += Integer.parseInt(digits.substring(i, i + 1)) * weights[i + 1];
+        }
+        int check1 = sum % 11 < 2 ? 0 : 11 - sum % 11;
+        sum = 0;
+        for (int i = 0; i < 13; i++) {
+            sum += Integer.parseInt(digits.substring(i, i + 1)) * weights[i];
+        }
+        int check2 = sum % 11 < 2 ? 0 : 11 - sum % 11;
+        return check1 == digits.charAt(12) - '0' && check2 == digits.charAt(13) - '0';
+    }
+
+    private static String randomCpf(Random random, boolean corrupt) {
+        int[] digits = new int[11];
+        int sum1 = 0;
+        int sum2 = 0;
+        for (int i = 0; i < 9; i++) {
+            digits[i] = random.nextInt(10);
+            sum1 += digits[i] * (10 - i);
+            sum2 += digits[i] * (11 - i);
+        }
+        digits[9] = 11 - sum1 % 11 >= 10 ? 0 : 11 - sum1 % 11;
+        sum2 += digits[9] * 2;
+        digits[10] = 11 - sum2 % 11 >= 10 ? 0 : 11 - sum2 % 11;
+        if (corrupt) {
+            digits[10] = (digits[10] + 1) % 10;
+        }
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digit : digits) {
+            cpf.append(digit);
+        }
+        return cpf.toString();
+    }
+
+    private static String randomCnpj(Random random, boolean corrupt) {
+        int[] weights = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+        int[] digits = new int[14];
+        for (int i = 0; i < 12; i++) {
+            digits[i] = i < 8 ? random.nextInt(10) : (i == 11 ? 1 : 0);
+        }
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += digits[i] * weights[i + 1];
+        }
+        digits[12] = sum % 11 < 2 ? 0 : 11 - sum % 11;
+        sum = 0;
+        for (int i = 0; i < 13; i++) {
+            sum += digits[i] * weights[i];
+        }
+        digits[13] = sum % 11 < 2 ? 0 : 11 - sum % 11;
+        if (corrupt) {
+            digits[13] = (digits[13] + 1) % 10;
+        }
+        StringBuilder cnpj = new StringBuilder(14);
+        for (int digit : digits) {
+            cnpj.append(digit);
+        }
+        return cnpj.toString();
+    }
+
+    private static String formatCpf(String cpf) {
+        return cpf.substring(0, 3) + "." + cpf.substring(3, 6) + "." + cpf.substring(6, 9) + "-" + cpf.substring(9);
+    }
+
+    private static String formatCnpj(String cnpj) {
+        return cnpj.substring(0, 2) + "." + cnpj.substring(2, 5) + "." + cnpj.substring(5, 8) + "/"
+            + cnpj.substring(8, 12) + "-" + cnpj.substring(12);
+    }
+}
@@ -0,0 +1,93 @@
+package com.austa.vendas.cache;
+
+import com.austa.vendas.validation.TaxIdValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * BureauCache - Results of external bureau checks keyed by normalized CNPJ and check type
+ *
+ * Purpose: Qualification reruns, job retries and the same company appearing in several
+ * opportunities all trigger the same credit, compliance, tax and enrichment lookups.
+ * This cache answers repeated lookups locally within the TTL and collapses concurrent
+ * lookups for one company into a single provider call.
+ *
+ * The CNPJ is normalized to its 14 characters, so "12.345.678/0001-90" and "12345678000190"
+ * share one entry. Lookups without a usable CNPJ bypass the cache.
+ *
+ * Caches are shared by name across delegates:
+ * <pre>
+ *   private static final BureauCache BUREAU_CACHE = BureauCache.named("financialBureau", 10000, Duration.ofHours(12));
+ *   ...
+ *   Map&lt;String, Object&gt; credit = BUREAU_CACHE.get(cnpj, "credit", () -&gt; queryCreditBureau(cnpj));
+ * </pre>
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class BureauCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BureauCache.class);
+    private static final ConcurrentMap<String, BureauCache> CACHES = new ConcurrentHashMap<>();
+
+    private final TtlCache<String, Object> cache;
+
+    private BureauCache(String name, int maxEntries, Duration ttl) {
+        this.cache = new TtlCache<>(name, maxEntries, ttl.toMillis());
+    }
+
+    /**
+     * Returns the cache with this name; the first registration fixes its size and TTL
+     */
+    public static BureauCache named(String name, int maxEntries, Duration ttl) {
+        return CACHES.computeIfAbsent(name, n -> new BureauCache(n, maxEntries, ttl));
+    }
+
+    public static List<CacheStats> allStats() {
+        List<CacheStats> stats = new ArrayList<>();
+        CACHES.values().forEach(bureauCache -> stats.add(bureauCache.stats()));
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V get(String cnpj, String checkType, Callable<V> loader) throws Exception {
+        String normalizedCnpj = normalizeCnpj(cnpj);
+        if (normalizedCnpj == null) {
+            return loader.call();
+        }
+
+        String key = normalizedCnpj + ":" + checkType;
+        LOGGER.debug("Bureau cache {} lookup: {}", cache.getName(), key);
+        return (V) cache.get(key, loader::call);
+    }
+
+    /**
+     * Drops the given check types cached for the CNPJ
+     */
+    public void invalidate(String cnpj, String... checkTypes) {
+        String normalizedCnpj = normalizeCnpj(cnpj);
+        if (normalizedCnpj != null) {
+            for (String checkType : checkTypes) {
+                cache.invalidate(normalizedCnpj + ":" + checkType);
+            }
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Canonical 14-character CNPJ, or null unless the input has that shape; see TaxIdValidator
+     */
+    static String normalizeCnpj(String cnpj) {
+        return TaxIdValidator.normalizeCnpj(cnpj);
+    }
+}
@@ -0,0 +1,64 @@
+package com.austa.vendas.cache;
+
+/**
+ * CacheStats - Point-in-time hit/miss counters of a {@link TtlCache}
+ *
+ * Coalesced requests waited for another caller's load and are counted as hits for the
+ * hit rate, since they did not reach the provider.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class CacheStats {
+
+    private final String cacheName;
+    private final long hits;
+    private final long misses;
+    private final long coalesced;
+    private final long evictions;
+    private final int size;
+
+    public CacheStats(String cacheName, long hits, long misses, long coalesced, long evictions, int size) {
+        this.cacheName = cacheName;
+        this.hits = hits;
+        this.misses = misses;
+        this.coalesced = coalesced;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses + coalesced;
+        return requests == 0 ? 0.0 : (double) (hits + coalesced) / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: hits=%d, misses=%d, coalesced=%d, evictions=%d, size=%d, hitRate=%.2f",
+            cacheName, hits, misses, coalesced, evictions, size, getHitRate());
+    }
+}
@@ -0,0 +1,417 @@
+package com.austa.vendas.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CrmRecordCache - Read-through cache of CRM company records with conditional revalidation
+ *
+ * Purpose: LeadEnrichmentDelegate reads the company record from Salesforce/HubSpot on
+ * every lead-enrichment-v3 execution, retries included. This cache keeps each record with
+ * its ETag and Last-Modified so that:
+ * - within freshMs of its last validation a record is served without any CRM request
+ * - after that it is revalidated with If-None-Match / If-Modified-Since; an unchanged
+ *   record costs a 304 and keeps its cached body
+ * - after maxAgeMs, or without validators, it is fetched again in full
+ *
+ * Keys: records are keyed by normalized CNPJ when one is given and by nomeCliente
+ * otherwise; a record loaded with both can be found and invalidated by either.
+ *
+ * Invalidation: the CRM delegates call {@link #invalidate} (or {@link #invalidateWhenWritten}
+ * for coalesced writes) when they write to a company's records. Invalidation marks the
+ * entry stale, so the next read revalidates it; an invalidation of the same company that
+ * races with a fetch leaves the fetched entry stale as well (invalidations of other
+ * companies do not). Concurrent misses for one record share one CRM request.
+ *
+ * Configuration (system properties):
+ * - austa.crm.cache.max-entries: size bound, least recently used evicted (default 10000)
+ * - austa.crm.cache.fresh-ms: served without revalidation (default 300000)
+ * - austa.crm.cache.max-age-ms: refetched in full after (default 86400000)
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class CrmRecordCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CrmRecordCache.class);
+
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    public static final long DEFAULT_FRESH_MS = 300000;
+    public static final long DEFAULT_MAX_AGE_MS = 86400000;
+
+    private static volatile CrmRecordCache shared;
+
+    private final String name;
+    private final int maxEntries;
+    private final long freshMs;
+    private final long maxAgeMs;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, String> aliases = new HashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Map<String, Object>>> loading = new ConcurrentHashMap<>();
+    private final Map<String, List<LoadWatch>> watchedLoads = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    public CrmRecordCache(String name, int maxEntries, long freshMs, long maxAgeMs) {
+        if (maxEntries < 1 || freshMs < 0 || maxAgeMs < freshMs) {
+            throw new IllegalArgumentException("Invalid CRM cache bounds");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.freshMs = freshMs;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    /**
+     * Process-wide cache of CRM company records configured from system properties
+     */
+    public static CrmRecordCache shared() {
+        CrmRecordCache cache = shared;
+        if (cache == null) {
+            synchronized (CrmRecordCache.class) {
+                cache = shared;
+                if (cache == null) {
+                    cache = new CrmRecordCache("crmCompany",
+                        Integer.getInteger("austa.crm.cache.max-entries", DEFAULT_MAX_ENTRIES),
+                        Long.getLong("austa.crm.cache.fresh-ms", DEFAULT_FRESH_MS),
+                        Long.getLong("austa.crm.cache.max-age-ms", DEFAULT_MAX_AGE_MS));
+                    shared = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the company record, fetching or revalidating it through the fetcher as needed.
+     * The record is read-only; an unknown company yields an empty map, which is not cached.
+     */
+    public Map<String, Object> get(String cnpj, String nomeCliente, Fetcher fetcher) throws Exception {
+        String cnpjKey = cnpjKey(cnpj);
+        String nameKey = nameKey(nomeCliente);
+        String key = cnpjKey != null ? cnpjKey : nameKey;
+        if (key == null) {
+            return fetcher.fetch(null, 0).record;
+        }
+
+        Entry cached;
+        synchronized (entries) {
+            cached = lookup(key);
+            if (cached != null && cached.isFresh(System.currentTimeMillis(), freshMs)) {
+                hits.increment();
+                return cached.record;
+            }
+        }
+
+        CompletableFuture<Map<String, Object>> ownLoad = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> inFlight = loading.putIfAbsent(key, ownLoad);
+        if (inFlight != null) {
+            coalesced.increment();
+            return awaitLoad(inFlight);
+        }
+
+        try {
+            Map<String, Object> record = load(key, cnpjKey, nameKey, cached, fetcher);
+            ownLoad.complete(record);
+            return record;
+        } catch (Exception | Error e) {
+            ownLoad.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, ownLoad);
+        }
+    }
+
+    /**
+     * Marks the company's cached record stale so the next read revalidates it
+     */
+    public void invalidate(String cnpj, String nomeCliente) {
+        synchronized (entries) {
+            for (String key : new String[] {cnpjKey(cnpj), nameKey(nomeCliente)}) {
+                if (key == null) {
+                    continue;
+                }
+                Entry entry = lookup(key);
+                if (entry != null) {
+                    entry.stale = true;
+                    LOGGER.debug("CRM cache {}: {} invalidated", name, key);
+                }
+                for (LoadWatch watch : watchedLoads.getOrDefault(key, List.of())) {
+                    watch.invalidated = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Invalidates now and again once the (coalesced) write completes, so a read between
+     * submission and write cannot leave the pre-write record fresh
+     */
+    public void invalidateWhenWritten(CompletableFuture<?> write, String cnpj, String nomeCliente) {
+        invalidate(cnpj, nomeCliente);
+        write.whenComplete((result, error) -> invalidate(cnpj, nomeCliente));
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(name, hits.sum(), misses.sum(), coalesced.sum(), evictions.sum(), entries.size());
+        }
+    }
+
+    /**
+     * Revalidations answered with 304 Not Modified
+     */
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    private Map<String, Object> load(String key, String cnpjKey, String nameKey, Entry cached, Fetcher fetcher)
+            throws Exception {
+        long now = System.currentTimeMillis();
+        boolean conditional = cached != null && now - cached.loadedAt < maxAgeMs
+            && (cached.etag != null || cached.lastModified > 0);
+
+        Set<String> companyKeys = new LinkedHashSet<>();
+        companyKeys.add(key);
+        if (nameKey != null) {
+            companyKeys.add(nameKey);
+        }
+        if (cached != null) {
+            companyKeys.addAll(cached.aliases);
+        }
+        LoadWatch watch = watch(companyKeys);
+        try {
+            Response response = conditional
+                ? fetcher.fetch(cached.etag, cached.lastModified)
+                : fetcher.fetch(null, 0);
+            return store(key, cnpjKey, nameKey, cached, conditional, response, now, watch);
+        } finally {
+            unwatch(watch);
+        }
+    }
+
+    /**
+     * Installs a fetched response; stale if the company was invalidated during the fetch
+     */
+    private Map<String, Object> store(String key, String cnpjKey, String nameKey, Entry cached,
+                                      boolean conditional, Response response, long now, LoadWatch watch) {
+        synchronized (entries) {
+            boolean raced = watch.invalidated;
+            if (response.status == Response.NOT_MODIFIED && conditional) {
+                notModified.increment();
+                cached.validatedAt = now;
+                cached.stale = raced;
+                return cached.record;
+            }
+
+            misses.increment();
+            remove(key);
+            if (response.status == Response.NOT_FOUND || response.record.isEmpty()) {
+                return Collections.emptyMap();
+            }
+
+            Entry entry = new Entry(Collections.unmodifiableMap(new HashMap<>(response.record)),
+                response.etag, response.lastModified, now);
+            entry.stale = raced;
+            entry.aliases = nameKey != null && cnpjKey != null ? List.of(nameKey) : List.of();
+            entries.put(key, entry);
+            for (String alias : entry.aliases) {
+                remove(alias);
+                aliases.put(alias, key);
+            }
+            evictOverflow();
+            return entry.record;
+        }
+    }
+
+    /**
+     * Registers a load so invalidations of any of the company's keys mark it raced
+     */
+    private LoadWatch watch(Set<String> keys) {
+        LoadWatch watch = new LoadWatch(keys);
+        synchronized (entries) {
+            for (String key : keys) {
+                watchedLoads.computeIfAbsent(key, k -> new ArrayList<>(1)).add(watch);
+            }
+        }
+        return watch;
+    }
+
+    private void unwatch(LoadWatch watch) {
+        synchronized (entries) {
+            for (String key : watch.keys) {
+                List<LoadWatch> watches = watchedLoads.get(key);
+                if (watches != null && watches.remove(watch) && watches.isEmpty()) {
+                    watchedLoads.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Must be called holding the entries lock
+     */
+    private Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            String target = aliases.get(key);
+            entry = target != null ? entries.get(target) : null;
+        }
+        return entry;
+    }
+
+    /**
+     * Must be called holding the entries lock
+     */
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            removed.aliases.forEach(aliases::remove);
+        }
+    }
+
+    /**
+     * Must be called holding the entries lock
+     */
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && entries.size() > maxEntries) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            eldest.aliases.forEach(aliases::remove);
+            evictions.increment();
+        }
+    }
+
+    private static String cnpjKey(String cnpj) {
+        String normalized = BureauCache.normalizeCnpj(cnpj);
+        return normalized != null ? "cnpj:" + normalized : null;
+    }
+
+    private static String nameKey(String nomeCliente) {
+        if (nomeCliente == null || nomeCliente.isBlank()) {
+            return null;
+        }
+        return "name:" + nomeCliente.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Object> awaitLoad(CompletableFuture<Map<String, Object>> inFlight) throws Exception {
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads one company record from the CRM; etag null and lastModified 0 mean an
+     * unconditional read, otherwise they are sent as If-None-Match / If-Modified-Since
+     */
+    @FunctionalInterface
+    public interface Fetcher {
+        Response fetch(String etag, long lastModified) throws Exception;
+    }
+
+    /**
+     * Outcome of a CRM record read
+     */
+    public static final class Response {
+
+        static final int OK = 200;
+        static final int NOT_MODIFIED = 304;
+        static final int NOT_FOUND = 404;
+
+        private final int status;
+        private final Map<String, Object> record;
+        private final String etag;
+        private final long lastModified;
+
+        private Response(int status, Map<String, Object> record, String etag, long lastModified) {
+            this.status = status;
+            this.record = record;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * 200 with the record and its validators (etag may be null, lastModified 0 if unknown)
+         */
+        public static Response ok(Map<String, Object> record, String etag, long lastModified) {
+            return new Response(OK, record, etag, lastModified);
+        }
+
+        /**
+         * 304: the cached record is still current
+         */
+        public static Response notModified() {
+            return new Response(NOT_MODIFIED, Collections.emptyMap(), null, 0);
+        }
+
+        public static Response notFound() {
+            return new Response(NOT_FOUND, Collections.emptyMap(), null, 0);
+        }
+    }
+
+    /**
+     * A fetch in progress and whether its company was invalidated meanwhile; guarded by
+     * the entries lock
+     */
+    private static final class LoadWatch {
+        final Set<String> keys;
+        boolean invalidated;
+
+        LoadWatch(Set<String> keys) {
+            this.keys = keys;
+        }
+    }
+
+    private static final class Entry {
+        final Map<String, Object> record;
+        final String etag;
+        final long lastModified;
+        final long loadedAt;
+        long validatedAt;
+        boolean stale;
+        List<String> aliases = List.of();
+
+        Entry(Map<String, Object> record, String etag, long lastModified, long loadedAt) {
+            this.record = record;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.loadedAt = loadedAt;
+            this.validatedAt = loadedAt;
+        }
+
+        boolean isFresh(long now, long freshMs) {
+            return !stale && now - validatedAt < freshMs;
+        }
+    }
+}
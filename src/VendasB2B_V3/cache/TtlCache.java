@@ -0,0 +1,175 @@
+package com.austa.vendas.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TtlCache - Size-bounded, time-to-live cache with request coalescing
+ *
+ * - Entries expire after a fixed TTL from the moment they were loaded
+ * - When full, the least recently used entry is evicted
+ * - Concurrent misses for the same key share a single loader call; the other callers
+ *   wait for its result (or its failure) instead of calling the provider again
+ * - Failures and null results are not cached
+ *
+ * @param <K> key type
+ * @param <V> value type
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public class TtlCache<K, V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlMs;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final ConcurrentMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TtlCache(String name, int maxEntries, long ttlMs) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached value or loads it, sharing the load with concurrent callers for the same key
+     */
+    public V get(K key, Callable<V> loader) throws Exception {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<V> ownLoad = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, ownLoad);
+        if (inFlight != null) {
+            coalesced.increment();
+            return awaitLoad(inFlight);
+        }
+
+        misses.increment();
+        try {
+            V value = loader.call();
+            if (value != null) {
+                put(key, value);
+            }
+            ownLoad.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            ownLoad.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, ownLoad);
+        }
+    }
+
+    public V getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMs));
+            evictOverflow();
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(name, hits.sum(), misses.sum(), coalesced.sum(), evictions.sum(), size());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Drops expired entries first, then least recently used ones until the size bound holds
+     */
+    private void evictOverflow() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && entries.size() > maxEntries) {
+            Map.Entry<K, Entry<V>> eldest = iterator.next();
+            iterator.remove();
+            if (!eldest.getValue().isExpired()) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private V awaitLoad(CompletableFuture<V> inFlight) throws Exception {
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
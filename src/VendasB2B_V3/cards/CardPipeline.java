@@ -0,0 +1,208 @@
+package com.austa.vendas.cards;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CardPipeline - Bounded parallel render-and-upload pipeline for card rosters
+ *
+ * Purpose: HealthCardGenerationDelegate used to render every card one after the other and
+ * keep each PDF in a list until storage started, so heap grew with the roster and only one
+ * core did any work. The pipeline overlaps the two kinds of work and uploads each card as
+ * soon as it is rendered:
+ *
+ * - Render stage (card data, QR code, PDF): CPU-bound, runs on a shared pool with one
+ *   platform thread per core, so throughput scales with cores and several process
+ *   instances share them fairly
+ * - Upload stage: I/O-bound, runs on virtual threads with a shared cap on concurrent
+ *   uploads, so the document store sees a bounded number of connections
+ * - Backpressure: a run admits at most maxInFlight cards between "render started" and
+ *   "upload finished"; the submitting thread blocks until a slot frees up, so at most that
+ *   many rendered cards exist at once whatever the roster size
+ * - Once uploaded, a card's bytes are no longer referenced; only the URLs are kept, in
+ *   roster order
+ *
+ * Failure stops admission of new cards, skips the uploads still queued and, once the
+ * cards in flight have drained, fails the run with the first error and its roster index.
+ * Any Throwable counts, Errors included, and every admitted card returns its slot however
+ * it ends, so a run cannot wait forever on a card that died.
+ *
+ * Configuration (system properties):
+ * - austa.cards.render-threads: render pool size (default: available processors)
+ * - austa.cards.max-concurrent-uploads: uploads in progress across all runs (default 16)
+ * - austa.cards.max-in-flight: cards admitted per run (default 2 x render threads + uploads)
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class CardPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CardPipeline.class);
+
+    static final int DEFAULT_MAX_CONCURRENT_UPLOADS = 16;
+
+    private static volatile CardPipeline shared;
+
+    private final ExecutorService renderPool;
+    private final ExecutorService uploadExecutor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("card-upload-", 0).factory());
+    private final Semaphore uploadSlots;
+    private final int maxInFlight;
+
+    public CardPipeline(int renderThreads, int maxConcurrentUploads, int maxInFlight) {
+        if (renderThreads < 1 || maxConcurrentUploads < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Card pipeline sizes must be positive: render=" + renderThreads
+                + ", uploads=" + maxConcurrentUploads + ", inFlight=" + maxInFlight);
+        }
+        this.renderPool = Executors.newFixedThreadPool(renderThreads,
+            Thread.ofPlatform().name("card-render-", 0).daemon().factory());
+        this.uploadSlots = new Semaphore(maxConcurrentUploads);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Process-wide pipeline configured from system properties
+     */
+    public static CardPipeline shared() {
+        CardPipeline pipeline = shared;
+        if (pipeline == null) {
+            synchronized (CardPipeline.class) {
+                pipeline = shared;
+                if (pipeline == null) {
+                    int renderThreads = Integer.getInteger("austa.cards.render-threads",
+                        Runtime.getRuntime().availableProcessors());
+                    int uploads = Integer.getInteger("austa.cards.max-concurrent-uploads",
+                        DEFAULT_MAX_CONCURRENT_UPLOADS);
+                    pipeline = new CardPipeline(renderThreads, uploads,
+                        Integer.getInteger("austa.cards.max-in-flight", 2 * renderThreads + uploads));
+                    shared = pipeline;
+                }
+            }
+        }
+        return pipeline;
+    }
+
+    /**
+     * Renders and uploads a card per input; returns the uploaded URLs in input order
+     */
+    public <I, C> List<String> run(List<I> inputs, Renderer<I, C> renderer, Uploader<C> uploader)
+            throws CardPipelineException, InterruptedException {
+        long start = System.nanoTime();
+        Run<I, C> run = new Run<>(inputs.size(), renderer, uploader);
+        try {
+            for (int i = 0; i < inputs.size() && run.failure.get() == null; i++) {
+                run.inFlight.acquire();
+                I input = inputs.get(i);
+                int index = i;
+                renderPool.execute(() -> render(run, index, input));
+            }
+            run.inFlight.acquire(maxInFlight);
+            run.inFlight.release(maxInFlight);
+        } catch (InterruptedException e) {
+            // Cards still in flight see the failure and skip their remaining work
+            run.fail(new CardPipelineException(-1, "Card pipeline interrupted", e));
+            throw e;
+        }
+
+        CardPipelineException failure = run.failure.get();
+        if (failure != null) {
+            throw failure;
+        }
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        LOGGER.info("Card pipeline: {} cards in {} ms ({} cards/s)",
+            inputs.size(), elapsedMs, inputs.size() * 1000L / elapsedMs);
+        return Collections.unmodifiableList(Arrays.asList(run.urls));
+    }
+
+    private <I, C> void render(Run<I, C> run, int index, I input) {
+        boolean handedOff = false;
+        try {
+            if (run.failure.get() == null) {
+                C card = run.renderer.render(input);
+                uploadExecutor.execute(() -> upload(run, index, card));
+                handedOff = true;
+            }
+        } catch (Throwable e) {
+            run.fail(new CardPipelineException(index, "Card " + index + " not rendered: " + e, e));
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            if (!handedOff) {
+                run.inFlight.release();
+            }
+        }
+    }
+
+    private <I, C> void upload(Run<I, C> run, int index, C card) {
+        try {
+            if (run.failure.get() != null) {
+                return;
+            }
+            uploadSlots.acquire();
+            try {
+                run.urls[index] = run.uploader.upload(card);
+            } finally {
+                uploadSlots.release();
+            }
+        } catch (Throwable e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            run.fail(new CardPipelineException(index, "Card " + index + " not uploaded: " + e, e));
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            run.inFlight.release();
+        }
+    }
+
+    /**
+     * Builds one card from its input; called concurrently on the render pool
+     */
+    @FunctionalInterface
+    public interface Renderer<I, C> {
+        C render(I input) throws Exception;
+    }
+
+    /**
+     * Stores one card and returns its URL; called concurrently on virtual threads
+     */
+    @FunctionalInterface
+    public interface Uploader<C> {
+        String upload(C card) throws Exception;
+    }
+
+    /**
+     * State of one run; the in-flight semaphore also orders each URL write before the
+     * submitting thread reads it
+     */
+    private final class Run<I, C> {
+        private final String[] urls;
+        private final Renderer<I, C> renderer;
+        private final Uploader<C> uploader;
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final AtomicReference<CardPipelineException> failure = new AtomicReference<>();
+
+        Run(int size, Renderer<I, C> renderer, Uploader<C> uploader) {
+            this.urls = new String[size];
+            this.renderer = renderer;
+            this.uploader = uploader;
+        }
+
+        void fail(CardPipelineException e) {
+            if (failure.compareAndSet(null, e)) {
+                LOGGER.warn("Card pipeline stopping: {}", e.getMessage());
+            }
+        }
+    }
+}
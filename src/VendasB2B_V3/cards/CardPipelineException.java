@@ -0,0 +1,26 @@
+package com.austa.vendas.cards;
+
+/**
+ * CardPipelineException - A card of a {@link CardPipeline} run failed to render or upload
+ *
+ * Carries the first failure of the run; the cause is the renderer's or uploader's exception.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public class CardPipelineException extends Exception {
+
+    private final int index;
+
+    public CardPipelineException(int index, String message, Throwable cause) {
+        super(message, cause);
+        this.index = index;
+    }
+
+    /**
+     * Position of the failed card in the run's input list, -1 if the run itself was interrupted
+     */
+    public int getIndex() {
+        return index;
+    }
+}
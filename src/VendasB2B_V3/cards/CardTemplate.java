@@ -0,0 +1,199 @@
+package com.austa.vendas.cards;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CardTemplate - A template compiled once and rendered per card
+ *
+ * Purpose: Card rendering used to (plan to) load and lay out the whole template for every
+ * beneficiary. Compilation does that work once per template version:
+ *
+ * - Static layers (background, logos) and embedded fonts are rendered into a single byte
+ *   block that every card copies as is
+ * - Each field's drawing operators up to its value (font, size, position) are encoded
+ *   ahead of time, so per card only the values themselves are escaped and written
+ *
+ * Instances are immutable and shared by all threads; obtain them from {@link TemplateCache}.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class CardTemplate {
+
+    private static final byte[] TEXT_SUFFIX = ") Tj ET\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QR_SUFFIX = ") Do Q\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRAILER = "EMC\n%%EOF\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final String id;
+    private final String version;
+    private final byte[] staticLayer;
+    private final String[] fieldNames;
+    private final int[] maxLengths;
+    private final byte[][] fieldPrefixes;
+    private final byte[][] fieldSuffixes;
+    private final int fixedBytes;
+
+    private CardTemplate(String id, String version, byte[] staticLayer, List<Field> fields, byte[][] fieldPrefixes) {
+        this.id = id;
+        this.version = version;
+        this.staticLayer = staticLayer;
+        this.fieldNames = new String[fields.size()];
+        this.maxLengths = new int[fields.size()];
+        this.fieldPrefixes = fieldPrefixes;
+        this.fieldSuffixes = new byte[fields.size()][];
+        int fixed = staticLayer.length + TRAILER.length;
+        for (int i = 0; i < fields.size(); i++) {
+            fieldNames[i] = fields.get(i).name();
+            maxLengths[i] = fields.get(i).maxLength();
+            fieldSuffixes[i] = fields.get(i).type() == FieldType.QR_CODE ? QR_SUFFIX : TEXT_SUFFIX;
+            fixed += fieldPrefixes[i].length + fieldSuffixes[i].length;
+        }
+        this.fixedBytes = fixed;
+    }
+
+    /**
+     * Renders the static layers and fonts and pre-encodes the field operators
+     */
+    static CardTemplate compile(TemplateDefinition definition) {
+        // TODO: Integrate with PDF generation library (iText, Apache PDFBox, etc.)
+        // - Load layer artwork and fonts from the template store
+        // - Rasterize/flatten the static layers into one form XObject
+        // - Subset and embed the fonts
+        StringBuilder layer = new StringBuilder(1024)
+            .append("%PDF-1.7\n")
+            .append("% template ").append(definition.id()).append(' ').append(definition.version()).append('\n')
+            .append("<< /MediaBox [0 0 ").append(definition.widthPt()).append(' ')
+            .append(definition.heightPt()).append("] >>\n");
+        for (int i = 0; i < definition.fonts().size(); i++) {
+            layer.append("/F").append(i + 1).append(" << /Type /Font /BaseFont /")
+                .append(definition.fonts().get(i)).append(" >>\n");
+        }
+        for (int i = 0; i < definition.staticLayers().size(); i++) {
+            layer.append("q /Im").append(i + 1).append(" Do Q % ")
+                .append(definition.staticLayers().get(i)).append('\n');
+        }
+        layer.append("/Fields BMC\n");
+
+        List<Field> fields = definition.fields();
+        byte[][] prefixes = new byte[fields.size()][];
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            String prefix;
+            if (field.type() == FieldType.QR_CODE) {
+                prefix = "q " + field.size() + " 0 0 " + field.size() + " " + field.x() + " " + field.y()
+                    + " cm /QR (";
+            } else {
+                int font = definition.fonts().indexOf(field.font()) + 1;
+                if (font == 0) {
+                    throw new IllegalArgumentException("Template " + definition.id() + " field " + field.name()
+                        + " uses undeclared font " + field.font());
+                }
+                prefix = "BT /F" + font + " " + field.size() + " Tf " + field.x() + " " + field.y() + " Td (";
+            }
+            prefixes[i] = prefix.getBytes(StandardCharsets.US_ASCII);
+        }
+        return new CardTemplate(definition.id(), definition.version(),
+            layer.toString().getBytes(StandardCharsets.US_ASCII), fields, prefixes);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Renders one card; missing values render as empty fields
+     */
+    public byte[] render(Map<String, ?> values) {
+        String[] texts = new String[fieldNames.length];
+        int capacity = fixedBytes;
+        for (int i = 0; i < fieldNames.length; i++) {
+            Object value = values.get(fieldNames[i]);
+            if (value != null) {
+                texts[i] = value.toString();
+                // At most 3 UTF-8 bytes per char; an escaped char takes 2
+                capacity += 3 * (maxLengths[i] > 0 ? Math.min(maxLengths[i], texts[i].length()) : texts[i].length());
+            }
+        }
+        byte[] card = new byte[capacity];
+        int position = put(staticLayer, card, 0);
+        for (int i = 0; i < fieldNames.length; i++) {
+            position = put(fieldPrefixes[i], card, position);
+            if (texts[i] != null) {
+                position = putEscaped(texts[i], maxLengths[i], card, position);
+            }
+            position = put(fieldSuffixes[i], card, position);
+        }
+        position = put(TRAILER, card, position);
+        return position == card.length ? card : Arrays.copyOf(card, position);
+    }
+
+    /**
+     * Renders one card into the stream, e.g. straight into an upload body
+     */
+    public void render(Map<String, ?> values, OutputStream out) throws IOException {
+        out.write(render(values));
+    }
+
+    private static int put(byte[] bytes, byte[] card, int position) {
+        System.arraycopy(bytes, 0, card, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    /**
+     * Writes the value as a PDF literal string body, cut to maxLength chars (0 = no limit)
+     */
+    private static int putEscaped(String value, int maxLength, byte[] card, int position) {
+        int length = maxLength > 0 ? Math.min(maxLength, value.length()) : value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                card[position++] = '\\';
+                card[position++] = (byte) c;
+            } else if (c < 0x80) {
+                card[position++] = (byte) c;
+            } else if (c < 0x800) {
+                card[position++] = (byte) (0xC0 | (c >> 6));
+                card[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                card[position++] = (byte) (0xF0 | (codePoint >> 18));
+                card[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                card[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                card[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                card[position++] = (byte) (0xE0 | (c >> 12));
+                card[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                card[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+
+    public enum FieldType {
+        TEXT,
+        QR_CODE
+    }
+
+    /**
+     * A variable slot: position and size in points, font for text, maxLength in chars (0 = no limit)
+     */
+    public record Field(String name, FieldType type, String font, int x, int y, int size, int maxLength) {
+
+        public static Field text(String name, String font, int x, int y, int size, int maxLength) {
+            return new Field(name, FieldType.TEXT, font, x, y, size, maxLength);
+        }
+
+        public static Field qrCode(String name, int x, int y, int size) {
+            return new Field(name, FieldType.QR_CODE, null, x, y, size, 0);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.austa.vendas.cards;
+
+import com.austa.vendas.cache.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TemplateCache - Versioned in-memory cache of compiled card and document templates
+ *
+ * Purpose: Shares compiled templates between HealthCardGenerationDelegate (PDF cards of a
+ * whole roster) and DigitalCardDelegate (single wallet cards), so a template is loaded and
+ * compiled once per version instead of once per card.
+ *
+ * - Definitions are published by id; the cache holds one compiled template per id
+ * - A lookup returns the compiled template if its version matches the published one, and
+ *   otherwise compiles the published version and replaces the old one; concurrent lookups
+ *   during a compile wait for it instead of compiling again
+ * - Compiled templates are immutable, so a card that started with one version finishes
+ *   with it even if a new version is published meanwhile
+ *
+ * The built-in health-card and digital-card definitions are published when the shared
+ * cache is created.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class TemplateCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateCache.class);
+
+    public static final String HEALTH_CARD = "health-card";
+    public static final String DIGITAL_CARD = "digital-card";
+
+    /** CR80 card size in points (85.60 x 53.98 mm) */
+    private static final int CR80_WIDTH_PT = 243;
+    private static final int CR80_HEIGHT_PT = 153;
+
+    private static volatile TemplateCache shared;
+
+    private final ConcurrentMap<String, TemplateDefinition> definitions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CardTemplate> compiled = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder compiles = new LongAdder();
+    private final LongAdder replaced = new LongAdder();
+
+    /**
+     * Process-wide cache with the built-in templates published
+     */
+    public static TemplateCache shared() {
+        TemplateCache cache = shared;
+        if (cache == null) {
+            synchronized (TemplateCache.class) {
+                cache = shared;
+                if (cache == null) {
+                    cache = new TemplateCache();
+                    cache.publish(healthCardDefinition());
+                    cache.publish(digitalCardDefinition());
+                    shared = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Makes the definition the current version of its id; it is compiled on next lookup
+     */
+    public void publish(TemplateDefinition definition) {
+        TemplateDefinition previous = definitions.put(definition.id(), definition);
+        LOGGER.info("Card template {} published: version {} (was {})", definition.id(), definition.version(),
+            previous != null ? previous.version() : "none");
+    }
+
+    /**
+     * Compiled template for the current version of the id
+     */
+    public CardTemplate get(String templateId) {
+        TemplateDefinition definition = definitions.get(templateId);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unknown card template: " + templateId);
+        }
+        CardTemplate template = compiled.get(templateId);
+        if (template != null && template.getVersion().equals(definition.version())) {
+            hits.increment();
+            return template;
+        }
+        return compiled.compute(templateId, (id, existing) -> {
+            TemplateDefinition current = definitions.get(id);
+            if (existing != null && existing.getVersion().equals(current.version())) {
+                hits.increment();
+                return existing;
+            }
+            long start = System.nanoTime();
+            CardTemplate compiledTemplate = CardTemplate.compile(current);
+            compiles.increment();
+            if (existing != null) {
+                replaced.increment();
+            }
+            LOGGER.info("Card template {} version {} compiled in {} us", id, current.version(),
+                (System.nanoTime() - start) / 1000);
+            return compiledTemplate;
+        });
+    }
+
+    /**
+     * Misses are compilations; evictions are compiled versions replaced by a newer one
+     */
+    public CacheStats stats() {
+        return new CacheStats("cardTemplates", hits.sum(), compiles.sum(), 0, replaced.sum(), compiled.size());
+    }
+
+    private static TemplateDefinition healthCardDefinition() {
+        return new TemplateDefinition(HEALTH_CARD, "1", CR80_WIDTH_PT, CR80_HEIGHT_PT,
+            List.of("health-card/background.png", "health-card/austa-logo.png", "health-card/ans-seal.png"),
+            List.of("Helvetica", "Helvetica-Bold"),
+            List.of(
+                CardTemplate.Field.text("fullName", "Helvetica-Bold", 12, 112, 9, 40),
+                CardTemplate.Field.text("cardNumber", "Helvetica-Bold", 12, 96, 10, 20),
+                CardTemplate.Field.text("cpf", "Helvetica", 12, 84, 7, 14),
+                CardTemplate.Field.text("birthDate", "Helvetica", 90, 84, 7, 10),
+                CardTemplate.Field.text("planName", "Helvetica", 12, 72, 7, 40),
+                CardTemplate.Field.text("planCode", "Helvetica", 12, 62, 6, 20),
+                CardTemplate.Field.text("ansOperatorCode", "Helvetica", 12, 20, 6, 10),
+                CardTemplate.Field.text("validUntil", "Helvetica", 90, 20, 6, 10),
+                CardTemplate.Field.text("emergencyPhone", "Helvetica", 12, 10, 6, 20),
+                CardTemplate.Field.qrCode("qrCode", 175, 12, 56)));
+    }
+
+    private static TemplateDefinition digitalCardDefinition() {
+        return new TemplateDefinition(DIGITAL_CARD, "1", CR80_WIDTH_PT, CR80_HEIGHT_PT,
+            List.of("digital-card/background.png", "digital-card/austa-logo.png"),
+            List.of("Helvetica", "Helvetica-Bold"),
+            List.of(
+                CardTemplate.Field.text("beneficiaryName", "Helvetica-Bold", 12, 112, 9, 40),
+                CardTemplate.Field.text("cardNumber", "Helvetica-Bold", 12, 96, 10, 20),
+                CardTemplate.Field.text("planName", "Helvetica", 12, 72, 7, 40),
+                CardTemplate.Field.text("validTo", "Helvetica", 12, 20, 6, 10),
+                CardTemplate.Field.text("issuer", "Helvetica", 90, 20, 6, 20),
+                CardTemplate.Field.text("ansNumber", "Helvetica", 12, 10, 6, 10),
+                CardTemplate.Field.qrCode("qrCodeData", 175, 12, 56)));
+    }
+}
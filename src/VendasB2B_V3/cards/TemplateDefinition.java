@@ -0,0 +1,33 @@
+package com.austa.vendas.cards;
+
+import java.util.List;
+
+/**
+ * TemplateDefinition - Source form of a card or document template, before compilation
+ *
+ * - staticLayers: background, logos and other artwork identical on every card, drawn in order
+ * - fonts: fonts embedded once in the compiled template
+ * - fields: the variable slots laid out per card
+ *
+ * Publishing a definition with a new version to the {@link TemplateCache} makes the next
+ * lookup compile it; cards already rendering keep the version they started with.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public record TemplateDefinition(String id, String version, int widthPt, int heightPt,
+                                 List<String> staticLayers, List<String> fonts,
+                                 List<CardTemplate.Field> fields) {
+
+    public TemplateDefinition {
+        if (id == null || id.isBlank() || version == null || version.isBlank()) {
+            throw new IllegalArgumentException("Template id and version are required");
+        }
+        if (widthPt <= 0 || heightPt <= 0) {
+            throw new IllegalArgumentException("Template " + id + " has no page size");
+        }
+        staticLayers = List.copyOf(staticLayers);
+        fonts = List.copyOf(fonts);
+        fields = List.copyOf(fields);
+    }
+}
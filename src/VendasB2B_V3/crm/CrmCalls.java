@@ -0,0 +1,37 @@
+package com.austa.vendas.crm;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * CrmCalls - Waiting on CRM write futures from delegate code
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class CrmCalls {
+
+    private CrmCalls() {
+    }
+
+    /**
+     * Waits for the result, rethrowing the write's own exception (so circuit breakers see
+     * e.g. RateLimitedException rather than ExecutionException); cancels on interrupt, so
+     * the future must be the caller's own (the coalescer and batch client hand out one per
+     * submitter), never one shared with other waiters
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.austa.vendas.crm;
+
+import com.austa.vendas.resilience.ApiPriority;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * CrmRecordWriter - Sends one field update for one CRM record
+ *
+ * The priority is the rate-limit lane the write waits in. Writers whose requests complete
+ * elsewhere (e.g. in a shared batch) override {@link #writeAsync} so the caller does not
+ * hold a thread while the write is pending.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+@FunctionalInterface
+public interface CrmRecordWriter {
+
+    void write(String recordId, Map<String, Object> fields, ApiPriority priority) throws Exception;
+
+    /**
+     * Starts the write; completes exceptionally with the write's own exception. By default
+     * the write runs on the calling thread.
+     */
+    default CompletableFuture<Void> writeAsync(String recordId, Map<String, Object> fields, ApiPriority priority) {
+        try {
+            write(recordId, fields, priority);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
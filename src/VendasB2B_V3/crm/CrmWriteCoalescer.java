@@ -0,0 +1,364 @@
+package com.austa.vendas.crm;
+
+import com.austa.vendas.queue.DurableQueue;
+import com.austa.vendas.queue.QueuedEntry;
+import com.austa.vendas.resilience.ApiPriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CrmWriteCoalescer - Merges field updates per CRM record into one write
+ *
+ * Purpose: CRMUpdateDelegate, CRMStageUpdateDelegate, SalesforceSyncDelegate and
+ * HubSpotUpdateDelegate each PATCH the same opportunity or deal, often a few seconds apart
+ * within one subprocess. The coalescer collects the field updates for a record during a
+ * short window and sends them as one write, so the CRM sees one API call instead of three
+ * or four.
+ *
+ * Merge rules:
+ * - Updates are keyed by record id (opportunityId, dealId); within the window later
+ *   values win per field
+ * - A record is written windowMs after its first pending update; the window is not
+ *   extended by later updates, so no update waits longer than windowMs
+ * - A CRITICAL update (stage change) merges with what is pending and is written at once
+ * - The merged write carries the highest {@link ApiPriority} of its updates into the
+ *   vendor's rate-limit lane
+ * - Writes to the same record never overlap; an update arriving while the record is being
+ *   written waits for that write and goes out in the next one, at once if its window has
+ *   already run out
+ * - The scheduler thread only keeps time: due writes are sent on virtual threads, so a
+ *   slow or rate-limited record does not hold back the writes of other records; writers
+ *   with an asynchronous path (HubSpot batches) release the thread while the write is pending
+ *
+ * Durability: every update is appended to the crm-writes-{name} durable queue before
+ * submit returns and acknowledged once written, so pending updates survive a restart and
+ * are replayed into the window on first use. A failed write is retried with backoff,
+ * merged under newer updates; after MAX_ATTEMPTS the merged fields are moved to the
+ * crm-writes-{name}-dead queue. Submitters are only told about the outcome once the
+ * update is delivered or dead-lettered, never about an attempt that will be retried.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class CrmWriteCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CrmWriteCoalescer.class);
+    private static final ConcurrentMap<String, CrmWriteCoalescer> COALESCERS = new ConcurrentHashMap<>();
+
+    private static final long DEFAULT_WINDOW_MS = 5000;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long MAX_RETRY_DELAY_MS = 300000;
+    private static final int MAX_REPLAYED_ENTRIES = 100000;
+
+    private final String name;
+    private final long windowMs;
+    private final CrmRecordWriter writer;
+    private final DurableQueue journal;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService sendExecutor;
+    private final Map<String, PendingWrite> pending = new HashMap<>();
+    private final Map<String, PendingWrite> inFlight = new HashMap<>();
+    private final AtomicLong updatesSubmitted = new AtomicLong();
+    private final AtomicLong writesSent = new AtomicLong();
+
+    private CrmWriteCoalescer(String name, long windowMs, CrmRecordWriter writer) {
+        if (windowMs < 0) {
+            throw new IllegalArgumentException("Coalescing window must not be negative: " + windowMs);
+        }
+        this.name = name;
+        this.windowMs = windowMs;
+        this.writer = writer;
+        this.journal = DurableQueue.named("crm-writes-" + name);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crm-write-coalescer-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sendExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("crm-write-" + name + "-", 0).factory());
+        replay();
+    }
+
+    /**
+     * Returns the coalescer with this name, created with the given window and writer on first use
+     */
+    public static CrmWriteCoalescer named(String name, long windowMs, CrmRecordWriter writer) {
+        return COALESCERS.computeIfAbsent(name, n -> new CrmWriteCoalescer(n, windowMs, writer));
+    }
+
+    /**
+     * Salesforce Opportunity writes, shared by the Salesforce delegates and keyed by opportunityId
+     */
+    public static CrmWriteCoalescer salesforceOpportunities() {
+        return named("salesforce-opportunity",
+            Long.getLong("austa.crm.coalesce.windowMs", DEFAULT_WINDOW_MS), new SalesforceOpportunityWriter());
+    }
+
+    /**
+     * HubSpot deal writes, keyed by dealId
+     */
+    public static CrmWriteCoalescer hubSpotDeals() {
+        return named("hubspot-deal",
+            Long.getLong("austa.crm.coalesce.windowMs", DEFAULT_WINDOW_MS), new HubSpotDealWriter());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Queues the field update for the record; the future completes when a write carrying
+     * it has been sent, or fails with the last error if it is dead-lettered. CRITICAL
+     * updates skip the window. Each caller gets its own future, so cancelling it does not
+     * affect other submitters.
+     */
+    public CompletableFuture<Void> submit(String recordId, Map<String, Object> fields, ApiPriority priority)
+            throws IOException {
+        if (recordId == null || recordId.isBlank()) {
+            throw new IllegalArgumentException("CRM record id is required");
+        }
+        long entryId = journal.append(recordId, fields);
+        updatesSubmitted.incrementAndGet();
+
+        PendingWrite write;
+        CompletableFuture<Void> written;
+        boolean writeNow;
+        synchronized (this) {
+            write = pending.get(recordId);
+            boolean first = write == null;
+            if (first) {
+                write = new PendingWrite(recordId, 0, dueIn(windowMs));
+                pending.put(recordId, write);
+            }
+            write.merge(fields, entryId);
+            write.raise(priority);
+            written = write.completion.copy();
+
+            writeNow = write.isUrgent() && !inFlight.containsKey(recordId);
+            if (first && !write.isUrgent()) {
+                schedule(recordId, windowMs);
+            }
+        }
+
+        if (writeNow) {
+            // Stage changes go out on the caller's thread, within its own timeout
+            send(recordId);
+        }
+        return written;
+    }
+
+    public long getUpdatesSubmitted() {
+        return updatesSubmitted.get();
+    }
+
+    public long getWritesSent() {
+        return writesSent.get();
+    }
+
+    public synchronized int getPendingRecords() {
+        return pending.size();
+    }
+
+    private void schedule(String recordId, long delayMs) {
+        scheduler.schedule(() -> sendExecutor.execute(() -> send(recordId)), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static long dueIn(long delayMs) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+    }
+
+    /**
+     * Writes the record's pending fields unless a write for it is already running or they
+     * are not due yet (a retry backing off); the timer of a pending write that is not due
+     * is still outstanding
+     */
+    private void send(String recordId) {
+        PendingWrite write;
+        synchronized (this) {
+            if (inFlight.containsKey(recordId)) {
+                return;
+            }
+            write = pending.get(recordId);
+            if (write == null || !write.isDue(System.nanoTime())) {
+                return;
+            }
+            pending.remove(recordId);
+            inFlight.put(recordId, write);
+        }
+
+        CompletableFuture<Void> sent;
+        try {
+            sent = writer.writeAsync(recordId, write.fields, write.priority);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        // Journal updates run on our own threads, not on the writer's (e.g. a batch flush)
+        sent.whenCompleteAsync((ignored, error) -> finish(recordId, write, error), sendExecutor);
+    }
+
+    /**
+     * Acknowledges or reschedules a finished write, and starts the record's next write if
+     * it is urgent or its window ran out while this one was in flight
+     */
+    private void finish(String recordId, PendingWrite write, Throwable error) {
+        Exception failure = null;
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+            failure = cause instanceof Exception ? (Exception) cause : new CompletionException(cause);
+        } else {
+            writesSent.incrementAndGet();
+        }
+
+        boolean retrying = false;
+        try {
+            if (failure == null) {
+                journal.ack(write.entryIds);
+                LOGGER.debug("CRM {} write for {} carried {} updates",
+                            name, recordId, write.entryIds.size());
+            } else {
+                retrying = retryLater(write, failure);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("CRM {} journal update failed for {}: {}", name, recordId, e.getMessage());
+        } finally {
+            boolean followUp;
+            synchronized (this) {
+                inFlight.remove(recordId);
+                PendingWrite next = pending.get(recordId);
+                followUp = next != null && next.isDue(System.nanoTime());
+            }
+            if (failure == null) {
+                write.completion.complete(null);
+            } else if (!retrying) {
+                write.completion.completeExceptionally(failure);
+            }
+            if (followUp) {
+                sendExecutor.execute(() -> send(recordId));
+            }
+        }
+    }
+
+    /**
+     * Puts a failed write back under any newer pending fields, keeping its submitters
+     * waiting, or dead-letters it; returns whether it will be retried
+     */
+    private boolean retryLater(PendingWrite failed, Exception failure) throws IOException {
+        int attempts = failed.attempts + 1;
+        if (attempts >= MAX_ATTEMPTS) {
+            Map<String, Object> envelope = new HashMap<>();
+            envelope.put("recordId", failed.recordId);
+            envelope.put("fields", new HashMap<>(failed.fields));
+            envelope.put("lastError", String.valueOf(failure.getMessage()));
+            DurableQueue.named("crm-writes-" + name + "-dead").append(failed.recordId, envelope);
+            journal.ack(failed.entryIds);
+            LOGGER.error("CRM {} write for {} dead-lettered after {} attempts: {}",
+                        name, failed.recordId, attempts, failure.getMessage());
+            return false;
+        }
+
+        long delayMs = Math.min(MAX_RETRY_DELAY_MS, Math.max(windowMs, 1000) << Math.min(attempts, 16));
+        synchronized (this) {
+            PendingWrite newer = pending.get(failed.recordId);
+            PendingWrite retry = new PendingWrite(failed.recordId, attempts, dueIn(delayMs));
+            retry.completion = failed.completion;
+            retry.merge(failed.fields, failed.entryIds);
+            retry.raise(failed.priority == ApiPriority.CRITICAL ? ApiPriority.NORMAL : failed.priority);
+            if (newer != null) {
+                retry.merge(newer.fields, newer.entryIds);
+                retry.raise(newer.priority);
+                CompletableFuture<Void> newerCompletion = newer.completion;
+                retry.completion.whenComplete((ignored, error) -> {
+                    if (error == null) {
+                        newerCompletion.complete(null);
+                    } else {
+                        newerCompletion.completeExceptionally(error);
+                    }
+                });
+            }
+            pending.put(failed.recordId, retry);
+        }
+        schedule(failed.recordId, delayMs);
+
+        LOGGER.warn("CRM {} write for {} failed (attempt {}), retrying in {} ms: {}",
+                   name, failed.recordId, attempts, delayMs, failure.getMessage());
+        return true;
+    }
+
+    /**
+     * Loads updates left in the journal by a previous run and schedules their writes
+     */
+    private void replay() {
+        List<QueuedEntry> entries = journal.peek(MAX_REPLAYED_ENTRIES);
+        if (entries.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            for (QueuedEntry entry : entries) {
+                pending.computeIfAbsent(entry.getKey(), id -> new PendingWrite(id, 0, dueIn(windowMs)))
+                    .merge(entry.getPayload(), entry.getId());
+            }
+            for (String recordId : pending.keySet()) {
+                schedule(recordId, windowMs);
+            }
+        }
+        LOGGER.info("CRM {} coalescer replayed {} updates for {} records",
+                   name, entries.size(), pending.size());
+    }
+
+    private static final class PendingWrite {
+        private final String recordId;
+        private final int attempts;
+        private final long dueAtNanos;
+        private final Map<String, Object> fields = new LinkedHashMap<>();
+        private final List<Long> entryIds = new ArrayList<>();
+        private ApiPriority priority = ApiPriority.BULK;
+        private CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        private PendingWrite(String recordId, int attempts, long dueAtNanos) {
+            this.recordId = recordId;
+            this.attempts = attempts;
+            this.dueAtNanos = dueAtNanos;
+        }
+
+        private boolean isUrgent() {
+            return priority == ApiPriority.CRITICAL;
+        }
+
+        private boolean isDue(long now) {
+            return isUrgent() || now - dueAtNanos >= 0;
+        }
+
+        private void raise(ApiPriority update) {
+            if (update.ordinal() < priority.ordinal()) {
+                priority = update;
+            }
+        }
+
+        private void merge(Map<String, Object> update, long entryId) {
+            fields.putAll(update);
+            entryIds.add(entryId);
+        }
+
+        private void merge(Map<String, Object> update, List<Long> updateEntryIds) {
+            fields.putAll(update);
+            entryIds.addAll(updateEntryIds);
+        }
+    }
+}
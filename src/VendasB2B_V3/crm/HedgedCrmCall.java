@@ -0,0 +1,305 @@
+package com.austa.vendas.crm;
+
+import com.austa.vendas.cache.CacheStats;
+import com.austa.vendas.cache.TtlCache;
+import com.austa.vendas.resilience.Deadline;
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.IntegrationTimeoutException;
+import com.austa.vendas.resilience.TimeoutService;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HedgedCrmCall - Hedged, idempotent CRM writes
+ *
+ * Purpose: CRM write latency has a long tail, and a slow write used to hold its delegate
+ * until the 30 s integration timeout before the retry started. A hedged call sends the
+ * write and, if it has not answered within the write's recent p95 latency, sends one
+ * duplicate carrying the same idempotency key. The first response wins and the other
+ * attempt is cancelled.
+ *
+ * Idempotency:
+ * - A key names one write, not its content: {@link #idempotencyKey} hashes the process
+ *   instance, the activity and the instance's CRM write sequence number, which is kept in
+ *   the crmWriteSequence process variable. A job retry rolls the counter back with the
+ *   rest of the transaction and gets the same key; a second pass through the activity
+ *   (a BPMN loop) commits a new number, so an identical payload is still written again
+ * - Writes must be safe to send twice: opportunity PATCHes set absolute field values, and
+ *   record-creating writes upsert on the key as an external id (AUSTA_Idempotency_Key__c),
+ *   so the two attempts of one hedged write are applied once
+ * - A local dedupe store keeps the keys of applied writes for austa.crm.hedge.dedupe-ttl-ms;
+ *   a call with a key already applied returns the stored result without a CRM request,
+ *   and a call with a key in flight waits for that write instead of sending its own
+ * - Writes that are only ever sent once, such as the coalescer's merged record writes,
+ *   use {@link #callOnce} without a key; only their hedge pair is sent twice
+ *
+ * Hedging starts once MIN_SAMPLES calls have been timed, never earlier than
+ * MIN_HEDGE_DELAY_MS, and sends at most one duplicate per call. Both attempts run under the
+ * integration's timeout and slots, and failures are not cached, so a failed write can be
+ * retried with the same key.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class HedgedCrmCall {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HedgedCrmCall.class);
+    private static final ConcurrentMap<String, HedgedCrmCall> CALLS = new ConcurrentHashMap<>();
+
+    private static final int MIN_SAMPLES = 20;
+    private static final long MIN_HEDGE_DELAY_MS = 50;
+    private static final int LATENCY_SAMPLES = 256;
+    private static final int DEDUPE_MAX_ENTRIES = 10000;
+    private static final long DEFAULT_DEDUPE_TTL_MS = 600000;
+
+    static final String WRITE_SEQUENCE_VARIABLE = "crmWriteSequence";
+
+    /** Stored for writes without a result, since the dedupe store does not keep nulls */
+    private static final Object NO_RESULT = new Object();
+
+    private final String name;
+    private final IntegrationTimeout timeout;
+    private final TtlCache<String, Object> applied;
+    private final LatencyWindow latencies = new LatencyWindow(LATENCY_SAMPLES);
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    private HedgedCrmCall(String name, long timeoutMs) {
+        this.name = name;
+        this.timeout = IntegrationTimeout.of(name, timeoutMs);
+        this.applied = new TtlCache<>(name + "-applied", DEDUPE_MAX_ENTRIES,
+            Long.getLong("austa.crm.hedge.dedupe-ttl-ms", DEFAULT_DEDUPE_TTL_MS));
+    }
+
+    /**
+     * Returns the hedged call with this name; the first registration fixes its timeout
+     */
+    public static HedgedCrmCall named(String name, long timeoutMs) {
+        return CALLS.computeIfAbsent(name, n -> new HedgedCrmCall(n, timeoutMs));
+    }
+
+    /**
+     * Idempotency key of the delegate's next write: processInstanceId, activityId and the
+     * process instance's next CRM write sequence number. Call it once per write, before
+     * any retry loop, so every attempt of the write shares the key.
+     */
+    public static String idempotencyKey(DelegateExecution execution) {
+        Number previous = (Number) execution.getVariable(WRITE_SEQUENCE_VARIABLE);
+        long sequence = previous == null ? 1 : previous.longValue() + 1;
+        execution.setVariable(WRITE_SEQUENCE_VARIABLE, sequence);
+        return sha256(execution.getProcessInstanceId() + "|" + execution.getCurrentActivityId() + "|" + sequence);
+    }
+
+    /**
+     * Runs the write once per idempotency key, hedged past the p95 latency. The write must
+     * be safe to send twice with the same key and must not use the engine context.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T call(String idempotencyKey, Callable<T> write) throws Exception {
+        Object result = applied.get(idempotencyKey, () -> {
+            T value = hedge(idempotencyKey, write);
+            return value != null ? value : NO_RESULT;
+        });
+        return result == NO_RESULT ? null : (T) result;
+    }
+
+    /**
+     * Runs a write that its caller sends only once, hedged past the p95 latency but not
+     * deduplicated; the description only names it in the logs
+     */
+    public <T> T callOnce(String description, Callable<T> write) throws Exception {
+        return hedge(description, write);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Current delay before a duplicate is sent; -1 until enough attempts have been timed
+     */
+    public long getHedgeDelayMs() {
+        return latencies.hedgeDelayMs();
+    }
+
+    public long getHedgesSent() {
+        return hedgesSent.get();
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    /**
+     * Applied-write store: hits and coalesced calls are suppressed duplicates
+     */
+    public CacheStats getDedupeStats() {
+        return applied.stats();
+    }
+
+    private <T> T hedge(String description, Callable<T> write) throws Exception {
+        Deadline deadline = Deadline.within(timeout.getTimeoutMs());
+        Race<T> race = new Race<>();
+        TimeoutService.PendingCall<Void> primary = timeout.fork(() -> race.attempt(write, false));
+        TimeoutService.PendingCall<Void> duplicate = null;
+        try {
+            long hedgeDelayMs = latencies.hedgeDelayMs();
+            if (hedgeDelayMs >= 0 && hedgeDelayMs < deadline.remainingMillis()) {
+                try {
+                    race.result.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException e) {
+                    // Failed before the hedge delay; reported by awaitWinner
+                } catch (TimeoutException e) {
+                    if (race.addAttempt()) {
+                        hedgesSent.incrementAndGet();
+                        LOGGER.debug("{}: no response after {} ms, sending duplicate of {}",
+                                    name, hedgeDelayMs, description);
+                        duplicate = timeout.fork(() -> race.attempt(write, true));
+                    }
+                }
+            }
+            return awaitWinner(race, deadline);
+        } finally {
+            // The losing attempt is interrupted without holding up the winner's response
+            cancelInBackground(primary);
+            if (duplicate != null) {
+                cancelInBackground(duplicate);
+            }
+        }
+    }
+
+    private <T> T awaitWinner(Race<T> race, Deadline deadline) throws Exception {
+        try {
+            T value = race.result.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            if (race.duplicateWon) {
+                hedgesWon.incrementAndGet();
+            }
+            return value;
+        } catch (TimeoutException e) {
+            throw new IntegrationTimeoutException(name, name + " write timed out after "
+                + timeout.getTimeoutMs() + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void cancelInBackground(TimeoutService.PendingCall<Void> attempt) {
+        Thread.startVirtualThread(() -> {
+            try {
+                attempt.cancel();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static String sha256(String canonical) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Attempts of one hedged call; the first success completes the result, a failure only
+     * once every attempt sent has failed
+     */
+    private final class Race<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final long start = System.nanoTime();
+        private int running = 1;
+        private volatile boolean duplicateWon;
+
+        Void attempt(Callable<T> write, boolean duplicate) {
+            try {
+                succeeded(write.call(), duplicate);
+            } catch (Exception | Error e) {
+                failed(e);
+            }
+            return null;
+        }
+
+        /**
+         * Registers the duplicate unless the call has already finished
+         */
+        synchronized boolean addAttempt() {
+            if (result.isDone()) {
+                return false;
+            }
+            running++;
+            return true;
+        }
+
+        /**
+         * Records the time since the call started: a duplicate's win is a lower bound on the
+         * slow primary's latency, so the tail stays in the window although losers are cancelled
+         */
+        private synchronized void succeeded(T value, boolean duplicate) {
+            if (!result.isDone()) {
+                latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                duplicateWon = duplicate;
+                result.complete(value);
+            }
+        }
+
+        private synchronized void failed(Throwable error) {
+            if (--running == 0) {
+                result.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * Latencies of the most recent successful calls and their p95
+     */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private long recorded;
+        private long p95Ms = -1;
+
+        LatencyWindow(int size) {
+            samples = new long[size];
+        }
+
+        synchronized void record(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            recorded++;
+            // The percentile only moves with a batch of samples, so it is not re-sorted per write
+            if (recorded >= MIN_SAMPLES && (recorded == MIN_SAMPLES || recorded % 16 == 0)) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(recorded, samples.length));
+                Arrays.sort(sorted);
+                p95Ms = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+            }
+        }
+
+        synchronized long hedgeDelayMs() {
+            return p95Ms < 0 ? -1 : Math.max(MIN_HEDGE_DELAY_MS, p95Ms);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.austa.vendas.crm;
+
+import com.austa.vendas.resilience.ApiPriority;
+import com.austa.vendas.resilience.RateLimitScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HubSpotBatchClient - Groups HubSpot object updates from many executions into batch requests
+ *
+ * Purpose: HubSpotUpdateDelegate used to send one PATCH per contact, company or deal. This
+ * client buffers the updates of all process instances, grouped by object type and
+ * identifier property, and sends each group through HubSpot's batch endpoints with up to
+ * MAX_BATCH_INPUTS inputs per request:
+ * - POST /crm/v3/objects/{objectType}/batch/upsert for updates keyed by a unique property
+ *   (contacts by email, companies by domain)
+ * - POST /crm/v3/objects/{objectType}/batch/update for updates keyed by record id (deals)
+ *
+ * A group is sent when it reaches MAX_BATCH_INPUTS or its oldest update has waited
+ * batchDelayMs. A batch request may not name the same record twice, so updates of one
+ * record within a group are merged (later values win) and share the result.
+ *
+ * Each submitter gets a future completed from its item's result in the response: the
+ * HubSpot record id, or an exception carrying the item's error. A request that fails as
+ * a whole fails every future in it. Cancelled updates are dropped if not yet sent.
+ *
+ * Requests go through the hubspot {@link RateLimitScheduler} in the lane of the most
+ * urgent update they carry. Each group has its own sender thread, so its batches go out
+ * in order while a deal stage change never queues behind a contact backlog.
+ *
+ * Configuration (system properties):
+ * - austa.hubspot.batch-mode: enables batch mode (default true)
+ * - austa.hubspot.batch-delay-ms: max buffering delay (default 1000)
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class HubSpotBatchClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HubSpotBatchClient.class);
+
+    public static final int MAX_BATCH_INPUTS = 100;
+    public static final long DEFAULT_BATCH_DELAY_MS = 1000;
+
+    private static volatile HubSpotBatchClient shared;
+
+    private final long batchDelayMs;
+    private final ScheduledExecutorService flushTimer;
+    private final Map<String, Group> groups = new HashMap<>();
+
+    public HubSpotBatchClient(long batchDelayMs) {
+        if (batchDelayMs < 1) {
+            throw new IllegalArgumentException("Batch delay must be positive");
+        }
+        this.batchDelayMs = batchDelayMs;
+        this.flushTimer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("hubspot-batch-timer").daemon(true).factory());
+    }
+
+    /**
+     * True unless batch mode was disabled with austa.hubspot.batch-mode=false
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("austa.hubspot.batch-mode", "true"));
+    }
+
+    /**
+     * Process-wide client configured from system properties
+     */
+    public static HubSpotBatchClient shared() {
+        HubSpotBatchClient client = shared;
+        if (client == null) {
+            synchronized (HubSpotBatchClient.class) {
+                client = shared;
+                if (client == null) {
+                    client = new HubSpotBatchClient(
+                        Long.getLong("austa.hubspot.batch-delay-ms", DEFAULT_BATCH_DELAY_MS));
+                    shared = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Buffers an update of one object; idProperty null means id is the HubSpot record id.
+     * The future completes with the HubSpot record id of the updated object.
+     */
+    public CompletableFuture<String> submit(String objectType, String idProperty, String id,
+                                            Map<String, Object> properties, ApiPriority priority) {
+        if (objectType == null || id == null || id.isBlank()) {
+            throw new IllegalArgumentException("HubSpot object type and identifier are required");
+        }
+        String groupKey = objectType + "|" + (idProperty != null ? idProperty : "");
+        CompletableFuture<String> result = new CompletableFuture<>();
+        List<Item> full = null;
+        Group group;
+
+        synchronized (this) {
+            group = groups.computeIfAbsent(groupKey, k -> new Group(objectType, idProperty));
+            Item item = group.items.get(id);
+            if (item == null) {
+                item = new Item(id);
+                group.items.put(id, item);
+            }
+            item.properties.putAll(properties);
+            item.results.add(result);
+            if (priority.ordinal() < item.priority.ordinal()) {
+                item.priority = priority;
+            }
+
+            if (group.items.size() >= MAX_BATCH_INPUTS) {
+                full = group.take();
+            } else if (group.items.size() == 1 && item.results.size() == 1) {
+                long generation = group.generation;
+                flushTimer.schedule(() -> flushIfGeneration(groupKey, generation),
+                    batchDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (full != null) {
+            dispatch(group, full);
+        }
+        return result;
+    }
+
+    private void flushIfGeneration(String groupKey, long generation) {
+        Group group;
+        List<Item> batch = null;
+        synchronized (this) {
+            group = groups.get(groupKey);
+            if (group != null && group.generation == generation) {
+                batch = group.take();
+            }
+        }
+        if (batch != null) {
+            dispatch(group, batch);
+        }
+    }
+
+    private void dispatch(Group group, List<Item> batch) {
+        if (!batch.isEmpty()) {
+            group.sender.execute(() -> send(group, batch));
+        }
+    }
+
+    private void send(Group group, List<Item> batch) {
+        List<Item> live = new ArrayList<>(batch.size());
+        for (Item item : batch) {
+            if (item.results.stream().anyMatch(result -> !result.isDone())) {
+                live.add(item);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+
+        ApiPriority priority = ApiPriority.BULK;
+        for (Item item : live) {
+            if (item.priority.ordinal() < priority.ordinal()) {
+                priority = item.priority;
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            Map<String, ItemOutcome> outcomes = RateLimitScheduler.forVendor(RateLimitScheduler.HUBSPOT)
+                .call(priority, () -> sendBatch(group, live));
+            int failed = 0;
+            for (Item item : live) {
+                ItemOutcome outcome = outcomes.get(item.id);
+                if (outcome != null && outcome.recordId != null) {
+                    item.complete(outcome.recordId);
+                } else {
+                    failed++;
+                    String error = outcome != null ? outcome.error : "no result returned";
+                    item.fail(new IllegalStateException("HubSpot rejected " + group.objectType
+                        + " " + item.id + ": " + error));
+                }
+            }
+            LOGGER.info("HubSpot {} batch: {} inputs, {} failed, {} ms", group.objectType, live.size(),
+                       failed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            LOGGER.error("HubSpot {} batch of {} failed", group.objectType, live.size(), e);
+            for (Item item : live) {
+                item.fail(e);
+            }
+        }
+    }
+
+    /**
+     * Sends one batch request; returns the per-input outcome keyed by the submitted identifier
+     */
+    private Map<String, ItemOutcome> sendBatch(Group group, List<Item> batch) throws Exception {
+        List<Map<String, Object>> inputs = new ArrayList<>(batch.size());
+        for (Item item : batch) {
+            Map<String, Object> input = new HashMap<>();
+            input.put("id", item.id);
+            if (group.idProperty != null) {
+                input.put("idProperty", group.idProperty);
+            }
+            input.put("properties", item.properties);
+            inputs.add(input);
+        }
+        String operation = group.idProperty != null ? "upsert" : "update";
+        LOGGER.debug("POST /crm/v3/objects/{}/batch/{}: {} inputs", group.objectType, operation, inputs.size());
+
+        // TODO: Implement actual HubSpot batch API call
+        // POST https://api.hubapi.com/crm/v3/objects/{objectType}/batch/{upsert|update}
+        // Body: { "inputs": [ { "idProperty", "id", "properties" } ] }
+        // Response: results[] (id, properties) plus errors[] with the failing inputs in context
+        // Pass the response status and headers to observe(), which throws RateLimitedException on 429
+
+        Thread.sleep(1000); // Simulate API call
+        SimulatedCrmQuota.exchange(RateLimitScheduler.HUBSPOT); // Simulated quota headers
+
+        Map<String, ItemOutcome> outcomes = new HashMap<>();
+        for (Item item : batch) {
+            String recordId = group.idProperty != null
+                ? String.valueOf(10000000 + Math.floorMod(item.id.hashCode(), 90000000))
+                : item.id;
+            outcomes.put(item.id, new ItemOutcome(recordId, null));
+        }
+        return outcomes;
+    }
+
+    private static final class Group {
+        final String objectType;
+        final String idProperty;
+        final ExecutorService sender;
+        LinkedHashMap<String, Item> items = new LinkedHashMap<>();
+        long generation;
+
+        Group(String objectType, String idProperty) {
+            this.objectType = objectType;
+            this.idProperty = idProperty;
+            this.sender = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("hubspot-batch-" + objectType).daemon(true).factory());
+        }
+
+        /**
+         * Must be called holding the client lock
+         */
+        List<Item> take() {
+            List<Item> batch = new ArrayList<>(items.values());
+            items = new LinkedHashMap<>();
+            generation++;
+            return batch;
+        }
+    }
+
+    private static final class Item {
+        final String id;
+        final Map<String, Object> properties = new HashMap<>();
+        final List<CompletableFuture<String>> results = new ArrayList<>(1);
+        ApiPriority priority = ApiPriority.BULK;
+
+        Item(String id) {
+            this.id = id;
+        }
+
+        void complete(String recordId) {
+            results.forEach(result -> result.complete(recordId));
+        }
+
+        void fail(Exception error) {
+            results.forEach(result -> result.completeExceptionally(error));
+        }
+    }
+
+    private record ItemOutcome(String recordId, String error) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.austa.vendas.crm;
+
+import com.austa.vendas.resilience.ApiPriority;
+import com.austa.vendas.resilience.RateLimitScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HubSpotDealWriter - Writes coalesced properties onto a HubSpot deal
+ *
+ * In batch mode the write joins the deals batch/update request of HubSpotBatchClient and
+ * {@link #writeAsync} returns without waiting for the batch to flush, so one coalescer
+ * send can share a batch with many others; otherwise it is a single PATCH.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public class HubSpotDealWriter implements CrmRecordWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HubSpotDealWriter.class);
+
+    @Override
+    public CompletableFuture<Void> writeAsync(String dealId, Map<String, Object> properties, ApiPriority priority) {
+        if (HubSpotBatchClient.isEnabled()) {
+            return HubSpotBatchClient.shared().submit("deals", null, dealId, properties, priority)
+                .thenApply(recordId -> null);
+        }
+        return CrmRecordWriter.super.writeAsync(dealId, properties, priority);
+    }
+
+    @Override
+    public void write(String dealId, Map<String, Object> properties, ApiPriority priority) throws Exception {
+        if (HubSpotBatchClient.isEnabled()) {
+            CrmCalls.await(writeAsync(dealId, properties, priority));
+            return;
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("properties", properties);
+
+        RateLimitScheduler.forVendor(RateLimitScheduler.HUBSPOT).call(priority, () -> {
+            LOGGER.debug("PATCH /crm/v3/objects/deals/{}: {} properties", dealId, properties.size());
+
+            // TODO: Implement actual HubSpot API call
+            // PATCH https://api.hubapi.com/crm/v3/objects/deals/{dealId}
+            // Headers: Authorization: Bearer {access_token}, Content-Type: application/json
+            // Pass the response status and headers to observe(), which throws RateLimitedException on 429
+
+            Thread.sleep(1000); // Simulate API call
+            SimulatedCrmQuota.exchange(RateLimitScheduler.HUBSPOT); // Simulated quota headers
+            return null;
+        });
+    }
+}
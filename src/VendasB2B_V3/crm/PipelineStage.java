@@ -0,0 +1,153 @@
+package com.austa.vendas.crm;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PipelineStage - The sales pipeline stage model shared by the CRM delegates
+ *
+ * Purpose: one definition of the internal pipeline stages, their order, their names in
+ * Salesforce and HubSpot and their win probability. CRMStageUpdateDelegate,
+ * CRMUpdateDelegate, SalesforceSyncDelegate and HubSpotUpdateDelegate used to carry their
+ * own maps and switches; they now all resolve stages here, so a stage always reaches both
+ * CRMs with the same name and probability.
+ *
+ * Transitions: a stage may move forward or stay within its rank (the qualification
+ * outcomes share QUALIFICATION's rank), and any stage may close. Closed stages only move
+ * to another closed stage. The transition matrix is built once at class load.
+ *
+ * Lookups (of, fromSalesforceName, canTransition, isValidTransition) are O(1) and do not
+ * allocate: names resolve through maps built at class load and transitions through the
+ * precomputed matrix. Only a name in the wrong case costs one toUpperCase. Class loading
+ * fails if two stages share a Salesforce name, since reverse lookups would then be
+ * ambiguous.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public enum PipelineStage {
+
+    QUALIFICATION(1, "Qualification", "appointmentscheduled", 10),
+    HIGH_QUALIFIED(1, "Qualified - High Priority", "qualifiedtobuy", 30),
+    MEDIUM_QUALIFIED(1, "Qualified - Medium Priority", "qualifiedtobuy", 20),
+    NURTURING(1, "Nurturing", "appointmentscheduled", 5),
+    ENGAGEMENT(2, "Engagement", "qualifiedtobuy", 40),
+    VALUE_DEMONSTRATION(3, "Value Demonstration", "presentationscheduled", 50),
+    PROPOSAL(4, "Proposal Sent", "decisionmakerboughtin", 60),
+    NEGOTIATION(5, "Negotiation", "contractsent", 75),
+    CLOSED_WON("Closed Won", "closedwon", 100),
+    CLOSED_LOST("Closed Lost", "closedlost", 0),
+    DISQUALIFIED("Closed Lost - Disqualified", "closedlost", 0);
+
+    /** Salesforce stage used when the internal stage is unknown */
+    public static final String DEFAULT_SALESFORCE_NAME = "Open";
+
+    /** Probability used when the stage is unknown */
+    public static final int DEFAULT_PROBABILITY = 10;
+
+    private static final PipelineStage[] STAGES = values();
+    private static final boolean[][] TRANSITIONS = new boolean[STAGES.length][STAGES.length];
+    private static final Map<String, PipelineStage> BY_NAME = new HashMap<>();
+    private static final Map<String, PipelineStage> BY_SALESFORCE_NAME = new HashMap<>();
+
+    static {
+        for (PipelineStage from : STAGES) {
+            for (PipelineStage to : STAGES) {
+                TRANSITIONS[from.ordinal()][to.ordinal()] = to.isClosed() || to.rank >= from.rank;
+            }
+            BY_NAME.put(from.name(), from);
+            PipelineStage clash = BY_SALESFORCE_NAME.put(from.salesforceName, from);
+            if (clash != null) {
+                throw new IllegalStateException("Salesforce stage " + from.salesforceName
+                    + " is mapped by both " + clash + " and " + from);
+            }
+        }
+        // Qualification outcomes reported by the MEDDIC scoring step
+        BY_NAME.put("LOW_QUALIFIED", NURTURING);
+    }
+
+    private final int rank;
+    private final String salesforceName;
+    private final String hubSpotName;
+    private final int probability;
+
+    PipelineStage(int rank, String salesforceName, String hubSpotName, int probability) {
+        this.rank = rank;
+        this.salesforceName = salesforceName;
+        this.hubSpotName = hubSpotName;
+        this.probability = probability;
+    }
+
+    /**
+     * Closed stage: ranked after every open stage
+     */
+    PipelineStage(String salesforceName, String hubSpotName, int probability) {
+        this(Integer.MAX_VALUE, salesforceName, hubSpotName, probability);
+    }
+
+    /**
+     * Resolves an internal stage name or qualification result, ignoring case; null if unknown
+     */
+    public static PipelineStage of(String name) {
+        if (name == null) {
+            return null;
+        }
+        PipelineStage stage = BY_NAME.get(name);
+        return stage != null ? stage : BY_NAME.get(name.toUpperCase());
+    }
+
+    /**
+     * Resolves a Salesforce StageName; null if it is not one of ours
+     */
+    public static PipelineStage fromSalesforceName(String salesforceName) {
+        return salesforceName != null ? BY_SALESFORCE_NAME.get(salesforceName) : null;
+    }
+
+    /**
+     * Whether an opportunity may move between the named stages; false if either is unknown
+     */
+    public static boolean isValidTransition(String from, String to) {
+        PipelineStage fromStage = of(from);
+        PipelineStage toStage = of(to);
+        return fromStage != null && toStage != null && fromStage.canTransition(toStage);
+    }
+
+    /**
+     * Salesforce StageName for an internal stage name, or DEFAULT_SALESFORCE_NAME if unknown
+     */
+    public static String salesforceNameOf(String name) {
+        PipelineStage stage = of(name);
+        return stage != null ? stage.salesforceName : DEFAULT_SALESFORCE_NAME;
+    }
+
+    /**
+     * Win probability for an internal stage name, or DEFAULT_PROBABILITY if unknown
+     */
+    public static int probabilityOf(String name) {
+        PipelineStage stage = of(name);
+        return stage != null ? stage.probability : DEFAULT_PROBABILITY;
+    }
+
+    public boolean canTransition(PipelineStage to) {
+        return TRANSITIONS[ordinal()][to.ordinal()];
+    }
+
+    public boolean isClosed() {
+        return rank == Integer.MAX_VALUE;
+    }
+
+    public String getSalesforceName() {
+        return salesforceName;
+    }
+
+    /**
+     * Internal id of the matching stage in the default HubSpot deal pipeline
+     */
+    public String getHubSpotName() {
+        return hubSpotName;
+    }
+
+    public int getProbability() {
+        return probability;
+    }
+}
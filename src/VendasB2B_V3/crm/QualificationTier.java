@@ -0,0 +1,62 @@
+package com.austa.vendas.crm;
+
+/**
+ * QualificationTier - MEDDIC qualification tier as written to Salesforce and HubSpot
+ *
+ * Purpose: CRMUpdateDelegate and HubSpotUpdateDelegate each derived the tier from the
+ * MEDDIC score with their own thresholds and labels. Both now use this enum, so the same
+ * score always lands in the same tier in both CRMs.
+ *
+ * Thresholds (MEDDIC score, 0-10):
+ * - HIGH: 8.0 and above
+ * - MEDIUM: 6.0 and above
+ * - LOW: 4.0 and above
+ * - DISQUALIFIED: below 4.0
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public enum QualificationTier {
+
+    HIGH(8.0, "Tier 1 - High", "High"),
+    MEDIUM(6.0, "Tier 2 - Medium", "Medium"),
+    LOW(4.0, "Tier 3 - Low", "Low"),
+    DISQUALIFIED(Double.NEGATIVE_INFINITY, "Tier 4 - Disqualified", "Disqualified");
+
+    /** Salesforce Qualification_Tier__c value when there is no MEDDIC score yet */
+    public static final String UNQUALIFIED_SALESFORCE_LABEL = "Unqualified";
+
+    private final double minScore;
+    private final String salesforceLabel;
+    private final String hubSpotLabel;
+
+    QualificationTier(double minScore, String salesforceLabel, String hubSpotLabel) {
+        this.minScore = minScore;
+        this.salesforceLabel = salesforceLabel;
+        this.hubSpotLabel = hubSpotLabel;
+    }
+
+    /**
+     * Tier of a MEDDIC score
+     */
+    public static QualificationTier ofScore(double scoreMEDDIC) {
+        if (scoreMEDDIC >= HIGH.minScore) return HIGH;
+        if (scoreMEDDIC >= MEDIUM.minScore) return MEDIUM;
+        if (scoreMEDDIC >= LOW.minScore) return LOW;
+        return DISQUALIFIED;
+    }
+
+    /**
+     * Salesforce Qualification_Tier__c value
+     */
+    public String getSalesforceLabel() {
+        return salesforceLabel;
+    }
+
+    /**
+     * HubSpot austa_qualification_tier value
+     */
+    public String getHubSpotLabel() {
+        return hubSpotLabel;
+    }
+}
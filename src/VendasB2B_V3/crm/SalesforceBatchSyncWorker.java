@@ -0,0 +1,289 @@
+package com.austa.vendas.crm;
+
+import com.austa.vendas.queue.DurableQueue;
+import com.austa.vendas.queue.QueuedEntry;
+import com.austa.vendas.resilience.ApiPriority;
+import com.austa.vendas.resilience.RateLimitScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SalesforceBatchSyncWorker - Drains queued Salesforce syncs through sObject Collections
+ *
+ * Purpose: When SalesforceSyncDelegate cannot reach Salesforce it queues the sync payload
+ * in a durable local queue instead of dropping it. This worker drains that queue with
+ * sObject Collections requests (/composite/sobjects) of up to 200 records each, so a
+ * backlog after an outage costs a handful of API calls instead of one PATCH per
+ * opportunity.
+ *
+ * Drain rules:
+ * - Opportunity updates queued for the same opportunity are merged in queue order (later
+ *   values win), since a collection request may not contain the same id twice
+ * - Activity entries are created as Task records linked to the opportunity
+ * - Requests use allOrNone=false; records that succeed are acknowledged, failed records
+ *   stay queued and are retried on the next drain
+ * - A record that fails MAX_ATTEMPTS times is moved to the salesforce-sync-dead queue
+ * - If a request fails as a whole (outage, auth), the drain stops until the next interval
+ * - Requests wait in the BULK lane of the salesforce RateLimitScheduler, so a large
+ *   backlog never takes the budget of live stage changes
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+@Component
+public class SalesforceBatchSyncWorker implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalesforceBatchSyncWorker.class);
+
+    public static final String QUEUE_NAME = "salesforce-sync";
+    private static final String DEAD_LETTER_QUEUE_NAME = "salesforce-sync-dead";
+
+    private static final String SALESFORCE_API_VERSION = "v58.0";
+    private static final int MAX_RECORDS_PER_REQUEST = 200;
+    private static final int MAX_ENTRIES_PER_DRAIN = 2000;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long DRAIN_INTERVAL_SECONDS = 15;
+
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    /**
+     * Queues a sync payload for the given record; called when the direct sync failed
+     */
+    public static void enqueue(String opportunityId, String sObjectType, Map<String, Object> fields)
+            throws IOException {
+        Map<String, Object> envelope = new HashMap<>();
+        envelope.put("sObjectType", sObjectType);
+        envelope.put("opportunityId", opportunityId);
+        envelope.put("fields", new HashMap<>(fields));
+        DurableQueue.named(QUEUE_NAME).append(opportunityId, envelope);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "salesforce-batch-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::drainSafely,
+            DRAIN_INTERVAL_SECONDS, DRAIN_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        running = true;
+
+        LOGGER.info("Salesforce batch sync worker started: {} queued syncs",
+                   DurableQueue.named(QUEUE_NAME).size());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (Exception e) {
+            LOGGER.warn("Salesforce batch sync drain stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sends everything currently queued, one collection request per 200 records
+     */
+    void drain() throws Exception {
+        DurableQueue queue = DurableQueue.named(QUEUE_NAME);
+        List<QueuedEntry> entries = queue.peek(MAX_ENTRIES_PER_DRAIN);
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        List<BatchRecord> updates = mergeOpportunityUpdates(entries);
+        List<BatchRecord> creates = taskCreates(entries);
+
+        int delivered = 0;
+        for (List<BatchRecord> chunk : chunks(updates)) {
+            delivered += send(queue, "PATCH", chunk);
+        }
+        for (List<BatchRecord> chunk : chunks(creates)) {
+            delivered += send(queue, "POST", chunk);
+        }
+
+        LOGGER.info("Salesforce batch sync drained {} records from {} queued syncs; {} still queued",
+                   delivered, entries.size(), queue.size());
+    }
+
+    private List<BatchRecord> mergeOpportunityUpdates(List<QueuedEntry> entries) {
+        Map<String, BatchRecord> byOpportunity = new LinkedHashMap<>();
+        for (QueuedEntry entry : entries) {
+            if ("Opportunity".equals(entry.getPayload().get("sObjectType"))) {
+                String opportunityId = (String) entry.getPayload().get("opportunityId");
+                BatchRecord record = byOpportunity.computeIfAbsent(opportunityId,
+                    id -> new BatchRecord("Opportunity", id));
+                record.merge(entry);
+            }
+        }
+        return new ArrayList<>(byOpportunity.values());
+    }
+
+    private List<BatchRecord> taskCreates(List<QueuedEntry> entries) {
+        List<BatchRecord> creates = new ArrayList<>();
+        for (QueuedEntry entry : entries) {
+            if ("Task".equals(entry.getPayload().get("sObjectType"))) {
+                BatchRecord record = new BatchRecord("Task", (String) entry.getPayload().get("opportunityId"));
+                record.merge(entry);
+                creates.add(record);
+            }
+        }
+        return creates;
+    }
+
+    /**
+     * Sends one collection request; returns the number of records Salesforce accepted
+     */
+    private int send(DurableQueue queue, String method, List<BatchRecord> chunk) throws Exception {
+        List<Map<String, Object>> records = new ArrayList<>(chunk.size());
+        for (BatchRecord record : chunk) {
+            records.add(record.toRequestRecord());
+        }
+        Map<String, Object> request = new HashMap<>();
+        request.put("allOrNone", false);
+        request.put("records", records);
+
+        List<Boolean> results = RateLimitScheduler.forVendor(RateLimitScheduler.SALESFORCE)
+            .call(ApiPriority.BULK, () -> callCollectionsApi(method, request));
+
+        List<Long> acknowledged = new ArrayList<>();
+        int accepted = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            BatchRecord record = chunk.get(i);
+            if (results.get(i)) {
+                acknowledged.addAll(record.entryIds);
+                record.entryIds.forEach(failedAttempts::remove);
+                accepted++;
+            } else if (recordFailure(record)) {
+                moveToDeadLetter(record);
+                acknowledged.addAll(record.entryIds);
+            }
+        }
+        queue.ack(acknowledged);
+        return accepted;
+    }
+
+    /**
+     * Returns true once the record has used up its attempts
+     */
+    private boolean recordFailure(BatchRecord record) {
+        int attempts = 0;
+        for (Long entryId : record.entryIds) {
+            attempts = Math.max(attempts, failedAttempts.merge(entryId, 1, Integer::sum));
+        }
+        return attempts >= MAX_ATTEMPTS;
+    }
+
+    private void moveToDeadLetter(BatchRecord record) throws IOException {
+        LOGGER.error("Salesforce batch sync giving up on {} {} after {} attempts",
+                    record.sObjectType, record.opportunityId, MAX_ATTEMPTS);
+
+        Map<String, Object> envelope = new HashMap<>();
+        envelope.put("sObjectType", record.sObjectType);
+        envelope.put("opportunityId", record.opportunityId);
+        envelope.put("fields", new HashMap<>(record.fields));
+        DurableQueue.named(DEAD_LETTER_QUEUE_NAME).append(record.opportunityId, envelope);
+        record.entryIds.forEach(failedAttempts::remove);
+    }
+
+    private List<Boolean> callCollectionsApi(String method, Map<String, Object> request) throws Exception {
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> records = (List<Map<String, Object>>) request.get("records");
+
+        LOGGER.debug("Salesforce {} /services/data/{}/composite/sobjects: {} records",
+                    method, SALESFORCE_API_VERSION, records.size());
+
+        // TODO: Implement actual Salesforce sObject Collections call
+        // PATCH (update) or POST (create) https://instance.salesforce.com/services/data/v58.0/composite/sobjects
+        // Response: one { "id", "success", "errors" } element per record, in request order
+        // Pass the response status and headers to observe(), which throws RateLimitedException on 429
+
+        Thread.sleep(1000); // Simulate network latency
+        SimulatedCrmQuota.exchange(RateLimitScheduler.SALESFORCE); // Simulated quota headers
+
+        List<Boolean> results = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            results.add(true);
+        }
+        return results;
+    }
+
+    private static List<List<BatchRecord>> chunks(List<BatchRecord> records) {
+        List<List<BatchRecord>> chunks = new ArrayList<>();
+        for (int start = 0; start < records.size(); start += MAX_RECORDS_PER_REQUEST) {
+            chunks.add(records.subList(start, Math.min(start + MAX_RECORDS_PER_REQUEST, records.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * One record of a collection request, built from one or more queued entries
+     */
+    private static final class BatchRecord {
+        final String sObjectType;
+        final String opportunityId;
+        final Map<String, Object> fields = new HashMap<>();
+        final List<Long> entryIds = new ArrayList<>();
+
+        BatchRecord(String sObjectType, String opportunityId) {
+            this.sObjectType = sObjectType;
+            this.opportunityId = opportunityId;
+        }
+
+        @SuppressWarnings("unchecked")
+        void merge(QueuedEntry entry) {
+            fields.putAll((Map<String, Object>) entry.getPayload().get("fields"));
+            entryIds.add(entry.getId());
+        }
+
+        Map<String, Object> toRequestRecord() {
+            Map<String, Object> record = new HashMap<>(fields);
+            Map<String, Object> attributes = new HashMap<>();
+            attributes.put("type", sObjectType);
+            record.put("attributes", attributes);
+            if ("Task".equals(sObjectType)) {
+                record.put("WhatId", opportunityId);
+            } else {
+                record.put("id", opportunityId);
+            }
+            return record;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.austa.vendas.crm;
+
+import com.austa.vendas.resilience.ApiPriority;
+import com.austa.vendas.resilience.RateLimitScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * SalesforceOpportunityWriter - PATCHes coalesced fields onto a Salesforce opportunity
+ *
+ * Writes are hedged ({@link HedgedCrmCall}) but not deduplicated: the coalescer sends each
+ * merged write once (and again only if it failed), and a duplicate PATCH of the hedge sets
+ * the same values, so the slower attempt is harmless.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public class SalesforceOpportunityWriter implements CrmRecordWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalesforceOpportunityWriter.class);
+    private static final String SALESFORCE_API_VERSION = "v58.0";
+    private static final long TIMEOUT_MS = 30000;
+
+    private final HedgedCrmCall hedged = HedgedCrmCall.named("salesforceOpportunityWrite", TIMEOUT_MS);
+
+    @Override
+    public void write(String opportunityId, Map<String, Object> fields, ApiPriority priority) throws Exception {
+        hedged.callOnce("Opportunity " + opportunityId, () -> patch(opportunityId, fields, priority));
+    }
+
+    private Void patch(String opportunityId, Map<String, Object> fields, ApiPriority priority) throws Exception {
+        return RateLimitScheduler.forVendor(RateLimitScheduler.SALESFORCE).call(priority, () -> {
+            LOGGER.debug("PATCH /services/data/{}/sobjects/Opportunity/{}: {} fields",
+                        SALESFORCE_API_VERSION, opportunityId, fields.size());
+
+            // TODO: Implement actual Salesforce REST API call
+            // PATCH https://instance.salesforce.com/services/data/v58.0/sobjects/Opportunity/{Id}
+            // Headers: Authorization: Bearer {access_token}, Content-Type: application/json
+            // Pass the response status and headers to observe(), which throws RateLimitedException on 429
+
+            Thread.sleep(1000); // Simulate network latency
+            SimulatedCrmQuota.exchange(RateLimitScheduler.SALESFORCE); // Simulated quota headers
+            return null;
+        });
+    }
+}
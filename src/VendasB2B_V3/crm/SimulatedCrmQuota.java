@@ -0,0 +1,120 @@
+package com.austa.vendas.crm;
+
+import com.austa.vendas.resilience.RateLimitScheduler;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * SimulatedCrmQuota - Quota headers and 429s of the simulated Salesforce and HubSpot calls
+ *
+ * Purpose: The CRM calls are still simulated, but the RateLimitScheduler adapts to the
+ * headers of each response and to 429s. This class keeps the vendor's quota counters as
+ * the server would and answers each simulated call with the same headers and status, so
+ * the scheduler's adaptation runs exactly as it will against the real APIs:
+ *
+ * - salesforce: Sforce-Limit-Info (api-usage=used/daily limit); 429 once the daily
+ *   limit is used up
+ * - hubspot: X-HubSpot-RateLimit-Daily, -Daily-Remaining, -Max, -Interval-Milliseconds
+ *   and -Remaining; 429 with Retry-After when the interval limit is exceeded
+ *
+ * Limits (system properties austa.ratelimit.{vendor}.simulated-daily-limit and, for
+ * hubspot, austa.ratelimit.hubspot.simulated-interval-limit): salesforce 15000 per day,
+ * hubspot 250000 per day and 100 per 10 s. Daily counters reset at midnight UTC.
+ *
+ * Once a call is real, pass its status and headers to
+ * {@link RateLimitScheduler#observe(int, Map)} instead of calling {@link #exchange}.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class SimulatedCrmQuota {
+
+    private static final ConcurrentMap<String, SimulatedCrmQuota> QUOTAS = new ConcurrentHashMap<>();
+
+    private static final long INTERVAL_MS = 10000;
+    private static final long DAILY_LIMIT_RETRY_AFTER_SECONDS = 60;
+
+    private final String vendor;
+    private final long dailyLimit;
+    private final int intervalLimit;
+    private LocalDate day = LocalDate.now(ZoneOffset.UTC);
+    private long usedToday;
+    private long intervalStartMs;
+    private int usedInInterval;
+
+    SimulatedCrmQuota(String vendor, long dailyLimit, int intervalLimit) {
+        this.vendor = vendor;
+        this.dailyLimit = dailyLimit;
+        this.intervalLimit = intervalLimit;
+    }
+
+    public static SimulatedCrmQuota forVendor(String vendor) {
+        return QUOTAS.computeIfAbsent(vendor, v -> {
+            boolean hubspot = RateLimitScheduler.HUBSPOT.equals(v);
+            return new SimulatedCrmQuota(v,
+                Long.getLong("austa.ratelimit." + v + ".simulated-daily-limit", hubspot ? 250000 : 15000),
+                Integer.getInteger("austa.ratelimit." + v + ".simulated-interval-limit", hubspot ? 100 : 0));
+        });
+    }
+
+    /**
+     * Answers one simulated call of the vendor and feeds the response to its
+     * RateLimitScheduler; throws RateLimitedException when the simulated server answers 429
+     */
+    public static void exchange(String vendor) {
+        SimulatedResponse response = forVendor(vendor).respond(System.currentTimeMillis());
+        RateLimitScheduler.forVendor(vendor).observe(response.statusCode(), response.headers());
+    }
+
+    /**
+     * Counts the call against the quota and returns the server's status and headers
+     */
+    synchronized SimulatedResponse respond(long nowMs) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (!today.equals(day)) {
+            day = today;
+            usedToday = 0;
+        }
+        if (nowMs - intervalStartMs >= INTERVAL_MS) {
+            intervalStartMs = nowMs;
+            usedInInterval = 0;
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        boolean overInterval = intervalLimit > 0 && usedInInterval >= intervalLimit;
+        boolean overDaily = usedToday >= dailyLimit;
+        if (!overInterval && !overDaily) {
+            usedToday++;
+            usedInInterval++;
+        }
+
+        if (RateLimitScheduler.HUBSPOT.equals(vendor)) {
+            headers.put("X-HubSpot-RateLimit-Daily", String.valueOf(dailyLimit));
+            headers.put("X-HubSpot-RateLimit-Daily-Remaining", String.valueOf(dailyLimit - usedToday));
+            headers.put("X-HubSpot-RateLimit-Max", String.valueOf(intervalLimit));
+            headers.put("X-HubSpot-RateLimit-Interval-Milliseconds", String.valueOf(INTERVAL_MS));
+            headers.put("X-HubSpot-RateLimit-Remaining", String.valueOf(intervalLimit - usedInInterval));
+        } else {
+            headers.put("Sforce-Limit-Info", "api-usage=" + usedToday + "/" + dailyLimit);
+        }
+
+        if (overInterval) {
+            long waitMs = INTERVAL_MS - (nowMs - intervalStartMs);
+            headers.put("Retry-After", String.valueOf(Math.max(1, (waitMs + 999) / 1000)));
+            return new SimulatedResponse(429, headers);
+        }
+        if (overDaily) {
+            headers.put("Retry-After", String.valueOf(DAILY_LIMIT_RETRY_AFTER_SECONDS));
+            return new SimulatedResponse(429, headers);
+        }
+        return new SimulatedResponse(200, headers);
+    }
+
+    record SimulatedResponse(int statusCode, Map<String, String> headers) {
+    }
+}
@@ -1,14 +1,21 @@
 package com.austa.salesprocess.delegates;
 
+import com.austa.vendas.ans.BeneficiaryValidator;
+import com.austa.vendas.ans.TissBeneficiaryWriter;
+import com.austa.vendas.ans.TissTransmission;
+import com.austa.vendas.ans.TransmissionLedger;
+import com.austa.vendas.resilience.AfterCommit;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -22,7 +29,8 @@ import java.util.UUID;
  * Responsibilities:
  * - Validate beneficiary data for ANS format compliance
  * - Format data according to ANS XML schema (TISS)
- * - Submit registration to ANS web service
+ * - Submit registration to ANS web service, in transmissions of at most
+ *   austa.ans.beneficiaries-per-transmission beneficiaries (default 5000)
  * - Monitor ANS protocol status
  * - Handle ANS rejection and retry logic
  *
@@ -32,9 +40,22 @@ import java.util.UUID;
  * - Required fields: CPF, full name, birth date, gender, plan code
  * - Beneficiary type: Titular or Dependent
  *
+ * TISS streaming:
+ * - Each transmission is streamed by TissBeneficiaryWriter (escaped StAX output) into
+ *   the submission request body, so it is sent while it is being formatted and memory
+ *   does not grow with the number of lives
+ * - ansProtocolNumber is the first transmission's protocol; ansProtocolNumbers lists all,
+ *   updated as each transmission is accepted
+ * - Each accepted transmission is also recorded in the TransmissionLedger, outside the
+ *   engine transaction: a retry after a failed transmission sends only the sequences ANS
+ *   has not accepted yet, with the original transaction date, instead of registering the
+ *   same beneficiaries twice. The ledger entries are removed once the protocols commit
+ *
  * Error Handling:
- * - ANS API unavailable → Retry with exponential backoff
- * - Invalid data format → BpmnError: ANS_REGISTRATION_ERROR
+ * - ANS API unavailable → the job is retried; accepted transmissions are skipped
+ * - Invalid data format → BpmnError: ANS_REGISTRATION_ERROR; every invalid row is reported
+ *   (BeneficiaryValidator, parallel above a few thousand lives) in ansValidationErrors
+ *   as row/field/message maps, so the roster can be fixed in one round-trip
  * - Timeout (72h) → BpmnError: ANS_COMPLIANCE_TIMEOUT
  */
 @Component("ansRegistrationDelegate")
@@ -44,6 +65,14 @@ public class ANSRegistrationDelegate implements JavaDelegate {
 
     private static final String ANS_OPERATOR_CODE = "123456"; // AUSTA's ANS registration code
     private static final int ANS_DEADLINE_HOURS = 72;
+    private static final int DEFAULT_BENEFICIARIES_PER_TRANSMISSION = 5000;
+    private static final int MAX_ERRORS_IN_MESSAGE = 10;
+
+    private final BeneficiaryValidator validator = new BeneficiaryValidator();
+    private final TissBeneficiaryWriter tissWriter = new TissBeneficiaryWriter(ANS_OPERATOR_CODE);
+    private final TransmissionLedger ledger = TransmissionLedger.shared();
+    private final int beneficiariesPerTransmission = Integer.getInteger(
+        "austa.ans.beneficiaries-per-transmission", DEFAULT_BENEFICIARIES_PER_TRANSMISSION);
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -58,19 +87,32 @@ public class ANSRegistrationDelegate implements JavaDelegate {
             String contractId = (String) execution.getVariable("contractId");
 
             // Validate data for ANS compliance
-            validateANSCompliance(beneficiariesData);
+            validateANSCompliance(execution, beneficiariesData);
 
-            // Format data according to TISS standard
-            String tissXml = formatToTISS(beneficiariesData, contractId);
+            // Format data according to TISS standard, streamed into each transmission;
+            // a retry keeps the transaction date of the transmissions already accepted
+            String registrationKey = TransmissionLedger.registrationKey(execution.getProcessInstanceId(), contractId);
+            String transactionDate = ledger.transactionDate(registrationKey);
+            List<TissTransmission> transmissions = TissTransmission.split(contractId,
+                transactionDate != null ? transactionDate : LocalDateTime.now().toString(),
+                beneficiariesData, beneficiariesPerTransmission);
 
             // Submit to ANS web service
-            ANSSubmissionResult result = submitToANS(tissXml, contractId);
+            ANSSubmissionResult result = submitToANS(execution, transmissions, registrationKey, contractId);
 
             // Store ANS protocol information
             execution.setVariable("ansProtocolNumber", result.getProtocolNumber());
+            execution.setVariable("ansProtocolNumbers", result.getProtocolNumbers());
             execution.setVariable("ansRegistrationDate", result.getSubmissionDate().toString());
             execution.setVariable("ansApproved", result.isApproved());
             execution.setVariable("ansResponseMessage", result.getMessage());
+            AfterCommit.run("ANS transmission ledger " + registrationKey, () -> {
+                try {
+                    ledger.complete(registrationKey);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
 
             // Check if within 72-hour deadline
             checkComplianceDeadline(execution);
@@ -100,116 +142,76 @@ public class ANSRegistrationDelegate implements JavaDelegate {
     }
 
     /**
-     * Validate beneficiary data for ANS compliance
+     * Validate beneficiary data for ANS compliance, reporting every invalid row
      */
-    private void validateANSCompliance(List<Map<String, Object>> beneficiariesData)
+    private void validateANSCompliance(DelegateExecution execution, List<Map<String, Object>> beneficiariesData)
             throws ANSValidationException {
 
-        if (beneficiariesData == null || beneficiariesData.isEmpty()) {
-            throw new ANSValidationException("No beneficiary data provided");
-        }
-
-        for (int i = 0; i < beneficiariesData.size(); i++) {
-            Map<String, Object> beneficiary = beneficiariesData.get(i);
-            String beneficiaryIndex = "Beneficiary #" + (i + 1);
-
-            // Required fields for ANS
-            validateRequiredField(beneficiary, "cpf", beneficiaryIndex);
-            validateRequiredField(beneficiary, "fullName", beneficiaryIndex);
-            validateRequiredField(beneficiary, "birthDate", beneficiaryIndex);
-            validateRequiredField(beneficiary, "gender", beneficiaryIndex);
-            validateRequiredField(beneficiary, "planCode", beneficiaryIndex);
-            validateRequiredField(beneficiary, "beneficiaryType", beneficiaryIndex);
-
-            // Validate CPF format and checksum
-            String cpf = (String) beneficiary.get("cpf");
-            if (!isValidCPF(cpf)) {
-                throw new ANSValidationException(beneficiaryIndex + ": Invalid CPF: " + cpf);
-            }
-
-            // Validate age range (0-120 years)
-            String birthDate = (String) beneficiary.get("birthDate");
-            int age = calculateAge(birthDate);
-            if (age < 0 || age > 120) {
-                throw new ANSValidationException(beneficiaryIndex + ": Invalid age: " + age);
-            }
-
-            // Validate gender
-            String gender = (String) beneficiary.get("gender");
-            if (!gender.matches("^(M|F)$")) {
-                throw new ANSValidationException(beneficiaryIndex + ": Invalid gender: " + gender);
-            }
+        BeneficiaryValidator.ValidationReport report = validator.validate(beneficiariesData);
+        if (!report.isValid()) {
+            execution.setVariable("ansValidationErrors", report.toMaps());
+            execution.setVariable("ansInvalidBeneficiaries", report.getInvalidRows());
+            throw new ANSValidationException(report.summary(MAX_ERRORS_IN_MESSAGE));
         }
 
         log.info("ANS compliance validation passed for {} beneficiaries", beneficiariesData.size());
     }
 
     /**
-     * Validate required field exists
+     * Submit registration to ANS web service, one transmission after the other, skipping
+     * the transmissions a previous attempt already got a protocol for
      */
-    private void validateRequiredField(Map<String, Object> beneficiary, String field,
-                                      String beneficiaryIndex) throws ANSValidationException {
-        if (beneficiary.get(field) == null || beneficiary.get(field).toString().isEmpty()) {
-            throw new ANSValidationException(beneficiaryIndex + ": Missing required field: " + field);
+    private ANSSubmissionResult submitToANS(DelegateExecution execution, List<TissTransmission> transmissions,
+                                            String registrationKey, String contractId) throws IOException {
+        Map<Integer, String> accepted = ledger.protocols(registrationKey, transmissions.size());
+        log.info("Submitting {} TISS transmission(s) to ANS web service for contract: {} ({} already accepted)",
+                transmissions.size(), contractId, accepted.size());
+
+        List<String> protocolNumbers = new ArrayList<>(transmissions.size());
+        for (TissTransmission transmission : transmissions) {
+            String protocolNumber = accepted.get(transmission.getSequenceNumber());
+            if (protocolNumber != null) {
+                log.info("TISS transmission {}/{} for contract {} already accepted: protocol {}",
+                        transmission.getSequenceNumber(), transmission.getTotalTransmissions(),
+                        contractId, protocolNumber);
+            } else {
+                protocolNumber = submitTransmission(transmission);
+                ledger.record(registrationKey, transmission, protocolNumber);
+            }
+            protocolNumbers.add(protocolNumber);
+            execution.setVariable("ansProtocolNumbers", new ArrayList<>(protocolNumbers));
         }
-    }
 
-    /**
-     * Format beneficiary data according to TISS XML standard
-     */
-    private String formatToTISS(List<Map<String, Object>> beneficiariesData, String contractId) {
-        StringBuilder tissXml = new StringBuilder();
-
-        // TISS XML header
-        tissXml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
-        tissXml.append("<tissTransaction xmlns=\"http://www.ans.gov.br/padroes/tiss/schemas\">");
-        tissXml.append("<header>");
-        tissXml.append("<operatorCode>").append(ANS_OPERATOR_CODE).append("</operatorCode>");
-        tissXml.append("<transactionDate>").append(LocalDateTime.now()).append("</transactionDate>");
-        tissXml.append("<contractId>").append(contractId).append("</contractId>");
-        tissXml.append("</header>");
-
-        // Beneficiaries data
-        tissXml.append("<beneficiaries>");
-        for (Map<String, Object> beneficiary : beneficiariesData) {
-            tissXml.append("<beneficiary>");
-            tissXml.append("<cpf>").append(beneficiary.get("cpf")).append("</cpf>");
-            tissXml.append("<fullName>").append(beneficiary.get("fullName")).append("</fullName>");
-            tissXml.append("<birthDate>").append(beneficiary.get("birthDate")).append("</birthDate>");
-            tissXml.append("<gender>").append(beneficiary.get("gender")).append("</gender>");
-            tissXml.append("<planCode>").append(beneficiary.get("planCode")).append("</planCode>");
-            tissXml.append("<beneficiaryType>").append(beneficiary.get("beneficiaryType")).append("</beneficiaryType>");
-            tissXml.append("<registrationDate>").append(LocalDateTime.now()).append("</registrationDate>");
-            tissXml.append("</beneficiary>");
-        }
-        tissXml.append("</beneficiaries>");
-        tissXml.append("</tissTransaction>");
+        // Mock implementation
+        LocalDateTime submissionDate = LocalDateTime.now();
+        boolean approved = true; // Mock approval
+        String message = "Registration submitted successfully in " + transmissions.size() + " transmission(s)";
 
-        log.info("TISS XML formatted successfully for {} beneficiaries", beneficiariesData.size());
-        return tissXml.toString();
+        log.info("ANS submission result - Protocols: {}, Approved: {}", protocolNumbers, approved);
+
+        return new ANSSubmissionResult(protocolNumbers, submissionDate, approved, message);
     }
 
     /**
-     * Submit registration to ANS web service
+     * Streams one TISS transmission to ANS and returns its protocol number
      */
-    private ANSSubmissionResult submitToANS(String tissXml, String contractId) {
-        log.info("Submitting TISS XML to ANS web service for contract: {}", contractId);
-
+    private String submitTransmission(TissTransmission transmission) throws IOException {
         // TODO: Integrate with ANS TISS web service
-        // - Connect to ANS SOAP/REST API
-        // - Submit TISS XML
+        // - Stream the TISS XML as the request body while it is formatted:
+        //   IntegrationHttp ansApi = IntegrationHttp.of("ansRegistration", "https://www.ans.gov.br/tiss/", 120000);
+        //   ansApi.send(ansApi.post("beneficiarios", "application/xml", out -> tissWriter.write(transmission, out)))
         // - Receive protocol number
         // - Monitor submission status
 
-        // Mock implementation
+        // Mock implementation: format into a byte counter instead of the ANS connection
+        CountingOutputStream body = new CountingOutputStream();
+        tissWriter.write(transmission, body);
         String protocolNumber = "ANS-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        LocalDateTime submissionDate = LocalDateTime.now();
-        boolean approved = true; // Mock approval
-        String message = "Registration submitted successfully";
-
-        log.info("ANS submission result - Protocol: {}, Approved: {}", protocolNumber, approved);
 
-        return new ANSSubmissionResult(protocolNumber, submissionDate, approved, message);
+        log.info("TISS transmission {}/{} for contract {} sent: {} beneficiaries, {} bytes, protocol {}",
+                transmission.getSequenceNumber(), transmission.getTotalTransmissions(),
+                transmission.getContractId(), transmission.getBeneficiaries().size(), body.count, protocolNumber);
+        return protocolNumber;
     }
 
     /**
@@ -234,74 +236,43 @@ public class ANSRegistrationDelegate implements JavaDelegate {
         log.info("ANS registration within deadline. Hours remaining: {}", hoursRemaining);
     }
 
-    /**
-     * Validate CPF checksum (Brazilian tax ID)
-     */
-    private boolean isValidCPF(String cpf) {
-        // Remove non-numeric characters
-        cpf = cpf.replaceAll("[^0-9]", "");
-
-        // CPF must have 11 digits
-        if (cpf.length() != 11) {
-            return false;
-        }
-
-        // Check for known invalid CPFs (all same digit)
-        if (cpf.matches("(\\d)\\1{10}")) {
-            return false;
-        }
-
-        // Calculate first check digit
-        int sum = 0;
-        for (int i = 0; i < 9; i++) {
-            sum += Character.getNumericValue(cpf.charAt(i)) * (10 - i);
-        }
-        int checkDigit1 = 11 - (sum % 11);
-        if (checkDigit1 >= 10) checkDigit1 = 0;
-
-        // Calculate second check digit
-        sum = 0;
-        for (int i = 0; i < 10; i++) {
-            sum += Character.getNumericValue(cpf.charAt(i)) * (11 - i);
-        }
-        int checkDigit2 = 11 - (sum % 11);
-        if (checkDigit2 >= 10) checkDigit2 = 0;
-
-        // Verify check digits
-        return checkDigit1 == Character.getNumericValue(cpf.charAt(9)) &&
-               checkDigit2 == Character.getNumericValue(cpf.charAt(10));
-    }
-
-    /**
-     * Calculate age from birth date string (format: YYYY-MM-DD)
-     */
-    private int calculateAge(String birthDateStr) {
-        LocalDateTime birthDate = LocalDateTime.parse(birthDateStr + "T00:00:00");
-        LocalDateTime now = LocalDateTime.now();
-        return (int) java.time.Duration.between(birthDate, now).toDays() / 365;
-    }
-
     // Result class for ANS submission
     static class ANSSubmissionResult {
-        private final String protocolNumber;
+        private final List<String> protocolNumbers;
         private final LocalDateTime submissionDate;
         private final boolean approved;
         private final String message;
 
-        public ANSSubmissionResult(String protocolNumber, LocalDateTime submissionDate,
+        public ANSSubmissionResult(List<String> protocolNumbers, LocalDateTime submissionDate,
                                   boolean approved, String message) {
-            this.protocolNumber = protocolNumber;
+            this.protocolNumbers = List.copyOf(protocolNumbers);
             this.submissionDate = submissionDate;
             this.approved = approved;
             this.message = message;
         }
 
-        public String getProtocolNumber() { return protocolNumber; }
+        public String getProtocolNumber() { return protocolNumbers.get(0); }
+        public List<String> getProtocolNumbers() { return protocolNumbers; }
         public LocalDateTime getSubmissionDate() { return submissionDate; }
         public boolean isApproved() { return approved; }
         public String getMessage() { return message; }
     }
 
+    // Discards the bytes written, keeping their count
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
     // Custom exceptions
     static class ANSValidationException extends Exception {
         public ANSValidationException(String message) {
@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -44,7 +46,8 @@ public class APIKeyGenerationDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public APIKeyGenerationDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -59,7 +62,8 @@ public class APIKeyGenerationDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("apiKeyGeneration", retryConfig);
+        this.retry = JobRetryPolicy.of("apiKeyGeneration", retryConfig);
+        this.timeout = IntegrationTimeout.of("apiKeyGeneration", TIMEOUT_MS);
     }
 
     @Override
@@ -72,9 +76,8 @@ public class APIKeyGenerationDelegate implements JavaDelegate {
         validateInputs(clientId);
 
         try {
-            Map<String, Object> keyResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> generateAPIKey(execution))
-            );
+            Map<String, Object> keyResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> generateAPIKey(execution)));
 
             execution.setVariable("apiKeyGenerationSuccess", true);
             execution.setVariable("apiKeyGenerationTimestamp", new Date());
@@ -84,6 +87,8 @@ public class APIKeyGenerationDelegate implements JavaDelegate {
 
             LOGGER.info("API credentials generated successfully");
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("API key generation failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
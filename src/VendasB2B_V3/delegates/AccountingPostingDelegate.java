@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -43,7 +45,8 @@ public class AccountingPostingDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public AccountingPostingDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -58,7 +61,8 @@ public class AccountingPostingDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("accountingPosting", retryConfig);
+        this.retry = JobRetryPolicy.of("accountingPosting", retryConfig);
+        this.timeout = IntegrationTimeout.of("accountingPosting", TIMEOUT_MS);
     }
 
     @Override
@@ -73,9 +77,8 @@ public class AccountingPostingDelegate implements JavaDelegate {
         validateInputs(contratoId, valorContrato);
 
         try {
-            Map<String, Object> postingResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> postToAccounting(execution, postingType))
-            );
+            Map<String, Object> postingResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> postToAccounting(execution, postingType)));
 
             execution.setVariable("accountingPostingSuccess", true);
             execution.setVariable("accountingPostingTimestamp", new Date());
@@ -85,6 +88,8 @@ public class AccountingPostingDelegate implements JavaDelegate {
             LOGGER.info("Accounting posting completed: journal entry={}",
                        postingResult.get("journalEntryId"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Accounting posting failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
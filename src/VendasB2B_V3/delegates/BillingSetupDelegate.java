@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -47,7 +49,8 @@ public class BillingSetupDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public BillingSetupDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -62,7 +65,8 @@ public class BillingSetupDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("billingSetup", retryConfig);
+        this.retry = JobRetryPolicy.of("billingSetup", retryConfig);
+        this.timeout = IntegrationTimeout.of("billingSetup", TIMEOUT_MS);
     }
 
     @Override
@@ -77,9 +81,8 @@ public class BillingSetupDelegate implements JavaDelegate {
         validateInputs(contratoId, clientId, valorMensalidade);
 
         try {
-            Map<String, Object> setupResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> setupBilling(execution))
-            );
+            Map<String, Object> setupResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> setupBilling(execution)));
 
             execution.setVariable("billingSetupSuccess", true);
             execution.setVariable("billingSetupTimestamp", new Date());
@@ -89,6 +92,8 @@ public class BillingSetupDelegate implements JavaDelegate {
             LOGGER.info("Billing setup completed successfully: account={}",
                        setupResult.get("billingAccountId"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Billing setup failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -1,8 +1,15 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.crm.SimulatedCrmQuota;
+import com.austa.vendas.reporting.PipelineAggregator;
+import com.austa.vendas.reporting.ReportPeriod;
+import com.austa.vendas.resilience.ApiPriority;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RateLimitScheduler;
+import com.austa.vendas.resilience.RateLimitedException;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -33,6 +40,15 @@ import java.util.*;
  * - reportUrl: String - URL to view report
  * - reportData: Map - Report data summary
  *
+ * Report data: read from the PipelineAggregator views, which the CRM delegates update on
+ * every stage change, MEDDIC score and activity. Reading a report costs the same at any
+ * pipeline size; teamId selects a team's view (all teams when absent) and reportPeriod the
+ * current day, week, month or quarter for conversion and activity reports. The
+ * opportunityIds filter applies to the report published in the CRM only.
+ *
+ * Rate limiting: report calls wait in the BULK lane of the shared salesforce
+ * RateLimitScheduler; a 429 is retried but does not count against the circuit breaker.
+ *
  * @author AUSTA V3 Backend Team
  * @version 3.0.0
  */
@@ -43,13 +59,14 @@ public class CRMReportingDelegate implements JavaDelegate {
     private static final int MAX_RETRY_ATTEMPTS = 3;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
 
     public CRMReportingDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
             .failureRateThreshold(50)
             .waitDurationInOpenState(Duration.ofSeconds(60))
             .slidingWindowSize(10)
+            .ignoreExceptions(RateLimitedException.class)
             .build();
         this.circuitBreaker = CircuitBreaker.of("crmReporting", cbConfig);
 
@@ -58,7 +75,7 @@ public class CRMReportingDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("crmReporting", retryConfig);
+        this.retry = JobRetryPolicy.of("crmReporting", retryConfig);
     }
 
     @Override
@@ -69,9 +86,8 @@ public class CRMReportingDelegate implements JavaDelegate {
         LOGGER.info("Generating CRM report: type={}, period={}", reportType, reportPeriod);
 
         try {
-            Map<String, Object> reportResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> generateReport(execution, reportType, reportPeriod))
-            );
+            Map<String, Object> reportResult = retry.execute(circuitBreaker, () ->
+                generateReport(execution, reportType, reportPeriod));
 
             execution.setVariable("reportGenerationSuccess", true);
             execution.setVariable("reportGenerationTimestamp", new Date());
@@ -81,6 +97,8 @@ public class CRMReportingDelegate implements JavaDelegate {
 
             LOGGER.info("CRM report generated successfully: {}", reportResult.get("reportId"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("CRM report generation failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -96,14 +114,20 @@ public class CRMReportingDelegate implements JavaDelegate {
 
         LOGGER.debug("Generating report with params: {}", reportParams);
 
-        // TODO: Implement actual CRM Reporting API call
-        // Salesforce: POST /services/data/v58.0/analytics/reports
-        // HubSpot: GET /crm/v3/reports/custom
+        RateLimitScheduler.forVendor(RateLimitScheduler.SALESFORCE).call(ApiPriority.BULK, () -> {
+            // TODO: Implement actual CRM Reporting API call
+            // Salesforce: POST /services/data/v58.0/analytics/reports
+            // HubSpot: GET /crm/v3/reports/custom
+            // Pass the response status and headers to observe(), which throws RateLimitedException on 429
 
-        Thread.sleep(2000); // Simulate report generation
+            Thread.sleep(2000); // Simulate report generation
+            SimulatedCrmQuota.exchange(RateLimitScheduler.SALESFORCE); // Simulated quota headers
+            return null;
+        });
 
         String reportId = "RPT-" + System.currentTimeMillis();
-        Map<String, Object> reportData = generateSampleData(reportType);
+        Map<String, Object> reportData = PipelineAggregator.shared().report(reportType,
+            (String) execution.getVariable("teamId"), ReportPeriod.parse(reportPeriod), System.currentTimeMillis());
 
         Map<String, Object> result = new HashMap<>();
         result.put("reportId", reportId);
@@ -137,41 +161,4 @@ public class CRMReportingDelegate implements JavaDelegate {
 
         return params;
     }
-
-    private Map<String, Object> generateSampleData(String reportType) {
-        Map<String, Object> data = new HashMap<>();
-
-        switch (reportType != null ? reportType.toLowerCase() : "pipeline") {
-            case "pipeline":
-                data.put("totalOpportunities", 45);
-                data.put("totalValue", 2500000.00);
-                data.put("averageDealSize", 55555.56);
-                data.put("stageDistribution", Map.of(
-                    "Qualification", 10,
-                    "Engagement", 15,
-                    "Proposal", 12,
-                    "Negotiation", 8
-                ));
-                break;
-            case "meddic":
-                data.put("averageMEDDICScore", 7.2);
-                data.put("highQualified", 15);
-                data.put("mediumQualified", 20);
-                data.put("lowQualified", 10);
-                break;
-            case "conversion":
-                data.put("conversionRate", 35.5);
-                data.put("averageSalesCycle", 45);
-                data.put("winRate", 42.3);
-                break;
-            case "activity":
-                data.put("totalActivities", 234);
-                data.put("callsMade", 120);
-                data.put("emailsSent", 89);
-                data.put("meetingsHeld", 25);
-                break;
-        }
-
-        return data;
-    }
 }
@@ -1,8 +1,19 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.crm.CrmCalls;
+import com.austa.vendas.crm.CrmWriteCoalescer;
+import com.austa.vendas.crm.PipelineStage;
+import com.austa.vendas.history.StageHistoryStore;
+import com.austa.vendas.history.StageTransition;
+import com.austa.vendas.reporting.PipelineAggregator;
+import com.austa.vendas.resilience.AfterCommit;
+import com.austa.vendas.resilience.ApiPriority;
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RateLimitedException;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -10,9 +21,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -29,23 +44,35 @@ import java.util.Map;
  * - probability: Integer - Win probability (0-100)
  * - expectedCloseDate: Date - Expected close date
  * - dealValue: Double - Opportunity value
+ * - teamId: String - Optional sales team, used by the reporting views
  *
  * Output Variables:
  * - stageUpdateSuccess: Boolean - Update success indicator
  * - stageUpdateTimestamp: Date - Update timestamp
  * - previousStage: String - Stage before update
  * - currentCRMStage: String - Stage after update
- * - stageHistory: List<Map> - Stage transition history
+ * - stageHistory: List<Map> - Stage transition history of the opportunity, oldest first
  *
- * Stage Mapping:
+ * Stage Mapping (defined in PipelineStage, shared with the other CRM delegates):
  * - QUALIFICATION → Qualification (10% probability)
  * - ENGAGEMENT → Engagement (40% probability)
- * - VALUE_DEMONSTRATION → Value Demo (50% probability)
- * - PROPOSAL → Proposal (60% probability)
+ * - VALUE_DEMONSTRATION → Value Demonstration (50% probability)
+ * - PROPOSAL → Proposal Sent (60% probability)
  * - NEGOTIATION → Negotiation (75% probability)
  * - CLOSED_WON → Closed Won (100% probability)
  * - CLOSED_LOST → Closed Lost (0% probability)
  *
+ * Stage history: every successful transition is appended to the StageHistoryStore, which
+ * answers stage-duration and recent-transition queries without Camunda history tables,
+ * and reported to the PipelineAggregator behind CRMReportingDelegate. Both happen once the
+ * engine transaction commits, so a rolled-back or retried execution records nothing.
+ *
+ * Write coalescing: the stage payload goes through the shared CrmWriteCoalescer as a
+ * CRITICAL update, so it is written at once together with any opportunity fields still
+ * waiting in the coalescing window, and the delegate waits for that write. The write takes
+ * the CRITICAL lane of the salesforce RateLimitScheduler; a 429 is retried but does not
+ * count against the circuit breaker.
+ *
  * Error Handling:
  * - Circuit Breaker: Opens after 5 failures
  * - Retry: 3 attempts with exponential backoff
@@ -63,13 +90,15 @@ public class CRMStageUpdateDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public CRMStageUpdateDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
             .failureRateThreshold(50)
             .waitDurationInOpenState(Duration.ofSeconds(60))
             .slidingWindowSize(10)
+            .ignoreExceptions(RateLimitedException.class)
             .build();
         this.circuitBreaker = CircuitBreaker.of("crmStageUpdate", cbConfig);
 
@@ -78,7 +107,8 @@ public class CRMStageUpdateDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("crmStageUpdate", retryConfig);
+        this.retry = JobRetryPolicy.of("crmStageUpdate", retryConfig);
+        this.timeout = IntegrationTimeout.of("crmStageUpdate", TIMEOUT_MS);
     }
 
     @Override
@@ -93,20 +123,24 @@ public class CRMStageUpdateDelegate implements JavaDelegate {
         validateStageTransition(currentStage, newStage);
 
         try {
-            Map<String, Object> updateResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> performStageUpdate(execution, opportunityId, newStage))
-            );
+            Map<String, Object> updateResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> performStageUpdate(execution, opportunityId, newStage)));
 
             execution.setVariable("stageUpdateSuccess", true);
             execution.setVariable("stageUpdateTimestamp", new Date());
             execution.setVariable("previousStage", currentStage);
             execution.setVariable("currentCRMStage", newStage);
 
-            // Update stage history
+            // Update stage history and the reporting views
             updateStageHistory(execution, currentStage, newStage);
+            PipelineAggregator.shared().recordStageChange(opportunityId,
+                (String) execution.getVariable("teamId"), PipelineStage.of(newStage),
+                (Double) execution.getVariable("dealValue"), System.currentTimeMillis());
 
             LOGGER.info("CRM stage updated successfully: {}", newStage);
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("CRM stage update failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -121,33 +155,11 @@ public class CRMStageUpdateDelegate implements JavaDelegate {
         }
 
         // Validate stage progression (prevent backward movement except to lost)
-        if (currentStage != null && !isValidTransition(currentStage, newStage)) {
+        if (currentStage != null && !PipelineStage.isValidTransition(currentStage, newStage)) {
             LOGGER.warn("Invalid stage transition detected: {} → {}", currentStage, newStage);
         }
     }
 
-    private boolean isValidTransition(String from, String to) {
-        // Allow any transition to CLOSED_LOST or CLOSED_WON
-        if (to.equals("CLOSED_LOST") || to.equals("CLOSED_WON")) {
-            return true;
-        }
-
-        // Define valid forward progressions
-        Map<String, Integer> stageOrder = Map.of(
-            "QUALIFICATION", 1,
-            "ENGAGEMENT", 2,
-            "VALUE_DEMONSTRATION", 3,
-            "PROPOSAL", 4,
-            "NEGOTIATION", 5,
-            "CLOSED_WON", 6
-        );
-
-        Integer fromOrder = stageOrder.get(from);
-        Integer toOrder = stageOrder.get(to);
-
-        return fromOrder != null && toOrder != null && toOrder >= fromOrder;
-    }
-
     private Map<String, Object> performStageUpdate(DelegateExecution execution,
                                                    String opportunityId, String newStage)
             throws Exception {
@@ -156,11 +168,9 @@ public class CRMStageUpdateDelegate implements JavaDelegate {
 
         LOGGER.debug("Updating CRM stage with payload: {}", updatePayload);
 
-        // TODO: Implement actual CRM API call
-        // Salesforce: PATCH /services/data/v58.0/sobjects/Opportunity/{opportunityId}
-        // HubSpot: PATCH /crm/v3/objects/deals/{dealId}
-
-        Thread.sleep(1000); // Simulate API call
+        // Stage changes bypass the coalescing window; pending field updates ride along
+        CrmCalls.await(CrmWriteCoalescer.salesforceOpportunities()
+            .submit(opportunityId, updatePayload, ApiPriority.CRITICAL));
 
         Map<String, Object> result = new HashMap<>();
         result.put("success", true);
@@ -172,14 +182,10 @@ public class CRMStageUpdateDelegate implements JavaDelegate {
     private Map<String, Object> buildStageUpdatePayload(DelegateExecution execution, String newStage) {
         Map<String, Object> payload = new HashMap<>();
 
-        // Map to CRM stage name
-        String crmStageName = mapToCRMStage(newStage);
-        payload.put("StageName", crmStageName);
+        // Map to CRM stage name and probability
+        payload.put("StageName", PipelineStage.salesforceNameOf(newStage));
         payload.put("AUSTA_Internal_Stage__c", newStage);
-
-        // Calculate probability based on stage
-        Integer probability = calculateProbability(newStage);
-        payload.put("Probability", probability);
+        payload.put("Probability", PipelineStage.probabilityOf(newStage));
 
         // Add transition metadata
         String transitionReason = (String) execution.getVariable("stageTransitionReason");
@@ -204,42 +210,45 @@ public class CRMStageUpdateDelegate implements JavaDelegate {
         return payload;
     }
 
-    private String mapToCRMStage(String internalStage) {
-        Map<String, String> stageMapping = Map.of(
-            "QUALIFICATION", "Qualification",
-            "ENGAGEMENT", "Engagement",
-            "VALUE_DEMONSTRATION", "Value Demonstration",
-            "PROPOSAL", "Proposal Sent",
-            "NEGOTIATION", "Negotiation",
-            "CLOSED_WON", "Closed Won",
-            "CLOSED_LOST", "Closed Lost"
-        );
-
-        return stageMapping.getOrDefault(internalStage, "Open");
-    }
+    /**
+     * Publishes the opportunity's history including the transition, and records the
+     * transition in the stage history store once the engine transaction commits
+     */
+    private void updateStageHistory(DelegateExecution execution, String fromStage, String toStage) {
+        String opportunityId = (String) execution.getVariable("opportunityId");
+        StageTransition transition = new StageTransition(System.currentTimeMillis(), opportunityId,
+            fromStage, toStage, execution.getProcessInstanceId());
 
-    private Integer calculateProbability(String stage) {
-        Map<String, Integer> probabilityMap = Map.of(
-            "QUALIFICATION", 10,
-            "ENGAGEMENT", 40,
-            "VALUE_DEMONSTRATION", 50,
-            "PROPOSAL", 60,
-            "NEGOTIATION", 75,
-            "CLOSED_WON", 100,
-            "CLOSED_LOST", 0
-        );
-
-        return probabilityMap.getOrDefault(stage, 10);
+        try {
+            StageHistoryStore store = StageHistoryStore.shared();
+
+            List<Map<String, Object>> history = new ArrayList<>();
+            for (StageTransition entry : store.transitions(opportunityId)) {
+                history.add(historyEntry(entry));
+            }
+            history.add(historyEntry(transition));
+            execution.setVariable("stageHistory", history);
+
+            AfterCommit.run("stage history " + transition, () -> {
+                try {
+                    store.append(transition);
+                    LOGGER.debug("Stage history recorded: {}", transition);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            // History is reporting data; the CRM stage is already updated
+            LOGGER.warn("Could not record stage history {}: {}", transition, e.getMessage());
+        }
     }
 
-    private void updateStageHistory(DelegateExecution execution, String fromStage, String toStage) {
-        // TODO: Implement stage history tracking
+    private static Map<String, Object> historyEntry(StageTransition transition) {
         Map<String, Object> historyEntry = new HashMap<>();
-        historyEntry.put("fromStage", fromStage);
-        historyEntry.put("toStage", toStage);
-        historyEntry.put("timestamp", new Date());
-        historyEntry.put("processInstanceId", execution.getProcessInstanceId());
-
-        LOGGER.debug("Stage history entry created: {}", historyEntry);
+        historyEntry.put("fromStage", transition.getFromStage());
+        historyEntry.put("toStage", transition.getToStage());
+        historyEntry.put("timestamp", new Date(transition.getTimestamp()));
+        historyEntry.put("processInstanceId", transition.getProcessInstanceId());
+        return historyEntry;
     }
 }
@@ -1,8 +1,14 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.crm.SimulatedCrmQuota;
+import com.austa.vendas.resilience.ApiPriority;
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RateLimitScheduler;
+import com.austa.vendas.resilience.RateLimitedException;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -37,6 +43,9 @@ import java.util.Map;
  * - taskId: String - Created task ID in CRM
  * - taskUrl: String - Direct URL to task in CRM
  *
+ * Rate limiting: task creation waits in the NORMAL lane of the shared salesforce
+ * RateLimitScheduler; a 429 is retried but does not count against the circuit breaker.
+ *
  * @author AUSTA V3 Backend Team
  * @version 3.0.0
  */
@@ -48,13 +57,15 @@ public class CRMTaskCreationDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public CRMTaskCreationDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
             .failureRateThreshold(50)
             .waitDurationInOpenState(Duration.ofSeconds(60))
             .slidingWindowSize(10)
+            .ignoreExceptions(RateLimitedException.class)
             .build();
         this.circuitBreaker = CircuitBreaker.of("crmTaskCreation", cbConfig);
 
@@ -63,7 +74,8 @@ public class CRMTaskCreationDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("crmTaskCreation", retryConfig);
+        this.retry = JobRetryPolicy.of("crmTaskCreation", retryConfig);
+        this.timeout = IntegrationTimeout.of("crmTaskCreation", TIMEOUT_MS);
     }
 
     @Override
@@ -78,9 +90,8 @@ public class CRMTaskCreationDelegate implements JavaDelegate {
         validateInputs(taskType, taskSubject, assignedTo);
 
         try {
-            Map<String, Object> taskResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> createTask(execution))
-            );
+            Map<String, Object> taskResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> createTask(execution)));
 
             execution.setVariable("taskCreationSuccess", true);
             execution.setVariable("taskCreationTimestamp", new Date());
@@ -89,6 +100,8 @@ public class CRMTaskCreationDelegate implements JavaDelegate {
 
             LOGGER.info("CRM task created successfully: {}", taskResult.get("taskId"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("CRM task creation failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -114,11 +127,16 @@ public class CRMTaskCreationDelegate implements JavaDelegate {
 
         LOGGER.debug("Creating CRM task with payload: {}", taskPayload);
 
-        // TODO: Implement actual CRM API call
-        // Salesforce: POST /services/data/v58.0/sobjects/Task
-        // HubSpot: POST /crm/v3/objects/tasks
+        RateLimitScheduler.forVendor(RateLimitScheduler.SALESFORCE).call(ApiPriority.NORMAL, () -> {
+            // TODO: Implement actual CRM API call
+            // Salesforce: POST /services/data/v58.0/sobjects/Task
+            // HubSpot: POST /crm/v3/objects/tasks
+            // Pass the response status and headers to observe(), which throws RateLimitedException on 429
 
-        Thread.sleep(1000); // Simulate API call
+            Thread.sleep(1000); // Simulate API call
+            SimulatedCrmQuota.exchange(RateLimitScheduler.SALESFORCE); // Simulated quota headers
+            return null;
+        });
 
         String taskId = "TASK-" + System.currentTimeMillis();
         String taskUrl = "https://austa.lightning.force.com/lightning/r/Task/" + taskId + "/view";
@@ -1,5 +1,22 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.cache.CrmRecordCache;
+import com.austa.vendas.crm.CrmCalls;
+import com.austa.vendas.crm.CrmWriteCoalescer;
+import com.austa.vendas.crm.HedgedCrmCall;
+import com.austa.vendas.crm.PipelineStage;
+import com.austa.vendas.crm.SimulatedCrmQuota;
+import com.austa.vendas.crm.QualificationTier;
+import com.austa.vendas.reporting.PipelineAggregator;
+import com.austa.vendas.resilience.ApiPriority;
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RateLimitScheduler;
+import com.austa.vendas.resilience.RateLimitedException;
+import com.austa.vendas.resilience.RetryRescheduledException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
@@ -7,9 +24,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * CRMUpdateDelegate - Updates CRM system with opportunity status and workflow data
@@ -20,6 +40,7 @@ import java.util.Map;
  *
  * Input Variables:
  * - nomeCliente: String - Client company name
+ * - cnpj: String - Optional company CNPJ, used to invalidate the cached CRM company record
  * - opportunityId: String - CRM opportunity ID
  * - updateType: String - Type of update (stage_change, meddic_score, proposal, note)
  * - stageName: String - New opportunity stage
@@ -28,11 +49,13 @@ import java.util.Map;
  * - activityNote: String - Note to add to opportunity activity feed
  * - nextPhase: String - Next phase in sales process
  * - qualificationResult: String - Qualification outcome
+ * - teamId: String - Optional sales team, used by the reporting views
  *
  * Output Variables:
  * - crmUpdateSuccess: Boolean - Update success indicator
  * - crmUpdateTimestamp: Date - Update timestamp
  * - crmOpportunityLink: String - Link to updated opportunity in CRM
+ * - crmUpdateCoalesced: Boolean - True when the update was queued for a coalesced write
  *
  * CRM Integration Points:
  * - Salesforce REST API / HubSpot API
@@ -42,7 +65,25 @@ import java.util.Map;
  * - Activity timeline entries
  * - Document attachments
  *
- * Stage Mappings (Camunda → CRM):
+ * Write coalescing:
+ * - Opportunity field updates go through the shared CrmWriteCoalescer, merged with the
+ *   updates of CRMStageUpdateDelegate and SalesforceSyncDelegate for the same opportunity
+ * - Updates setting StageName (except full syncs) are written at once and awaited; other
+ *   updates return once durably queued and are written with the next coalesced PATCH
+ * - Activity notes are timeline entries, not opportunity fields, and are sent directly
+ *
+ * Hedged writes (HedgedCrmCall):
+ * - A write still unanswered after the recent p95 latency is sent a second time with the
+ *   same idempotency key (processInstanceId, activityId and the instance's CRM write
+ *   sequence number, which a job retry rolls back); the first response wins
+ * - Activity notes are upserted on AUSTA_Idempotency_Key__c, and coalesced opportunity
+ *   PATCHes are hedged by SalesforceOpportunityWriter, so duplicates are applied once
+ * - A write whose key was already applied is not sent again
+ *
+ * Rate limiting: calls wait on the shared salesforce RateLimitScheduler; stage changes use
+ * the CRITICAL lane, full syncs and activity notes the BULK lane.
+ *
+ * Stage Mappings (Camunda → CRM, defined in PipelineStage):
  * - QUALIFICATION → "Qualification"
  * - HIGH_QUALIFIED → "Qualified - High Priority"
  * - MEDIUM_QUALIFIED → "Qualified - Medium Priority"
@@ -55,9 +96,10 @@ import java.util.Map;
  * - CLOSED_WON → "Closed Won"
  *
  * Error Handling:
- * - Retry: 3 attempts with exponential backoff
+ * - Retry: 3 attempts via JobRetryPolicy; as an async job a transient failure reschedules
+ *   the job (exponential failedJobRetryTimeCycle) instead of sleeping on the job thread
  * - Fallback: Logs error but doesn't fail workflow
- * - Timeout: 30 seconds maximum per API call
+ * - Timeout: 30 seconds maximum per API call; slow writes are hedged well before it
  *
  * @author AUSTA V3 Hive Mind - Coder Agent
  * @version 3.0.0
@@ -67,8 +109,30 @@ public class CRMUpdateDelegate implements JavaDelegate {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CRMUpdateDelegate.class);
     private static final int MAX_RETRY_ATTEMPTS = 3;
-    private static final String CRM_BASE_URL = "https://api.salesforce.com/v1/"; // or HubSpot API
     private static final long TIMEOUT_MS = 30000; // 30 seconds
+    private static final Set<String> ACTIVITY_UPDATE_TYPES = Set.of("note", "activity");
+
+    private final CircuitBreaker circuitBreaker;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout = IntegrationTimeout.of("crmUpdate", TIMEOUT_MS);
+    private final HedgedCrmCall hedgedWrite = HedgedCrmCall.named("crmActivityWrite", TIMEOUT_MS);
+
+    public CRMUpdateDelegate() {
+        CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofSeconds(60))
+            .slidingWindowSize(10)
+            .ignoreExceptions(RateLimitedException.class)
+            .build();
+        this.circuitBreaker = CircuitBreaker.of("crmUpdate", cbConfig);
+
+        RetryConfig retryConfig = RetryConfig.custom()
+            .maxAttempts(MAX_RETRY_ATTEMPTS)
+            .waitDuration(Duration.ofSeconds(5))
+            .retryExceptions(Exception.class)
+            .build();
+        this.retry = JobRetryPolicy.of("crmUpdate", retryConfig);
+    }
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -79,14 +143,17 @@ public class CRMUpdateDelegate implements JavaDelegate {
         LOGGER.info("Starting CRM update for client: {}, opportunity: {}, type: {}",
                     nomeCliente, opportunityId, updateType);
 
-        int attempt = getAttemptNumber(execution);
-
         try {
             // Prepare update data
             Map<String, Object> updateData = prepareUpdateData(execution, updateType);
 
             // Execute CRM update with retry logic
-            String crmResponse = updateCRM(opportunityId, updateData, attempt);
+            boolean coalesced = updateType == null || !ACTIVITY_UPDATE_TYPES.contains(updateType.toLowerCase());
+            String idempotencyKey = coalesced ? null : HedgedCrmCall.idempotencyKey(execution);
+            String crmResponse = retry.execute(circuitBreaker, () -> timeout.call(() -> coalesced
+                ? submitOpportunityUpdate(opportunityId, updateType, updateData,
+                    (String) execution.getVariable("cnpj"), nomeCliente)
+                : hedgedWrite.call(idempotencyKey, () -> updateCRM(opportunityId, updateData, idempotencyKey))));
 
             // Generate CRM opportunity link
             String opportunityLink = generateOpportunityLink(opportunityId);
@@ -96,28 +163,20 @@ public class CRMUpdateDelegate implements JavaDelegate {
             execution.setVariable("crmUpdateTimestamp", new Date());
             execution.setVariable("crmOpportunityLink", opportunityLink);
             execution.setVariable("crmResponse", crmResponse);
+            execution.setVariable("crmUpdateCoalesced", coalesced);
+
+            recordReportingEvents(execution, opportunityId, updateData);
 
             LOGGER.info("CRM update completed successfully for opportunity: {}", opportunityId);
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
-            LOGGER.error("CRM update failed for opportunity: {} (Attempt {}/{})",
-                        opportunityId, attempt, MAX_RETRY_ATTEMPTS, e);
-
-            if (attempt < MAX_RETRY_ATTEMPTS) {
-                // Exponential backoff: 5s, 15s, 45s
-                long backoffMs = (long) (5000 * Math.pow(3, attempt - 1));
-                LOGGER.info("Retrying CRM update in {} ms", backoffMs);
-
-                execution.setVariable("crmUpdateAttempt", attempt + 1);
-                Thread.sleep(backoffMs);
-                throw new RuntimeException("CRM update failed, retrying with backoff...", e);
-            } else {
-                // Max retries reached - log error but don't fail workflow
-                LOGGER.warn("Max CRM update attempts reached. Workflow will continue without CRM sync.");
-                execution.setVariable("crmUpdateSuccess", false);
-                execution.setVariable("crmUpdateError", e.getMessage());
-                // Don't throw - allow workflow to continue
-            }
+            // Retries exhausted - log error but don't fail workflow
+            LOGGER.error("CRM update failed for opportunity {} after {} attempts; continuing without CRM sync",
+                        opportunityId, MAX_RETRY_ATTEMPTS, e);
+            execution.setVariable("crmUpdateSuccess", false);
+            execution.setVariable("crmUpdateError", e.getMessage());
         }
     }
 
@@ -162,15 +221,14 @@ public class CRMUpdateDelegate implements JavaDelegate {
         String nextPhase = (String) execution.getVariable("nextPhase");
         String qualificationResult = (String) execution.getVariable("qualificationResult");
 
-        // Map internal phase to CRM stage
-        String crmStage = mapToCRMStage(nextPhase, qualificationResult);
+        // Map internal phase to CRM stage and probability
+        PipelineStage stage = resolveStage(nextPhase, qualificationResult);
+        String crmStage = stage != null ? stage.getSalesforceName() : PipelineStage.DEFAULT_SALESFORCE_NAME;
 
         updateData.put("StageName", crmStage);
         updateData.put("AUSTA_Phase__c", nextPhase); // Custom field
         updateData.put("Qualification_Result__c", qualificationResult); // Custom field
-
-        // Update probability based on stage
-        updateData.put("Probability", calculateProbability(crmStage));
+        updateData.put("Probability", stage != null ? stage.getProbability() : PipelineStage.DEFAULT_PROBABILITY);
 
         LOGGER.debug("Stage change update prepared: {} → {}", stageName, crmStage);
     }
@@ -192,7 +250,9 @@ public class CRMUpdateDelegate implements JavaDelegate {
         }
 
         // Update qualification tier
-        String qualificationTier = calculateQualificationTier(scoreMEDDIC);
+        String qualificationTier = scoreMEDDIC != null
+            ? QualificationTier.ofScore(scoreMEDDIC).getSalesforceLabel()
+            : QualificationTier.UNQUALIFIED_SALESFORCE_LABEL;
         updateData.put("Qualification_Tier__c", qualificationTier);
 
         LOGGER.debug("MEDDIC score update prepared: {}/10 ({})", scoreMEDDIC, qualificationTier);
@@ -210,8 +270,8 @@ public class CRMUpdateDelegate implements JavaDelegate {
         updateData.put("Proposal_Date__c", dataGeracao);
         updateData.put("Proposed_Investment__c", investimentoTotal);
         updateData.put("Proposed_ROI__c", roiCalculado);
-        updateData.put("StageName", "Proposal Sent");
-        updateData.put("Probability", 60);
+        updateData.put("StageName", PipelineStage.PROPOSAL.getSalesforceName());
+        updateData.put("Probability", PipelineStage.PROPOSAL.getProbability());
 
         LOGGER.debug("Proposal update prepared: {} (R$ {})", propostaID, investimentoTotal);
     }
@@ -263,107 +323,77 @@ public class CRMUpdateDelegate implements JavaDelegate {
     }
 
     /**
-     * Executes CRM update via API
+     * Hands opportunity fields to the coalescer; stage changes are written at once and awaited
+     */
+    private String submitOpportunityUpdate(String opportunityId, String updateType, Map<String, Object> updateData,
+                                           String cnpj, String nomeCliente) throws Exception {
+        boolean fullSync = "full_sync".equalsIgnoreCase(updateType);
+        boolean stageChange = !fullSync && updateData.containsKey("StageName");
+        LOGGER.info("Submitting CRM opportunity update: {} ({} fields, stage change: {})",
+                   opportunityId, updateData.size(), stageChange);
+
+        ApiPriority lane = fullSync ? ApiPriority.BULK : stageChange ? ApiPriority.CRITICAL : ApiPriority.NORMAL;
+        CompletableFuture<Void> written =
+            CrmWriteCoalescer.salesforceOpportunities().submit(opportunityId, updateData, lane);
+        CrmRecordCache.shared().invalidateWhenWritten(written, cnpj, nomeCliente);
+        if (stageChange) {
+            CrmCalls.await(written);
+        }
+        return "{ \"id\": \"" + opportunityId + "\", \"success\": true, \"queued\": " + !stageChange + " }";
+    }
+
+    /**
+     * Executes CRM update via API; may run twice for one key when hedged
      */
-    private String updateCRM(String opportunityId, Map<String, Object> updateData, int attempt) throws Exception {
+    private String updateCRM(String opportunityId, Map<String, Object> updateData, String idempotencyKey)
+            throws Exception {
         // TODO: Implement actual CRM API integration (Salesforce REST API / HubSpot API)
-        LOGGER.info("Updating CRM opportunity: {} (Attempt {})", opportunityId, attempt);
+        LOGGER.info("Updating CRM opportunity: {}", opportunityId);
 
         // Simulate API call
-        // In production, this would make an HTTP PATCH/PUT request to CRM API
-        // Example: PATCH https://api.salesforce.com/services/data/v57.0/sobjects/Opportunity/{opportunityId}
+        // In production, this would make an HTTP PATCH request to CRM API, upserting on the key
+        // Example: PATCH https://api.salesforce.com/services/data/v57.0/sobjects/Task/AUSTA_Idempotency_Key__c/{idempotencyKey}
+        // via a handle with this delegate's timeout (or the HubSpot API):
+        //   IntegrationHttp crmApi = IntegrationHttp.of("crmUpdate", "https://api.salesforce.com/services/data/v57.0/", TIMEOUT_MS);
+        //   crmApi.send(crmApi.patch("sobjects/Task/AUSTA_Idempotency_Key__c/" + idempotencyKey, ...))
+        // Pass the response status and headers to observe(), which throws RateLimitedException on 429
 
         // Simulated response
-        return "{ \"id\": \"" + opportunityId + "\", \"success\": true, \"errors\": [] }";
+        return RateLimitScheduler.forVendor(RateLimitScheduler.SALESFORCE).call(ApiPriority.BULK, () -> {
+            SimulatedCrmQuota.exchange(RateLimitScheduler.SALESFORCE); // Simulated quota headers
+            return "{ \"id\": \"" + opportunityId + "\", \"success\": true, \"errors\": [] }";
+        });
     }
 
     /**
-     * Maps internal workflow phase to CRM stage name
+     * Feeds the stage, MEDDIC score or activity carried by the update to the reporting views
      */
-    private String mapToCRMStage(String nextPhase, String qualificationResult) {
-        if (nextPhase == null && qualificationResult == null) {
-            return "Open";
+    private void recordReportingEvents(DelegateExecution execution, String opportunityId,
+                                       Map<String, Object> updateData) {
+        PipelineAggregator aggregator = PipelineAggregator.shared();
+        String teamId = (String) execution.getVariable("teamId");
+        long now = System.currentTimeMillis();
+
+        if (updateData.containsKey("ActivityType")) {
+            aggregator.recordActivity(opportunityId, teamId, (String) updateData.get("ActivityType"), now);
+            return;
         }
-
-        if (qualificationResult != null) {
-            switch (qualificationResult) {
-                case "HIGH_QUALIFIED":
-                    return "Qualified - High Priority";
-                case "MEDIUM_QUALIFIED":
-                    return "Qualified - Medium Priority";
-                case "LOW_QUALIFIED":
-                    return "Nurturing";
-                case "DISQUALIFIED":
-                    return "Closed Lost - Disqualified";
-            }
+        if (updateData.get("MEDDIC_Score__c") instanceof Double score) {
+            aggregator.recordMeddicScore(opportunityId, teamId, score, now);
         }
-
-        if (nextPhase != null) {
-            switch (nextPhase.toUpperCase()) {
-                case "QUALIFICATION":
-                    return "Qualification";
-                case "ENGAGEMENT":
-                    return "Engagement";
-                case "VALUE_DEMONSTRATION":
-                    return "Value Demonstration";
-                case "PROPOSAL":
-                    return "Proposal Sent";
-                case "NEGOTIATION":
-                    return "Negotiation";
-                case "CLOSED_WON":
-                    return "Closed Won";
-                case "CLOSED_LOST":
-                    return "Closed Lost";
-                case "NURTURING":
-                    return "Nurturing";
-                default:
-                    return "Open";
-            }
+        PipelineStage stage = PipelineStage.fromSalesforceName((String) updateData.get("StageName"));
+        if (stage != null) {
+            aggregator.recordStageChange(opportunityId, teamId, stage,
+                (Double) updateData.get("Proposed_Investment__c"), now);
         }
-
-        return "Open";
     }
 
     /**
-     * Calculates opportunity probability based on stage
+     * Resolves the pipeline stage: a qualification outcome wins over the next workflow phase
      */
-    private int calculateProbability(String crmStage) {
-        switch (crmStage) {
-            case "Qualification":
-                return 10;
-            case "Qualified - High Priority":
-                return 30;
-            case "Qualified - Medium Priority":
-                return 20;
-            case "Engagement":
-                return 40;
-            case "Value Demonstration":
-                return 50;
-            case "Proposal Sent":
-                return 60;
-            case "Negotiation":
-                return 75;
-            case "Closed Won":
-                return 100;
-            case "Closed Lost":
-            case "Closed Lost - Disqualified":
-                return 0;
-            case "Nurturing":
-                return 5;
-            default:
-                return 10;
-        }
-    }
-
-    /**
-     * Calculates qualification tier from MEDDIC score
-     */
-    private String calculateQualificationTier(Double score) {
-        if (score == null) return "Unqualified";
-        if (score >= 8.0) return "Tier 1 - High";
-        if (score >= 6.0) return "Tier 2 - Medium";
-        if (score >= 4.0) return "Tier 3 - Low";
-        return "Tier 4 - Disqualified";
+    private PipelineStage resolveStage(String nextPhase, String qualificationResult) {
+        PipelineStage stage = PipelineStage.of(qualificationResult);
+        return stage != null ? stage : PipelineStage.of(nextPhase);
     }
 
     /**
@@ -376,9 +406,4 @@ public class CRMUpdateDelegate implements JavaDelegate {
         // HubSpot format would be:
         // return "https://app.hubspot.com/contacts/YOUR_PORTAL_ID/deal/" + opportunityId;
     }
-
-    private int getAttemptNumber(DelegateExecution execution) {
-        Integer attempt = (Integer) execution.getVariable("crmUpdateAttempt");
-        return attempt != null ? attempt : 1;
-    }
 }
@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -46,7 +48,8 @@ public class CalendarInviteDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public CalendarInviteDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -61,7 +64,8 @@ public class CalendarInviteDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("calendarInvite", retryConfig);
+        this.retry = JobRetryPolicy.of("calendarInvite", retryConfig);
+        this.timeout = IntegrationTimeout.of("calendarInvite", TIMEOUT_MS);
     }
 
     @Override
@@ -74,9 +78,8 @@ public class CalendarInviteDelegate implements JavaDelegate {
         validateInputs(eventTitle, startDateTime);
 
         try {
-            Map<String, Object> inviteResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> createCalendarEvent(execution))
-            );
+            Map<String, Object> inviteResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> createCalendarEvent(execution)));
 
             execution.setVariable("calendarInviteSentSuccess", true);
             execution.setVariable("calendarInviteSentTimestamp", new Date());
@@ -85,6 +88,8 @@ public class CalendarInviteDelegate implements JavaDelegate {
 
             LOGGER.info("Calendar invite sent successfully: eventId={}", inviteResult.get("eventId"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Calendar invite failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -45,7 +47,8 @@ public class ClicksignDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public ClicksignDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -60,7 +63,8 @@ public class ClicksignDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("clicksign", retryConfig);
+        this.retry = JobRetryPolicy.of("clicksign", retryConfig);
+        this.timeout = IntegrationTimeout.of("clicksign", TIMEOUT_MS);
     }
 
     @Override
@@ -73,9 +77,8 @@ public class ClicksignDelegate implements JavaDelegate {
         validateInputs(signerEmail, documentName);
 
         try {
-            Map<String, Object> clicksignResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> sendClicksignDocument(execution))
-            );
+            Map<String, Object> clicksignResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> sendClicksignDocument(execution)));
 
             execution.setVariable("clicksignSuccess", true);
             execution.setVariable("clicksignTimestamp", new Date());
@@ -85,6 +88,8 @@ public class ClicksignDelegate implements JavaDelegate {
 
             LOGGER.info("Clicksign document sent successfully: documentKey={}", clicksignResult.get("documentKey"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Clicksign document sending failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -137,6 +142,9 @@ public class ClicksignDelegate implements JavaDelegate {
 
         // TODO: Implement actual Clicksign API call
         // POST https://app.clicksign.com/api/v1/documents
+        // via a handle with this delegate's timeout, shared by the document, signer and list calls:
+        //   IntegrationHttp clicksignApi = IntegrationHttp.of("clicksign", "https://app.clicksign.com/api/v1/", TIMEOUT_MS);
+        //   clicksignApi.send(clicksignApi.post("documents", "application/json", ...))
 
         Thread.sleep(1000); // Simulate API call
 
@@ -163,6 +171,7 @@ public class ClicksignDelegate implements JavaDelegate {
 
         // TODO: Implement actual Clicksign API call
         // POST https://app.clicksign.com/api/v1/signers
+        // via clicksignApi.send(clicksignApi.post("signers", "application/json", ...))
 
         Thread.sleep(500); // Simulate API call
 
@@ -184,6 +193,7 @@ public class ClicksignDelegate implements JavaDelegate {
 
         // TODO: Implement actual Clicksign API call
         // POST https://app.clicksign.com/api/v1/lists
+        // via clicksignApi.send(clicksignApi.post("lists", "application/json", ...))
 
         Thread.sleep(500); // Simulate API call
     }
@@ -1,5 +1,6 @@
 package com.austa.salesprocess.delegates;
 
+import com.austa.vendas.validation.TaxIdValidator;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.stereotype.Component;
@@ -138,9 +139,9 @@ public class ContractGenerationDelegate implements JavaDelegate {
             }
         }
 
-        // Validate CNPJ format
+        // Validate CNPJ check digits
         String cnpj = proposalData.get("clientCNPJ").toString();
-        if (!isValidCNPJ(cnpj)) {
+        if (!TaxIdValidator.isValidCnpj(cnpj)) {
             throw new ValidationException("Invalid CNPJ format: " + cnpj);
         }
     }
@@ -245,23 +246,6 @@ public class ContractGenerationDelegate implements JavaDelegate {
         return "AUSTA-" + datePart + "-" + sequentialPart;
     }
 
-    /**
-     * Validate CNPJ checksum
-     */
-    private boolean isValidCNPJ(String cnpj) {
-        // Remove non-numeric characters
-        cnpj = cnpj.replaceAll("[^0-9]", "");
-
-        // CNPJ must have 14 digits
-        if (cnpj.length() != 14) {
-            return false;
-        }
-
-        // TODO: Implement full CNPJ validation with checksum
-        // For now, just check length and format
-        return true;
-    }
-
     // Custom exceptions
     static class TemplateNotFoundException extends Exception {
         public TemplateNotFoundException(String message) {
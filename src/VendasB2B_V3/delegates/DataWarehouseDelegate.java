@@ -1,8 +1,13 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
+import com.austa.vendas.warehouse.MicroBatchLoader;
+import com.austa.vendas.warehouse.VariableChangeSet;
+import com.austa.vendas.warehouse.WarehouseRecord;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -21,15 +26,36 @@ import java.util.*;
  *
  * Input Variables:
  * - dataType: String - Type of data (opportunity, contract, activity)
- * - syncMode: String - Sync mode (full, incremental)
+ * - syncMode: String - Sync mode (full, incremental; default incremental)
  * - dataPayload: Map - Data to sync
  *
  * Output Variables:
- * - dwSyncSuccess: Boolean - Sync success indicator
+ * - dwSyncSuccess: Boolean - True once the changes are durably accepted into a staged batch
+ *   (or there was nothing to ship); the bulk load itself completes asynchronously
  * - dwSyncTimestamp: Date - Sync timestamp
+ * - dwSyncMode: String - Mode actually used (full, incremental)
+ * - dwVariablesSynced: Integer - Number of workflow variables shipped
  * - recordsInserted: Integer - Number of records inserted
  * - recordsUpdated: Integer - Number of records updated
  *
+ * Change Data Capture:
+ * - Incremental syncs ship only the variables whose fingerprint changed since the last
+ *   successful sync, plus the names of removed variables
+ * - The watermark (dwSyncFingerprints) is only advanced after a successful sync, so a
+ *   failed sync is shipped again by the next one
+ * - A full snapshot is sent on the first sync, when syncMode is "full", and at least
+ *   every 24 hours per process instance for reconciliation
+ * - An incremental sync with no changes skips the warehouse call
+ *
+ * Loading:
+ * - Records are handed to the shared MicroBatchLoader, which stages batches from many
+ *   process instances to compressed columnar files and bulk-loads them (size or time flush)
+ * - The delegate returns once the record is in the loader's durable journal instead of
+ *   holding the job thread until the batch flushes. A failed load is retried from the
+ *   journal with backoff and survives restarts; after repeated failures the record moves
+ *   to the warehouse-records-dead queue. dwSyncSuccess = false therefore only means the
+ *   record could not be journaled
+ *
  * @author AUSTA V3 Backend Team
  * @version 3.0.0
  */
@@ -39,9 +65,20 @@ public class DataWarehouseDelegate implements JavaDelegate {
     private static final Logger LOGGER = LoggerFactory.getLogger(DataWarehouseDelegate.class);
     private static final int MAX_RETRY_ATTEMPTS = 3;
     private static final long TIMEOUT_MS = 45000;
+    private static final Duration FULL_SNAPSHOT_INTERVAL = Duration.ofHours(24);
+    private static final MicroBatchLoader WAREHOUSE_LOADER = MicroBatchLoader.shared();
+
+    private static final String FINGERPRINTS_VARIABLE = "dwSyncFingerprints";
+    private static final String LAST_FULL_SNAPSHOT_VARIABLE = "dwLastFullSnapshot";
+
+    // Bookkeeping written by this delegate; never shipped or fingerprinted
+    private static final Set<String> SYNC_VARIABLES = Set.of(
+        FINGERPRINTS_VARIABLE, LAST_FULL_SNAPSHOT_VARIABLE, "dwSyncSuccess", "dwSyncTimestamp",
+        "dwSyncError", "dwSyncMode", "dwVariablesSynced", "recordsInserted", "recordsUpdated");
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public DataWarehouseDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -56,28 +93,44 @@ public class DataWarehouseDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(10))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("dataWarehouse", retryConfig);
+        this.retry = JobRetryPolicy.of("dataWarehouse", retryConfig);
+        this.timeout = IntegrationTimeout.of("dataWarehouse", TIMEOUT_MS);
     }
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
         String dataType = (String) execution.getVariable("dataType");
+        VariableChangeSet changeSet = captureChanges(execution);
 
-        LOGGER.info("Syncing to data warehouse: dataType={}", dataType);
+        LOGGER.info("Syncing to data warehouse: dataType={}, mode={}, variables={}, removed={}",
+                   dataType, changeSet.isFullSnapshot() ? "full" : "incremental",
+                   changeSet.getVariables().size(), changeSet.getRemovedVariables().size());
 
         try {
-            Map<String, Object> syncResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> syncToDataWarehouse(execution))
-            );
+            Map<String, Object> syncResult = changeSet.isEmpty()
+                ? noChanges()
+                : retry.execute(circuitBreaker, () ->
+                    timeout.call(() -> syncToDataWarehouse(execution, dataType, changeSet)));
 
+            Date syncTimestamp = new Date();
             execution.setVariable("dwSyncSuccess", true);
-            execution.setVariable("dwSyncTimestamp", new Date());
+            execution.setVariable("dwSyncTimestamp", syncTimestamp);
+            execution.setVariable("dwSyncMode", changeSet.isFullSnapshot() ? "full" : "incremental");
+            execution.setVariable("dwVariablesSynced", changeSet.getVariables().size());
             execution.setVariable("recordsInserted", syncResult.get("recordsInserted"));
             execution.setVariable("recordsUpdated", syncResult.get("recordsUpdated"));
 
+            // Advance the watermark only now that the journal holds the data
+            execution.setVariable(FINGERPRINTS_VARIABLE, new HashMap<>(changeSet.getFingerprints()));
+            if (changeSet.isFullSnapshot()) {
+                execution.setVariable(LAST_FULL_SNAPSHOT_VARIABLE, syncTimestamp);
+            }
+
             LOGGER.info("Data warehouse sync completed: inserted={}, updated={}",
                        syncResult.get("recordsInserted"), syncResult.get("recordsUpdated"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Data warehouse sync failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -86,37 +139,63 @@ public class DataWarehouseDelegate implements JavaDelegate {
         }
     }
 
-    private Map<String, Object> syncToDataWarehouse(DelegateExecution execution) throws Exception {
-        String dataType = (String) execution.getVariable("dataType");
-        Map<String, Object> dataPayload = buildDataPayload(execution, dataType);
+    /**
+     * Diffs the workflow variables against the last synced watermark, or takes a full
+     * snapshot when one is requested, missing or due
+     */
+    @SuppressWarnings("unchecked")
+    private VariableChangeSet captureChanges(DelegateExecution execution) {
+        Map<String, Object> variables = execution.getVariables();
+        String syncMode = (String) variables.get("syncMode");
+        Map<String, Long> watermark = (Map<String, Long>) variables.get(FINGERPRINTS_VARIABLE);
+        Date lastFullSnapshot = (Date) variables.get(LAST_FULL_SNAPSHOT_VARIABLE);
 
-        LOGGER.debug("Syncing to data warehouse: {}", dataPayload);
+        boolean fullSnapshotDue = lastFullSnapshot == null
+            || System.currentTimeMillis() - lastFullSnapshot.getTime() >= FULL_SNAPSHOT_INTERVAL.toMillis();
 
-        // TODO: Implement actual Data Warehouse API/ETL call
-        // Could be Snowflake, Redshift, BigQuery, or on-prem warehouse
-        // POST /api/v1/dw/sync or direct SQL insert
+        if ("full".equalsIgnoreCase(syncMode) || watermark == null || fullSnapshotDue) {
+            return VariableChangeSet.full(variables, SYNC_VARIABLES);
+        }
+        return VariableChangeSet.incremental(variables, watermark, SYNC_VARIABLES);
+    }
 
-        Thread.sleep(2000); // Simulate ETL operation
+    private Map<String, Object> noChanges() {
+        LOGGER.debug("No workflow variables changed since the last sync; skipping warehouse call");
 
         Map<String, Object> result = new HashMap<>();
-        result.put("recordsInserted", 1);
+        result.put("recordsInserted", 0);
         result.put("recordsUpdated", 0);
-
         return result;
     }
 
-    private Map<String, Object> buildDataPayload(DelegateExecution execution, String dataType) {
-        Map<String, Object> payload = new HashMap<>();
+    private Map<String, Object> syncToDataWarehouse(DelegateExecution execution, String dataType,
+                                                    VariableChangeSet changeSet) throws Exception {
+        WarehouseRecord record = buildRecord(execution, dataType, changeSet);
 
-        payload.put("dataType", dataType);
-        payload.put("processInstanceId", execution.getProcessInstanceId());
-        payload.put("businessKey", execution.getBusinessKey());
-        payload.put("timestamp", new Date());
+        LOGGER.debug("Queuing warehouse record: processInstanceId={}, mode={}",
+                    record.getProcessInstanceId(), record.getSyncMode());
 
-        // Add all workflow variables
-        Map<String, Object> variables = execution.getVariables();
-        payload.put("workflowData", variables);
+        WAREHOUSE_LOADER.accept(record);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("recordsInserted", changeSet.isFullSnapshot() ? 1 : 0);
+        result.put("recordsUpdated", changeSet.isFullSnapshot() ? 0 : 1);
+
+        return result;
+    }
 
-        return payload;
+    /**
+     * Full snapshot replaces the warehouse row; incremental merges into it
+     */
+    private WarehouseRecord buildRecord(DelegateExecution execution, String dataType,
+                                        VariableChangeSet changeSet) {
+        return WarehouseRecord.of(
+            execution.getProcessInstanceId(),
+            execution.getBusinessKey(),
+            dataType,
+            changeSet.isFullSnapshot() ? "full" : "incremental",
+            new Date(),
+            changeSet.getVariables(),
+            changeSet.getRemovedVariables());
     }
 }
@@ -1,8 +1,12 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.cards.CardTemplate;
+import com.austa.vendas.cards.TemplateCache;
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -34,6 +38,9 @@ import java.util.*;
  * - walletPassUrl: String - Apple/Google Wallet pass URL
  * - qrCodeData: String - QR code data
  *
+ * The card face is rendered from the precompiled digital-card template in the shared
+ * TemplateCache, which also serves HealthCardGenerationDelegate.
+ *
  * @author AUSTA V3 Backend Team
  * @version 3.0.0
  */
@@ -45,7 +52,9 @@ public class DigitalCardDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
+    private final TemplateCache templateCache = TemplateCache.shared();
 
     public DigitalCardDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -60,7 +69,8 @@ public class DigitalCardDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("digitalCard", retryConfig);
+        this.retry = JobRetryPolicy.of("digitalCard", retryConfig);
+        this.timeout = IntegrationTimeout.of("digitalCard", TIMEOUT_MS);
     }
 
     @Override
@@ -73,9 +83,8 @@ public class DigitalCardDelegate implements JavaDelegate {
         validateInputs(beneficiaryId, beneficiaryName);
 
         try {
-            Map<String, Object> cardResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> generateDigitalCard(execution))
-            );
+            Map<String, Object> cardResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> generateDigitalCard(execution)));
 
             execution.setVariable("digitalCardSuccess", true);
             execution.setVariable("digitalCardTimestamp", new Date());
@@ -85,6 +94,8 @@ public class DigitalCardDelegate implements JavaDelegate {
 
             LOGGER.info("Digital card generated successfully");
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Digital card generation failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -107,15 +118,22 @@ public class DigitalCardDelegate implements JavaDelegate {
 
         LOGGER.debug("Generating digital card: {}", cardData);
 
+        String qrCodeData = generateQRCodeData(cardData);
+        cardData.put("qrCodeData", qrCodeData);
+        CardTemplate template = templateCache.get(TemplateCache.DIGITAL_CARD);
+        byte[] cardFace = template.render(cardData);
+
+        LOGGER.debug("Digital card face rendered: template={} version={}, {} bytes",
+            template.getId(), template.getVersion(), cardFace.length);
+
         // TODO: Implement actual Card Generation API call
-        // POST /api/v1/cards/generate
+        // POST /api/v1/cards/generate (card data and rendered card face)
 
         Thread.sleep(1500); // Simulate API call
 
         String cardId = "CARD-" + System.currentTimeMillis();
         String cardUrl = "https://cards.austa.com.br/" + cardId;
         String walletPassUrl = "https://wallet.austa.com.br/pass/" + cardId;
-        String qrCodeData = generateQRCodeData(cardData);
 
         Map<String, Object> result = new HashMap<>();
         result.put("cardId", cardId);
@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -45,7 +47,8 @@ public class DocuSignDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public DocuSignDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -60,7 +63,8 @@ public class DocuSignDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("docusign", retryConfig);
+        this.retry = JobRetryPolicy.of("docusign", retryConfig);
+        this.timeout = IntegrationTimeout.of("docusign", TIMEOUT_MS);
     }
 
     @Override
@@ -73,9 +77,8 @@ public class DocuSignDelegate implements JavaDelegate {
         validateInputs(signerEmail, documentName);
 
         try {
-            Map<String, Object> envelopeResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> sendDocuSignEnvelope(execution))
-            );
+            Map<String, Object> envelopeResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> sendDocuSignEnvelope(execution)));
 
             execution.setVariable("docusignSendSuccess", true);
             execution.setVariable("docusignSendTimestamp", new Date());
@@ -85,6 +88,8 @@ public class DocuSignDelegate implements JavaDelegate {
 
             LOGGER.info("DocuSign envelope sent successfully: envelopeId={}", envelopeResult.get("envelopeId"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("DocuSign envelope sending failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -109,6 +114,9 @@ public class DocuSignDelegate implements JavaDelegate {
 
         // TODO: Implement actual DocuSign API call
         // POST https://demo.docusign.net/restapi/v2.1/accounts/{accountId}/envelopes
+        // via a handle with this delegate's timeout:
+        //   IntegrationHttp docuSignApi = IntegrationHttp.of("docusign", "https://demo.docusign.net/restapi/v2.1/", TIMEOUT_MS);
+        //   docuSignApi.send(docuSignApi.post("accounts/" + accountId + "/envelopes", "application/json", ...))
 
         Thread.sleep(1500); // Simulate API call
 
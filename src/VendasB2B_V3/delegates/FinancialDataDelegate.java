@@ -1,8 +1,12 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.cache.BureauCache;
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
+import com.austa.vendas.validation.TaxIdValidator;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -36,6 +40,10 @@ import java.util.Map;
  * - complianceStatus: String - Compliance check result
  * - validationDetails: Map - Detailed validation results
  *
+ * Caching:
+ * - Credit, compliance and tax bureau answers are cached per CNPJ for 12 hours;
+ *   credit approval is still evaluated against each contract's value
+ *
  * @author AUSTA V3 Backend Team
  * @version 3.0.0
  */
@@ -46,8 +54,13 @@ public class FinancialDataDelegate implements JavaDelegate {
     private static final int MAX_RETRY_ATTEMPTS = 3;
     private static final long TIMEOUT_MS = 30000;
 
+    // Bureau answers per CNPJ, shared across processes, retries and opportunities
+    private static final BureauCache BUREAU_CACHE =
+        BureauCache.named("financialBureau", 10000, Duration.ofHours(12));
+
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public FinancialDataDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -62,7 +75,8 @@ public class FinancialDataDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("financialData", retryConfig);
+        this.retry = JobRetryPolicy.of("financialData", retryConfig);
+        this.timeout = IntegrationTimeout.of("financialData", TIMEOUT_MS);
     }
 
     @Override
@@ -76,9 +90,8 @@ public class FinancialDataDelegate implements JavaDelegate {
         validateInputs(cnpj);
 
         try {
-            Map<String, Object> validationResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> performValidation(execution, validationType))
-            );
+            Map<String, Object> validationResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> performValidation(execution, validationType)));
 
             execution.setVariable("financialValidationSuccess", true);
             execution.setVariable("financialValidationTimestamp", new Date());
@@ -90,6 +103,8 @@ public class FinancialDataDelegate implements JavaDelegate {
             LOGGER.info("Financial validation completed: credit approved = {}",
                        validationResult.get("creditApproved"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Financial validation failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -103,70 +118,83 @@ public class FinancialDataDelegate implements JavaDelegate {
         if (cnpj == null || cnpj.trim().isEmpty()) {
             throw new IllegalArgumentException("CNPJ is required for financial validation");
         }
-        if (!isValidCNPJ(cnpj)) {
-            throw new IllegalArgumentException("Invalid CNPJ format");
+        if (!TaxIdValidator.isValidCnpj(cnpj)) {
+            throw new IllegalArgumentException("Invalid CNPJ: " + cnpj);
         }
     }
 
-    private boolean isValidCNPJ(String cnpj) {
-        // Remove non-digits
-        String cleanCNPJ = cnpj.replaceAll("[^0-9]", "");
-        return cleanCNPJ.length() == 14;
-    }
-
     private Map<String, Object> performValidation(DelegateExecution execution, String validationType)
             throws Exception {
 
         LOGGER.debug("Performing {} validation", validationType);
 
-        // TODO: Implement actual financial API integrations:
-        // - Serasa Experian API for credit check
-        // - Receita Federal API for tax compliance
-        // - ANS API for healthcare regulatory compliance
-
-        Thread.sleep(1500); // Simulate API calls
-
+        String cnpj = (String) execution.getVariable("cnpj");
         Map<String, Object> result = new HashMap<>();
 
         switch (validationType != null ? validationType.toLowerCase() : "credit") {
             case "credit":
-                performCreditCheck(execution, result);
+                performCreditCheck(execution, cnpj, result);
                 break;
             case "compliance":
-                performComplianceCheck(execution, result);
+                performComplianceCheck(cnpj, result);
                 break;
             case "tax":
-                performTaxValidation(execution, result);
+                performTaxValidation(cnpj, result);
                 break;
             default:
-                performCreditCheck(execution, result);
-                performComplianceCheck(execution, result);
+                performCreditCheck(execution, cnpj, result);
+                performComplianceCheck(cnpj, result);
         }
 
         return result;
     }
 
-    private void performCreditCheck(DelegateExecution execution, Map<String, Object> result) {
+    private void performCreditCheck(DelegateExecution execution, String cnpj, Map<String, Object> result)
+            throws Exception {
         Double valorContrato = (Double) execution.getVariable("valorContrato");
 
-        // Simulate credit scoring
-        int creditScore = (int) (Math.random() * 300 + 700); // 700-1000
+        // Bureau data depends only on the company; approval also depends on this contract's value
+        Map<String, Object> bureauData = BUREAU_CACHE.get(cnpj, "credit", () -> queryCreditBureau(cnpj));
+        int creditScore = (Integer) bureauData.get("creditScore");
         boolean creditApproved = creditScore >= 750 &&
                                 (valorContrato == null || valorContrato <= 5000000);
 
         result.put("creditScore", creditScore);
         result.put("creditApproved", creditApproved);
         result.put("creditRating", calculateCreditRating(creditScore));
+        result.put("details", bureauData.get("details"));
+    }
+
+    /**
+     * Queries the credit bureau for the company's score and credit details
+     */
+    private Map<String, Object> queryCreditBureau(String cnpj) throws InterruptedException {
+        // TODO: Implement Serasa Experian API call for credit check
+        Thread.sleep(500); // Simulate API call
+
+        Map<String, Object> bureauData = new HashMap<>();
+        bureauData.put("creditScore", (int) (Math.random() * 300 + 700)); // 700-1000
 
         Map<String, Object> details = new HashMap<>();
         details.put("paymentHistory", "Good");
         details.put("debtRatio", 0.35);
         details.put("creditLimit", 10000000.0);
-        result.put("details", details);
+        bureauData.put("details", details);
+
+        return bureauData;
+    }
+
+    private void performComplianceCheck(String cnpj, Map<String, Object> result) throws Exception {
+        result.putAll(BUREAU_CACHE.get(cnpj, "compliance", () -> queryComplianceStatus(cnpj)));
     }
 
-    private void performComplianceCheck(DelegateExecution execution, Map<String, Object> result) {
-        // Simulate compliance checks
+    /**
+     * Checks regulatory compliance of the company
+     */
+    private Map<String, Object> queryComplianceStatus(String cnpj) throws InterruptedException {
+        // TODO: Implement ANS API call for healthcare regulatory compliance
+        Thread.sleep(500); // Simulate API call
+
         boolean ansCompliant = true;
         boolean taxCompliant = true;
         boolean regulatoryCompliant = true;
@@ -174,22 +202,33 @@ public class FinancialDataDelegate implements JavaDelegate {
         String complianceStatus = (ansCompliant && taxCompliant && regulatoryCompliant)
             ? "COMPLIANT" : "NON_COMPLIANT";
 
-        result.put("complianceStatus", complianceStatus);
-        result.put("ansCompliant", ansCompliant);
-        result.put("taxCompliant", taxCompliant);
-        result.put("regulatoryCompliant", regulatoryCompliant);
+        Map<String, Object> compliance = new HashMap<>();
+        compliance.put("complianceStatus", complianceStatus);
+        compliance.put("ansCompliant", ansCompliant);
+        compliance.put("taxCompliant", taxCompliant);
+        compliance.put("regulatoryCompliant", regulatoryCompliant);
+        return compliance;
     }
 
-    private void performTaxValidation(DelegateExecution execution, Map<String, Object> result) {
-        String cnpj = (String) execution.getVariable("cnpj");
+    private void performTaxValidation(String cnpj, Map<String, Object> result) throws Exception {
+        result.putAll(BUREAU_CACHE.get(cnpj, "tax", () -> queryTaxStatus(cnpj)));
+    }
+
+    /**
+     * Checks the company's tax registration status
+     */
+    private Map<String, Object> queryTaxStatus(String cnpj) throws InterruptedException {
+        // TODO: Implement Receita Federal API call for tax compliance
+        Thread.sleep(500); // Simulate API call
 
-        // Simulate tax validation
         boolean taxRegularized = true;
         boolean activeRegistration = true;
 
-        result.put("taxRegularized", taxRegularized);
-        result.put("activeRegistration", activeRegistration);
-        result.put("taxStatus", "REGULAR");
+        Map<String, Object> tax = new HashMap<>();
+        tax.put("taxRegularized", taxRegularized);
+        tax.put("activeRegistration", activeRegistration);
+        tax.put("taxStatus", "REGULAR");
+        return tax;
     }
 
     private String calculateCreditRating(int score) {
@@ -1,19 +1,21 @@
 package com.austa.salesprocess.delegates;
 
+import com.austa.vendas.cards.CardPipeline;
+import com.austa.vendas.cards.CardPipelineException;
+import com.austa.vendas.cards.CardTemplate;
+import com.austa.vendas.cards.TemplateCache;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Health Card Generation Delegate - AUSTA V3
@@ -29,6 +31,14 @@ import java.util.UUID;
  * - Store PDFs in document management system
  * - Return card URLs for distribution
  *
+ * Processing:
+ * - Cards go through the shared CardPipeline: rendering (card data, QR code, PDF) runs
+ *   in parallel across cores and each card is uploaded as soon as it is rendered
+ * - At most a bounded number of PDFs are held in memory at once, whatever the roster size
+ * - cardUrls keeps the order of beneficiariesData
+ * - The card template comes precompiled from the shared TemplateCache; one version is
+ *   resolved per roster, so per-card work is limited to the variable fields
+ *
  * Card Components:
  * - Beneficiary photo (if available)
  * - Full name
@@ -53,6 +63,16 @@ public class HealthCardGenerationDelegate implements JavaDelegate {
 
     private static final String CARD_FORMAT = "PDF";
     private static final String CARD_SIZE = "CR80"; // Standard credit card size (85.60 × 53.98 mm)
+    private static final DateTimeFormatter CARD_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final Map<String, String> PLAN_NAMES = Map.of(
+        "AUSTA_UTI_01", "AUSTA UTI Completa",
+        "AUSTA_RADIO_01", "AUSTA Radiologia Premium",
+        "AUSTA_CORP_01", "AUSTA Corporativo Plus",
+        "AUSTA_COMBO_01", "AUSTA Combo Integrado"
+    );
+
+    private final CardPipeline cardPipeline = CardPipeline.shared();
+    private final TemplateCache templateCache = TemplateCache.shared();
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -67,20 +87,17 @@ public class HealthCardGenerationDelegate implements JavaDelegate {
             String ansProtocolNumber = (String) execution.getVariable("ansProtocolNumber");
             String contractId = (String) execution.getVariable("contractId");
 
-            // Generate cards for all beneficiaries
-            List<HealthCard> generatedCards = generateHealthCards(beneficiariesData, ansProtocolNumber, contractId);
-
-            // Store cards in document management system
-            List<String> cardUrls = storeHealthCards(generatedCards);
+            // Generate cards for all beneficiaries, storing each one as soon as it is rendered
+            List<String> cardUrls = generateHealthCards(beneficiariesData, ansProtocolNumber, contractId);
 
             // Set output variables
             execution.setVariable("healthCardsGenerated", true);
             execution.setVariable("cardUrls", cardUrls);
-            execution.setVariable("totalCardsGenerated", generatedCards.size());
+            execution.setVariable("totalCardsGenerated", cardUrls.size());
             execution.setVariable("cardGenerationDate", LocalDateTime.now().toString());
 
             log.info("Successfully generated {} health cards for process: {}",
-                    generatedCards.size(), execution.getProcessInstanceId());
+                    cardUrls.size(), execution.getProcessInstanceId());
 
         } catch (TemplateException e) {
             log.error("Card template error: {}", e.getMessage());
@@ -99,37 +116,42 @@ public class HealthCardGenerationDelegate implements JavaDelegate {
     }
 
     /**
-     * Generate health cards for all beneficiaries
+     * Generate and store health cards for all beneficiaries; returns the card URLs in roster order
      */
-    private List<HealthCard> generateHealthCards(List<Map<String, Object>> beneficiariesData,
-                                                 String ansProtocolNumber, String contractId)
-            throws CardGenerationException {
-
-        List<HealthCard> generatedCards = new ArrayList<>();
-
-        for (Map<String, Object> beneficiary : beneficiariesData) {
-            try {
-                HealthCard card = generateSingleCard(beneficiary, ansProtocolNumber, contractId);
-                generatedCards.add(card);
+    private List<String> generateHealthCards(List<Map<String, Object>> beneficiariesData,
+                                             String ansProtocolNumber, String contractId)
+            throws CardGenerationException, TemplateException, InterruptedException {
 
-                log.info("Generated card: {} for beneficiary: {}",
-                        card.getCardNumber(), beneficiary.get("fullName"));
+        CardTemplate template;
+        try {
+            template = templateCache.get(TemplateCache.HEALTH_CARD);
+        } catch (IllegalArgumentException e) {
+            throw new TemplateException(e.getMessage());
+        }
+        log.info("Using card template {} version {}", template.getId(), template.getVersion());
 
-            } catch (Exception e) {
-                log.error("Failed to generate card for beneficiary: {}", beneficiary.get("fullName"), e);
-                throw new CardGenerationException(
-                    "Failed to generate card for: " + beneficiary.get("fullName") + " - " + e.getMessage()
-                );
+        try {
+            return cardPipeline.run(beneficiariesData,
+                    beneficiary -> generateSingleCard(template, beneficiary, ansProtocolNumber, contractId),
+                    this::storeHealthCard);
+
+        } catch (CardPipelineException e) {
+            // A template problem affects every card, so it is reported as such
+            if (e.getCause() instanceof TemplateException templateException) {
+                throw templateException;
             }
+            Object fullName = beneficiariesData.get(e.getIndex()).get("fullName");
+            log.error("Failed to generate card for beneficiary: {}", fullName, e.getCause());
+            throw new CardGenerationException(
+                "Failed to generate card for: " + fullName + " - " + e.getCause().getMessage()
+            );
         }
-
-        return generatedCards;
     }
 
     /**
      * Generate single health card
      */
-    private HealthCard generateSingleCard(Map<String, Object> beneficiary,
+    private HealthCard generateSingleCard(CardTemplate template, Map<String, Object> beneficiary,
                                          String ansProtocolNumber, String contractId)
             throws Exception {
 
@@ -148,7 +170,7 @@ public class HealthCardGenerationDelegate implements JavaDelegate {
         cardData.put("ansOperatorCode", "123456"); // AUSTA's ANS code
         cardData.put("ansProtocol", ansProtocolNumber);
         cardData.put("contractId", contractId);
-        cardData.put("issueDate", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+        cardData.put("issueDate", LocalDateTime.now().format(CARD_DATE_FORMAT));
         cardData.put("validUntil", calculateValidUntil());
         cardData.put("emergencyPhone", "0800-123-4567");
 
@@ -156,7 +178,9 @@ public class HealthCardGenerationDelegate implements JavaDelegate {
         String qrCodeData = generateQRCode(cardNumber, cardData);
 
         // Generate PDF card
-        byte[] pdfData = generatePDFCard(cardData, qrCodeData);
+        byte[] pdfData = generatePDFCard(template, cardData, qrCodeData);
+
+        log.debug("Generated card: {} for beneficiary: {}", cardNumber, beneficiary.get("fullName"));
 
         return new HealthCard(cardNumber, (String) beneficiary.get("cpf"), pdfData);
     }
@@ -167,7 +191,7 @@ public class HealthCardGenerationDelegate implements JavaDelegate {
     private String generateCardNumber(Map<String, Object> beneficiary) {
         String cpf = ((String) beneficiary.get("cpf")).replaceAll("[^0-9]", "");
         String timestamp = String.valueOf(System.currentTimeMillis()).substring(6);
-        String random = String.format("%04d", (int)(Math.random() * 9999));
+        String random = String.format("%04d", ThreadLocalRandom.current().nextInt(9999));
 
         return cpf.substring(0, 4) + timestamp + random;
     }
@@ -186,7 +210,7 @@ public class HealthCardGenerationDelegate implements JavaDelegate {
     private String formatDate(String dateStr) {
         try {
             LocalDateTime date = LocalDateTime.parse(dateStr + "T00:00:00");
-            return date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+            return date.format(CARD_DATE_FORMAT);
         } catch (Exception e) {
             return dateStr; // Return as-is if parsing fails
         }
@@ -196,13 +220,7 @@ public class HealthCardGenerationDelegate implements JavaDelegate {
      * Get plan name from plan code
      */
     private String getPlanName(String planCode) {
-        Map<String, String> planNames = new HashMap<>();
-        planNames.put("AUSTA_UTI_01", "AUSTA UTI Completa");
-        planNames.put("AUSTA_RADIO_01", "AUSTA Radiologia Premium");
-        planNames.put("AUSTA_CORP_01", "AUSTA Corporativo Plus");
-        planNames.put("AUSTA_COMBO_01", "AUSTA Combo Integrado");
-
-        return planNames.getOrDefault(planCode, "AUSTA Health Plan");
+        return planCode != null ? PLAN_NAMES.getOrDefault(planCode, "AUSTA Health Plan") : "AUSTA Health Plan";
     }
 
     /**
@@ -210,7 +228,7 @@ public class HealthCardGenerationDelegate implements JavaDelegate {
      */
     private String calculateValidUntil() {
         LocalDateTime validUntil = LocalDateTime.now().plusMonths(12);
-        return validUntil.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        return validUntil.format(CARD_DATE_FORMAT);
     }
 
     /**
@@ -232,49 +250,31 @@ public class HealthCardGenerationDelegate implements JavaDelegate {
     /**
      * Generate PDF card using template
      */
-    private byte[] generatePDFCard(Map<String, String> cardData, String qrCodeData)
-            throws Exception {
-
-        log.info("Generating PDF card for: {}", cardData.get("fullName"));
-
-        // TODO: Integrate with PDF generation library (iText, Apache PDFBox, etc.)
-        // - Load card template
-        // - Populate template with beneficiary data
-        // - Add QR code image
-        // - Add beneficiary photo (if available)
-        // - Generate PDF with standard card dimensions (CR80: 85.60 × 53.98 mm)
+    private byte[] generatePDFCard(CardTemplate template, Map<String, String> cardData, String qrCodeData) {
 
-        // Mock implementation - return empty byte array
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        log.debug("Generating PDF card for: {}", cardData.get("fullName"));
 
-        // Mock PDF content
-        String mockPDF = "PDF_CONTENT_FOR_CARD_" + cardData.get("cardNumber");
-        outputStream.write(mockPDF.getBytes());
-
-        log.info("PDF card generated successfully");
-
-        return outputStream.toByteArray();
+        // Static layers, fonts and field positions are precompiled; only the values are laid out here
+        // TODO: Add beneficiary photo (if available)
+        cardData.put("qrCode", qrCodeData);
+        return template.render(cardData);
     }
 
     /**
-     * Store health cards in document management system
+     * Store a health card in the document management system; the card's PDF is not
+     * referenced after this returns
      */
-    private List<String> storeHealthCards(List<HealthCard> generatedCards) {
-        List<String> cardUrls = new ArrayList<>();
+    private String storeHealthCard(HealthCard card) {
+        // TODO: Store PDF in document management system (S3, Azure Blob, etc.)
+        // - Upload PDF file (card.getPdfData())
+        // - Generate access URL
+        // - Set permissions (private, expiring link)
 
-        for (HealthCard card : generatedCards) {
-            // TODO: Store PDF in document management system (S3, Azure Blob, etc.)
-            // - Upload PDF file
-            // - Generate access URL
-            // - Set permissions (private, expiring link)
+        String cardUrl = "https://cards.austa.com.br/" + card.getCardNumber() + ".pdf";
 
-            String cardUrl = "https://cards.austa.com.br/" + card.getCardNumber() + ".pdf";
-            cardUrls.add(cardUrl);
-
-            log.info("Card stored: {} at URL: {}", card.getCardNumber(), cardUrl);
-        }
+        log.debug("Card stored: {} at URL: {}", card.getCardNumber(), cardUrl);
 
-        return cardUrls;
+        return cardUrl;
     }
 
     // Health card data class
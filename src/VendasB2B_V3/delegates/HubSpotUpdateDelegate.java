@@ -1,8 +1,20 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.cache.CrmRecordCache;
+import com.austa.vendas.crm.CrmCalls;
+import com.austa.vendas.crm.CrmWriteCoalescer;
+import com.austa.vendas.crm.HubSpotBatchClient;
+import com.austa.vendas.crm.PipelineStage;
+import com.austa.vendas.crm.QualificationTier;
+import com.austa.vendas.crm.SimulatedCrmQuota;
+import com.austa.vendas.resilience.ApiPriority;
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RateLimitScheduler;
+import com.austa.vendas.resilience.RateLimitedException;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -14,6 +26,8 @@ import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * HubSpotUpdateDelegate - Updates contact and company records in HubSpot CRM
@@ -24,10 +38,11 @@ import java.util.Map;
  * Input Variables:
  * - contactEmail: String - Contact email (HubSpot identifier)
  * - companyDomain: String - Company domain for lookup
+ * - cnpj: String - Optional company CNPJ, used to invalidate the cached CRM company record
  * - dealId: String - HubSpot deal ID
  * - updateType: String - Type of update (contact, company, deal, engagement)
  * - lifecycleStage: String - HubSpot lifecycle stage
- * - dealStage: String - Deal pipeline stage
+ * - dealStage: String - Deal pipeline stage (internal PipelineStage name or HubSpot stage id)
  * - dealAmount: Double - Deal amount
  * - leadScore: Integer - Lead score (0-100)
  * - lastActivity: String - Last activity description
@@ -38,6 +53,7 @@ import java.util.Map;
  * - hubspotContactUrl: String - URL to contact in HubSpot
  * - hubspotDealUrl: String - URL to deal in HubSpot
  * - hubspotRecordId: String - Updated record ID
+ * - hubspotUpdateCoalesced: Boolean - True when the deal update was queued for a coalesced write
  *
  * HubSpot API Integration:
  * - API Version: v3
@@ -55,10 +71,27 @@ import java.util.Map;
  * Custom Properties:
  * - austa_meddic_score: MEDDIC qualification score
  * - austa_process_id: Camunda process instance
- * - austa_qualification_tier: High/Medium/Low
+ * - austa_qualification_tier: High/Medium/Low/Disqualified (QualificationTier)
  * - austa_engagement_score: Engagement level
  * - austa_roi_calculated: ROI percentage
  *
+ * Batch mode (HubSpotBatchClient, on unless austa.hubspot.batch-mode=false):
+ * - Contact and engagement updates are upserted by contactEmail, company updates by
+ *   companyDomain, grouped with other process instances into batch requests of up to 100
+ * - Coalesced deal writes join the deals batch/update request
+ * - Each execution waits for its own input's result; hubspotRecordId and hubspotContactUrl
+ *   come from that result and an input rejected by HubSpot fails only its own execution
+ * - Updates without an identifier are sent one by one as before
+ *
+ * Write coalescing: deal updates with a dealId go through the hubspot-deal CrmWriteCoalescer,
+ * which merges the properties written to the same deal within a short window into one
+ * PATCH. An update carrying dealstage is written at once and awaited; other deal updates
+ * return once durably queued. Contact, company and engagement updates are sent directly.
+ *
+ * Rate limiting: every call waits on the shared hubspot RateLimitScheduler; deal stage
+ * changes use the CRITICAL lane, engagement updates the BULK lane. A 429
+ * (RateLimitedException) is retried but never counts against the circuit breaker.
+ *
  * Error Handling:
  * - Circuit Breaker: Opens after 5 failures
  * - Retry: 3 attempts with exponential backoff
@@ -74,16 +107,18 @@ public class HubSpotUpdateDelegate implements JavaDelegate {
     private static final Logger LOGGER = LoggerFactory.getLogger(HubSpotUpdateDelegate.class);
     private static final int MAX_RETRY_ATTEMPTS = 3;
     private static final long TIMEOUT_MS = 30000;
-    private static final String HUBSPOT_API_BASE = "https://api.hubapi.com/crm/v3";
+    private static final Set<String> NON_DEAL_UPDATE_TYPES = Set.of("contact", "company", "engagement");
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public HubSpotUpdateDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
             .failureRateThreshold(50)
             .waitDurationInOpenState(Duration.ofSeconds(60))
             .slidingWindowSize(10)
+            .ignoreExceptions(RateLimitedException.class)
             .build();
         this.circuitBreaker = CircuitBreaker.of("hubspotUpdate", cbConfig);
 
@@ -92,7 +127,8 @@ public class HubSpotUpdateDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("hubspotUpdate", retryConfig);
+        this.retry = JobRetryPolicy.of("hubspotUpdate", retryConfig);
+        this.timeout = IntegrationTimeout.of("hubspotUpdate", TIMEOUT_MS);
     }
 
     @Override
@@ -105,15 +141,15 @@ public class HubSpotUpdateDelegate implements JavaDelegate {
                     updateType, contactEmail, dealId);
 
         try {
-            Map<String, Object> updateResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> performUpdate(execution, updateType))
-            );
+            Map<String, Object> updateResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> performUpdate(execution, updateType, dealId)));
 
             execution.setVariable("hubspotUpdateSuccess", true);
             execution.setVariable("hubspotUpdateTimestamp", new Date());
             execution.setVariable("hubspotRecordId", updateResult.get("recordId"));
+            execution.setVariable("hubspotUpdateCoalesced", updateResult.get("coalesced"));
 
-            if (contactEmail != null) {
+            if (contactEmail != null && updateResult.get("contactId") != null) {
                 execution.setVariable("hubspotContactUrl",
                     generateContactUrl((String) updateResult.get("contactId")));
             }
@@ -123,6 +159,8 @@ public class HubSpotUpdateDelegate implements JavaDelegate {
 
             LOGGER.info("HubSpot update completed successfully");
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("HubSpot update failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -132,22 +170,75 @@ public class HubSpotUpdateDelegate implements JavaDelegate {
         }
     }
 
-    private Map<String, Object> performUpdate(DelegateExecution execution, String updateType)
+    private Map<String, Object> performUpdate(DelegateExecution execution, String updateType, String dealId)
             throws Exception {
 
         Map<String, Object> properties = buildProperties(execution, updateType);
 
         LOGGER.debug("Updating HubSpot with properties: {}", properties);
 
-        // TODO: Implement actual HubSpot API call
-        // Example: PATCH https://api.hubapi.com/crm/v3/objects/deals/{dealId}
-        // Headers: Authorization: Bearer {access_token}, Content-Type: application/json
+        boolean dealUpdate = updateType == null || !NON_DEAL_UPDATE_TYPES.contains(updateType.toLowerCase());
+        if (dealUpdate && dealId != null) {
+            // Deal properties: merged per deal; stage changes are written at once
+            boolean stageChange = properties.containsKey("dealstage");
+            CompletableFuture<Void> written = CrmWriteCoalescer.hubSpotDeals().submit(dealId, properties,
+                stageChange ? ApiPriority.CRITICAL : ApiPriority.NORMAL);
+            CrmRecordCache.shared().invalidateWhenWritten(written, (String) execution.getVariable("cnpj"),
+                (String) execution.getVariable("nomeCliente"));
+            if (stageChange) {
+                CrmCalls.await(written);
+            }
 
-        Thread.sleep(1000); // Simulate API call
+            Map<String, Object> result = new HashMap<>();
+            result.put("recordId", dealId);
+            result.put("coalesced", !stageChange);
+            return result;
+        }
+
+        String normalizedType = updateType != null ? updateType.toLowerCase() : "deal";
+        boolean contactUpdate = normalizedType.equals("contact") || normalizedType.equals("engagement");
+        String upsertKey = contactUpdate ? (String) execution.getVariable("contactEmail")
+            : normalizedType.equals("company") ? (String) execution.getVariable("companyDomain") : null;
+        ApiPriority lane = normalizedType.equals("engagement") ? ApiPriority.BULK : ApiPriority.NORMAL;
+
+        if (upsertKey != null && HubSpotBatchClient.isEnabled()) {
+            // Batched with the updates of other process instances; result is this input's record
+            CompletableFuture<String> upserted = contactUpdate
+                ? HubSpotBatchClient.shared().submit("contacts", "email", upsertKey, properties, lane)
+                : HubSpotBatchClient.shared().submit("companies", "domain", upsertKey, properties, lane);
+            CrmRecordCache.shared().invalidateWhenWritten(upserted, (String) execution.getVariable("cnpj"),
+                (String) execution.getVariable("nomeCliente"));
+            String recordId = CrmCalls.await(upserted);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("recordId", recordId);
+            if (contactUpdate) {
+                result.put("contactId", recordId);
+            }
+            result.put("coalesced", false);
+            return result;
+        }
+
+        RateLimitScheduler.forVendor(RateLimitScheduler.HUBSPOT).call(lane, () -> {
+            // TODO: Implement actual HubSpot API call
+            // Example: PATCH https://api.hubapi.com/crm/v3/objects/contacts/{contactId}
+            // via a handle with this delegate's timeout:
+            //   IntegrationHttp hubSpotApi = IntegrationHttp.of("hubspotUpdate", "https://api.hubapi.com/crm/v3/", TIMEOUT_MS);
+            //   hubSpotApi.send(hubSpotApi.patch("objects/contacts/" + contactId, "application/json", ...))
+            // Headers: Authorization: Bearer {access_token}, Content-Type: application/json
+            // Pass the response status and headers to observe(), which throws RateLimitedException on 429
+
+            Thread.sleep(1000); // Simulate API call
+            SimulatedCrmQuota.exchange(RateLimitScheduler.HUBSPOT); // Simulated quota headers
+            return null;
+        });
+        CrmRecordCache.shared().invalidate((String) execution.getVariable("cnpj"),
+            (String) execution.getVariable("nomeCliente"));
 
         Map<String, Object> result = new HashMap<>();
         result.put("recordId", "12345678");
         result.put("contactId", "87654321");
+        result.put("coalesced", false);
 
         return result;
     }
@@ -212,7 +303,7 @@ public class HubSpotUpdateDelegate implements JavaDelegate {
         Date closeDate = (Date) execution.getVariable("closeDate");
         String nomeCliente = (String) execution.getVariable("nomeCliente");
 
-        if (dealStage != null) props.put("dealstage", dealStage);
+        if (dealStage != null) props.put("dealstage", toHubSpotDealStage(dealStage));
         if (dealAmount != null) props.put("amount", dealAmount);
         if (closeDate != null) props.put("closedate", closeDate.getTime());
         if (nomeCliente != null) props.put("dealname", nomeCliente + " - AUSTA Health");
@@ -220,10 +311,18 @@ public class HubSpotUpdateDelegate implements JavaDelegate {
         Double scoreMEDDIC = (Double) execution.getVariable("scoreMEDDIC");
         if (scoreMEDDIC != null) {
             props.put("austa_meddic_score", scoreMEDDIC);
-            props.put("austa_qualification_tier", calculateTier(scoreMEDDIC));
+            props.put("austa_qualification_tier", QualificationTier.ofScore(scoreMEDDIC).getHubSpotLabel());
         }
     }
 
+    /**
+     * Maps an internal pipeline stage to its HubSpot deal stage; other values are HubSpot ids already
+     */
+    private String toHubSpotDealStage(String dealStage) {
+        PipelineStage stage = PipelineStage.of(dealStage);
+        return stage != null ? stage.getHubSpotName() : dealStage;
+    }
+
     private void buildEngagementProperties(DelegateExecution execution, Map<String, Object> props) {
         String lastActivity = (String) execution.getVariable("lastActivity");
         Integer engagementScore = (Integer) execution.getVariable("scoreEngajamento_ENG");
@@ -232,13 +331,6 @@ public class HubSpotUpdateDelegate implements JavaDelegate {
         if (engagementScore != null) props.put("austa_engagement_score", engagementScore);
     }
 
-    private String calculateTier(Double score) {
-        if (score >= 8.0) return "High";
-        if (score >= 6.0) return "Medium";
-        if (score >= 4.0) return "Low";
-        return "Disqualified";
-    }
-
     private String generateContactUrl(String contactId) {
         return "https://app.hubspot.com/contacts/YOUR_PORTAL_ID/contact/" + contactId;
     }
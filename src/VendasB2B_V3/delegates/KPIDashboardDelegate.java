@@ -1,17 +1,15 @@
 package com.austa.vendas.delegates;
 
-import io.github.resilience4j.circuitbreaker.CircuitBreaker;
-import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryConfig;
+import com.austa.vendas.crm.PipelineStage;
+import com.austa.vendas.kpi.KpiAggregator;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
-import java.util.*;
+import java.util.Date;
+import java.util.List;
 
 /**
  * KPIDashboardDelegate - Updates real-time KPI dashboards
@@ -31,6 +29,13 @@ import java.util.*;
  * - kpiUpdateTimestamp: Date - Update timestamp
  * - dashboardUrl: String - Dashboard URL
  * - updatedMetrics: List<String> - List of updated KPIs
+ * - kpiNextPublish: Date - When the snapshot including this update is written
+ *
+ * Aggregation: the update is recorded in the shared KpiAggregator, which keeps rolling
+ * window counters and histograms per team and stage and writes one snapshot to the
+ * dashboard per flush interval (austa.kpi.flush-interval-ms). The delegate no longer calls
+ * the dashboard itself, so it neither waits on nor fails with the dashboard API; snapshot
+ * write failures are logged by the aggregator and superseded by the next snapshot.
  *
  * @author AUSTA V3 Backend Team
  * @version 3.0.0
@@ -39,27 +44,14 @@ import java.util.*;
 public class KPIDashboardDelegate implements JavaDelegate {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KPIDashboardDelegate.class);
-    private static final int MAX_RETRY_ATTEMPTS = 3;
-    private static final long TIMEOUT_MS = 30000;
-
-    private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
-
-    public KPIDashboardDelegate() {
-        CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
-            .failureRateThreshold(50)
-            .waitDurationInOpenState(Duration.ofSeconds(60))
-            .slidingWindowSize(10)
-            .build();
-        this.circuitBreaker = CircuitBreaker.of("kpiDashboard", cbConfig);
-
-        RetryConfig retryConfig = RetryConfig.custom()
-            .maxAttempts(MAX_RETRY_ATTEMPTS)
-            .waitDuration(Duration.ofSeconds(5))
-            .retryExceptions(Exception.class)
-            .build();
-        this.retry = Retry.of("kpiDashboard", retryConfig);
-    }
+    private static final String DASHBOARD_URL = "https://dashboard.austa.com.br/sales";
+    private static final List<String> UPDATED_METRICS = List.of(
+        "pipeline_value",
+        "average_deal_size",
+        "sales_cycle_length",
+        "conversion_rate",
+        "win_rate"
+    );
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -68,69 +60,38 @@ public class KPIDashboardDelegate implements JavaDelegate {
         LOGGER.info("Updating KPI dashboard: opportunity={}", opportunityId);
 
         try {
-            Map<String, Object> updateResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> updateDashboard(execution))
-            );
+            long now = System.currentTimeMillis();
+            KpiAggregator aggregator = KpiAggregator.shared();
+            recordKPIData(execution, aggregator, now);
 
             execution.setVariable("kpiUpdateSuccess", true);
-            execution.setVariable("kpiUpdateTimestamp", new Date());
-            execution.setVariable("dashboardUrl", updateResult.get("dashboardUrl"));
-            execution.setVariable("updatedMetrics", updateResult.get("updatedMetrics"));
+            execution.setVariable("kpiUpdateTimestamp", new Date(now));
+            execution.setVariable("dashboardUrl", DASHBOARD_URL);
+            execution.setVariable("updatedMetrics", UPDATED_METRICS);
+            execution.setVariable("kpiNextPublish", new Date(aggregator.nextFlushAfter(now)));
 
-            LOGGER.info("KPI dashboard updated successfully");
+            LOGGER.debug("KPI update recorded for opportunity {}", opportunityId);
 
         } catch (Exception e) {
-            LOGGER.error("KPI dashboard update failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
+            LOGGER.error("KPI dashboard update failed for opportunity {}", opportunityId, e);
 
             execution.setVariable("kpiUpdateSuccess", false);
             execution.setVariable("kpiUpdateError", e.getMessage());
         }
     }
 
-    private Map<String, Object> updateDashboard(DelegateExecution execution) throws Exception {
-        Map<String, Object> kpiData = collectKPIData(execution);
-
-        LOGGER.debug("Updating dashboard with KPIs: {}", kpiData);
-
-        // TODO: Implement actual Dashboard API call
-        // POST /api/v1/dashboards/kpi/update
-        // Could be Grafana, Tableau, Power BI, or custom dashboard
-
-        Thread.sleep(1000); // Simulate API call
-
-        List<String> updatedMetrics = Arrays.asList(
-            "pipeline_value",
-            "average_deal_size",
-            "sales_cycle_length",
-            "conversion_rate",
-            "win_rate"
-        );
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("dashboardUrl", "https://dashboard.austa.com.br/sales");
-        result.put("updatedMetrics", updatedMetrics);
-
-        return result;
-    }
-
-    private Map<String, Object> collectKPIData(DelegateExecution execution) {
-        Map<String, Object> kpiData = new HashMap<>();
-
-        // Opportunity metrics
-        kpiData.put("opportunityId", execution.getVariable("opportunityId"));
-        kpiData.put("stageName", execution.getVariable("stageName"));
-        kpiData.put("dealValue", execution.getVariable("dealValue"));
-        kpiData.put("salesCycleDays", execution.getVariable("salesCycleDays"));
-        kpiData.put("teamId", execution.getVariable("teamId"));
-
-        // Process metrics
-        kpiData.put("processInstanceId", execution.getProcessInstanceId());
-        kpiData.put("processStartTime", execution.getVariable("processStartTime"));
-        kpiData.put("currentActivity", execution.getCurrentActivityName());
-
-        // Timestamp
-        kpiData.put("timestamp", new Date());
+    private void recordKPIData(DelegateExecution execution, KpiAggregator aggregator, long now) {
+        String stageName = (String) execution.getVariable("stageName");
+        PipelineStage stage = PipelineStage.of(stageName);
+        if (stage == null) {
+            stage = PipelineStage.fromSalesforceName(stageName);
+        }
 
-        return kpiData;
+        aggregator.record(
+            (String) execution.getVariable("teamId"),
+            stage != null ? stage.name() : stageName,
+            (Double) execution.getVariable("dealValue"),
+            (Integer) execution.getVariable("salesCycleDays"),
+            now);
     }
 }
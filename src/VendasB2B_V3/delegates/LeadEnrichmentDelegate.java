@@ -1,11 +1,17 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.cache.BureauCache;
+import com.austa.vendas.cache.CrmRecordCache;
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.IntegrationTimeoutException;
+import com.austa.vendas.resilience.TimeoutService.PendingCall;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -29,11 +35,18 @@ import java.util.concurrent.TimeUnit;
  * - concorrentes: List<String> - Current competitors/suppliers
  * - iniciativasEstrategicas: List<String> - Strategic initiatives
  * - fitScore: Double - Backward compatibility fit score for deals <$500K
+ * - enrichmentSourcesUnavailable: List<String> - Sources that timed out or failed (partial result)
  *
  * Error Handling:
  * - Retry: 3 attempts with 5-minute intervals (R3/PT5M)
  * - Fallback: Returns partial data with reduced confidence score
  * - Timeout: 2 minutes maximum execution time
+ * - Sources are queried concurrently, each with its own deadline; a source that times out
+ *   or fails is skipped and lowers the confidence score instead of failing the enrichment
+ * - External source answers are cached per CNPJ for 24 hours (see BureauCache)
+ * - The CRM company record is read through CrmRecordCache: served locally for a few
+ *   minutes, then revalidated with its ETag (a 304 costs no transfer), and marked stale
+ *   whenever CRMUpdate, SalesforceSync or HubSpotUpdate write to the company's records
  *
  * @author AUSTA V3 Hive Mind - Coder Agent
  * @version 3.0.0
@@ -44,6 +57,23 @@ public class LeadEnrichmentDelegate implements JavaDelegate {
     private static final Logger LOGGER = LoggerFactory.getLogger(LeadEnrichmentDelegate.class);
     private static final int MAX_RETRY_ATTEMPTS = 3;
     private static final long TIMEOUT_SECONDS = 120;
+    private static final long CRM_TIMEOUT_MS = 30000;
+    private static final long EXTERNAL_SOURCES_TIMEOUT_MS = 60000;
+    private static final double MISSING_SOURCE_CONFIDENCE_PENALTY = 0.35;
+
+    // External enrichment answers per CNPJ, shared across qualification reruns and retries
+    private static final BureauCache ENRICHMENT_CACHE =
+        BureauCache.named("leadEnrichment", 10000, Duration.ofHours(24));
+
+    // CRM company records, revalidated by ETag and invalidated by our own CRM writes
+    private static final CrmRecordCache CRM_CACHE = CrmRecordCache.shared();
+
+    private final IntegrationTimeout timeout =
+        IntegrationTimeout.of("leadEnrichment", TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+    private final IntegrationTimeout crmTimeout =
+        IntegrationTimeout.of("leadEnrichment.crm", CRM_TIMEOUT_MS);
+    private final IntegrationTimeout externalSourcesTimeout =
+        IntegrationTimeout.of("leadEnrichment.externalSources", EXTERNAL_SOURCES_TIMEOUT_MS);
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -58,9 +88,8 @@ public class LeadEnrichmentDelegate implements JavaDelegate {
 
         try {
             // Execute enrichment with timeout protection
-            Map<String, Object> enrichedData = executeWithTimeout(() -> {
-                return enrichLeadData(nomeCliente, cnpj, tipoPesquisa);
-            }, TIMEOUT_SECONDS);
+            Map<String, Object> enrichedData = timeout.call(() ->
+                enrichLeadData(nomeCliente, cnpj, tipoPesquisa));
 
             // Set output variables
             execution.setVariable("dadosFinanceiros", enrichedData.get("financialData"));
@@ -71,6 +100,7 @@ public class LeadEnrichmentDelegate implements JavaDelegate {
             execution.setVariable("fitScore", enrichedData.get("fitScore"));
             execution.setVariable("leadEnrichmentSuccess", true);
             execution.setVariable("enrichmentConfidence", enrichedData.get("confidence"));
+            execution.setVariable("enrichmentSourcesUnavailable", enrichedData.get("sourcesUnavailable"));
 
             LOGGER.info("Lead enrichment completed successfully for client: {}", nomeCliente);
 
@@ -91,16 +121,27 @@ public class LeadEnrichmentDelegate implements JavaDelegate {
     }
 
     /**
-     * Enriches lead data from multiple sources
+     * Enriches lead data from multiple sources, queried concurrently
      */
-    private Map<String, Object> enrichLeadData(String nomeCliente, String cnpj, String tipoPesquisa) {
+    private Map<String, Object> enrichLeadData(String nomeCliente, String cnpj, String tipoPesquisa)
+            throws InterruptedException {
         Map<String, Object> result = new HashMap<>();
+        java.util.List<String> sourcesUnavailable = new java.util.ArrayList<>();
 
-        // Simulate CRM API call
-        Map<String, Object> crmData = fetchFromCRM(nomeCliente, cnpj);
+        // Start all sources at once; wall-clock time is the slowest source, not the sum
+        PendingCall<Map<String, Object>> crmCall = crmTimeout.fork(() ->
+            CRM_CACHE.get(cnpj, nomeCliente, (etag, lastModified) ->
+                fetchFromCRM(nomeCliente, cnpj, etag, lastModified)));
+        PendingCall<Map<String, Object>> externalCall = externalSourcesTimeout.fork(() ->
+            ENRICHMENT_CACHE.get(cnpj, "external:" + tipoPesquisa,
+                () -> fetchFromExternalSources(cnpj, tipoPesquisa)));
 
-        // Simulate external database enrichment
-        Map<String, Object> externalData = fetchFromExternalSources(cnpj, tipoPesquisa);
+        Map<String, Object> crmData = awaitSource("crm", crmCall, sourcesUnavailable);
+        Map<String, Object> externalData = awaitSource("externalSources", externalCall, sourcesUnavailable);
+
+        if (crmData.isEmpty() && externalData.isEmpty()) {
+            throw new RuntimeException("No enrichment source available for CNPJ " + cnpj);
+        }
 
         // Combine and process data
         result.put("financialData", mergeFinancialData(crmData, externalData));
@@ -109,16 +150,40 @@ public class LeadEnrichmentDelegate implements JavaDelegate {
         result.put("competitors", extractCompetitors(externalData));
         result.put("strategicInitiatives", extractStrategicInitiatives(crmData, externalData));
         result.put("fitScore", calculateFitScore(crmData, externalData));
-        result.put("confidence", calculateConfidenceScore(crmData, externalData));
+        result.put("confidence", calculateConfidenceScore(crmData, externalData, sourcesUnavailable));
+        result.put("sourcesUnavailable", sourcesUnavailable);
 
         return result;
     }
 
     /**
-     * Fetches data from CRM system (Salesforce/HubSpot)
+     * Waits for a source under its deadline; a timeout or failure yields an empty partial result
+     */
+    private Map<String, Object> awaitSource(String source, PendingCall<Map<String, Object>> call,
+                                            java.util.List<String> sourcesUnavailable) throws InterruptedException {
+        try {
+            return call.await();
+        } catch (IntegrationTimeoutException e) {
+            LOGGER.warn("Enrichment source {} timed out, continuing with partial data: {}", source, e.getMessage());
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.warn("Enrichment source {} failed, continuing with partial data", source, e);
+        }
+        sourcesUnavailable.add(source);
+        return new HashMap<>();
+    }
+
+    /**
+     * Fetches the company record from CRM system (Salesforce/HubSpot), conditionally when
+     * the cache holds validators
      */
-    private Map<String, Object> fetchFromCRM(String nomeCliente, String cnpj) {
+    private CrmRecordCache.Response fetchFromCRM(String nomeCliente, String cnpj, String etag,
+                                                 long lastModified) {
         // TODO: Implement actual CRM API integration
+        // GET the Account / company by CNPJ with If-None-Match: {etag} and
+        // If-Modified-Since: {lastModified} when given; 304 -> notModified(),
+        // 200 -> ok(record, ETag header, Last-Modified header), 404 -> notFound()
         // For now, return mock data
         Map<String, Object> crmData = new HashMap<>();
         crmData.put("companyName", nomeCliente);
@@ -127,7 +192,12 @@ public class LeadEnrichmentDelegate implements JavaDelegate {
         crmData.put("employees", 250);
         crmData.put("industry", "Healthcare");
         crmData.put("growthRate", 0.15); // 15% growth
-        return crmData;
+
+        String currentEtag = "\"" + Integer.toHexString(crmData.hashCode()) + "\"";
+        if (currentEtag.equals(etag)) {
+            return CrmRecordCache.Response.notModified();
+        }
+        return CrmRecordCache.Response.ok(crmData, currentEtag, 0);
     }
 
     /**
@@ -202,10 +272,15 @@ public class LeadEnrichmentDelegate implements JavaDelegate {
         return Math.min(10.0, score);
     }
 
-    private Double calculateConfidenceScore(Map<String, Object> crmData, Map<String, Object> externalData) {
+    private Double calculateConfidenceScore(Map<String, Object> crmData, Map<String, Object> externalData,
+                                            java.util.List<String> sourcesUnavailable) {
         // Calculate confidence based on data completeness
         int fields = crmData.size() + externalData.size();
-        return Math.min(1.0, fields / 10.0);
+        double confidence = Math.min(1.0, fields / 10.0);
+
+        // Each missing source lowers confidence, even if the other one returned many fields
+        confidence -= MISSING_SOURCE_CONFIDENCE_PENALTY * sourcesUnavailable.size();
+        return Math.max(0.0, confidence);
     }
 
     /**
@@ -230,21 +305,4 @@ public class LeadEnrichmentDelegate implements JavaDelegate {
         Integer attempt = (Integer) execution.getVariable("leadEnrichmentAttempt");
         return attempt != null ? attempt : 1;
     }
-
-    /**
-     * Executes a callable with timeout protection
-     */
-    private <T> T executeWithTimeout(java.util.concurrent.Callable<T> callable, long timeoutSeconds) throws Exception {
-        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newSingleThreadExecutor();
-        java.util.concurrent.Future<T> future = executor.submit(callable);
-
-        try {
-            return future.get(timeoutSeconds, TimeUnit.SECONDS);
-        } catch (java.util.concurrent.TimeoutException e) {
-            future.cancel(true);
-            throw new RuntimeException("Lead enrichment timeout after " + timeoutSeconds + " seconds", e);
-        } finally {
-            executor.shutdown();
-        }
-    }
 }
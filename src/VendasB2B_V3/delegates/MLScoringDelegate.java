@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -47,7 +49,8 @@ public class MLScoringDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public MLScoringDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -62,7 +65,8 @@ public class MLScoringDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("mlScoring", retryConfig);
+        this.retry = JobRetryPolicy.of("mlScoring", retryConfig);
+        this.timeout = IntegrationTimeout.of("mlScoring", TIMEOUT_MS);
     }
 
     @Override
@@ -73,9 +77,8 @@ public class MLScoringDelegate implements JavaDelegate {
         LOGGER.info("Calculating ML score: client={}, lives={}", nomeCliente, numeroVidas);
 
         try {
-            Map<String, Object> scoringResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> calculateMLScore(execution))
-            );
+            Map<String, Object> scoringResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> calculateMLScore(execution)));
 
             execution.setVariable("mlScoringSuccess", true);
             execution.setVariable("mlScoringTimestamp", new Date());
@@ -87,6 +90,8 @@ public class MLScoringDelegate implements JavaDelegate {
             LOGGER.info("ML scoring completed: score={}, probability={}",
                        scoringResult.get("mlScore"), scoringResult.get("conversionProb"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("ML scoring failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
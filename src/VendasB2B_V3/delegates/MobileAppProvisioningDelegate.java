@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -43,7 +45,8 @@ public class MobileAppProvisioningDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public MobileAppProvisioningDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -58,7 +61,8 @@ public class MobileAppProvisioningDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("mobileProvisioning", retryConfig);
+        this.retry = JobRetryPolicy.of("mobileProvisioning", retryConfig);
+        this.timeout = IntegrationTimeout.of("mobileProvisioning", TIMEOUT_MS);
     }
 
     @Override
@@ -71,9 +75,8 @@ public class MobileAppProvisioningDelegate implements JavaDelegate {
         validateInputs(clientId, numeroVidas);
 
         try {
-            Map<String, Object> provisioningResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> provisionMobileApp(execution))
-            );
+            Map<String, Object> provisioningResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> provisionMobileApp(execution)));
 
             execution.setVariable("mobileProvisioningSuccess", true);
             execution.setVariable("mobileProvisioningTimestamp", new Date());
@@ -82,6 +85,8 @@ public class MobileAppProvisioningDelegate implements JavaDelegate {
 
             LOGGER.info("Mobile app provisioned successfully");
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Mobile app provisioning failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
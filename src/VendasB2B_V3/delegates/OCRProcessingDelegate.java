@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -43,7 +45,8 @@ public class OCRProcessingDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 60000; // 60 seconds for OCR processing
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public OCRProcessingDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -58,7 +61,8 @@ public class OCRProcessingDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(10))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("ocrProcessing", retryConfig);
+        this.retry = JobRetryPolicy.of("ocrProcessing", retryConfig);
+        this.timeout = IntegrationTimeout.of("ocrProcessing", TIMEOUT_MS);
     }
 
     @Override
@@ -71,9 +75,8 @@ public class OCRProcessingDelegate implements JavaDelegate {
         validateInputs(documentUrl);
 
         try {
-            Map<String, Object> ocrResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> processOCR(execution))
-            );
+            Map<String, Object> ocrResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> processOCR(execution)));
 
             execution.setVariable("ocrProcessingSuccess", true);
             execution.setVariable("ocrProcessingTimestamp", new Date());
@@ -83,6 +86,8 @@ public class OCRProcessingDelegate implements JavaDelegate {
 
             LOGGER.info("OCR processing completed: confidence={}", ocrResult.get("confidenceScore"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("OCR processing failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
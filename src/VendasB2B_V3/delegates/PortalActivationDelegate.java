@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -45,7 +47,8 @@ public class PortalActivationDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public PortalActivationDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -60,7 +63,8 @@ public class PortalActivationDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("portalActivation", retryConfig);
+        this.retry = JobRetryPolicy.of("portalActivation", retryConfig);
+        this.timeout = IntegrationTimeout.of("portalActivation", TIMEOUT_MS);
     }
 
     @Override
@@ -73,9 +77,8 @@ public class PortalActivationDelegate implements JavaDelegate {
         validateInputs(clientId, adminEmail);
 
         try {
-            Map<String, Object> activationResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> activatePortal(execution))
-            );
+            Map<String, Object> activationResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> activatePortal(execution)));
 
             execution.setVariable("portalActivationSuccess", true);
             execution.setVariable("portalActivationTimestamp", new Date());
@@ -85,6 +88,8 @@ public class PortalActivationDelegate implements JavaDelegate {
 
             LOGGER.info("Portal activated successfully: userId={}", activationResult.get("userId"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Portal activation failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -46,7 +48,8 @@ public class PredictiveAnalyticsDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public PredictiveAnalyticsDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -61,7 +64,8 @@ public class PredictiveAnalyticsDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("predictiveAnalytics", retryConfig);
+        this.retry = JobRetryPolicy.of("predictiveAnalytics", retryConfig);
+        this.timeout = IntegrationTimeout.of("predictiveAnalytics", TIMEOUT_MS);
     }
 
     @Override
@@ -71,9 +75,8 @@ public class PredictiveAnalyticsDelegate implements JavaDelegate {
         LOGGER.info("Running predictive analytics: client={}", clientId);
 
         try {
-            Map<String, Object> analyticsResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> performPredictiveAnalytics(execution))
-            );
+            Map<String, Object> analyticsResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> performPredictiveAnalytics(execution)));
 
             execution.setVariable("predictiveAnalyticsSuccess", true);
             execution.setVariable("predictiveAnalyticsTimestamp", new Date());
@@ -85,6 +88,8 @@ public class PredictiveAnalyticsDelegate implements JavaDelegate {
             LOGGER.info("Predictive analytics completed: churn risk={}, LTV={}",
                        analyticsResult.get("riskLevel"), analyticsResult.get("ltv"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Predictive analytics failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
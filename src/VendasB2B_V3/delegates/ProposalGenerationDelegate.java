@@ -1,5 +1,7 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.variables.VariableKey;
+import com.austa.vendas.variables.VariableSnapshot;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
@@ -9,6 +11,7 @@ import org.springframework.stereotype.Component;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -65,6 +68,36 @@ public class ProposalGenerationDelegate implements JavaDelegate {
     private static final String PROPOSAL_BASE_URL = "https://proposals.austa.com.br/";
     private static final int MAX_RETRY_ATTEMPTS = 2;
 
+    // Proposal inputs, loaded in one bulk read by gatherProposalData
+    private static final VariableKey<String> NOME_CLIENTE = VariableKey.string("nomeCliente");
+    private static final VariableKey<String> CNPJ = VariableKey.string("cnpj");
+    private static final VariableKey<Map<String, Object>> DADOS_FINANCEIROS = VariableKey.map("dadosFinanceiros");
+    private static final VariableKey<Double> SCORE_MEDDIC = VariableKey.decimal("scoreMEDDIC");
+    private static final VariableKey<String> DOR_PRINCIPAL = VariableKey.string("dorPrincipal");
+    private static final VariableKey<Double> IMPACTO_FINANCEIRO_DOR = VariableKey.decimal("impactoFinanceiroDor");
+    private static final VariableKey<Boolean> CHAMPION_IDENTIFICADO = VariableKey.bool("championIdentificado");
+    private static final VariableKey<String> NOME_CHAMPION = VariableKey.string("nomeChampion");
+    private static final VariableKey<Map<String, Object>> RELATORIO_ROI = VariableKey.map("relatorioROI");
+    private static final VariableKey<String> DIAGNOSTICO_ATUAL = VariableKey.string("diagnosticoAtual_VAL");
+    private static final VariableKey<String> VISAO_FUTURO = VariableKey.string("visaoFuturo_VAL");
+    private static final VariableKey<String> ROADMAP_90_DIAS = VariableKey.string("roadmap90dias_VAL");
+    private static final VariableKey<String> QUICK_WINS = VariableKey.string("quickWins_VAL");
+    private static final VariableKey<Double> INVESTIMENTO_TOTAL = VariableKey.decimal("investimentoTotal_VAL");
+    private static final VariableKey<Double> ROI_CALCULADO = VariableKey.decimal("roiCalculado_VAL");
+    private static final VariableKey<Integer> PAYBACK_MESES = VariableKey.integer("paybackMeses");
+    private static final VariableKey<String> TIPO_SERVICO = VariableKey.string("tipoServico");
+    private static final VariableKey<Integer> NUMERO_LEITOS = VariableKey.integer("numeroLeitos");
+    private static final VariableKey<Integer> NUMERO_VIDAS = VariableKey.integer("numeroVidas");
+    private static final VariableKey<String> VENDEDOR_RESPONSAVEL = VariableKey.string("vendedorResponsavel");
+    private static final VariableKey<String> VENDEDOR_EMAIL = VariableKey.string("vendedorEmail");
+    private static final VariableKey<String> VENDEDOR_TELEFONE = VariableKey.string("vendedorTelefone");
+
+    private static final List<VariableKey<?>> PROPOSAL_INPUTS = List.of(
+        NOME_CLIENTE, CNPJ, DADOS_FINANCEIROS, SCORE_MEDDIC, DOR_PRINCIPAL, IMPACTO_FINANCEIRO_DOR,
+        CHAMPION_IDENTIFICADO, NOME_CHAMPION, RELATORIO_ROI, DIAGNOSTICO_ATUAL, VISAO_FUTURO,
+        ROADMAP_90_DIAS, QUICK_WINS, INVESTIMENTO_TOTAL, ROI_CALCULADO, PAYBACK_MESES, TIPO_SERVICO,
+        NUMERO_LEITOS, NUMERO_VIDAS, VENDEDOR_RESPONSAVEL, VENDEDOR_EMAIL, VENDEDOR_TELEFONE);
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
         String nomeCliente = (String) execution.getVariable("nomeCliente");
@@ -123,43 +156,44 @@ public class ProposalGenerationDelegate implements JavaDelegate {
      * Gathers all data needed for proposal generation
      */
     private ProposalData gatherProposalData(DelegateExecution execution) {
+        VariableSnapshot inputs = VariableSnapshot.load(execution, PROPOSAL_INPUTS);
         ProposalData data = new ProposalData();
 
         // Client data
-        data.nomeCliente = (String) execution.getVariable("nomeCliente");
-        data.cnpj = (String) execution.getVariable("cnpj");
-        data.dadosFinanceiros = (Map<String, Object>) execution.getVariable("dadosFinanceiros");
+        data.nomeCliente = inputs.get(NOME_CLIENTE);
+        data.cnpj = inputs.get(CNPJ);
+        data.dadosFinanceiros = inputs.get(DADOS_FINANCEIROS);
 
         // Qualification data
-        data.scoreMEDDIC = (Double) execution.getVariable("scoreMEDDIC");
-        data.dorPrincipal = (String) execution.getVariable("dorPrincipal");
-        data.impactoFinanceiroDor = (Double) execution.getVariable("impactoFinanceiroDor");
-        data.championIdentificado = (Boolean) execution.getVariable("championIdentificado");
-        data.nomeChampion = (String) execution.getVariable("nomeChampion");
+        data.scoreMEDDIC = inputs.get(SCORE_MEDDIC);
+        data.dorPrincipal = inputs.get(DOR_PRINCIPAL);
+        data.impactoFinanceiroDor = inputs.get(IMPACTO_FINANCEIRO_DOR);
+        data.championIdentificado = inputs.get(CHAMPION_IDENTIFICADO);
+        data.nomeChampion = inputs.get(NOME_CHAMPION);
 
         // ROI data
-        data.relatorioROI = (Map<String, Object>) execution.getVariable("relatorioROI");
+        data.relatorioROI = inputs.get(RELATORIO_ROI);
 
         // Value workshop data
-        data.diagnosticoAtual = (String) execution.getVariable("diagnosticoAtual_VAL");
-        data.visaoFuturo = (String) execution.getVariable("visaoFuturo_VAL");
-        data.roadmap90dias = (String) execution.getVariable("roadmap90dias_VAL");
-        data.quickWins = (String) execution.getVariable("quickWins_VAL");
+        data.diagnosticoAtual = inputs.get(DIAGNOSTICO_ATUAL);
+        data.visaoFuturo = inputs.get(VISAO_FUTURO);
+        data.roadmap90dias = inputs.get(ROADMAP_90_DIAS);
+        data.quickWins = inputs.get(QUICK_WINS);
 
         // Investment data
-        data.investimentoTotal = (Double) execution.getVariable("investimentoTotal_VAL");
-        data.roiCalculado = (Double) execution.getVariable("roiCalculado_VAL");
-        data.paybackMeses = (Integer) execution.getVariable("paybackMeses");
+        data.investimentoTotal = inputs.get(INVESTIMENTO_TOTAL);
+        data.roiCalculado = inputs.get(ROI_CALCULADO);
+        data.paybackMeses = inputs.get(PAYBACK_MESES);
 
         // Service configuration
-        data.tipoServico = (String) execution.getVariable("tipoServico");
-        data.numeroLeitos = (Integer) execution.getVariable("numeroLeitos");
-        data.numeroVidas = (Integer) execution.getVariable("numeroVidas");
+        data.tipoServico = inputs.get(TIPO_SERVICO);
+        data.numeroLeitos = inputs.get(NUMERO_LEITOS);
+        data.numeroVidas = inputs.get(NUMERO_VIDAS);
 
         // Sales representative
-        data.vendedorResponsavel = (String) execution.getVariable("vendedorResponsavel");
-        data.vendedorEmail = (String) execution.getVariable("vendedorEmail");
-        data.vendedorTelefone = (String) execution.getVariable("vendedorTelefone");
+        data.vendedorResponsavel = inputs.get(VENDEDOR_RESPONSAVEL);
+        data.vendedorEmail = inputs.get(VENDEDOR_EMAIL);
+        data.vendedorTelefone = inputs.get(VENDEDOR_TELEFONE);
 
         return data;
     }
@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -46,7 +48,8 @@ public class S3DocumentStorageDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 60000; // 60 seconds for large files
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public S3DocumentStorageDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -61,7 +64,8 @@ public class S3DocumentStorageDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("s3Storage", retryConfig);
+        this.retry = JobRetryPolicy.of("s3Storage", retryConfig);
+        this.timeout = IntegrationTimeout.of("s3Storage", TIMEOUT_MS);
     }
 
     @Override
@@ -74,9 +78,8 @@ public class S3DocumentStorageDelegate implements JavaDelegate {
         validateInputs(documentName);
 
         try {
-            Map<String, Object> uploadResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> uploadToS3(execution))
-            );
+            Map<String, Object> uploadResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> uploadToS3(execution)));
 
             execution.setVariable("s3UploadSuccess", true);
             execution.setVariable("s3UploadTimestamp", new Date());
@@ -86,6 +89,8 @@ public class S3DocumentStorageDelegate implements JavaDelegate {
 
             LOGGER.info("Document uploaded to S3 successfully: key={}", uploadResult.get("s3Key"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("S3 upload failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
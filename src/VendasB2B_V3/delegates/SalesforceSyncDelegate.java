@@ -1,8 +1,23 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.cache.CrmRecordCache;
+import com.austa.vendas.crm.CrmCalls;
+import com.austa.vendas.crm.CrmWriteCoalescer;
+import com.austa.vendas.crm.HedgedCrmCall;
+import com.austa.vendas.crm.PipelineStage;
+import com.austa.vendas.crm.SalesforceBatchSyncWorker;
+import com.austa.vendas.crm.SimulatedCrmQuota;
+import com.austa.vendas.reporting.PipelineAggregator;
+import com.austa.vendas.resilience.ApiPriority;
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RateLimitScheduler;
+import com.austa.vendas.resilience.RateLimitedException;
+import com.austa.vendas.resilience.RetryRescheduledException;
+import com.austa.vendas.variables.VariableKey;
+import com.austa.vendas.variables.VariableSnapshot;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -13,7 +28,9 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * SalesforceSyncDelegate - Synchronizes opportunity data with Salesforce CRM
@@ -25,19 +42,22 @@ import java.util.Map;
  * Input Variables:
  * - opportunityId: String - Salesforce opportunity ID (18-char)
  * - nomeCliente: String - Account/Company name
+ * - cnpj: String - Optional company CNPJ, used to invalidate the cached CRM company record
  * - syncType: String - Type of sync (full_sync, opportunity_update, activity_log, meddic_update)
- * - stageName: String - Current opportunity stage
+ * - stageName: String - Current opportunity stage (PipelineStage name or Salesforce StageName)
  * - scoreMEDDIC: Double - MEDDIC qualification score (0-10)
  * - amount: Double - Opportunity amount in BRL
  * - closeDate: Date - Expected close date
  * - ownerEmail: String - Opportunity owner email
  * - campaignId: String - Associated campaign ID
+ * - teamId: String - Optional sales team, used by the reporting views
  *
  * Output Variables:
  * - salesforceSyncSuccess: Boolean - Sync success indicator
  * - salesforceSyncTimestamp: Date - Sync completion timestamp
  * - salesforceOpportunityUrl: String - Direct URL to opportunity
  * - salesforceRecordVersion: String - Record version for conflict detection
+ * - salesforceSyncCoalesced: Boolean - True when the payload was queued for a coalesced write
  *
  * Salesforce API Integration:
  * - Endpoint: /services/data/v58.0/sobjects/Opportunity/{Id}
@@ -54,11 +74,24 @@ import java.util.Map;
  * - AUSTA_ROI_Calculated__c: ROI percentage
  * - AUSTA_Champion_Confirmed__c: Champion identification status
  *
+ * Write coalescing:
+ * - Opportunity payloads go through the shared CrmWriteCoalescer and are merged with the
+ *   CRMUpdateDelegate and CRMStageUpdateDelegate updates for the same opportunity
+ * - A payload carrying StageName is written at once and awaited (CRITICAL lane); others
+ *   return once durably queued (salesforceSyncCoalesced = true) and go out with the next
+ *   merged PATCH; full syncs always wait for the window, in the BULK lane
+ * - activity_log entries are Task records and are still posted directly (BULK lane)
+ * - Writes are hedged (HedgedCrmCall): one still unanswered after the recent p95 latency
+ *   is sent again with the same idempotency key (processInstanceId, activityId, CRM write
+ *   sequence number); Tasks are upserted on AUSTA_Idempotency_Key__c, so duplicates are
+ *   applied once
+ * - A 429 (RateLimitedException) is retried but never counts against the circuit breaker
+ *
  * Error Handling:
  * - Circuit Breaker: Opens after 5 consecutive failures
  * - Retry: 3 attempts with exponential backoff (5s, 15s, 45s)
  * - Timeout: 30 seconds per request
- * - Fallback: Queues sync for batch processing
+ * - Fallback: Queues sync durably; SalesforceBatchSyncWorker drains it in batches of 200
  *
  * @author AUSTA V3 Backend Team
  * @version 3.0.0
@@ -71,8 +104,31 @@ public class SalesforceSyncDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
     private static final String SALESFORCE_API_VERSION = "v58.0";
 
+    // Payload inputs, loaded in one bulk read per sync type
+    private static final VariableKey<String> STAGE_NAME = VariableKey.string("stageName");
+    private static final VariableKey<Double> AMOUNT = VariableKey.decimal("amount");
+    private static final VariableKey<Date> CLOSE_DATE = VariableKey.date("closeDate");
+    private static final VariableKey<String> OWNER_EMAIL = VariableKey.string("ownerEmail");
+    private static final VariableKey<Double> SCORE_MEDDIC = VariableKey.decimal("scoreMEDDIC");
+    private static final VariableKey<Map<String, Object>> SCORE_DETALHADO = VariableKey.map("scoreDetalhado");
+    private static final VariableKey<Integer> SCORE_ENGAJAMENTO = VariableKey.integer("scoreEngajamento_ENG");
+    private static final VariableKey<Boolean> CHAMPION_CONFIRMADO = VariableKey.bool("championConfirmado_ENG");
+    private static final VariableKey<Double> ROI_CALCULADO = VariableKey.decimal("roiCalculado_VAL");
+    private static final VariableKey<String> ACTIVITY_NOTE = VariableKey.string("activityNote");
+    private static final VariableKey<String> ACTIVITY_TYPE = VariableKey.string("activityType");
+
+    private static final List<VariableKey<?>> OPPORTUNITY_INPUTS = List.of(
+        STAGE_NAME, AMOUNT, CLOSE_DATE, OWNER_EMAIL);
+    private static final List<VariableKey<?>> MEDDIC_INPUTS = List.of(SCORE_MEDDIC, SCORE_DETALHADO);
+    private static final List<VariableKey<?>> ACTIVITY_INPUTS = List.of(ACTIVITY_NOTE, ACTIVITY_TYPE);
+    private static final List<VariableKey<?>> FULL_SYNC_INPUTS = List.of(
+        STAGE_NAME, AMOUNT, CLOSE_DATE, OWNER_EMAIL, SCORE_MEDDIC, SCORE_DETALHADO,
+        SCORE_ENGAJAMENTO, CHAMPION_CONFIRMADO, ROI_CALCULADO);
+
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
+    private final HedgedCrmCall hedgedTaskWrite = HedgedCrmCall.named("salesforceTaskWrite", TIMEOUT_MS);
 
     public SalesforceSyncDelegate() {
         // Configure Circuit Breaker
@@ -80,6 +136,7 @@ public class SalesforceSyncDelegate implements JavaDelegate {
             .failureRateThreshold(50)
             .waitDurationInOpenState(Duration.ofSeconds(60))
             .slidingWindowSize(10)
+            .ignoreExceptions(RateLimitedException.class)
             .build();
         this.circuitBreaker = CircuitBreaker.of("salesforceSync", cbConfig);
 
@@ -89,7 +146,8 @@ public class SalesforceSyncDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("salesforceSync", retryConfig);
+        this.retry = JobRetryPolicy.of("salesforceSync", retryConfig);
+        this.timeout = IntegrationTimeout.of("salesforceSync", TIMEOUT_MS);
     }
 
     @Override
@@ -105,9 +163,8 @@ public class SalesforceSyncDelegate implements JavaDelegate {
 
         try {
             // Execute sync with circuit breaker and retry
-            Map<String, Object> syncResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> performSync(execution, opportunityId, syncType))
-            );
+            Map<String, Object> syncResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> performSync(execution, opportunityId, syncType)));
 
             // Set output variables
             execution.setVariable("salesforceSyncSuccess", true);
@@ -116,19 +173,22 @@ public class SalesforceSyncDelegate implements JavaDelegate {
                 generateOpportunityUrl(opportunityId));
             execution.setVariable("salesforceRecordVersion", syncResult.get("version"));
             execution.setVariable("salesforceResponse", syncResult.get("response"));
+            execution.setVariable("salesforceSyncCoalesced", syncResult.get("coalesced"));
 
             LOGGER.info("Salesforce sync completed successfully for opportunity: {}", opportunityId);
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Salesforce sync failed for opportunity: {} after {} attempts",
                         opportunityId, MAX_RETRY_ATTEMPTS, e);
 
             // Queue for batch sync
-            queueForBatchSync(execution, opportunityId);
+            boolean queued = queueForBatchSync(execution, opportunityId, syncType);
 
             execution.setVariable("salesforceSyncSuccess", false);
             execution.setVariable("salesforceSyncError", e.getMessage());
-            execution.setVariable("salesforceSyncQueued", true);
+            execution.setVariable("salesforceSyncQueued", queued);
 
             // Don't fail workflow - continue with queued sync
         }
@@ -158,20 +218,83 @@ public class SalesforceSyncDelegate implements JavaDelegate {
 
         LOGGER.debug("Syncing to Salesforce with payload: {}", payload);
 
-        // TODO: Implement actual Salesforce REST API call
-        // Example: PATCH https://instance.salesforce.com/services/data/v58.0/sobjects/Opportunity/{Id}
-        // Headers: Authorization: Bearer {access_token}, Content-Type: application/json
+        boolean coalesced = !"activity_log".equalsIgnoreCase(syncType);
+        if (coalesced) {
+            // Opportunity fields: merged per opportunity; stage changes are written at once
+            ApiPriority lane = syncLane(syncType, payload);
+            CompletableFuture<Void> written =
+                CrmWriteCoalescer.salesforceOpportunities().submit(opportunityId, payload, lane);
+            CrmRecordCache.shared().invalidateWhenWritten(written, (String) execution.getVariable("cnpj"),
+                (String) execution.getVariable("nomeCliente"));
+            if (lane == ApiPriority.CRITICAL) {
+                CrmCalls.await(written);
+                coalesced = false;
+            }
+        } else {
+            String idempotencyKey = HedgedCrmCall.idempotencyKey(execution);
+            hedgedTaskWrite.call(idempotencyKey, () -> postTask(idempotencyKey, payload));
+        }
 
-        // Simulate API call
-        Thread.sleep(1000); // Simulate network latency
+        recordReportingEvents(execution, opportunityId, syncType, payload);
 
         Map<String, Object> result = new HashMap<>();
         result.put("response", "{ \"id\": \"" + opportunityId + "\", \"success\": true }");
         result.put("version", String.valueOf(System.currentTimeMillis()));
+        result.put("coalesced", coalesced);
 
         return result;
     }
 
+    /**
+     * Upserts the activity Task on its idempotency key; may run twice for one key when hedged
+     */
+    private Void postTask(String idempotencyKey, Map<String, Object> payload) throws Exception {
+        return RateLimitScheduler.forVendor(RateLimitScheduler.SALESFORCE).call(ApiPriority.BULK, () -> {
+            // TODO: Implement actual Salesforce REST API call
+            // Example: PATCH https://instance.salesforce.com/services/data/v58.0/sobjects/Task/AUSTA_Idempotency_Key__c/{idempotencyKey}
+            // Headers: Authorization: Bearer {access_token}, Content-Type: application/json
+            // Pass the response status and headers to observe(), which throws RateLimitedException on 429
+            LOGGER.debug("Upserting Salesforce Task {} ({} fields)", idempotencyKey, payload.size());
+
+            // Simulate API call
+            Thread.sleep(1000); // Simulate network latency
+            SimulatedCrmQuota.exchange(RateLimitScheduler.SALESFORCE); // Simulated quota headers
+            return null;
+        });
+    }
+
+    /**
+     * Feeds the stage, MEDDIC score or activity carried by the sync to the reporting views
+     */
+    private void recordReportingEvents(DelegateExecution execution, String opportunityId, String syncType,
+                                       Map<String, Object> payload) {
+        PipelineAggregator aggregator = PipelineAggregator.shared();
+        String teamId = (String) execution.getVariable("teamId");
+        long now = System.currentTimeMillis();
+
+        if ("activity_log".equalsIgnoreCase(syncType)) {
+            aggregator.recordActivity(opportunityId, teamId, (String) payload.get("Type"), now);
+            return;
+        }
+        if (payload.get("AUSTA_MEDDIC_Score__c") instanceof Double score) {
+            aggregator.recordMeddicScore(opportunityId, teamId, score, now);
+        }
+        PipelineStage stage = PipelineStage.fromSalesforceName((String) payload.get("StageName"));
+        if (stage != null) {
+            aggregator.recordStageChange(opportunityId, teamId, stage, (Double) payload.get("Amount"), now);
+        }
+    }
+
+    /**
+     * Rate-limit lane: stage changes first, full syncs last
+     */
+    private ApiPriority syncLane(String syncType, Map<String, Object> payload) {
+        if ("full_sync".equalsIgnoreCase(syncType)) {
+            return ApiPriority.BULK;
+        }
+        return payload.containsKey("StageName") ? ApiPriority.CRITICAL : ApiPriority.NORMAL;
+    }
+
     /**
      * Builds sync payload based on sync type
      */
@@ -180,17 +303,17 @@ public class SalesforceSyncDelegate implements JavaDelegate {
 
         switch (syncType != null ? syncType.toLowerCase() : "opportunity_update") {
             case "full_sync":
-                buildFullSyncPayload(execution, payload);
+                buildFullSyncPayload(VariableSnapshot.load(execution, FULL_SYNC_INPUTS), payload);
                 break;
             case "meddic_update":
-                buildMEDDICPayload(execution, payload);
+                buildMEDDICPayload(VariableSnapshot.load(execution, MEDDIC_INPUTS), payload);
                 break;
             case "activity_log":
-                buildActivityPayload(execution, payload);
+                buildActivityPayload(VariableSnapshot.load(execution, ACTIVITY_INPUTS), payload);
                 break;
             case "opportunity_update":
             default:
-                buildOpportunityUpdatePayload(execution, payload);
+                buildOpportunityUpdatePayload(VariableSnapshot.load(execution, OPPORTUNITY_INPUTS), payload);
         }
 
         // Add metadata
@@ -200,17 +323,17 @@ public class SalesforceSyncDelegate implements JavaDelegate {
         return payload;
     }
 
-    private void buildFullSyncPayload(DelegateExecution execution, Map<String, Object> payload) {
+    private void buildFullSyncPayload(VariableSnapshot inputs, Map<String, Object> payload) {
         // Opportunity fields
-        buildOpportunityUpdatePayload(execution, payload);
+        buildOpportunityUpdatePayload(inputs, payload);
 
         // MEDDIC fields
-        buildMEDDICPayload(execution, payload);
+        buildMEDDICPayload(inputs, payload);
 
         // Additional fields
-        Integer engagementScore = (Integer) execution.getVariable("scoreEngajamento_ENG");
-        Boolean championConfirmed = (Boolean) execution.getVariable("championConfirmado_ENG");
-        Double roiCalculated = (Double) execution.getVariable("roiCalculado_VAL");
+        Integer engagementScore = inputs.get(SCORE_ENGAJAMENTO);
+        Boolean championConfirmed = inputs.get(CHAMPION_CONFIRMADO);
+        Double roiCalculated = inputs.get(ROI_CALCULADO);
 
         if (engagementScore != null) {
             payload.put("AUSTA_Engagement_Score__c", engagementScore);
@@ -223,21 +346,38 @@ public class SalesforceSyncDelegate implements JavaDelegate {
         }
     }
 
-    private void buildOpportunityUpdatePayload(DelegateExecution execution, Map<String, Object> payload) {
-        String stageName = (String) execution.getVariable("stageName");
-        Double amount = (Double) execution.getVariable("amount");
-        Date closeDate = (Date) execution.getVariable("closeDate");
-        String ownerEmail = (String) execution.getVariable("ownerEmail");
+    private void buildOpportunityUpdatePayload(VariableSnapshot inputs, Map<String, Object> payload) {
+        String stageName = inputs.get(STAGE_NAME);
+        Double amount = inputs.get(AMOUNT);
+        Date closeDate = inputs.get(CLOSE_DATE);
+        String ownerEmail = inputs.get(OWNER_EMAIL);
 
-        if (stageName != null) payload.put("StageName", stageName);
+        if (stageName != null) putStage(stageName, payload);
         if (amount != null) payload.put("Amount", amount);
         if (closeDate != null) payload.put("CloseDate", closeDate);
         if (ownerEmail != null) payload.put("Owner", ownerEmail);
     }
 
-    private void buildMEDDICPayload(DelegateExecution execution, Map<String, Object> payload) {
-        Double scoreMEDDIC = (Double) execution.getVariable("scoreMEDDIC");
-        Map<String, Object> scoreDetalhado = (Map<String, Object>) execution.getVariable("scoreDetalhado");
+    /**
+     * Writes StageName and Probability for an internal or Salesforce stage name; unknown
+     * names are passed through without a probability
+     */
+    private void putStage(String stageName, Map<String, Object> payload) {
+        PipelineStage stage = PipelineStage.of(stageName);
+        if (stage == null) {
+            stage = PipelineStage.fromSalesforceName(stageName);
+        }
+        if (stage == null) {
+            payload.put("StageName", stageName);
+            return;
+        }
+        payload.put("StageName", stage.getSalesforceName());
+        payload.put("Probability", stage.getProbability());
+    }
+
+    private void buildMEDDICPayload(VariableSnapshot inputs, Map<String, Object> payload) {
+        Double scoreMEDDIC = inputs.get(SCORE_MEDDIC);
+        Map<String, Object> scoreDetalhado = inputs.get(SCORE_DETALHADO);
 
         if (scoreMEDDIC != null) {
             payload.put("AUSTA_MEDDIC_Score__c", scoreMEDDIC);
@@ -253,9 +393,9 @@ public class SalesforceSyncDelegate implements JavaDelegate {
         }
     }
 
-    private void buildActivityPayload(DelegateExecution execution, Map<String, Object> payload) {
-        String activityNote = (String) execution.getVariable("activityNote");
-        String activityType = (String) execution.getVariable("activityType");
+    private void buildActivityPayload(VariableSnapshot inputs, Map<String, Object> payload) {
+        String activityNote = inputs.get(ACTIVITY_NOTE);
+        String activityType = inputs.get(ACTIVITY_TYPE);
 
         payload.put("Subject", "Camunda Workflow Update");
         payload.put("Description", activityNote);
@@ -271,11 +411,18 @@ public class SalesforceSyncDelegate implements JavaDelegate {
     }
 
     /**
-     * Queues failed sync for batch processing
+     * Stores the sync payload in the durable batch-sync queue drained by SalesforceBatchSyncWorker
      */
-    private void queueForBatchSync(DelegateExecution execution, String opportunityId) {
+    private boolean queueForBatchSync(DelegateExecution execution, String opportunityId, String syncType) {
         LOGGER.warn("Queueing opportunity {} for batch sync", opportunityId);
-        // TODO: Implement queue mechanism (e.g., message queue, database table)
-        execution.setVariable("batchSyncQueueTime", new Date());
+        try {
+            String sObjectType = "activity_log".equalsIgnoreCase(syncType) ? "Task" : "Opportunity";
+            SalesforceBatchSyncWorker.enqueue(opportunityId, sObjectType, buildSyncPayload(execution, syncType));
+            execution.setVariable("batchSyncQueueTime", new Date());
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Could not queue opportunity {} for batch sync", opportunityId, e);
+            return false;
+        }
     }
 }
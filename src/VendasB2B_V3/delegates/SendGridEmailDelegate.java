@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -59,7 +61,8 @@ public class SendGridEmailDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public SendGridEmailDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -74,7 +77,8 @@ public class SendGridEmailDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("sendGridEmail", retryConfig);
+        this.retry = JobRetryPolicy.of("sendGridEmail", retryConfig);
+        this.timeout = IntegrationTimeout.of("sendGridEmail", TIMEOUT_MS);
     }
 
     @Override
@@ -87,9 +91,8 @@ public class SendGridEmailDelegate implements JavaDelegate {
         validateInputs(recipientEmail, emailType);
 
         try {
-            Map<String, Object> emailResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> sendEmail(execution))
-            );
+            Map<String, Object> emailResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> sendEmail(execution)));
 
             execution.setVariable("emailSentSuccess", true);
             execution.setVariable("emailSentTimestamp", new Date());
@@ -98,6 +101,8 @@ public class SendGridEmailDelegate implements JavaDelegate {
 
             LOGGER.info("Email sent successfully: messageId={}", emailResult.get("messageId"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Email sending failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -123,6 +128,9 @@ public class SendGridEmailDelegate implements JavaDelegate {
 
         // TODO: Implement actual SendGrid API call
         // POST https://api.sendgrid.com/v3/mail/send
+        // via a handle with this delegate's timeout:
+        //   IntegrationHttp sendGridApi = IntegrationHttp.of("sendGridEmail", "https://api.sendgrid.com/v3/", TIMEOUT_MS);
+        //   sendGridApi.send(sendGridApi.post("mail/send", "application/json", ...))
         // Header: Authorization: Bearer {API_KEY}
 
         Thread.sleep(1000); // Simulate API call
@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -42,7 +44,8 @@ public class SlackNotificationDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public SlackNotificationDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -57,7 +60,8 @@ public class SlackNotificationDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("slackNotification", retryConfig);
+        this.retry = JobRetryPolicy.of("slackNotification", retryConfig);
+        this.timeout = IntegrationTimeout.of("slackNotification", TIMEOUT_MS);
     }
 
     @Override
@@ -70,9 +74,8 @@ public class SlackNotificationDelegate implements JavaDelegate {
         validateInputs(slackChannel, messageText);
 
         try {
-            Map<String, Object> slackResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> sendSlackMessage(execution))
-            );
+            Map<String, Object> slackResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> sendSlackMessage(execution)));
 
             execution.setVariable("slackSentSuccess", true);
             execution.setVariable("slackSentTimestamp", new Date());
@@ -80,6 +83,8 @@ public class SlackNotificationDelegate implements JavaDelegate {
 
             LOGGER.info("Slack notification sent successfully");
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Slack notification failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
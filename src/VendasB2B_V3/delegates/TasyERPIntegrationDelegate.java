@@ -1,18 +1,17 @@
 package com.austa.vendas.delegates;
 
-import io.github.resilience4j.circuitbreaker.CircuitBreaker;
-import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryConfig;
+import com.austa.vendas.outbox.TasyOutboxDrainWorker;
+import com.austa.vendas.variables.VariableKey;
+import com.austa.vendas.variables.VariableSnapshot;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -32,23 +31,26 @@ import java.util.Map;
  * - syncType: String - Sync type (customer, contract, billing)
  *
  * Output Variables:
- * - tasyIntegrationSuccess: Boolean - Integration success indicator
- * - tasyIntegrationTimestamp: Date - Integration timestamp
- * - tasyCustomerCode: String - Customer code in Tasy
- * - tasyContractCode: String - Contract code in Tasy
- * - tasyResponse: String - API response
+ * - tasyIntegrationQueued: Boolean - Payload recorded in the Tasy outbox
+ * - tasyIntegrationTimestamp: Date - Time the payload was recorded
+ * - tasyOutboxKey: String - Payload key (idempotency key sent to Tasy)
  *
  * Tasy ERP Integration:
- * - Endpoint: /api/v1/customers, /api/v1/contracts
+ * - Endpoint: /api/v1/customers, /api/v1/contracts, /api/v1/billing (batch)
  * - Authentication: API Key + OAuth 2.0
  * - Timeout: 45 seconds (ERP operations can be slower)
  * - Data Format: JSON
  *
+ * Delivery (transactional outbox):
+ * - The payload is written to the Tasy outbox in the same transaction as the process
+ *   state, so the process never waits on the ERP and an ERP outage becomes backlog
+ * - TasyOutboxDrainWorker delivers it in batches, in order per clientId, with the
+ *   payload key as idempotency key; an identical payload is only recorded once
+ *
  * Error Handling:
- * - Circuit Breaker: Opens after 5 failures
- * - Retry: 3 attempts with exponential backoff
- * - Timeout: 45 seconds
- * - Fallback: Queues for batch processing
+ * - Missing clientId or nomeCliente fails the task (IllegalArgumentException)
+ * - Outbox write failures propagate and roll back the command (job retry)
+ * - ERP failures are retried by the drain worker (circuit breaker, 45 s timeout)
  *
  * @author AUSTA V3 Backend Team
  * @version 3.0.0
@@ -57,27 +59,29 @@ import java.util.Map;
 public class TasyERPIntegrationDelegate implements JavaDelegate {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TasyERPIntegrationDelegate.class);
-    private static final int MAX_RETRY_ATTEMPTS = 3;
-    private static final long TIMEOUT_MS = 45000;
-
-    private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
-
-    public TasyERPIntegrationDelegate() {
-        CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
-            .failureRateThreshold(50)
-            .waitDurationInOpenState(Duration.ofSeconds(120))
-            .slidingWindowSize(10)
-            .build();
-        this.circuitBreaker = CircuitBreaker.of("tasyERP", cbConfig);
-
-        RetryConfig retryConfig = RetryConfig.custom()
-            .maxAttempts(MAX_RETRY_ATTEMPTS)
-            .waitDuration(Duration.ofSeconds(10))
-            .retryExceptions(Exception.class)
-            .build();
-        this.retry = Retry.of("tasyERP", retryConfig);
-    }
+
+    // Payload inputs, loaded in one bulk read per sync type
+    private static final VariableKey<String> CLIENT_ID = VariableKey.string("clientId");
+    private static final VariableKey<String> NOME_CLIENTE = VariableKey.string("nomeCliente");
+    private static final VariableKey<String> CNPJ = VariableKey.string("cnpj");
+    private static final VariableKey<Integer> NUMERO_VIDAS = VariableKey.integer("numeroVidas");
+    private static final VariableKey<String> ENDERECO = VariableKey.string("endereco");
+    private static final VariableKey<String> TELEFONE = VariableKey.string("telefone");
+    private static final VariableKey<String> EMAIL_CONTATO = VariableKey.string("emailContato");
+    private static final VariableKey<String> CONTRATO_ID = VariableKey.string("contratoId");
+    private static final VariableKey<Double> VALOR_CONTRATO = VariableKey.decimal("valorContrato");
+    private static final VariableKey<Date> DATA_INICIO_VIGENCIA = VariableKey.date("dataInicioVigencia");
+    private static final VariableKey<String> PLANO_CONTRATADO = VariableKey.string("planoContratado");
+    private static final VariableKey<Double> VALOR_MENSALIDADE = VariableKey.decimal("valorMensalidade");
+    private static final VariableKey<String> FORMA_PAGAMENTO = VariableKey.string("formaPagamento");
+    private static final VariableKey<Integer> DIA_VENCIMENTO = VariableKey.integer("diaVencimento");
+
+    private static final List<VariableKey<?>> CUSTOMER_INPUTS = List.of(
+        CLIENT_ID, NOME_CLIENTE, CNPJ, NUMERO_VIDAS, ENDERECO, TELEFONE, EMAIL_CONTATO);
+    private static final List<VariableKey<?>> CONTRACT_INPUTS = List.of(
+        CONTRATO_ID, CLIENT_ID, VALOR_CONTRATO, DATA_INICIO_VIGENCIA, PLANO_CONTRATADO, NUMERO_VIDAS);
+    private static final List<VariableKey<?>> BILLING_INPUTS = List.of(
+        CONTRATO_ID, VALOR_MENSALIDADE, FORMA_PAGAMENTO, DIA_VENCIMENTO);
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -85,32 +89,18 @@ public class TasyERPIntegrationDelegate implements JavaDelegate {
         String nomeCliente = (String) execution.getVariable("nomeCliente");
         String syncType = (String) execution.getVariable("syncType");
 
-        LOGGER.info("Starting Tasy ERP integration: client={}, type={}", nomeCliente, syncType);
+        LOGGER.info("Recording Tasy ERP integration: client={}, type={}", nomeCliente, syncType);
 
         validateInputs(clientId, nomeCliente);
 
-        try {
-            Map<String, Object> integrationResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> performIntegration(execution, syncType))
-            );
-
-            execution.setVariable("tasyIntegrationSuccess", true);
-            execution.setVariable("tasyIntegrationTimestamp", new Date());
-            execution.setVariable("tasyCustomerCode", integrationResult.get("customerCode"));
-            execution.setVariable("tasyContractCode", integrationResult.get("contractCode"));
-            execution.setVariable("tasyResponse", integrationResult.get("response"));
-
-            LOGGER.info("Tasy ERP integration completed successfully for client: {}", nomeCliente);
-
-        } catch (Exception e) {
-            LOGGER.error("Tasy ERP integration failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
+        Map<String, Object> payload = buildIntegrationPayload(execution, syncType);
+        String outboxKey = TasyOutboxDrainWorker.OUTBOX.enqueue(clientId, messageType(syncType), payload);
 
-            execution.setVariable("tasyIntegrationSuccess", false);
-            execution.setVariable("tasyIntegrationError", e.getMessage());
+        execution.setVariable("tasyIntegrationQueued", true);
+        execution.setVariable("tasyIntegrationTimestamp", new Date());
+        execution.setVariable("tasyOutboxKey", outboxKey);
 
-            // Queue for batch processing
-            queueForBatchProcessing(execution);
-        }
+        LOGGER.info("Tasy ERP integration recorded for client {}: key={}", nomeCliente, outboxKey);
     }
 
     private void validateInputs(String clientId, String nomeCliente) {
@@ -122,103 +112,63 @@ public class TasyERPIntegrationDelegate implements JavaDelegate {
         }
     }
 
-    private Map<String, Object> performIntegration(DelegateExecution execution, String syncType)
-            throws Exception {
-
-        Map<String, Object> payload = buildIntegrationPayload(execution, syncType);
-
-        LOGGER.debug("Integrating with Tasy ERP: {}", payload);
-
-        // TODO: Implement actual Tasy ERP API call
-        // POST https://tasy-erp.austa.com.br/api/v1/customers
-        // POST https://tasy-erp.austa.com.br/api/v1/contracts
-
-        Thread.sleep(2000); // Simulate ERP API call
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("customerCode", "CUST-" + System.currentTimeMillis());
-        result.put("contractCode", "CONT-" + System.currentTimeMillis());
-        result.put("response", "{ \"status\": \"success\", \"message\": \"Integration completed\" }");
-
-        return result;
-    }
-
     private Map<String, Object> buildIntegrationPayload(DelegateExecution execution, String syncType) {
         Map<String, Object> payload = new HashMap<>();
 
-        switch (syncType != null ? syncType.toLowerCase() : "customer") {
+        switch (messageType(syncType)) {
             case "contract":
-                buildContractPayload(execution, payload);
+                buildContractPayload(VariableSnapshot.load(execution, CONTRACT_INPUTS), payload);
                 break;
             case "billing":
-                buildBillingPayload(execution, payload);
+                buildBillingPayload(VariableSnapshot.load(execution, BILLING_INPUTS), payload);
                 break;
             case "customer":
             default:
-                buildCustomerPayload(execution, payload);
+                buildCustomerPayload(VariableSnapshot.load(execution, CUSTOMER_INPUTS), payload);
         }
 
-        // Add common metadata
+        // Add common metadata; the drain worker stamps integrationTimestamp at delivery
         payload.put("sourceSystem", "Camunda");
         payload.put("processInstanceId", execution.getProcessInstanceId());
-        payload.put("integrationTimestamp", new Date());
 
         return payload;
     }
 
-    private void buildCustomerPayload(DelegateExecution execution, Map<String, Object> payload) {
-        String clientId = (String) execution.getVariable("clientId");
-        String nomeCliente = (String) execution.getVariable("nomeCliente");
-        String cnpj = (String) execution.getVariable("cnpj");
-        Integer numeroVidas = (Integer) execution.getVariable("numeroVidas");
-        String endereco = (String) execution.getVariable("endereco");
-        String telefone = (String) execution.getVariable("telefone");
-        String emailContato = (String) execution.getVariable("emailContato");
-
-        payload.put("customerId", clientId);
-        payload.put("customerName", nomeCliente);
-        payload.put("documentNumber", cnpj);
-        payload.put("numberOfBeneficiaries", numeroVidas);
-        payload.put("address", endereco);
-        payload.put("phone", telefone);
-        payload.put("email", emailContato);
+    private void buildCustomerPayload(VariableSnapshot inputs, Map<String, Object> payload) {
+        payload.put("customerId", inputs.get(CLIENT_ID));
+        payload.put("customerName", inputs.get(NOME_CLIENTE));
+        payload.put("documentNumber", inputs.get(CNPJ));
+        payload.put("numberOfBeneficiaries", inputs.get(NUMERO_VIDAS));
+        payload.put("address", inputs.get(ENDERECO));
+        payload.put("phone", inputs.get(TELEFONE));
+        payload.put("email", inputs.get(EMAIL_CONTATO));
         payload.put("customerType", "B2B");
         payload.put("active", true);
     }
 
-    private void buildContractPayload(DelegateExecution execution, Map<String, Object> payload) {
-        String contratoId = (String) execution.getVariable("contratoId");
-        String clientId = (String) execution.getVariable("clientId");
-        Double valorContrato = (Double) execution.getVariable("valorContrato");
-        Date dataInicioVigencia = (Date) execution.getVariable("dataInicioVigencia");
-        String planoContratado = (String) execution.getVariable("planoContratado");
-        Integer numeroVidas = (Integer) execution.getVariable("numeroVidas");
-
-        payload.put("contractId", contratoId);
-        payload.put("customerId", clientId);
-        payload.put("contractValue", valorContrato);
-        payload.put("startDate", dataInicioVigencia);
-        payload.put("plan", planoContratado);
-        payload.put("numberOfBeneficiaries", numeroVidas);
+    private void buildContractPayload(VariableSnapshot inputs, Map<String, Object> payload) {
+        payload.put("contractId", inputs.get(CONTRATO_ID));
+        payload.put("customerId", inputs.get(CLIENT_ID));
+        payload.put("contractValue", inputs.get(VALOR_CONTRATO));
+        payload.put("startDate", inputs.get(DATA_INICIO_VIGENCIA));
+        payload.put("plan", inputs.get(PLANO_CONTRATADO));
+        payload.put("numberOfBeneficiaries", inputs.get(NUMERO_VIDAS));
         payload.put("status", "ACTIVE");
     }
 
-    private void buildBillingPayload(DelegateExecution execution, Map<String, Object> payload) {
-        String contratoId = (String) execution.getVariable("contratoId");
-        Double valorMensal = (Double) execution.getVariable("valorMensalidade");
-        String formaPagamento = (String) execution.getVariable("formaPagamento");
-        Integer diaVencimento = (Integer) execution.getVariable("diaVencimento");
-
-        payload.put("contractId", contratoId);
-        payload.put("monthlyAmount", valorMensal);
-        payload.put("paymentMethod", formaPagamento);
-        payload.put("dueDay", diaVencimento);
+    private void buildBillingPayload(VariableSnapshot inputs, Map<String, Object> payload) {
+        payload.put("contractId", inputs.get(CONTRATO_ID));
+        payload.put("monthlyAmount", inputs.get(VALOR_MENSALIDADE));
+        payload.put("paymentMethod", inputs.get(FORMA_PAGAMENTO));
+        payload.put("dueDay", inputs.get(DIA_VENCIMENTO));
         payload.put("billingCycle", "MONTHLY");
     }
 
-    private void queueForBatchProcessing(DelegateExecution execution) {
-        LOGGER.warn("Queuing Tasy integration for batch processing");
-        execution.setVariable("tasyBatchQueueTime", new Date());
-        // TODO: Implement queue mechanism
+    /**
+     * Outbox message type; unknown sync types are treated as customer syncs
+     */
+    private String messageType(String syncType) {
+        String type = syncType != null ? syncType.toLowerCase() : "customer";
+        return type.equals("contract") || type.equals("billing") ? type : "customer";
     }
 }
@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -43,7 +45,8 @@ public class TelehealthSetupDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public TelehealthSetupDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -58,7 +61,8 @@ public class TelehealthSetupDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("telehealthSetup", retryConfig);
+        this.retry = JobRetryPolicy.of("telehealthSetup", retryConfig);
+        this.timeout = IntegrationTimeout.of("telehealthSetup", TIMEOUT_MS);
     }
 
     @Override
@@ -71,9 +75,8 @@ public class TelehealthSetupDelegate implements JavaDelegate {
         validateInputs(clientId);
 
         try {
-            Map<String, Object> setupResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> setupTelehealth(execution))
-            );
+            Map<String, Object> setupResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> setupTelehealth(execution)));
 
             execution.setVariable("telehealthSetupSuccess", true);
             execution.setVariable("telehealthSetupTimestamp", new Date());
@@ -82,6 +85,8 @@ public class TelehealthSetupDelegate implements JavaDelegate {
 
             LOGGER.info("Telehealth setup completed: account={}", setupResult.get("accountId"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Telehealth setup failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
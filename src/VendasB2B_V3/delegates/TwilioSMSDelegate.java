@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -44,7 +46,8 @@ public class TwilioSMSDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public TwilioSMSDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -59,7 +62,8 @@ public class TwilioSMSDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("twilioSMS", retryConfig);
+        this.retry = JobRetryPolicy.of("twilioSMS", retryConfig);
+        this.timeout = IntegrationTimeout.of("twilioSMS", TIMEOUT_MS);
     }
 
     @Override
@@ -72,9 +76,8 @@ public class TwilioSMSDelegate implements JavaDelegate {
         validateInputs(phoneNumber, messageBody);
 
         try {
-            Map<String, Object> smsResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> sendSMS(execution))
-            );
+            Map<String, Object> smsResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> sendSMS(execution)));
 
             execution.setVariable("smsSentSuccess", true);
             execution.setVariable("smsSentTimestamp", new Date());
@@ -83,6 +86,8 @@ public class TwilioSMSDelegate implements JavaDelegate {
 
             LOGGER.info("SMS sent successfully: sid={}", smsResult.get("messageSid"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("SMS sending failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -111,6 +116,10 @@ public class TwilioSMSDelegate implements JavaDelegate {
 
         // TODO: Implement actual Twilio API call
         // POST https://api.twilio.com/2010-04-01/Accounts/{AccountSid}/Messages.json
+        // via a handle with this delegate's timeout:
+        //   IntegrationHttp twilioApi = IntegrationHttp.of("twilioSMS", "https://api.twilio.com/2010-04-01/", TIMEOUT_MS);
+        //   twilioApi.send(twilioApi.post("Accounts/" + accountSid + "/Messages.json",
+        //     "application/x-www-form-urlencoded", ...))
 
         Thread.sleep(1000); // Simulate API call
 
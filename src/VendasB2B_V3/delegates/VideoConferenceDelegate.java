@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -46,7 +48,8 @@ public class VideoConferenceDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public VideoConferenceDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -61,7 +64,8 @@ public class VideoConferenceDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("videoConference", retryConfig);
+        this.retry = JobRetryPolicy.of("videoConference", retryConfig);
+        this.timeout = IntegrationTimeout.of("videoConference", TIMEOUT_MS);
     }
 
     @Override
@@ -74,9 +78,8 @@ public class VideoConferenceDelegate implements JavaDelegate {
         validateInputs(meetingTopic);
 
         try {
-            Map<String, Object> conferenceResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> createVideoConference(execution))
-            );
+            Map<String, Object> conferenceResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> createVideoConference(execution)));
 
             execution.setVariable("videoConferenceCreated", true);
             execution.setVariable("videoConferenceTimestamp", new Date());
@@ -87,6 +90,8 @@ public class VideoConferenceDelegate implements JavaDelegate {
             LOGGER.info("Video conference created: meetingId={}, url={}",
                        conferenceResult.get("meetingId"), conferenceResult.get("meetingUrl"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Video conference creation failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
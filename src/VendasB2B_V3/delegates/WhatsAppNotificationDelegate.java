@@ -1,8 +1,10 @@
 package com.austa.vendas.delegates;
 
+import com.austa.vendas.resilience.IntegrationTimeout;
+import com.austa.vendas.resilience.JobRetryPolicy;
+import com.austa.vendas.resilience.RetryRescheduledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -43,7 +45,8 @@ public class WhatsAppNotificationDelegate implements JavaDelegate {
     private static final long TIMEOUT_MS = 30000;
 
     private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
+    private final JobRetryPolicy retry;
+    private final IntegrationTimeout timeout;
 
     public WhatsAppNotificationDelegate() {
         CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
@@ -58,7 +61,8 @@ public class WhatsAppNotificationDelegate implements JavaDelegate {
             .waitDuration(Duration.ofSeconds(5))
             .retryExceptions(Exception.class)
             .build();
-        this.retry = Retry.of("whatsappNotification", retryConfig);
+        this.retry = JobRetryPolicy.of("whatsappNotification", retryConfig);
+        this.timeout = IntegrationTimeout.of("whatsappNotification", TIMEOUT_MS);
     }
 
     @Override
@@ -71,9 +75,8 @@ public class WhatsAppNotificationDelegate implements JavaDelegate {
         validateInputs(whatsappNumber, messageText);
 
         try {
-            Map<String, Object> whatsappResult = circuitBreaker.executeSupplier(() ->
-                retry.executeSupplier(() -> sendWhatsApp(execution))
-            );
+            Map<String, Object> whatsappResult = retry.execute(circuitBreaker, () ->
+                timeout.call(() -> sendWhatsApp(execution)));
 
             execution.setVariable("whatsappSentSuccess", true);
             execution.setVariable("whatsappSentTimestamp", new Date());
@@ -82,6 +85,8 @@ public class WhatsAppNotificationDelegate implements JavaDelegate {
 
             LOGGER.info("WhatsApp sent successfully: sid={}", whatsappResult.get("messageSid"));
 
+        } catch (RetryRescheduledException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("WhatsApp sending failed after {} attempts", MAX_RETRY_ATTEMPTS, e);
 
@@ -0,0 +1,368 @@
+package com.austa.vendas.history;
+
+import com.austa.vendas.queue.DataDirectories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * StageHistoryStore - Embedded append-only log of opportunity stage transitions
+ *
+ * Purpose: Pipeline questions such as "how long did opportunity X stay in each stage" or
+ * "which transitions happened in the last 30 days" used to require Camunda history
+ * queries. This store records every transition written by CRMStageUpdateDelegate (once
+ * its engine transaction has committed) in compact binary segments and answers both
+ * questions from its own files.
+ *
+ * Layout:
+ * - One segment per UTC day (stage-yyyyMMdd.seg), so time-range queries only read the
+ *   segments of the requested days and old days can be archived by moving files
+ * - Segment header: magic "ASH1"; then one record per transition:
+ *   <pre>
+ *   int length, body, int CRC32(body)
+ *   body: long epochMillis, UTF opportunityId, UTF fromStage, UTF toStage, UTF processInstanceId
+ *   </pre>
+ *   (empty strings stand for null)
+ * - Appends are fsynced; a torn record at the end of a segment (crash during a write) is
+ *   truncated when the store is opened
+ * - An in-memory index maps each opportunityId to the positions of its records, rebuilt
+ *   from the segments on open, so per-opportunity queries read only that opportunity's
+ *   records
+ *
+ * The store lives under austa.history.dir (default: the stage-history subdirectory of the
+ * application data directory, austa.data.dir; see {@link DataDirectories}).
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class StageHistoryStore implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StageHistoryStore.class);
+    private static final byte[] MAGIC = {'A', 'S', 'H', '1'};
+    private static final DateTimeFormatter SEGMENT_DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private static volatile StageHistoryStore shared;
+
+    private final Path directory;
+    private final NavigableMap<Long, FileChannel> segments = new TreeMap<>();
+    private final Map<String, List<RecordPosition>> index = new HashMap<>();
+    private long records;
+
+    private StageHistoryStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    public static StageHistoryStore open(Path directory) throws IOException {
+        return new StageHistoryStore(directory);
+    }
+
+    /**
+     * Process-wide store under austa.history.dir or the application data directory
+     */
+    public static StageHistoryStore shared() {
+        StageHistoryStore store = shared;
+        if (store == null) {
+            synchronized (StageHistoryStore.class) {
+                store = shared;
+                if (store == null) {
+                    Path dir = DataDirectories.resolve("austa.history.dir", "stage-history");
+                    try {
+                        store = new StageHistoryStore(dir);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot open stage history store " + dir, e);
+                    }
+                    shared = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Appends the transition durably to the segment of its day
+     */
+    public synchronized void append(StageTransition transition) throws IOException {
+        if (transition.getOpportunityId() == null || transition.getToStage() == null) {
+            throw new IllegalArgumentException("opportunityId and toStage are required for stage history");
+        }
+        byte[] body = encode(transition);
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + body.length + Integer.BYTES);
+        record.putInt(body.length).put(body).putInt(crc(body)).flip();
+
+        long day = epochDay(transition.getTimestamp());
+        FileChannel segment = segmentForAppend(day);
+        if (segment.size() < MAGIC.length) {
+            segment.truncate(0);
+            segment.write(ByteBuffer.wrap(MAGIC), 0);
+        }
+        long offset = segment.size();
+        while (record.hasRemaining()) {
+            segment.write(record, offset + record.position());
+        }
+        segment.force(false);
+
+        index.computeIfAbsent(transition.getOpportunityId(), id -> new ArrayList<>())
+            .add(new RecordPosition(day, offset, transition.getTimestamp()));
+        records++;
+    }
+
+    /**
+     * All transitions of the opportunity, oldest first
+     */
+    public synchronized List<StageTransition> transitions(String opportunityId) throws IOException {
+        List<RecordPosition> positions = index.get(opportunityId);
+        if (positions == null) {
+            return List.of();
+        }
+        List<RecordPosition> ordered = new ArrayList<>(positions);
+        ordered.sort(Comparator.comparingLong(position -> position.timestamp));
+
+        List<StageTransition> result = new ArrayList<>(ordered.size());
+        for (RecordPosition position : ordered) {
+            result.add(readAt(position));
+        }
+        return result;
+    }
+
+    /**
+     * Milliseconds spent in each stage, in order of first entry; the current stage counts up to asOf
+     */
+    public Map<String, Long> stageDurations(String opportunityId, long asOf) throws IOException {
+        List<StageTransition> history = transitions(opportunityId);
+        Map<String, Long> durations = new LinkedHashMap<>();
+        for (int i = 0; i < history.size(); i++) {
+            StageTransition transition = history.get(i);
+            long end = i + 1 < history.size() ? history.get(i + 1).getTimestamp() : asOf;
+            durations.merge(transition.getToStage(), Math.max(0, end - transition.getTimestamp()), Long::sum);
+        }
+        return durations;
+    }
+
+    /**
+     * Transitions at or after fromMillis across all opportunities, oldest first
+     */
+    public synchronized List<StageTransition> transitionsSince(long fromMillis) throws IOException {
+        List<StageTransition> result = new ArrayList<>();
+        for (Long day : segments.tailMap(epochDay(fromMillis), true).keySet()) {
+            scan(day, transition -> {
+                if (transition.getTimestamp() >= fromMillis) {
+                    result.add(transition);
+                }
+            });
+        }
+        result.sort(Comparator.comparingLong(StageTransition::getTimestamp));
+        return result;
+    }
+
+    /**
+     * Transitions of the last N days (N x 24 h back from now)
+     */
+    public List<StageTransition> transitionsInLastDays(int days) throws IOException {
+        return transitionsSince(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days));
+    }
+
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    public synchronized int getOpportunityCount() {
+        return index.size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (FileChannel segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    private FileChannel segmentForAppend(long day) throws IOException {
+        FileChannel segment = segments.get(day);
+        if (segment == null) {
+            segment = FileChannel.open(segmentPath(day),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.put(day, segment);
+        }
+        return segment;
+    }
+
+    /**
+     * Opens every segment, truncates torn tails and rebuilds the opportunity index
+     */
+    private void load() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "stage-*.seg")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long day = LocalDate.parse(name.substring(6, 14), SEGMENT_DAY).toEpochDay();
+                segments.put(day, FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            }
+        }
+        for (Long day : segments.keySet()) {
+            long validEnd = scan(day, null);
+            FileChannel segment = segments.get(day);
+            if (validEnd < segment.size()) {
+                LOGGER.warn("Stage history segment {} has a torn tail; truncating {} bytes",
+                           segmentPath(day).getFileName(), segment.size() - validEnd);
+                segment.truncate(validEnd);
+            }
+        }
+        LOGGER.info("Stage history store opened: {} transitions for {} opportunities in {} segments",
+                   records, index.size(), segments.size());
+    }
+
+    /**
+     * Reads the segment sequentially; while loading (consumer null) it fills the index.
+     * Returns the end offset of the last intact record.
+     */
+    private long scan(long day, Consumer<StageTransition> consumer) throws IOException {
+        FileChannel segment = segments.get(day);
+        ByteBuffer data = ByteBuffer.allocate((int) segment.size());
+        readFully(segment, data, 0);
+        data.flip();
+
+        if (data.remaining() < MAGIC.length) {
+            return 0;
+        }
+        byte[] magic = new byte[MAGIC.length];
+        data.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a stage history segment: " + segmentPath(day));
+        }
+
+        long validEnd = data.position();
+        while (data.remaining() >= Integer.BYTES) {
+            long offset = data.position();
+            int length = data.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || data.remaining() < length + Integer.BYTES) {
+                break;
+            }
+            byte[] body = new byte[length];
+            data.get(body);
+            if (data.getInt() != crc(body)) {
+                break;
+            }
+            StageTransition transition = decode(body);
+            if (consumer != null) {
+                consumer.accept(transition);
+            } else {
+                index.computeIfAbsent(transition.getOpportunityId(), id -> new ArrayList<>())
+                    .add(new RecordPosition(day, offset, transition.getTimestamp()));
+                records++;
+            }
+            validEnd = data.position();
+        }
+        return validEnd;
+    }
+
+    private StageTransition readAt(RecordPosition position) throws IOException {
+        FileChannel segment = segments.get(position.day);
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(segment, length, position.offset);
+        length.flip();
+        byte[] body = new byte[length.getInt()];
+        readFully(segment, ByteBuffer.wrap(body), position.offset + Integer.BYTES);
+        return decode(body);
+    }
+
+    private void readFully(FileChannel segment, ByteBuffer buffer, long offset) throws IOException {
+        long start = offset - buffer.position();
+        while (buffer.hasRemaining()) {
+            if (segment.read(buffer, start + buffer.position()) < 0) {
+                throw new IOException("Stage history segment ends early at " + (start + buffer.position()));
+            }
+        }
+    }
+
+    private Path segmentPath(long day) {
+        return directory.resolve("stage-" + LocalDate.ofEpochDay(day).format(SEGMENT_DAY) + ".seg");
+    }
+
+    private static long epochDay(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC).toLocalDate().toEpochDay();
+    }
+
+    private static byte[] encode(StageTransition transition) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(transition.getTimestamp());
+            out.writeUTF(transition.getOpportunityId());
+            out.writeUTF(nullToEmpty(transition.getFromStage()));
+            out.writeUTF(transition.getToStage());
+            out.writeUTF(nullToEmpty(transition.getProcessInstanceId()));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static StageTransition decode(byte[] body) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            long timestamp = in.readLong();
+            String opportunityId = in.readUTF();
+            String fromStage = emptyToNull(in.readUTF());
+            String toStage = in.readUTF();
+            String processInstanceId = emptyToNull(in.readUTF());
+            return new StageTransition(timestamp, opportunityId, fromStage, toStage, processInstanceId);
+        }
+    }
+
+    private static int crc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static final class RecordPosition {
+        final long day;
+        final long offset;
+        final long timestamp;
+
+        RecordPosition(long day, long offset, long timestamp) {
+            this.day = day;
+            this.offset = offset;
+            this.timestamp = timestamp;
+        }
+    }
+}
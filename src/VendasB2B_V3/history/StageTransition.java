@@ -0,0 +1,56 @@
+package com.austa.vendas.history;
+
+/**
+ * StageTransition - One recorded opportunity stage change
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class StageTransition {
+
+    private final long timestamp;
+    private final String opportunityId;
+    private final String fromStage;
+    private final String toStage;
+    private final String processInstanceId;
+
+    public StageTransition(long timestamp, String opportunityId, String fromStage, String toStage,
+                           String processInstanceId) {
+        this.timestamp = timestamp;
+        this.opportunityId = opportunityId;
+        this.fromStage = fromStage;
+        this.toStage = toStage;
+        this.processInstanceId = processInstanceId;
+    }
+
+    /**
+     * Epoch milliseconds of the transition
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getOpportunityId() {
+        return opportunityId;
+    }
+
+    /**
+     * Stage before the transition; null for the first recorded stage
+     */
+    public String getFromStage() {
+        return fromStage;
+    }
+
+    public String getToStage() {
+        return toStage;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    @Override
+    public String toString() {
+        return opportunityId + ": " + fromStage + " -> " + toStage + " @" + timestamp;
+    }
+}
@@ -0,0 +1,210 @@
+package com.austa.vendas.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BodyPipe - Bounded hand-off of a streamed request body from its writer to the HTTP client
+ *
+ * Replaces PipedInputStream/PipedOutputStream, which track the identity of the last reader
+ * and writer threads: the shared client reads request bodies from short-lived virtual
+ * threads, so a pipe would declare the read end dead while the request was still being
+ * sent and stall it until the timeout. Here the two ends exchange whole chunks through a
+ * bounded queue, so any thread may read or write:
+ *
+ * - The writer blocks while MAX_CHUNKS chunks are waiting (backpressure), and gives up with
+ *   an IOException when the reader has closed or has not taken a chunk for idleTimeoutMs
+ * - The reader gets -1 only after the writer closed the sink; if the writer failed or
+ *   went idle for idleTimeoutMs, the reader gets an IOException, so the request fails
+ *   instead of sending a truncated body
+ *
+ * One pipe carries one body, written by one thread and read by one thread at a time.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+final class BodyPipe {
+
+    static final int CHUNK_BYTES = 8 * 1024;
+    static final int MAX_CHUNKS = 8;
+
+    private static final byte[] END = new byte[0];
+    private static final byte[] FAILED = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(MAX_CHUNKS + 1);
+    private final long idleTimeoutMs;
+    private final Sink sink = new Sink();
+    private final Source source = new Source();
+    private volatile boolean readerClosed;
+    private volatile Throwable failure;
+
+    BodyPipe(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /**
+     * Writer end; close() marks the end of the body
+     */
+    OutputStream sink() {
+        return sink;
+    }
+
+    /**
+     * Reader end, handed to the HTTP client
+     */
+    InputStream source() {
+        return source;
+    }
+
+    /**
+     * Aborts the body: the reader fails instead of seeing the end of the stream
+     */
+    void fail(Throwable cause) {
+        failure = cause;
+        chunks.offer(FAILED);
+    }
+
+    private void enqueue(byte[] chunk) throws IOException {
+        try {
+            long waitedMs = 0;
+            while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                waitedMs += 100;
+                if (readerClosed) {
+                    throw new IOException("Request body is no longer being read");
+                }
+                if (waitedMs >= idleTimeoutMs) {
+                    throw new IOException("Request body not read for " + idleTimeoutMs + " ms");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing request body");
+        }
+    }
+
+    private final class Sink extends OutputStream {
+        private byte[] buffer = new byte[CHUNK_BYTES];
+        private int count;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            buffer[count++] = (byte) b;
+            if (count == buffer.length) {
+                flushChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            ensureOpen();
+            while (length > 0) {
+                int copied = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, copied);
+                count += copied;
+                offset += copied;
+                length -= copied;
+                if (count == buffer.length) {
+                    flushChunk();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                if (count > 0) {
+                    flushChunk();
+                }
+                closed = true;
+                enqueue(END);
+            }
+        }
+
+        private void flushChunk() throws IOException {
+            byte[] chunk = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+            enqueue(chunk);
+            buffer = new byte[CHUNK_BYTES];
+            count = 0;
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Request body already closed");
+            }
+        }
+    }
+
+    private final class Source extends InputStream {
+        private byte[] current;
+        private int position;
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (current == null || position == current.length) {
+                if (ended) {
+                    return -1;
+                }
+                byte[] next = take();
+                if (next == END) {
+                    ended = true;
+                    return -1;
+                }
+                if (next == FAILED) {
+                    throw new IOException("Request body writer failed", failure);
+                }
+                current = next;
+                position = 0;
+            }
+            int copied = Math.min(length, current.length - position);
+            System.arraycopy(current, position, bytes, offset, copied);
+            position += copied;
+            return copied;
+        }
+
+        @Override
+        public void close() {
+            readerClosed = true;
+            chunks.clear();
+        }
+
+        private byte[] take() throws IOException {
+            try {
+                long waitedMs = 0;
+                while (true) {
+                    if (failure != null) {
+                        return FAILED;
+                    }
+                    byte[] chunk = chunks.poll(100, TimeUnit.MILLISECONDS);
+                    if (chunk != null) {
+                        return chunk;
+                    }
+                    waitedMs += 100;
+                    if (waitedMs >= idleTimeoutMs) {
+                        throw new IOException("Request body writer idle for " + idleTimeoutMs + " ms");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading request body");
+            }
+        }
+    }
+}
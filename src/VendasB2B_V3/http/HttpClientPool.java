@@ -0,0 +1,144 @@
+package com.austa.vendas.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HttpClientPool - The one HTTP client shared by all integration calls
+ *
+ * Purpose: Each integration (CRM, HubSpot, DocuSign, Clicksign, SendGrid, Twilio, Tasy)
+ * would otherwise build its own client, and short API calls would pay a TCP and TLS
+ * handshake each. All {@link IntegrationHttp} handles send through this pool instead:
+ *
+ * - One java.net.http client: HTTP/2 where the host negotiates it (one multiplexed
+ *   connection per host), HTTP/1.1 keep-alive connections otherwise, pooled per host
+ * - Idle connections are kept for austa.http.keep-alive-s; the client's selector and
+ *   response handling run on virtual threads
+ * - Each host has austa.http.max-concurrent-per-host permits, held from sending the
+ *   request until the response body is closed: on HTTP/1.1 this bounds the host's
+ *   connections, on HTTP/2 its concurrent streams
+ *
+ * Configuration (system properties):
+ * - austa.http.connect-timeout-ms: connection setup (default 5000)
+ * - austa.http.keep-alive-s: idle connection lifetime (default 60)
+ * - austa.http.max-concurrent-per-host: in-flight requests per host (default 64)
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class HttpClientPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientPool.class);
+
+    public static final long DEFAULT_CONNECT_TIMEOUT_MS = 5000;
+    public static final long DEFAULT_KEEP_ALIVE_S = 60;
+    public static final int DEFAULT_MAX_CONCURRENT_PER_HOST = 64;
+
+    private static volatile HttpClientPool shared;
+
+    private final HttpClient client;
+    private final int maxConcurrentPerHost;
+    private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final AtomicLong requestsSent = new AtomicLong();
+
+    HttpClientPool(long connectTimeoutMs, int maxConcurrentPerHost) {
+        if (maxConcurrentPerHost < 1) {
+            throw new IllegalArgumentException("max-concurrent-per-host must be positive: " + maxConcurrentPerHost);
+        }
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-client-", 0).factory()))
+            .build();
+    }
+
+    /**
+     * Process-wide pool configured from system properties
+     */
+    public static HttpClientPool shared() {
+        HttpClientPool pool = shared;
+        if (pool == null) {
+            synchronized (HttpClientPool.class) {
+                pool = shared;
+                if (pool == null) {
+                    // Read by the JDK connection pool when the first client is built
+                    if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+                        System.setProperty("jdk.httpclient.keepalive.timeout",
+                            String.valueOf(Long.getLong("austa.http.keep-alive-s", DEFAULT_KEEP_ALIVE_S)));
+                    }
+                    pool = new HttpClientPool(
+                        Long.getLong("austa.http.connect-timeout-ms", DEFAULT_CONNECT_TIMEOUT_MS),
+                        Integer.getInteger("austa.http.max-concurrent-per-host", DEFAULT_MAX_CONCURRENT_PER_HOST));
+                    shared = pool;
+                    LOGGER.info("Shared HTTP client started: HTTP/2 preferred, {} concurrent requests per host",
+                               pool.maxConcurrentPerHost);
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Sends the request once a permit for its host is free; the permit is released by the
+     * returned response, or here if sending fails
+     */
+    <T> Leased<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler, long permitWaitMs)
+            throws IOException, InterruptedException {
+        Semaphore permits = hostPermits.computeIfAbsent(hostKey(request.uri()),
+            host -> new Semaphore(maxConcurrentPerHost));
+        if (!permits.tryAcquire(permitWaitMs, TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        try {
+            HttpResponse<T> response = client.send(request, handler);
+            requestsSent.incrementAndGet();
+            return new Leased<>(response, permits);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public HttpClient getClient() {
+        return client;
+    }
+
+    public long getRequestsSent() {
+        return requestsSent.get();
+    }
+
+    /**
+     * Requests currently holding a permit for the host (scheme://host:port)
+     */
+    public int getInFlight(String host) {
+        Semaphore permits = hostPermits.get(host.toLowerCase(Locale.ROOT));
+        return permits != null ? maxConcurrentPerHost - permits.availablePermits() : 0;
+    }
+
+    static String hostKey(URI uri) {
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return (uri.getScheme() + "://" + uri.getHost() + ":" + port).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A response together with the host permit it holds
+     */
+    record Leased<T>(HttpResponse<T> response, Semaphore permits) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.austa.vendas.http;
+
+import com.austa.vendas.resilience.Deadline;
+import com.austa.vendas.resilience.IntegrationTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * IntegrationHttp - Per-integration handle on the shared {@link HttpClientPool}
+ *
+ * Each delegate creates one handle with its base URL and its own TIMEOUT_MS:
+ * <pre>
+ *   private final IntegrationHttp docuSignApi =
+ *       IntegrationHttp.of("docusign", "https://demo.docusign.net/restapi/v2.1/", TIMEOUT_MS);
+ *   ...
+ *   HttpRequest request = docuSignApi.post("accounts/" + accountId + "/envelopes",
+ *       "application/json", out -&gt; writeEnvelope(out));
+ *   try (IntegrationResponse response = docuSignApi.send(request)) {
+ *       ...
+ *   }
+ * </pre>
+ *
+ * Per call:
+ * - The request timeout is the handle's timeout, shortened to the caller's
+ *   {@link Deadline} when the call runs under an IntegrationTimeout; waiting for a host
+ *   permit counts against it, and running out raises IntegrationTimeoutException
+ * - Requests ask for gzip; responses are decoded and streamed ({@link IntegrationResponse})
+ * - Request bodies are streamed from a {@link BodyWriter} while they are sent, gzip-encoded
+ *   when austa.http.{name}.gzip-requests is true
+ *
+ * The base URL can be overridden with austa.http.{name}.base-url, e.g. to point an
+ * integration at a {@link StubIntegrationServer}.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class IntegrationHttp {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IntegrationHttp.class);
+    private static final String USER_AGENT = "AUSTA-VendasB2B/3.0";
+
+    private final HttpClientPool pool;
+    private final String name;
+    private final URI baseUri;
+    private final long timeoutMs;
+    private final boolean gzipRequests;
+
+    IntegrationHttp(HttpClientPool pool, String name, URI baseUri, long timeoutMs, boolean gzipRequests) {
+        if (timeoutMs < 1) {
+            throw new IllegalArgumentException("Timeout must be positive for integration " + name);
+        }
+        this.pool = pool;
+        this.name = name;
+        this.baseUri = baseUri;
+        this.timeoutMs = timeoutMs;
+        this.gzipRequests = gzipRequests;
+    }
+
+    public static IntegrationHttp of(String name, String baseUrl, long timeoutMs) {
+        String configured = System.getProperty("austa.http." + name + ".base-url", baseUrl);
+        return new IntegrationHttp(HttpClientPool.shared(), name, URI.create(configured), timeoutMs,
+            Boolean.getBoolean("austa.http." + name + ".gzip-requests"));
+    }
+
+    /**
+     * Request builder for a path relative to the base URL, with timeout and gzip negotiation set
+     */
+    public HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+            .timeout(Duration.ofMillis(remainingMillis()))
+            .header("Accept-Encoding", "gzip")
+            .header("User-Agent", USER_AGENT);
+    }
+
+    public HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    /**
+     * POST whose body is written by the writer while the request is sent
+     */
+    public HttpRequest post(String path, String contentType, BodyWriter writer) {
+        return withBody(request(path), contentType, writer).POST(streamingBody(writer, gzipRequests, timeoutMs)).build();
+    }
+
+    /**
+     * PATCH whose body is written by the writer while the request is sent
+     */
+    public HttpRequest patch(String path, String contentType, BodyWriter writer) {
+        return withBody(request(path), contentType, writer)
+            .method("PATCH", streamingBody(writer, gzipRequests, timeoutMs)).build();
+    }
+
+    /**
+     * Sends the request and returns once the headers have arrived; the body is streamed
+     */
+    public IntegrationResponse send(HttpRequest request) throws IOException, InterruptedException {
+        long remaining = remainingMillis();
+        HttpClientPool.Leased<InputStream> leased;
+        try {
+            leased = pool.send(request, HttpResponse.BodyHandlers.ofInputStream(), remaining);
+        } catch (HttpTimeoutException e) {
+            throw new IntegrationTimeoutException(name, name + " HTTP call timed out: " + e.getMessage());
+        }
+        if (leased == null) {
+            throw new IntegrationTimeoutException(name,
+                name + ": no free connection to " + request.uri().getHost() + " within " + remaining + " ms");
+        }
+
+        HttpResponse<InputStream> response = leased.response();
+        InputStream body;
+        try {
+            body = IntegrationResponse.decode(response.headers(), response.body());
+        } catch (IOException e) {
+            leased.permits().release();
+            throw e;
+        }
+        LOGGER.debug("{} {} {} -> {} ({})", name, request.method(), request.uri(), response.statusCode(),
+                    response.version());
+        return new IntegrationResponse(response.statusCode(), response.headers(), body, leased.permits());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    private HttpRequest.Builder withBody(HttpRequest.Builder builder, String contentType, BodyWriter writer) {
+        if (writer == null) {
+            throw new IllegalArgumentException("Body writer is required");
+        }
+        builder.header("Content-Type", contentType);
+        if (gzipRequests) {
+            builder.header("Content-Encoding", "gzip");
+        }
+        return builder;
+    }
+
+    private long remainingMillis() {
+        Deadline deadline = Deadline.within(timeoutMs);
+        if (deadline.isExpired()) {
+            throw new IntegrationTimeoutException(name, name + ": deadline already passed");
+        }
+        return Math.max(1, deadline.remainingMillis());
+    }
+
+    /**
+     * Streams the writer's output as the request body. The writer runs on its own virtual
+     * thread each time the body is sent and hands chunks to the client through a
+     * {@link BodyPipe}; if it fails, the request fails instead of sending a truncated body.
+     */
+    static HttpRequest.BodyPublisher streamingBody(BodyWriter writer, boolean gzip, long idleTimeoutMs) {
+        return HttpRequest.BodyPublishers.ofInputStream(() -> {
+            BodyPipe pipe = new BodyPipe(idleTimeoutMs);
+            Thread.ofVirtual().name("http-body-writer").start(() -> {
+                try {
+                    OutputStream body = gzip ? new GZIPOutputStream(pipe.sink(), 8192) : pipe.sink();
+                    writer.writeTo(body);
+                    body.close();
+                } catch (Throwable e) {
+                    pipe.fail(e);
+                    LOGGER.warn("Request body writer failed; the request is aborted: {}", e.toString());
+                }
+            });
+            return pipe.source();
+        });
+    }
+
+    /**
+     * Writes a request body to the connection as it is produced
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
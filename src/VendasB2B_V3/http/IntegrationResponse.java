@@ -0,0 +1,114 @@
+package com.austa.vendas.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * IntegrationResponse - Streamed response of an integration call
+ *
+ * The body is read as it arrives and is already gzip-decoded. The response holds its
+ * connection and host permit until closed, so always use it in try-with-resources.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class IntegrationResponse implements AutoCloseable {
+
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final InputStream body;
+    private final Semaphore permits;
+    private boolean closed;
+
+    IntegrationResponse(int statusCode, HttpHeaders headers, InputStream body, Semaphore permits) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+        this.permits = permits;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * First value of the header, or null
+     */
+    public String getHeader(String name) {
+        return headers.firstValue(name).orElse(null);
+    }
+
+    /**
+     * First value of each header, names lower-cased, e.g. for RateLimitScheduler.observe
+     */
+    public Map<String, String> getHeaders() {
+        Map<String, String> first = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : headers.map().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                first.put(header.getKey().toLowerCase(Locale.ROOT), header.getValue().get(0));
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Decoded body stream, read as it arrives from the connection
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * Reads the whole body as UTF-8 and closes the response
+     */
+    public String bodyAsString() throws IOException {
+        try {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Releases the connection (unread body is discarded) and the host permit
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        try {
+            body.close();
+        } finally {
+            permits.release();
+        }
+    }
+
+    static InputStream decode(HttpHeaders headers, InputStream raw) throws IOException {
+        String encoding = headers.firstValue("Content-Encoding").orElse("");
+        if (!"gzip".equalsIgnoreCase(encoding.trim())) {
+            return raw;
+        }
+        try {
+            return new GZIPInputStream(raw, 8192);
+        } catch (IOException e) {
+            raw.close();
+            throw e;
+        }
+    }
+}
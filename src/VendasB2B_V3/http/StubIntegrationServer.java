@@ -0,0 +1,164 @@
+package com.austa.vendas.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * StubIntegrationServer - Local HTTP server with canned responses for integration tests
+ *
+ * Purpose: Lets the integration delegates run against localhost instead of the vendor
+ * APIs. Point an integration at it with its base-url property and register a response
+ * per method and path:
+ * <pre>
+ *   try (StubIntegrationServer stub = StubIntegrationServer.start()) {
+ *       stub.respond("POST", "/restapi/v2.1/accounts/1/envelopes", 201, "{\"envelopeId\":\"ENV-1\"}");
+ *       System.setProperty("austa.http.docusign.base-url", stub.getBaseUrl() + "/restapi/v2.1/");
+ *       ...
+ *       stub.getRequests("/restapi/v2.1/accounts/1/envelopes");
+ *   }
+ * </pre>
+ *
+ * - Unregistered paths answer 404; a response can be delayed to exercise timeouts
+ * - Gzip request bodies are decoded before they are recorded, and responses are gzipped
+ *   when the client accepts it, so the client's encoding paths run as in production
+ * - HTTP/1.1 only (the JDK server does not speak h2c); the shared client falls back to it
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class StubIntegrationServer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StubIntegrationServer.class);
+
+    private final HttpServer server;
+    private final Map<String, CannedResponse> responses = new ConcurrentHashMap<>();
+    private final List<RecordedRequest> requests = new CopyOnWriteArrayList<>();
+
+    private StubIntegrationServer(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Starts a server on a free loopback port
+     */
+    public static StubIntegrationServer start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        StubIntegrationServer stub = new StubIntegrationServer(server);
+        server.createContext("/", stub::handle);
+        // Platform threads: the JDK server's request streams read inside synchronized blocks,
+        // which would pin virtual handler threads and starve the client's own virtual threads
+        server.setExecutor(Executors.newCachedThreadPool(Thread.ofPlatform().name("stub-http-", 0).daemon().factory()));
+        server.start();
+        LOGGER.info("Stub integration server listening on {}", stub.getBaseUrl());
+        return stub;
+    }
+
+    public void respond(String method, String path, int status, String body) {
+        respond(method, path, status, body, 0);
+    }
+
+    /**
+     * Registers the response to a method and exact path, sent after delayMs
+     */
+    public void respond(String method, String path, int status, String body, long delayMs) {
+        responses.put(method.toUpperCase() + " " + path, new CannedResponse(status, body, delayMs));
+    }
+
+    /**
+     * Base URL without trailing slash, e.g. http://127.0.0.1:41234
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Requests received for the path, in arrival order
+     */
+    public List<RecordedRequest> getRequests(String path) {
+        List<RecordedRequest> matching = new ArrayList<>();
+        for (RecordedRequest request : requests) {
+            if (request.path().equals(path)) {
+                matching.add(request);
+            }
+        }
+        return matching;
+    }
+
+    public int getRequestCount() {
+        return requests.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            boolean gzipRequest = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            byte[] requestBody;
+            try (InputStream in = gzipRequest
+                    ? new GZIPInputStream(exchange.getRequestBody())
+                    : exchange.getRequestBody()) {
+                requestBody = in.readAllBytes();
+            }
+            requests.add(new RecordedRequest(method, path, new String(requestBody, StandardCharsets.UTF_8),
+                gzipRequest));
+
+            CannedResponse canned = responses.get(method + " " + path);
+            if (canned == null) {
+                canned = new CannedResponse(404, "{\"error\":\"no stub for " + method + " " + path + "\"}", 0);
+            }
+            if (canned.delayMs() > 0) {
+                Thread.sleep(canned.delayMs());
+            }
+
+            byte[] body = canned.body().getBytes(StandardCharsets.UTF_8);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzipResponse = acceptEncoding != null && acceptEncoding.contains("gzip");
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (gzipResponse) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                exchange.sendResponseHeaders(canned.status(), 0);
+                try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                    out.write(body);
+                }
+            } else {
+                exchange.sendResponseHeaders(canned.status(), body.length == 0 ? -1 : body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One request as received by the stub; body is gzip-decoded
+     */
+    public record RecordedRequest(String method, String path, String body, boolean gzipped) {
+    }
+
+    private record CannedResponse(int status, String body, long delayMs) {
+    }
+}
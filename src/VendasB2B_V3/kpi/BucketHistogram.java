@@ -0,0 +1,78 @@
+package com.austa.vendas.kpi;
+
+import java.util.Arrays;
+
+/**
+ * BucketHistogram - Fixed-bucket histogram for latency-style KPI distributions
+ *
+ * Values are counted in buckets with fixed upper bounds (plus one overflow bucket), so
+ * recording is one binary search and an increment, histograms of many time buckets merge
+ * by adding counts, and percentiles are read as the upper bound of the bucket that holds
+ * them. Not thread-safe; KpiAggregator guards each histogram with its series lock.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+final class BucketHistogram {
+
+    /** Sales cycle length in days */
+    static final double[] SALES_CYCLE_DAYS = {7, 14, 30, 45, 60, 90, 120, 180, 270, 365};
+
+    /** Deal value in BRL */
+    static final double[] DEAL_VALUE_BRL = {10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+        1_000_000, 2_500_000, 5_000_000};
+
+    private final double[] upperBounds;
+    private final long[] counts;
+    private long total;
+
+    BucketHistogram(double[] upperBounds) {
+        this.upperBounds = upperBounds;
+        this.counts = new long[upperBounds.length + 1];
+    }
+
+    void record(double value) {
+        int index = Arrays.binarySearch(upperBounds, value);
+        counts[index >= 0 ? index : -index - 1]++;
+        total++;
+    }
+
+    void addAll(BucketHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        total = 0;
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    long[] copyCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * Upper bound of the bucket holding the quantile (0-1); +Infinity for the overflow
+     * bucket, NaN when empty
+     */
+    double percentile(double quantile) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < upperBounds.length ? upperBounds[i] : Double.POSITIVE_INFINITY;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
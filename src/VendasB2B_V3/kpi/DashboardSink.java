@@ -0,0 +1,17 @@
+package com.austa.vendas.kpi;
+
+/**
+ * DashboardSink - Target of the periodic KPI snapshots
+ *
+ * Implementations write a whole snapshot in one request. A snapshot carries the full
+ * rolling window, so a failed write is not retried: the next snapshot supersedes it.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public interface DashboardSink {
+
+    String getName();
+
+    void publish(KpiSnapshot snapshot) throws Exception;
+}
@@ -0,0 +1,289 @@
+package com.austa.vendas.kpi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KpiAggregator - Rolling-window KPI counters flushed to the dashboard on a fixed cadence
+ *
+ * Purpose: KPIDashboardDelegate used to push one opportunity's raw values to the dashboard
+ * per execution. Executions now only record into this aggregator, and a timer writes one
+ * compact snapshot per flush interval, so thousands of updates per minute become one
+ * dashboard write per interval.
+ *
+ * Aggregation:
+ * - One series per team and stage, holding a ring of time buckets one flush interval wide
+ *   that covers the rolling window plus the interval being filled
+ * - Each bucket counts updates, sums deal values and keeps fixed-bucket histograms of
+ *   sales cycle days and deal value, so bucket ranges merge by adding counts
+ * - Recording locks only its own series; buckets older than the window are reused in place
+ * - Flushes run on interval boundaries and cover the completed intervals of the window;
+ *   series without updates in the window are dropped
+ *
+ * A snapshot carries the whole window, so a failed dashboard write is logged and left to
+ * the next snapshot rather than retried.
+ *
+ * Configuration (system properties):
+ * - austa.kpi.flush-interval-ms: flush cadence and bucket width (default 60000)
+ * - austa.kpi.window-ms: rolling window (default 3600000)
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class KpiAggregator implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KpiAggregator.class);
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 60000;
+    public static final long DEFAULT_WINDOW_MS = 3600000;
+
+    /** Team of updates recorded without a teamId */
+    public static final String UNASSIGNED_TEAM = "unassigned";
+
+    /** Stage of updates recorded without a stage */
+    public static final String UNKNOWN_STAGE = "UNKNOWN";
+
+    private static volatile KpiAggregator shared;
+
+    private final DashboardSink sink;
+    private final long intervalMs;
+    private final int windowIntervals;
+    private final Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushTimer;
+    private final AtomicLong updatesRecorded = new AtomicLong();
+    private final AtomicLong snapshotsPublished = new AtomicLong();
+    private final AtomicLong publishFailures = new AtomicLong();
+
+    public KpiAggregator(DashboardSink sink, long intervalMs, long windowMs) {
+        if (intervalMs < 1 || windowMs < intervalMs) {
+            throw new IllegalArgumentException("Flush interval must be positive and at most the window");
+        }
+        this.sink = sink;
+        this.intervalMs = intervalMs;
+        this.windowIntervals = (int) Math.ceil((double) windowMs / intervalMs);
+        this.flushTimer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("kpi-flush").daemon(true).factory());
+    }
+
+    /**
+     * Process-wide aggregator configured from system properties; started on first use and
+     * flushed on JVM shutdown
+     */
+    public static KpiAggregator shared() {
+        KpiAggregator aggregator = shared;
+        if (aggregator == null) {
+            synchronized (KpiAggregator.class) {
+                aggregator = shared;
+                if (aggregator == null) {
+                    aggregator = new KpiAggregator(new SimulatedDashboardSink(),
+                        Long.getLong("austa.kpi.flush-interval-ms", DEFAULT_FLUSH_INTERVAL_MS),
+                        Long.getLong("austa.kpi.window-ms", DEFAULT_WINDOW_MS));
+                    aggregator.start();
+                    Runtime.getRuntime().addShutdownHook(new Thread(aggregator::close, "kpi-flush-shutdown"));
+                    shared = aggregator;
+                }
+            }
+        }
+        return aggregator;
+    }
+
+    /**
+     * Schedules flushes on interval boundaries
+     */
+    public void start() {
+        long now = System.currentTimeMillis();
+        flushTimer.scheduleAtFixedRate(this::flushQuietly, intervalMs - now % intervalMs, intervalMs,
+            TimeUnit.MILLISECONDS);
+        LOGGER.info("KPI aggregator started: {} ms interval, {} intervals per window, sink {}",
+                   intervalMs, windowIntervals, sink.getName());
+    }
+
+    /**
+     * Records one opportunity update; dealValue and salesCycleDays may be null
+     */
+    public void record(String teamId, String stage, Double dealValue, Integer salesCycleDays, long timestamp) {
+        SeriesKey key = new SeriesKey(teamId != null ? teamId : UNASSIGNED_TEAM,
+            stage != null ? stage : UNKNOWN_STAGE);
+        long interval = timestamp / intervalMs;
+        // Recorded inside compute so that a concurrent flush cannot drop the series meanwhile
+        series.compute(key, (k, current) -> {
+            Series target = current != null ? current : new Series(windowIntervals + 1);
+            target.record(interval, dealValue, salesCycleDays);
+            return target;
+        });
+        updatesRecorded.incrementAndGet();
+    }
+
+    /**
+     * Epoch milliseconds of the next scheduled flush after the given instant
+     */
+    public long nextFlushAfter(long timestamp) {
+        return (timestamp / intervalMs + 1) * intervalMs;
+    }
+
+    /**
+     * Builds the snapshot of the window ending at the last interval boundary and publishes it
+     */
+    public KpiSnapshot flush() throws Exception {
+        long end = System.currentTimeMillis() / intervalMs * intervalMs;
+        KpiSnapshot snapshot = snapshot(end);
+        if (!snapshot.getSeries().isEmpty()) {
+            long start = System.nanoTime();
+            sink.publish(snapshot);
+            snapshotsPublished.incrementAndGet();
+            LOGGER.info("Published KPI snapshot to {}: {} series, {} ms", sink.getName(),
+                       snapshot.getSeries().size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Aggregates the completed intervals of the window ending at end (an interval boundary)
+     */
+    KpiSnapshot snapshot(long end) {
+        long lastInterval = end / intervalMs - 1;
+        long firstInterval = lastInterval - windowIntervals + 1;
+        List<KpiSnapshot.Series> result = new ArrayList<>();
+
+        for (Map.Entry<SeriesKey, Series> entry : series.entrySet()) {
+            KpiSnapshot.Series summary = entry.getValue().summarize(entry.getKey(), firstInterval, lastInterval);
+            if (summary != null) {
+                result.add(summary);
+            } else {
+                series.computeIfPresent(entry.getKey(),
+                    (key, idle) -> idle.isIdleSince(firstInterval) ? null : idle);
+            }
+        }
+        return new KpiSnapshot(end, (long) windowIntervals * intervalMs, result);
+    }
+
+    public long getUpdatesRecorded() {
+        return updatesRecorded.get();
+    }
+
+    public long getSnapshotsPublished() {
+        return snapshotsPublished.get();
+    }
+
+    public long getPublishFailures() {
+        return publishFailures.get();
+    }
+
+    @Override
+    public void close() {
+        flushTimer.shutdownNow();
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            publishFailures.incrementAndGet();
+            LOGGER.warn("KPI snapshot not published to {}; the next snapshot supersedes it: {}",
+                       sink.getName(), e.getMessage());
+        }
+    }
+
+    private record SeriesKey(String teamId, String stage) {
+    }
+
+    /**
+     * Ring of interval buckets of one team and stage
+     */
+    private static final class Series {
+        private final Bucket[] buckets;
+
+        Series(int size) {
+            buckets = new Bucket[size];
+            for (int i = 0; i < size; i++) {
+                buckets[i] = new Bucket();
+            }
+        }
+
+        synchronized void record(long interval, Double dealValue, Integer salesCycleDays) {
+            Bucket bucket = buckets[(int) Math.floorMod(interval, (long) buckets.length)];
+            if (bucket.interval != interval) {
+                if (bucket.interval > interval) {
+                    return; // Older than the window
+                }
+                bucket.reset(interval);
+            }
+            bucket.updates++;
+            if (dealValue != null) {
+                bucket.dealValueSum += dealValue;
+                bucket.dealValue.record(dealValue);
+            }
+            if (salesCycleDays != null) {
+                bucket.salesCycle.record(salesCycleDays);
+            }
+        }
+
+        /**
+         * Merges the buckets in [firstInterval, lastInterval]; null if none has updates
+         */
+        synchronized KpiSnapshot.Series summarize(SeriesKey key, long firstInterval, long lastInterval) {
+            long updates = 0;
+            long lastIntervalUpdates = 0;
+            double dealValueSum = 0;
+            BucketHistogram salesCycle = new BucketHistogram(BucketHistogram.SALES_CYCLE_DAYS);
+            BucketHistogram dealValue = new BucketHistogram(BucketHistogram.DEAL_VALUE_BRL);
+
+            for (Bucket bucket : buckets) {
+                if (bucket.interval < firstInterval || bucket.interval > lastInterval || bucket.updates == 0) {
+                    continue;
+                }
+                updates += bucket.updates;
+                dealValueSum += bucket.dealValueSum;
+                salesCycle.addAll(bucket.salesCycle);
+                dealValue.addAll(bucket.dealValue);
+                if (bucket.interval == lastInterval) {
+                    lastIntervalUpdates = bucket.updates;
+                }
+            }
+            return updates > 0
+                ? new KpiSnapshot.Series(key.teamId(), key.stage(), updates, lastIntervalUpdates, dealValueSum,
+                    salesCycle, dealValue)
+                : null;
+        }
+
+        /**
+         * True if no bucket holds updates from firstInterval on, including the open interval
+         */
+        synchronized boolean isIdleSince(long firstInterval) {
+            for (Bucket bucket : buckets) {
+                if (bucket.interval >= firstInterval && bucket.updates > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Bucket {
+        long interval = Long.MIN_VALUE;
+        long updates;
+        double dealValueSum;
+        final BucketHistogram salesCycle = new BucketHistogram(BucketHistogram.SALES_CYCLE_DAYS);
+        final BucketHistogram dealValue = new BucketHistogram(BucketHistogram.DEAL_VALUE_BRL);
+
+        void reset(long newInterval) {
+            interval = newInterval;
+            updates = 0;
+            dealValueSum = 0;
+            salesCycle.clear();
+            dealValue.clear();
+        }
+    }
+}
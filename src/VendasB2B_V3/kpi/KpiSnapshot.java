@@ -0,0 +1,130 @@
+package com.austa.vendas.kpi;
+
+import java.util.List;
+
+/**
+ * KpiSnapshot - Rolling-window KPIs per team and stage, as written to the dashboard
+ *
+ * One snapshot is produced per flush interval. Each series covers the whole window that
+ * ends at intervalEnd, so a dashboard only needs the latest snapshot; lastInterval values
+ * give the activity of the most recent interval alone.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class KpiSnapshot {
+
+    private final long intervalEnd;
+    private final long windowMs;
+    private final List<Series> series;
+
+    KpiSnapshot(long intervalEnd, long windowMs, List<Series> series) {
+        this.intervalEnd = intervalEnd;
+        this.windowMs = windowMs;
+        this.series = List.copyOf(series);
+    }
+
+    /**
+     * Epoch milliseconds at which the covered window ends
+     */
+    public long getIntervalEnd() {
+        return intervalEnd;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public List<Series> getSeries() {
+        return series;
+    }
+
+    /**
+     * KPIs of one team and stage over the window
+     */
+    public static final class Series {
+
+        private final String teamId;
+        private final String stage;
+        private final long updates;
+        private final long lastIntervalUpdates;
+        private final double dealValueSum;
+        private final long dealValueCount;
+        private final double salesCycleP50;
+        private final double salesCycleP90;
+        private final double salesCycleP99;
+        private final long[] salesCycleBuckets;
+        private final long[] dealValueBuckets;
+
+        Series(String teamId, String stage, long updates, long lastIntervalUpdates, double dealValueSum,
+               BucketHistogram salesCycle, BucketHistogram dealValue) {
+            this.teamId = teamId;
+            this.stage = stage;
+            this.updates = updates;
+            this.lastIntervalUpdates = lastIntervalUpdates;
+            this.dealValueSum = dealValueSum;
+            this.dealValueCount = dealValue.getTotal();
+            this.salesCycleP50 = salesCycle.percentile(0.50);
+            this.salesCycleP90 = salesCycle.percentile(0.90);
+            this.salesCycleP99 = salesCycle.percentile(0.99);
+            this.salesCycleBuckets = salesCycle.copyCounts();
+            this.dealValueBuckets = dealValue.copyCounts();
+        }
+
+        public String getTeamId() {
+            return teamId;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        /**
+         * Opportunity updates recorded in the window
+         */
+        public long getUpdates() {
+            return updates;
+        }
+
+        public long getLastIntervalUpdates() {
+            return lastIntervalUpdates;
+        }
+
+        public double getDealValueSum() {
+            return dealValueSum;
+        }
+
+        public double getAverageDealValue() {
+            return dealValueCount > 0 ? dealValueSum / dealValueCount : 0.0;
+        }
+
+        /**
+         * Sales cycle percentiles in days, as bucket upper bounds; NaN without data
+         */
+        public double getSalesCycleP50() {
+            return salesCycleP50;
+        }
+
+        public double getSalesCycleP90() {
+            return salesCycleP90;
+        }
+
+        public double getSalesCycleP99() {
+            return salesCycleP99;
+        }
+
+        /**
+         * Counts per sales-cycle bucket (7, 14, 30, 45, 60, 90, 120, 180, 270, 365 days, overflow)
+         */
+        public long[] getSalesCycleBuckets() {
+            return salesCycleBuckets.clone();
+        }
+
+        /**
+         * Counts per deal-value bucket (10k, 25k, 50k, 100k, 250k, 500k, 1M, 2.5M, 5M BRL, overflow)
+         */
+        public long[] getDealValueBuckets() {
+            return dealValueBuckets.clone();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.austa.vendas.kpi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SimulatedDashboardSink - Placeholder dashboard write until the dashboard API is wired
+ *
+ * Keeps the simulated latency of the old per-execution dashboard update, now paid once
+ * per snapshot.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public class SimulatedDashboardSink implements DashboardSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulatedDashboardSink.class);
+    private static final long SIMULATED_PUBLISH_MS = 1000;
+
+    @Override
+    public String getName() {
+        return "simulated";
+    }
+
+    @Override
+    public void publish(KpiSnapshot snapshot) throws Exception {
+        // TODO: Implement actual Dashboard API call
+        // POST /api/v1/dashboards/kpi/update with the snapshot series as one document
+        // Could be Grafana, Tableau, Power BI, or custom dashboard
+
+        LOGGER.debug("Publishing KPI snapshot ending {}: {} series", snapshot.getIntervalEnd(),
+                    snapshot.getSeries().size());
+
+        Thread.sleep(SIMULATED_PUBLISH_MS); // Simulate API call
+    }
+}
@@ -0,0 +1,60 @@
+package com.austa.vendas.outbox;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * OutboxEntry - Pending outbox row claimed by a drain worker
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class OutboxEntry {
+
+    private final long id;
+    private final String dedupeKey;
+    private final String aggregateId;
+    private final String messageType;
+    private final Map<String, Object> payload;
+    private final int attempts;
+
+    OutboxEntry(long id, String dedupeKey, String aggregateId, String messageType,
+                Map<String, Object> payload, int attempts) {
+        this.id = id;
+        this.dedupeKey = dedupeKey;
+        this.aggregateId = aggregateId;
+        this.messageType = messageType;
+        this.payload = Collections.unmodifiableMap(payload);
+        this.attempts = attempts;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Payload key; also sent downstream as the idempotency key
+     */
+    public String getDedupeKey() {
+        return dedupeKey;
+    }
+
+    /**
+     * Ordering key (e.g. clientId); entries of one aggregate are delivered in id order
+     */
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getMessageType() {
+        return messageType;
+    }
+
+    public Map<String, Object> getPayload() {
+        return payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,310 @@
+package com.austa.vendas.outbox;
+
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * OutboxStore - Transactional outbox table for deliveries to an external system
+ *
+ * Purpose: A delegate records what must be delivered instead of calling the external
+ * system inline. Inside the engine the row is written on the engine's own JDBC connection,
+ * so it commits or rolls back together with the process state of the same command;
+ * drain workers then deliver it asynchronously.
+ *
+ * Delivery semantics:
+ * - Each entry carries a payload key (SHA-256 of message type, aggregate and payload);
+ *   enqueueing a payload that is already in the outbox is a no-op, so job retries and
+ *   re-executed external tasks do not produce duplicates
+ * - The key is sent downstream as the idempotency key, so a redelivery after a lost
+ *   acknowledgement is also applied once
+ * - Entries are assigned to one of {@code partitions} partitions by aggregate id; a drain
+ *   worker holds its partition's row lock while delivering, which keeps per-aggregate order
+ *   across workers and nodes
+ *
+ * Outside an engine command (external task workers) the row is written in its own
+ * transaction on the bound DataSource; the payload key makes the retry after a failed
+ * task completion safe.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class OutboxStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxStore.class);
+    private static final Pattern TABLE_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,40}");
+
+    public static final String PENDING = "PENDING";
+    public static final String DELIVERED = "DELIVERED";
+    public static final String DEAD = "DEAD";
+
+    private static volatile DataSource dataSource;
+
+    private final String table;
+    private final int partitions;
+    private volatile boolean schemaReady;
+
+    public OutboxStore(String table, int partitions) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid outbox table name: " + table);
+        }
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Outbox needs at least one partition");
+        }
+        this.table = table;
+        this.partitions = partitions;
+    }
+
+    /**
+     * DataSource of the engine database, bound by the drain worker at startup
+     */
+    public static void bindDataSource(DataSource boundDataSource) {
+        dataSource = boundDataSource;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Records the payload for delivery; returns its payload key
+     */
+    public String enqueue(String aggregateId, String messageType, Map<String, Object> payload) throws SQLException {
+        String dedupeKey = payloadKey(aggregateId, messageType, payload);
+        if (dataSource != null) {
+            ensureSchema();
+        }
+        CommandContext commandContext = Context.getCommandContext();
+
+        if (commandContext != null) {
+            // Same connection and transaction as the process state written by this command
+            insert(commandContext.getDbSqlSession().getSqlSession().getConnection(),
+                dedupeKey, aggregateId, messageType, payload);
+        } else {
+            try (Connection connection = requireDataSource().getConnection()) {
+                connection.setAutoCommit(true);
+                insert(connection, dedupeKey, aggregateId, messageType, payload);
+            }
+        }
+        return dedupeKey;
+    }
+
+    /**
+     * Creates the outbox and partition tables if missing; runs in its own transaction
+     */
+    public void ensureSchema() throws SQLException {
+        if (schemaReady) {
+            return;
+        }
+        try (Connection connection = requireDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(true);
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "dedupe_key VARCHAR(64) NOT NULL UNIQUE, "
+                + "aggregate_id VARCHAR(128) NOT NULL, "
+                + "partition_id INTEGER NOT NULL, "
+                + "message_type VARCHAR(32) NOT NULL, "
+                + "payload " + blobType(connection) + " NOT NULL, "
+                + "status VARCHAR(16) NOT NULL, "
+                + "attempts INTEGER NOT NULL, "
+                + "last_error VARCHAR(1000), "
+                + "created_at TIMESTAMP NOT NULL, "
+                + "delivered_at TIMESTAMP)");
+            statement.execute("CREATE INDEX IF NOT EXISTS " + table + "_pending ON " + table
+                + " (partition_id, status, id)");
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table + "_partition ("
+                + "partition_id INTEGER PRIMARY KEY)");
+
+            for (int partition = 0; partition < partitions; partition++) {
+                try (PreparedStatement seed = connection.prepareStatement("INSERT INTO " + table
+                        + "_partition (partition_id) SELECT ? WHERE NOT EXISTS (SELECT 1 FROM " + table
+                        + "_partition WHERE partition_id = ?)")) {
+                    seed.setInt(1, partition);
+                    seed.setInt(2, partition);
+                    seed.executeUpdate();
+                }
+            }
+        }
+        schemaReady = true;
+    }
+
+    /**
+     * Opens a delivery transaction holding the partition lock; the caller commits or rolls back
+     */
+    public Connection lockPartition(int partition) throws SQLException {
+        Connection connection = requireDataSource().getConnection();
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement lock = connection.prepareStatement("SELECT partition_id FROM " + table
+                    + "_partition WHERE partition_id = ? FOR UPDATE")) {
+                lock.setInt(1, partition);
+                lock.executeQuery().close();
+            }
+            return connection;
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Oldest pending entries of the partition, in enqueue order
+     */
+    public List<OutboxEntry> pending(Connection connection, int partition, int maxEntries) throws SQLException {
+        List<OutboxEntry> entries = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement("SELECT id, dedupe_key, aggregate_id, "
+                + "message_type, payload, attempts FROM " + table
+                + " WHERE partition_id = ? AND status = ? ORDER BY id")) {
+            select.setInt(1, partition);
+            select.setString(2, PENDING);
+            select.setMaxRows(maxEntries);
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    entries.add(new OutboxEntry(rows.getLong(1), rows.getString(2), rows.getString(3),
+                        rows.getString(4), deserialize(rows.getBytes(5)), rows.getInt(6)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    public void markDelivered(Connection connection, List<OutboxEntry> entries) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement("UPDATE " + table
+                + " SET status = ?, delivered_at = ?, last_error = NULL WHERE id = ?")) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (OutboxEntry entry : entries) {
+                update.setString(1, DELIVERED);
+                update.setTimestamp(2, now);
+                update.setLong(3, entry.getId());
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+    }
+
+    /**
+     * Counts a failed attempt; the entry becomes DEAD once maxAttempts is reached
+     */
+    public void markFailed(Connection connection, OutboxEntry entry, String error, int maxAttempts)
+            throws SQLException {
+        int attempts = entry.getAttempts() + 1;
+        try (PreparedStatement update = connection.prepareStatement("UPDATE " + table
+                + " SET status = ?, attempts = ?, last_error = ? WHERE id = ?")) {
+            update.setString(1, attempts >= maxAttempts ? DEAD : PENDING);
+            update.setInt(2, attempts);
+            update.setString(3, error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+            update.setLong(4, entry.getId());
+            update.executeUpdate();
+        }
+        if (attempts >= maxAttempts) {
+            LOGGER.error("Outbox {} entry {} ({} for {}) is dead after {} attempts: {}",
+                        table, entry.getId(), entry.getMessageType(), entry.getAggregateId(), attempts, error);
+        }
+    }
+
+    /**
+     * Deletes delivered rows older than the retention; their keys stop deduplicating
+     */
+    public int purgeDelivered(long retentionMillis) throws SQLException {
+        try (Connection connection = requireDataSource().getConnection();
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table
+                 + " WHERE status = ? AND delivered_at < ?")) {
+            connection.setAutoCommit(true);
+            delete.setString(1, DELIVERED);
+            delete.setTimestamp(2, new Timestamp(System.currentTimeMillis() - retentionMillis));
+            return delete.executeUpdate();
+        }
+    }
+
+    private void insert(Connection connection, String dedupeKey, String aggregateId, String messageType,
+                        Map<String, Object> payload) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table
+                + " (dedupe_key, aggregate_id, partition_id, message_type, payload, status, attempts, created_at)"
+                + " SELECT ?, ?, ?, ?, ?, ?, 0, CAST(? AS TIMESTAMP) WHERE NOT EXISTS"
+                + " (SELECT 1 FROM " + table + " WHERE dedupe_key = ?)")) {
+            insert.setString(1, dedupeKey);
+            insert.setString(2, aggregateId);
+            insert.setInt(3, Math.floorMod(aggregateId.hashCode(), partitions));
+            insert.setString(4, messageType);
+            insert.setBytes(5, serialize(payload));
+            insert.setString(6, PENDING);
+            insert.setTimestamp(7, new Timestamp(System.currentTimeMillis()));
+            insert.setString(8, dedupeKey);
+
+            if (insert.executeUpdate() == 0) {
+                LOGGER.info("Outbox {} already holds {} for {} (key {}); not enqueued again",
+                           table, messageType, aggregateId, dedupeKey);
+            }
+        }
+    }
+
+    private static DataSource requireDataSource() {
+        DataSource bound = dataSource;
+        if (bound == null) {
+            throw new IllegalStateException("No outbox DataSource bound outside an engine command");
+        }
+        return bound;
+    }
+
+    private static String blobType(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase();
+        return product.contains("postgres") ? "BYTEA" : "BLOB";
+    }
+
+    /**
+     * Order-independent payload key: message type, aggregate and sorted payload entries
+     */
+    static String payloadKey(String aggregateId, String messageType, Map<String, Object> payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String canonical = messageType + "|" + aggregateId + "|" + new TreeMap<>(payload);
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] serialize(Map<String, Object> payload) throws SQLException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new HashMap<>(payload));
+        } catch (IOException e) {
+            throw new SQLException("Outbox payload is not serializable", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deserialize(byte[] bytes) throws SQLException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Map<String, Object>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new SQLException("Unreadable outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.austa.vendas.outbox;
+
+import com.austa.vendas.resilience.IntegrationTimeout;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TasyOutboxDrainWorker - Delivers the Tasy ERP outbox in batches
+ *
+ * Purpose: TasyERPIntegrationDelegate only records customer, contract and billing payloads
+ * in the outbox, so process execution never waits on the 45 s ERP timeout. This worker
+ * pool delivers them: one worker per outbox partition, each sending the partition's
+ * pending entries in enqueue order as batch requests of up to MAX_BATCH_SIZE entries.
+ *
+ * Ordering and failures:
+ * - Consecutive entries of the same type form one batch (customers to /customers/batch,
+ *   contracts to /contracts/batch, billing to /billing/batch) holding at most one entry
+ *   per client, so each client's entries reach the ERP in enqueue order
+ * - When an entry fails, later entries of the same clientId are held back until the next
+ *   round; other clients in the partition continue
+ * - A failed request (ERP outage, timeout, open circuit breaker) stops the partition's
+ *   round without charging its entries an attempt; the partition backs off, doubling the
+ *   pause per failed round up to MAX_OUTAGE_BACKOFF_MS, and the backlog simply waits
+ * - Only entries the ERP rejects count attempts; after MAX_ATTEMPTS they are marked DEAD
+ *   and logged for manual follow-up
+ * - Delivered rows are kept for DELIVERED_RETENTION so their payload keys keep deduplicating
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+@Component
+public class TasyOutboxDrainWorker implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TasyOutboxDrainWorker.class);
+
+    public static final OutboxStore OUTBOX = new OutboxStore("austa_tasy_outbox", 8);
+
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_ENTRIES_PER_ROUND = 500;
+    private static final int MAX_ATTEMPTS = 20;
+    private static final long DRAIN_INTERVAL_MS = 5000;
+    private static final long MAX_OUTAGE_BACKOFF_MS = 300000;
+    private static final long TIMEOUT_MS = 45000;
+    private static final Duration DELIVERED_RETENTION = Duration.ofDays(30);
+
+    private final CircuitBreaker circuitBreaker;
+    private final IntegrationTimeout timeout;
+    private final long[] resumeAt = new long[OUTBOX.getPartitions()];
+    private final int[] failedRounds = new int[OUTBOX.getPartitions()];
+    private ScheduledExecutorService workers;
+    private volatile boolean running;
+
+    public TasyOutboxDrainWorker(DataSource dataSource) {
+        OutboxStore.bindDataSource(dataSource);
+
+        CircuitBreakerConfig cbConfig = CircuitBreakerConfig.custom()
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofSeconds(120))
+            .slidingWindowSize(10)
+            .build();
+        this.circuitBreaker = CircuitBreaker.of("tasyERPOutbox", cbConfig);
+        this.timeout = IntegrationTimeout.of("tasyERPOutbox", TIMEOUT_MS);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            OUTBOX.ensureSchema();
+        } catch (SQLException e) {
+            LOGGER.error("Tasy outbox schema unavailable; drain workers not started", e);
+            return;
+        }
+
+        workers = Executors.newScheduledThreadPool(OUTBOX.getPartitions(), runnable -> {
+            Thread thread = new Thread(runnable, "tasy-outbox-drain");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int partition = 0; partition < OUTBOX.getPartitions(); partition++) {
+            int assigned = partition;
+            workers.scheduleWithFixedDelay(() -> drainSafely(assigned),
+                DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        workers.scheduleWithFixedDelay(this::purgeSafely, 1, 1, TimeUnit.HOURS);
+        running = true;
+
+        LOGGER.info("Tasy outbox drain started: {} partitions", OUTBOX.getPartitions());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        workers.shutdown();
+        try {
+            workers.awaitTermination(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Runs the partition's round unless it is backing off after failed requests; each
+     * partition is only ever drained by its own scheduled task
+     */
+    private void drainSafely(int partition) {
+        if (System.currentTimeMillis() < resumeAt[partition]) {
+            return;
+        }
+        try {
+            if (drain(partition)) {
+                failedRounds[partition] = 0;
+                return;
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Tasy outbox partition {} drain stopped: {}", partition, e.getMessage());
+        }
+        int failed = ++failedRounds[partition];
+        long backoffMs = Math.min(MAX_OUTAGE_BACKOFF_MS, DRAIN_INTERVAL_MS << Math.min(failed - 1, 16));
+        resumeAt[partition] = System.currentTimeMillis() + backoffMs;
+        LOGGER.info("Tasy outbox partition {} paused for {} ms after {} failed rounds",
+                   partition, backoffMs, failed);
+    }
+
+    private void purgeSafely() {
+        try {
+            int purged = OUTBOX.purgeDelivered(DELIVERED_RETENTION.toMillis());
+            if (purged > 0) {
+                LOGGER.info("Purged {} delivered Tasy outbox entries", purged);
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Tasy outbox purge failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One round for one partition, inside a transaction that holds the partition lock;
+     * returns false if a batch request failed as a whole
+     */
+    boolean drain(int partition) throws Exception {
+        try (Connection connection = OUTBOX.lockPartition(partition)) {
+            try {
+                List<OutboxEntry> entries = OUTBOX.pending(connection, partition, MAX_ENTRIES_PER_ROUND);
+                boolean reachable = entries.isEmpty() || deliver(connection, entries);
+                connection.commit();
+                return reachable;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Sends the entries batch by batch; returns false if a request failed as a whole
+     */
+    private boolean deliver(Connection connection, List<OutboxEntry> entries) throws SQLException {
+        Set<String> blockedClients = new HashSet<>();
+        int delivered = 0;
+
+        for (List<OutboxEntry> batch : batches(entries)) {
+            List<OutboxEntry> sendable = new ArrayList<>(batch.size());
+            for (OutboxEntry entry : batch) {
+                if (!blockedClients.contains(entry.getAggregateId())) {
+                    sendable.add(entry);
+                }
+            }
+            if (sendable.isEmpty()) {
+                continue;
+            }
+
+            Map<String, String> failures;
+            try {
+                failures = circuitBreaker.executeCallable(() ->
+                    timeout.call(() -> sendBatch(sendable)));
+            } catch (Exception e) {
+                // Whole request failed: the ERP is unreachable, not rejecting these entries,
+                // so they keep their attempts and wait for the partition's next round
+                LOGGER.warn("Tasy outbox batch of {} failed, delivered {} this round: {}",
+                           sendable.size(), delivered, e.getMessage());
+                return false;
+            }
+
+            List<OutboxEntry> accepted = new ArrayList<>(sendable.size());
+            for (OutboxEntry entry : sendable) {
+                String error = failures.get(entry.getDedupeKey());
+                if (error == null) {
+                    accepted.add(entry);
+                } else {
+                    OUTBOX.markFailed(connection, entry, error, MAX_ATTEMPTS);
+                    blockedClients.add(entry.getAggregateId());
+                }
+            }
+            OUTBOX.markDelivered(connection, accepted);
+            delivered += accepted.size();
+        }
+
+        LOGGER.info("Tasy outbox delivered {} of {} pending entries", delivered, entries.size());
+        return true;
+    }
+
+    /**
+     * Splits the ordered entries into batches of one message type, at most MAX_BATCH_SIZE
+     * entries and at most one entry per client, so a client's entries go out in order
+     */
+    private static List<List<OutboxEntry>> batches(List<OutboxEntry> entries) {
+        List<List<OutboxEntry>> batches = new ArrayList<>();
+        List<OutboxEntry> current = new ArrayList<>();
+        Set<String> clientsInBatch = new HashSet<>();
+
+        for (OutboxEntry entry : entries) {
+            boolean typeChanged = !current.isEmpty()
+                && !current.get(0).getMessageType().equals(entry.getMessageType());
+            if (typeChanged || current.size() == MAX_BATCH_SIZE || clientsInBatch.contains(entry.getAggregateId())) {
+                batches.add(current);
+                current = new ArrayList<>();
+                clientsInBatch.clear();
+            }
+            current.add(entry);
+            clientsInBatch.add(entry.getAggregateId());
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    /**
+     * Sends one batch; returns the per-entry errors keyed by payload key (empty when all succeeded)
+     */
+    private Map<String, String> sendBatch(List<OutboxEntry> batch) throws Exception {
+        String messageType = batch.get(0).getMessageType();
+        List<Map<String, Object>> items = new ArrayList<>(batch.size());
+        for (OutboxEntry entry : batch) {
+            Map<String, Object> item = new HashMap<>(entry.getPayload());
+            item.put("idempotencyKey", entry.getDedupeKey());
+            item.put("integrationTimestamp", new Date());
+            items.add(item);
+        }
+
+        LOGGER.debug("Delivering {} Tasy {} payloads", items.size(), messageType);
+
+        // TODO: Implement actual Tasy ERP batch API call
+        // POST https://tasy-erp.austa.com.br/api/v1/{customers|contracts|billing}/batch
+        // via a handle with the worker's timeout:
+        //   IntegrationHttp tasyApi = IntegrationHttp.of("tasyERPOutbox", "https://tasy-erp.austa.com.br/api/v1/", TIMEOUT_MS);
+        //   tasyApi.send(tasyApi.post(resource + "/batch", "application/json", out -> ...)),
+        // streaming the batch items into the request body
+        // Each item carries idempotencyKey; the response reports success or error per item
+
+        Thread.sleep(2000); // Simulate ERP API call
+
+        return new HashMap<>();
+    }
+}
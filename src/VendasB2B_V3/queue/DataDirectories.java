@@ -0,0 +1,67 @@
+package com.austa.vendas.queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * DataDirectories - Where local durable state (journals, history segments) is kept
+ *
+ * Purpose: Durable queues and the stage history used to default to java.io.tmpdir, which
+ * many hosts clear on reboot and containers do not persist, so "durable" data could
+ * silently disappear. A directory is resolved in this order:
+ *
+ * - The component's own system property (e.g. austa.queue.dir), used as is
+ * - austa.data.dir, the application data directory, plus the component's subdirectory
+ * - ~/.austa-vendas plus the subdirectory, if it can be created
+ * - java.io.tmpdir/austa-{subdirectory}, with a warning, as a last resort
+ *
+ * Production deployments should set austa.data.dir to a persistent volume.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class DataDirectories {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataDirectories.class);
+
+    public static final String DATA_DIR_PROPERTY = "austa.data.dir";
+
+    private DataDirectories() {
+    }
+
+    /**
+     * Resolves the directory for a component; it is not created unless it was needed to
+     * check the home-directory default
+     */
+    public static Path resolve(String property, String subdirectory) {
+        String configured = System.getProperty(property);
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        String dataDir = System.getProperty(DATA_DIR_PROPERTY);
+        if (dataDir != null && !dataDir.isBlank()) {
+            return Paths.get(dataDir, subdirectory);
+        }
+        String home = System.getProperty("user.home");
+        if (home != null && !home.isBlank() && !home.equals("?")) {
+            Path dir = Paths.get(home, ".austa-vendas", subdirectory);
+            try {
+                Files.createDirectories(dir);
+                if (Files.isWritable(dir)) {
+                    return dir;
+                }
+            } catch (IOException | SecurityException e) {
+                LOGGER.debug("Cannot use {} for {}: {}", dir, subdirectory, e.getMessage());
+            }
+        }
+        Path fallback = Paths.get(System.getProperty("java.io.tmpdir"), "austa-" + subdirectory);
+        LOGGER.warn("Neither {} nor {} is set and the home directory is not writable; keeping {} in {}, "
+            + "which may not survive a reboot", property, DATA_DIR_PROPERTY, subdirectory, fallback);
+        return fallback;
+    }
+}
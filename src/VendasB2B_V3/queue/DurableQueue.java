@@ -0,0 +1,274 @@
+package com.austa.vendas.queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+/**
+ * DurableQueue - Local append-only journal of payloads waiting for a downstream system
+ *
+ * Purpose: Integration fallbacks used to "queue for batch processing" by setting a
+ * timestamp variable, so the payload was lost once the workflow moved on. A durable queue
+ * writes the payload to a local journal (fsynced before append returns) and keeps it
+ * until a drain worker acknowledges it, surviving restarts and long outages.
+ *
+ * Journal format, one record per append or acknowledgement:
+ * <pre>
+ *   int length, byte type (1 = enqueue, 2 = ack), body, int CRC32(type + body)
+ *   enqueue body: long id, long enqueuedAt, UTF key, serialized payload map
+ *   ack body:     long id
+ * </pre>
+ * Pending entries are replayed from the journal on open; a torn record at the tail (crash
+ * during a write) is truncated. The journal is compacted once most of it is acknowledged.
+ *
+ * Payload values must be Serializable (String, Number, Boolean, Date, Map, List).
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class DurableQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DurableQueue.class);
+    private static final ConcurrentMap<String, DurableQueue> QUEUES = new ConcurrentHashMap<>();
+
+    private static final byte ENQUEUE = 1;
+    private static final byte ACK = 2;
+    private static final int COMPACTION_MIN_RECORDS = 1000;
+
+    private final String name;
+    private final Path journalFile;
+    private final LinkedHashMap<Long, QueuedEntry> pending = new LinkedHashMap<>();
+    private FileChannel journal;
+    private long nextId = 1;
+    private long journalRecords;
+
+    private DurableQueue(String name, Path journalFile) throws IOException {
+        this.name = name;
+        this.journalFile = journalFile;
+        Files.createDirectories(journalFile.getParent());
+        this.journal = FileChannel.open(journalFile,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        replay();
+    }
+
+    /**
+     * Returns the queue with this name, opening its journal on first use under austa.queue.dir
+     * (default: the queues subdirectory of the application data directory, see
+     * {@link DataDirectories})
+     */
+    public static DurableQueue named(String name) {
+        return QUEUES.computeIfAbsent(name, n -> {
+            try {
+                return new DurableQueue(n, JournalDirectory.PATH.resolve(n + ".journal"));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open durable queue " + n, e);
+            }
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Appends the payload durably; returns the entry id
+     */
+    public synchronized long append(String key, Map<String, Object> payload) throws IOException {
+        QueuedEntry entry = new QueuedEntry(nextId++, key, System.currentTimeMillis(), new HashMap<>(payload));
+
+        writeRecord(ENQUEUE, enqueueBody(entry));
+        journal.force(false);
+
+        pending.put(entry.getId(), entry);
+        return entry.getId();
+    }
+
+    /**
+     * Oldest pending entries, in append order
+     */
+    public synchronized List<QueuedEntry> peek(int max) {
+        List<QueuedEntry> entries = new ArrayList<>(Math.min(max, pending.size()));
+        for (QueuedEntry entry : pending.values()) {
+            if (entries.size() == max) {
+                break;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Removes delivered entries; unknown ids are ignored
+     */
+    public synchronized void ack(Collection<Long> ids) throws IOException {
+        boolean written = false;
+        for (Long id : ids) {
+            if (pending.remove(id) != null) {
+                writeRecord(ACK, ByteBuffer.allocate(Long.BYTES).putLong(id).array());
+                written = true;
+            }
+        }
+        if (written) {
+            journal.force(false);
+            compactIfMostlyAcknowledged();
+        }
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    private void writeRecord(byte type, byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(body);
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + 1 + body.length + Integer.BYTES);
+        record.putInt(body.length).put(type).put(body).putInt((int) crc.getValue());
+        record.flip();
+        while (record.hasRemaining()) {
+            journal.write(record, journal.size());
+        }
+        journalRecords++;
+    }
+
+    private void replay() throws IOException {
+        long position = 0;
+        long fileSize = journal.size();
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1);
+
+        while (position < fileSize) {
+            header.clear();
+            if (journal.read(header, position) < header.capacity()) {
+                break;
+            }
+            header.flip();
+            int length = header.getInt();
+            byte type = header.get();
+            if (length < 0 || position + header.capacity() + length + Integer.BYTES > fileSize) {
+                break;
+            }
+
+            ByteBuffer rest = ByteBuffer.allocate(length + Integer.BYTES);
+            journal.read(rest, position + header.capacity());
+            rest.flip();
+            byte[] body = new byte[length];
+            rest.get(body);
+
+            CRC32 crc = new CRC32();
+            crc.update(type);
+            crc.update(body);
+            if ((int) crc.getValue() != rest.getInt()) {
+                break;
+            }
+
+            apply(type, body);
+            journalRecords++;
+            position += header.capacity() + length + Integer.BYTES;
+        }
+
+        if (position < fileSize) {
+            LOGGER.warn("Durable queue {}: truncating {} bytes of incomplete journal tail", name, fileSize - position);
+            journal.truncate(position);
+        }
+        if (!pending.isEmpty()) {
+            LOGGER.info("Durable queue {} recovered {} pending entries", name, pending.size());
+        }
+    }
+
+    private void apply(byte type, byte[] body) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            long id = in.readLong();
+            nextId = Math.max(nextId, id + 1);
+            if (type == ACK) {
+                pending.remove(id);
+                return;
+            }
+            long enqueuedAt = in.readLong();
+            String key = in.readUTF();
+            pending.put(id, new QueuedEntry(id, key, enqueuedAt, deserialize(in.readAllBytes())));
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the pending entries once acknowledgements dominate it
+     */
+    private void compactIfMostlyAcknowledged() throws IOException {
+        if (journalRecords < COMPACTION_MIN_RECORDS || pending.size() * 4L > journalRecords) {
+            return;
+        }
+
+        Path compacted = journalFile.resolveSibling(journalFile.getFileName() + ".compact");
+        FileChannel previous = journal;
+        journal = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        journalRecords = 0;
+
+        for (QueuedEntry entry : pending.values()) {
+            writeRecord(ENQUEUE, enqueueBody(entry));
+        }
+        journal.force(true);
+        previous.close();
+
+        Files.move(compacted, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.debug("Durable queue {} compacted to {} pending entries", name, pending.size());
+    }
+
+    private static byte[] enqueueBody(QueuedEntry entry) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            out.writeLong(entry.getId());
+            out.writeLong(entry.getEnqueuedAt());
+            out.writeUTF(entry.getKey());
+            out.write(serialize(entry.getPayload()));
+        }
+        return body.toByteArray();
+    }
+
+    private static byte[] serialize(Map<String, Object> payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new HashMap<>(payload));
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deserialize(byte[] bytes) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Map<String, Object>) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unreadable queued payload", e);
+        }
+    }
+
+    /**
+     * Resolved once, on the first queue opened
+     */
+    private static final class JournalDirectory {
+        static final Path PATH = DataDirectories.resolve("austa.queue.dir", "queues");
+    }
+}
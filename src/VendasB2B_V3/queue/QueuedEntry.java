@@ -0,0 +1,44 @@
+package com.austa.vendas.queue;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * QueuedEntry - One payload waiting in a {@link DurableQueue}
+ *
+ * The key groups entries that belong to the same business record (an opportunity, a
+ * customer), so drain workers can merge or order them.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class QueuedEntry {
+
+    private final long id;
+    private final String key;
+    private final long enqueuedAt;
+    private final Map<String, Object> payload;
+
+    QueuedEntry(long id, String key, long enqueuedAt, Map<String, Object> payload) {
+        this.id = id;
+        this.key = key;
+        this.enqueuedAt = enqueuedAt;
+        this.payload = Collections.unmodifiableMap(payload);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    public Map<String, Object> getPayload() {
+        return payload;
+    }
+}
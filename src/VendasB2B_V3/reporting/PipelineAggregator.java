@@ -0,0 +1,504 @@
+package com.austa.vendas.reporting;
+
+import com.austa.vendas.crm.PipelineStage;
+import com.austa.vendas.crm.QualificationTier;
+import com.austa.vendas.resilience.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * PipelineAggregator - Incrementally maintained pipeline, MEDDIC, conversion and activity views
+ *
+ * Purpose: CRMReportingDelegate used to return hard-coded numbers. The CRM delegates now
+ * report each stage change, MEDDIC score and activity here as it happens, and the
+ * aggregator keeps every report as a materialized view: counters per team that each event
+ * adjusts in O(1). Generating a report reads those counters and never scans opportunities,
+ * so its cost does not grow with the pipeline.
+ *
+ * Views (each kept per team and for all teams together):
+ * - pipeline: open opportunities and their value, per stage
+ * - meddic: score sum and tier counts of open, scored opportunities
+ * - conversion: opportunities created, won and lost in the current day, week, month and
+ *   quarter, with the summed sales cycle of the won ones
+ * - activity: activities in the current day, week, month and quarter, by type
+ *
+ * The last known stage, value, score and team of each opportunity are kept so that a
+ * change first retracts the opportunity's old contribution and then adds the new one;
+ * repeating an event is therefore harmless for stages and scores. Period counters belong
+ * to one period and restart when an event falls into the next one; events of an already
+ * replaced period are not counted, and a report asking for a period that has no events
+ * yet reads zeros.
+ *
+ * Events reported inside an engine command are applied once it commits, so a delegate
+ * whose job is rolled back and retried counts its activities and closes once.
+ *
+ * Tracked opportunities are bounded:
+ * - A closed opportunity is forgotten closed-retention after its last event; repeats of
+ *   its close arriving in that time are still recognized
+ * - An opportunity without events for idle-ttl is forgotten and retracted from the
+ *   pipeline and MEDDIC views
+ * - Beyond max-opportunities the least recently active one is forgotten the same way
+ *
+ * Views are held in memory and cover the events seen since this process started
+ * (reported as dataSince). Configuration (system properties):
+ * - austa.reporting.zone: period boundaries (default America/Sao_Paulo)
+ * - austa.reporting.max-opportunities: tracked opportunities (default 100000)
+ * - austa.reporting.closed-retention-hours: default 24
+ * - austa.reporting.idle-ttl-days: default 90
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class PipelineAggregator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelineAggregator.class);
+
+    /** Team of opportunities reported without a teamId */
+    public static final String UNASSIGNED_TEAM = "unassigned";
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final long SWEEP_INTERVAL_MS = 60_000;
+
+    static final int DEFAULT_MAX_OPPORTUNITIES = 100_000;
+    static final long DEFAULT_CLOSED_RETENTION_MS = DAY_MS;
+    static final long DEFAULT_IDLE_TTL_MS = 90 * DAY_MS;
+    private static final PipelineStage[] STAGES = PipelineStage.values();
+    private static final ReportPeriod[] PERIODS = ReportPeriod.values();
+
+    private static volatile PipelineAggregator shared;
+
+    private final ZoneId zone;
+    private final long since = System.currentTimeMillis();
+    private final int maxOpportunities;
+    private final long closedRetentionMs;
+    private final long idleTtlMs;
+    // Access order: the eldest entry is the least recently active opportunity
+    private final LinkedHashMap<String, OpportunityState> opportunities = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, TeamView> teams = new HashMap<>();
+    private final TeamView allTeams;
+    private long nextSweepAt;
+    private long evicted;
+
+    public PipelineAggregator(ZoneId zone) {
+        this(zone, DEFAULT_MAX_OPPORTUNITIES, DEFAULT_CLOSED_RETENTION_MS, DEFAULT_IDLE_TTL_MS);
+    }
+
+    public PipelineAggregator(ZoneId zone, int maxOpportunities, long closedRetentionMs, long idleTtlMs) {
+        if (maxOpportunities < 1 || closedRetentionMs < 0 || idleTtlMs < 0) {
+            throw new IllegalArgumentException("Invalid opportunity bounds: max=" + maxOpportunities
+                + ", closedRetentionMs=" + closedRetentionMs + ", idleTtlMs=" + idleTtlMs);
+        }
+        this.zone = zone;
+        this.maxOpportunities = maxOpportunities;
+        this.closedRetentionMs = closedRetentionMs;
+        this.idleTtlMs = idleTtlMs;
+        this.allTeams = new TeamView();
+    }
+
+    /**
+     * Process-wide aggregator fed by the CRM delegates
+     */
+    public static PipelineAggregator shared() {
+        PipelineAggregator aggregator = shared;
+        if (aggregator == null) {
+            synchronized (PipelineAggregator.class) {
+                aggregator = shared;
+                if (aggregator == null) {
+                    aggregator = new PipelineAggregator(
+                        ZoneId.of(System.getProperty("austa.reporting.zone", "America/Sao_Paulo")),
+                        Integer.getInteger("austa.reporting.max-opportunities", DEFAULT_MAX_OPPORTUNITIES),
+                        Long.getLong("austa.reporting.closed-retention-hours", 24) * 60 * 60 * 1000,
+                        Long.getLong("austa.reporting.idle-ttl-days", 90) * DAY_MS);
+                    shared = aggregator;
+                }
+            }
+        }
+        return aggregator;
+    }
+
+    /**
+     * Records that the opportunity is now in the stage; amount may be null if unchanged
+     */
+    public void recordStageChange(String opportunityId, String teamId, PipelineStage stage, Double amount,
+                                  long timestamp) {
+        if (opportunityId == null || stage == null) {
+            return;
+        }
+        AfterCommit.run("pipeline stage change",
+            () -> applyStageChange(opportunityId, teamId, stage, amount, timestamp));
+    }
+
+    /**
+     * Records the opportunity's latest MEDDIC score (0-10)
+     */
+    public void recordMeddicScore(String opportunityId, String teamId, double scoreMEDDIC, long timestamp) {
+        if (opportunityId == null) {
+            return;
+        }
+        AfterCommit.run("pipeline MEDDIC score",
+            () -> applyMeddicScore(opportunityId, teamId, scoreMEDDIC, timestamp));
+    }
+
+    /**
+     * Records one activity (call, email, meeting or note) logged for the opportunity
+     */
+    public void recordActivity(String opportunityId, String teamId, String activityType, long timestamp) {
+        AfterCommit.run("pipeline activity",
+            () -> applyActivity(opportunityId, teamId, activityType, timestamp));
+    }
+
+    private synchronized void applyStageChange(String opportunityId, String teamId, PipelineStage stage,
+                                               Double amount, long timestamp) {
+        OpportunityState state = stateOf(opportunityId, teamId, timestamp);
+        PipelineStage previous = state.stage;
+
+        retract(state);
+        state.stage = stage;
+        if (amount != null) {
+            state.amount = amount;
+        }
+        contribute(state);
+
+        if (stage.isClosed() && (previous == null || !previous.isClosed())) {
+            boolean won = stage == PipelineStage.CLOSED_WON;
+            forBoth(state.team, view -> view.countClose(timestamp, won, state, zone));
+        }
+    }
+
+    private synchronized void applyMeddicScore(String opportunityId, String teamId, double scoreMEDDIC,
+                                               long timestamp) {
+        OpportunityState state = stateOf(opportunityId, teamId, timestamp);
+        retract(state);
+        state.meddicScore = scoreMEDDIC;
+        state.tier = QualificationTier.ofScore(scoreMEDDIC);
+        contribute(state);
+    }
+
+    private synchronized void applyActivity(String opportunityId, String teamId, String activityType,
+                                            long timestamp) {
+        sweep(timestamp);
+        OpportunityState state = opportunityId != null ? opportunities.get(opportunityId) : null;
+        if (state != null) {
+            state.lastEventAt = Math.max(state.lastEventAt, timestamp);
+        }
+        String team = state != null ? state.team : teamOf(teamId);
+        ActivityKind kind = ActivityKind.of(activityType);
+        forBoth(team, view -> view.countActivity(timestamp, kind, zone));
+    }
+
+    /**
+     * Report data for the team (null for all teams) and period, read from the views
+     */
+    public synchronized Map<String, Object> report(String reportType, String teamId, ReportPeriod period,
+                                                   long now) {
+        TeamView view = teamId != null ? teams.get(teamId) : allTeams;
+        if (view == null) {
+            view = new TeamView();
+        }
+        LocalDate periodStart = period.startOf(now, zone);
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        switch (reportType != null ? reportType.toLowerCase() : "pipeline") {
+            case "pipeline":
+                view.putPipeline(data);
+                break;
+            case "meddic":
+                view.putMeddic(data);
+                break;
+            case "conversion":
+                view.periodCounters(period, periodStart).putConversion(data);
+                break;
+            case "activity":
+                view.periodCounters(period, periodStart).putActivity(data);
+                break;
+            default:
+                return data;
+        }
+        data.put("teamId", teamId);
+        data.put("reportPeriod", period.name().toLowerCase());
+        data.put("periodStart", Date.from(periodStart.atStartOfDay(zone).toInstant()));
+        data.put("dataSince", new Date(since));
+        return data;
+    }
+
+    public synchronized int getTrackedOpportunities() {
+        return opportunities.size();
+    }
+
+    public synchronized long getEvictedOpportunities() {
+        return evicted;
+    }
+
+    private OpportunityState stateOf(String opportunityId, String teamId, long timestamp) {
+        sweep(timestamp);
+        OpportunityState state = opportunities.get(opportunityId);
+        if (state == null) {
+            state = new OpportunityState(teamOf(teamId), timestamp);
+            opportunities.put(opportunityId, state);
+            String team = state.team;
+            forBoth(team, view -> view.countCreated(timestamp, zone));
+            if (opportunities.size() > maxOpportunities) {
+                Iterator<OpportunityState> eldest = opportunities.values().iterator();
+                evict(eldest.next());
+                eldest.remove();
+            }
+        } else if (teamId != null && !teamId.equals(state.team)) {
+            LOGGER.debug("Opportunity {} moved from team {} to {}", opportunityId, state.team, teamId);
+            retract(state);
+            state.team = teamId;
+            contribute(state);
+        }
+        state.lastEventAt = Math.max(state.lastEventAt, timestamp);
+        return state;
+    }
+
+    /**
+     * Forgets closed opportunities past their retention and idle ones past the TTL; runs at
+     * most once per SWEEP_INTERVAL_MS
+     */
+    private void sweep(long now) {
+        if (now < nextSweepAt) {
+            return;
+        }
+        nextSweepAt = now + SWEEP_INTERVAL_MS;
+        int before = opportunities.size();
+        Iterator<OpportunityState> states = opportunities.values().iterator();
+        while (states.hasNext()) {
+            OpportunityState state = states.next();
+            boolean closed = state.stage != null && state.stage.isClosed();
+            if (now - state.lastEventAt >= (closed ? closedRetentionMs : idleTtlMs)) {
+                evict(state);
+                states.remove();
+            }
+        }
+        if (opportunities.size() < before) {
+            LOGGER.debug("Pipeline views forgot {} closed or idle opportunities", before - opportunities.size());
+        }
+    }
+
+    /**
+     * Takes the opportunity out of the snapshot views; the caller removes it from the map
+     */
+    private void evict(OpportunityState state) {
+        retract(state);
+        evicted++;
+    }
+
+    private static String teamOf(String teamId) {
+        return teamId != null ? teamId : UNASSIGNED_TEAM;
+    }
+
+    private void retract(OpportunityState state) {
+        forBoth(state.team, view -> view.add(state, -1));
+    }
+
+    private void contribute(OpportunityState state) {
+        forBoth(state.team, view -> view.add(state, 1));
+    }
+
+    private void forBoth(String team, Consumer<TeamView> update) {
+        update.accept(teams.computeIfAbsent(team, t -> new TeamView()));
+        update.accept(allTeams);
+    }
+
+    private static double round(double value, int decimals) {
+        double scale = Math.pow(10, decimals);
+        return Math.round(value * scale) / scale;
+    }
+
+    private enum ActivityKind {
+        CALL, EMAIL, MEETING, OTHER;
+
+        static ActivityKind of(String activityType) {
+            if (activityType == null) {
+                return OTHER;
+            }
+            String type = activityType.toLowerCase();
+            if (type.contains("call") || type.contains("ligacao") || type.contains("ligação")) return CALL;
+            if (type.contains("email") || type.contains("e-mail")) return EMAIL;
+            if (type.contains("meeting") || type.contains("reuniao") || type.contains("reunião")) return MEETING;
+            return OTHER;
+        }
+    }
+
+    private static final class OpportunityState {
+        String team;
+        final long createdAt;
+        long lastEventAt;
+        PipelineStage stage;
+        double amount;
+        Double meddicScore;
+        QualificationTier tier;
+
+        OpportunityState(String team, long createdAt) {
+            this.team = team;
+            this.createdAt = createdAt;
+            this.lastEventAt = createdAt;
+        }
+
+        boolean isOpen() {
+            return stage != null && !stage.isClosed();
+        }
+    }
+
+    /**
+     * Snapshot counters of one team plus its counters for the current period of each length
+     */
+    private static final class TeamView {
+        final int[] openCount = new int[STAGES.length];
+        final double[] openValue = new double[STAGES.length];
+        int openTotal;
+        double openValueTotal;
+        int scored;
+        double scoreSum;
+        final int[] tierCount = new int[QualificationTier.values().length];
+        final PeriodCounters[] periods = new PeriodCounters[PERIODS.length];
+
+        /**
+         * Adds (sign 1) or retracts (sign -1) the opportunity's snapshot contribution
+         */
+        void add(OpportunityState state, int sign) {
+            if (!state.isOpen()) {
+                return;
+            }
+            int stage = state.stage.ordinal();
+            openCount[stage] += sign;
+            openValue[stage] += sign * state.amount;
+            openTotal += sign;
+            openValueTotal += sign * state.amount;
+            if (state.meddicScore != null) {
+                scored += sign;
+                scoreSum += sign * state.meddicScore;
+                tierCount[state.tier.ordinal()] += sign;
+            }
+        }
+
+        void countCreated(long timestamp, ZoneId zone) {
+            for (ReportPeriod period : PERIODS) {
+                PeriodCounters counters = current(period, period.startOf(timestamp, zone));
+                if (counters != null) {
+                    counters.created++;
+                }
+            }
+        }
+
+        void countClose(long timestamp, boolean won, OpportunityState state, ZoneId zone) {
+            for (ReportPeriod period : PERIODS) {
+                PeriodCounters counters = current(period, period.startOf(timestamp, zone));
+                if (counters == null) {
+                    continue;
+                }
+                if (won) {
+                    counters.won++;
+                    counters.wonValue += state.amount;
+                    counters.salesCycleMs += Math.max(0, timestamp - state.createdAt);
+                } else {
+                    counters.lost++;
+                }
+            }
+        }
+
+        void countActivity(long timestamp, ActivityKind kind, ZoneId zone) {
+            for (ReportPeriod period : PERIODS) {
+                PeriodCounters counters = current(period, period.startOf(timestamp, zone));
+                if (counters != null) {
+                    counters.activities[kind.ordinal()]++;
+                }
+            }
+        }
+
+        /**
+         * Counters of the period starting at start, restarting them if they belong to an older
+         * period; null for an event of a period that has already been replaced
+         */
+        PeriodCounters current(ReportPeriod period, LocalDate start) {
+            PeriodCounters counters = periods[period.ordinal()];
+            if (counters != null && counters.start.isAfter(start)) {
+                return null;
+            }
+            if (counters == null || counters.start.isBefore(start)) {
+                counters = new PeriodCounters(start);
+                periods[period.ordinal()] = counters;
+            }
+            return counters;
+        }
+
+        /**
+         * Counters for reading; empty if no event fell into the requested period yet
+         */
+        PeriodCounters periodCounters(ReportPeriod period, LocalDate start) {
+            PeriodCounters counters = periods[period.ordinal()];
+            return counters != null && counters.start.equals(start) ? counters : new PeriodCounters(start);
+        }
+
+        void putPipeline(Map<String, Object> data) {
+            Map<String, Integer> distribution = new LinkedHashMap<>();
+            Map<String, Double> valueByStage = new LinkedHashMap<>();
+            for (PipelineStage stage : STAGES) {
+                int count = openCount[stage.ordinal()];
+                if (count > 0) {
+                    distribution.put(stage.getSalesforceName(), count);
+                    valueByStage.put(stage.getSalesforceName(), round(openValue[stage.ordinal()], 2));
+                }
+            }
+            data.put("totalOpportunities", openTotal);
+            data.put("totalValue", round(openValueTotal, 2));
+            data.put("averageDealSize", openTotal > 0 ? round(openValueTotal / openTotal, 2) : 0.0);
+            data.put("stageDistribution", distribution);
+            data.put("stageValue", valueByStage);
+        }
+
+        void putMeddic(Map<String, Object> data) {
+            data.put("averageMEDDICScore", scored > 0 ? round(scoreSum / scored, 1) : 0.0);
+            data.put("scoredOpportunities", scored);
+            data.put("highQualified", tierCount[QualificationTier.HIGH.ordinal()]);
+            data.put("mediumQualified", tierCount[QualificationTier.MEDIUM.ordinal()]);
+            data.put("lowQualified", tierCount[QualificationTier.LOW.ordinal()]);
+            data.put("disqualified", tierCount[QualificationTier.DISQUALIFIED.ordinal()]);
+        }
+    }
+
+    private static final class PeriodCounters {
+        final LocalDate start;
+        int created;
+        int won;
+        int lost;
+        double wonValue;
+        long salesCycleMs;
+        final int[] activities = new int[ActivityKind.values().length];
+
+        PeriodCounters(LocalDate start) {
+            this.start = start;
+        }
+
+        void putConversion(Map<String, Object> data) {
+            data.put("opportunitiesCreated", created);
+            data.put("opportunitiesWon", won);
+            data.put("opportunitiesLost", lost);
+            data.put("wonValue", round(wonValue, 2));
+            data.put("conversionRate", created > 0 ? round(100.0 * won / created, 1) : 0.0);
+            data.put("winRate", won + lost > 0 ? round(100.0 * won / (won + lost), 1) : 0.0);
+            data.put("averageSalesCycle", won > 0 ? Math.round((double) salesCycleMs / won / DAY_MS) : 0L);
+        }
+
+        void putActivity(Map<String, Object> data) {
+            int total = 0;
+            for (int count : activities) {
+                total += count;
+            }
+            data.put("totalActivities", total);
+            data.put("callsMade", activities[ActivityKind.CALL.ordinal()]);
+            data.put("emailsSent", activities[ActivityKind.EMAIL.ordinal()]);
+            data.put("meetingsHeld", activities[ActivityKind.MEETING.ordinal()]);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.austa.vendas.reporting;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * ReportPeriod - Calendar period a CRM report covers
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public enum ReportPeriod {
+
+    DAILY,
+    WEEKLY,
+    MONTHLY,
+    QUARTERLY;
+
+    /**
+     * Parses the reportPeriod variable, ignoring case; null or unknown values mean MONTHLY
+     */
+    public static ReportPeriod parse(String reportPeriod) {
+        if (reportPeriod != null) {
+            for (ReportPeriod period : values()) {
+                if (period.name().equalsIgnoreCase(reportPeriod)) {
+                    return period;
+                }
+            }
+        }
+        return MONTHLY;
+    }
+
+    /**
+     * First day of the period containing the instant; weeks start on Monday
+     */
+    public LocalDate startOf(long epochMillis, ZoneId zone) {
+        LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+        return switch (this) {
+            case DAILY -> day;
+            case WEEKLY -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> day.withDayOfMonth(1);
+            case QUARTERLY -> LocalDate.of(day.getYear(), (day.getMonthValue() - 1) / 3 * 3 + 1, 1);
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.austa.vendas.resilience;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AfterCommit - Runs side effects only once the engine command that caused them commits
+ *
+ * Purpose: A delegate that fails is retried in a new transaction after the engine rolled
+ * back the previous attempt, so anything it did outside the database (in-memory counters,
+ * local files) would happen once per attempt. Registering the side effect here runs it
+ * when the current command commits, and never if it rolls back.
+ *
+ * Outside an engine command (external task workers, tests) the action runs at once. An
+ * action that throws is logged; the command has already committed.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class AfterCommit {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AfterCommit.class);
+
+    private AfterCommit() {
+    }
+
+    public static void run(String description, Runnable action) {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext == null || commandContext.getTransactionContext() == null) {
+            execute(description, action);
+            return;
+        }
+        commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED,
+            committed -> execute(description, action));
+    }
+
+    private static void execute(String description, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            LOGGER.warn("After-commit action failed ({}): {}", description, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.austa.vendas.resilience;
+
+/**
+ * ApiPriority - Priority lane of a call waiting on a {@link RateLimitScheduler}
+ *
+ * Lanes are served strictly in order: a waiting CRITICAL call is granted the next token
+ * before any NORMAL call, and BULK calls only run while tokens and daily quota are above
+ * the scheduler's headroom.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public enum ApiPriority {
+
+    /** Stage changes and closing updates */
+    CRITICAL,
+
+    /** Field updates, task creation and lookups */
+    NORMAL,
+
+    /** Activity notes, full syncs, reports and backlog drains */
+    BULK
+}
@@ -0,0 +1,64 @@
+package com.austa.vendas.resilience;
+
+/**
+ * Deadline - Absolute point in time by which an integration call must finish
+ *
+ * The deadline of the running call is bound to the thread executing it, so nested
+ * calls made from inside a time-limited call (e.g. a fan-out to several sources) never
+ * get more time than their caller has left. HTTP clients and other blocking APIs can
+ * read {@link #current()} to size their own timeouts.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long timeoutMs) {
+        return new Deadline(System.nanoTime() + timeoutMs * 1_000_000L);
+    }
+
+    /**
+     * Deadline of the call running in this thread, or null outside a time-limited call
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Applies the caller's deadline, if any, to a new timeout
+     */
+    public static Deadline within(long timeoutMs) {
+        Deadline own = after(timeoutMs);
+        Deadline inherited = current();
+        return inherited != null && inherited.deadlineNanos - own.deadlineNanos < 0 ? inherited : own;
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    static void bind(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[" + remainingMillis() + " ms remaining]";
+    }
+}
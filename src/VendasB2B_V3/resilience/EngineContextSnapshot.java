@@ -0,0 +1,81 @@
+package com.austa.vendas.resilience;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandInvocationContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+
+/**
+ * EngineContextSnapshot - Carries the Camunda thread context into a time-limited call
+ *
+ * Delegate code reads variables from DelegateExecution inside the calls it hands to
+ * {@link TimeoutService}. Variable access resolves the engine's command context from a
+ * thread local, so the caller's context is installed in the virtual thread for the
+ * duration of the call. The caller is blocked while the call runs, and a call cancelled on
+ * timeout is waited for until it ends, so the context is never used by two threads at once.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+final class EngineContextSnapshot {
+
+    private final ProcessEngineConfigurationImpl configuration;
+    private final CommandContext commandContext;
+    private final CommandInvocationContext invocationContext;
+    private final JobExecutorContext jobExecutorContext;
+
+    private EngineContextSnapshot(ProcessEngineConfigurationImpl configuration, CommandContext commandContext,
+                                  CommandInvocationContext invocationContext,
+                                  JobExecutorContext jobExecutorContext) {
+        this.configuration = configuration;
+        this.commandContext = commandContext;
+        this.invocationContext = invocationContext;
+        this.jobExecutorContext = jobExecutorContext;
+    }
+
+    static EngineContextSnapshot capture() {
+        return new EngineContextSnapshot(
+            Context.getProcessEngineConfiguration(),
+            Context.getCommandContext(),
+            Context.getCommandInvocationContext(),
+            Context.getJobExecutorContext());
+    }
+
+    /**
+     * True when captured inside an engine command, i.e. there is state the call must not outlive
+     */
+    boolean hasCommandContext() {
+        return commandContext != null;
+    }
+
+    void install() {
+        if (configuration != null) {
+            Context.setProcessEngineConfiguration(configuration);
+        }
+        if (commandContext != null) {
+            Context.setCommandContext(commandContext);
+        }
+        if (invocationContext != null) {
+            Context.setCommandInvocationContext(invocationContext);
+        }
+        if (jobExecutorContext != null) {
+            Context.setJobExecutorContext(jobExecutorContext);
+        }
+    }
+
+    void uninstall() {
+        if (jobExecutorContext != null) {
+            Context.removeJobExecutorContext();
+        }
+        if (invocationContext != null) {
+            Context.removeCommandInvocationContext();
+        }
+        if (commandContext != null) {
+            Context.removeCommandContext();
+        }
+        if (configuration != null) {
+            Context.removeProcessEngineConfiguration();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.austa.vendas.resilience;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * IntegrationTimeout - Per-integration handle on the shared {@link TimeoutService}
+ *
+ * Usage:
+ * <pre>
+ *   this.timeout = IntegrationTimeout.of("salesforceSync", TIMEOUT_MS);
+ *   ...
+ *   Map&lt;String, Object&gt; result = timeout.call(() -&gt; performSync(...));
+ *
+ *   // fan-out: both calls run at once, each under its own deadline
+ *   PendingCall&lt;Map&lt;String, Object&gt;&gt; crm = crmTimeout.fork(() -&gt; fetchFromCRM(...));
+ *   PendingCall&lt;Map&lt;String, Object&gt;&gt; bureau = bureauTimeout.fork(() -&gt; fetchFromBureau(...));
+ *   merge(crm.await(), bureau.await());
+ * </pre>
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class IntegrationTimeout {
+
+    private final TimeoutService service;
+    private final String name;
+    private final long timeoutMs;
+    private final Semaphore slots;
+
+    IntegrationTimeout(TimeoutService service, String name, long timeoutMs, Semaphore slots) {
+        this.service = service;
+        this.name = name;
+        this.timeoutMs = timeoutMs;
+        this.slots = slots;
+    }
+
+    public static IntegrationTimeout of(String name, long timeoutMs) {
+        return TimeoutService.shared().integration(name, timeoutMs);
+    }
+
+    public static IntegrationTimeout of(String name, long timeoutMs, int maxConcurrentCalls) {
+        return TimeoutService.shared().integration(name, timeoutMs, maxConcurrentCalls);
+    }
+
+    /**
+     * Runs the call on a virtual thread, failing with IntegrationTimeoutException past the deadline
+     */
+    public <T> T call(Callable<T> callable) throws Exception {
+        return service.call(name, timeoutMs, slots, callable);
+    }
+
+    /**
+     * Starts the call without waiting, for fan-out across several integrations. The forked
+     * call does not see the engine context, so pass it plain values rather than the execution.
+     */
+    public <T> TimeoutService.PendingCall<T> fork(Callable<T> callable) throws InterruptedException {
+        return service.submit(name, timeoutMs, slots, callable, false);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public int getAvailableSlots() {
+        return slots.availablePermits();
+    }
+}
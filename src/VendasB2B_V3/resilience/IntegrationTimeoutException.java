@@ -0,0 +1,23 @@
+package com.austa.vendas.resilience;
+
+/**
+ * IntegrationTimeoutException - An integration call missed its deadline or could not get a slot
+ *
+ * Treated as a transient failure by {@link JobRetryPolicy}, so the activity is retried.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public class IntegrationTimeoutException extends RuntimeException {
+
+    private final String integration;
+
+    public IntegrationTimeoutException(String integration, String message) {
+        super(message);
+        this.integration = integration;
+    }
+
+    public String getIntegration() {
+        return integration;
+    }
+}
@@ -0,0 +1,38 @@
+package com.austa.vendas.resilience;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * JobRetryEnginePlugin - Default backoff for jobs rescheduled by {@link JobRetryPolicy}
+ *
+ * Purpose: Without a retry time cycle the engine retries a failed job immediately, which
+ * would turn a provider brownout into a tight loop. This plugin sets an engine-wide
+ * failedJobRetryTimeCycle with exponential backoff, mirroring errorHandling.retryPolicy
+ * in config/process_config.json (5s initial interval, multiplier 2, 3 attempts).
+ *
+ * The cycle can be changed with the austa.job.retry-time-cycle system property (default
+ * PT5S,PT10S,PT20S). Activities can still override it with camunda:failedJobRetryTimeCycle
+ * in the BPMN. An explicitly configured engine property is left untouched.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+@Component
+public class JobRetryEnginePlugin extends AbstractProcessEnginePlugin {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobRetryEnginePlugin.class);
+    private static final String DEFAULT_RETRY_TIME_CYCLE = "PT5S,PT10S,PT20S";
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (configuration.getFailedJobRetryTimeCycle() == null) {
+            String retryTimeCycle = System.getProperty("austa.job.retry-time-cycle", DEFAULT_RETRY_TIME_CYCLE);
+            configuration.setFailedJobRetryTimeCycle(retryTimeCycle);
+            LOGGER.info("Default failed job retry time cycle set to {}", retryTimeCycle);
+        }
+    }
+}
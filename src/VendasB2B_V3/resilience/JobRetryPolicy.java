@@ -0,0 +1,110 @@
+package com.austa.vendas.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.camunda.bpm.engine.delegate.BpmnError;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+
+/**
+ * JobRetryPolicy - Retry strategy that releases job-executor threads on transient failures
+ *
+ * Purpose: A Resilience4j retry with a fixed wait keeps the Camunda job-executor thread
+ * blocked while a provider is unavailable (3 attempts x 5s per task). This policy picks
+ * the retry mode from the way the activity is being executed:
+ *
+ * - JOB_EXECUTOR: the activity runs as an asynchronous job (camunda:asyncBefore="true").
+ *   A single attempt is made; on a transient failure a {@link RetryRescheduledException}
+ *   is thrown so the engine rolls back, decrements the job retries and reschedules the
+ *   job using the failedJobRetryTimeCycle (see {@link JobRetryEnginePlugin}). The thread
+ *   returns to the pool immediately.
+ * - IN_THREAD: the activity runs synchronously, so there is no job to reschedule and the
+ *   configured Resilience4j retry is applied in the calling thread (previous behaviour).
+ *
+ * On the last job attempt the original failure is rethrown, so each delegate keeps its
+ * existing fallback handling (success flag = false, error variable).
+ *
+ * Usage:
+ * <pre>
+ *   this.retry = JobRetryPolicy.of("salesforceSync", retryConfig);
+ *   ...
+ *   Map&lt;String, Object&gt; result = retry.execute(circuitBreaker, () -&gt; performSync(...));
+ * </pre>
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class JobRetryPolicy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobRetryPolicy.class);
+
+    public enum RetryMode {
+        IN_THREAD,
+        JOB_EXECUTOR
+    }
+
+    private final String name;
+    private final Retry inThreadRetry;
+
+    private JobRetryPolicy(String name, Retry inThreadRetry) {
+        this.name = name;
+        this.inThreadRetry = inThreadRetry;
+    }
+
+    /**
+     * Creates a policy; the config is only used for the in-thread mode
+     */
+    public static JobRetryPolicy of(String name, RetryConfig inThreadConfig) {
+        return new JobRetryPolicy(name, Retry.of(name, inThreadConfig));
+    }
+
+    /**
+     * Executes the call through the circuit breaker using the current retry mode
+     */
+    public <T> T execute(CircuitBreaker circuitBreaker, Callable<T> call) throws Exception {
+        JobEntity job = currentJob();
+        if (job == null) {
+            return circuitBreaker.executeCallable(() -> inThreadRetry.executeCallable(call));
+        }
+
+        try {
+            return circuitBreaker.executeCallable(call);
+        } catch (Exception e) {
+            if (job.getRetries() > 1 && isTransient(e)) {
+                LOGGER.warn("{}: attempt failed in job {} ({} retries left), rescheduling: {}",
+                           name, job.getId(), job.getRetries() - 1, e.getMessage());
+                throw new RetryRescheduledException(name, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the retry mode that {@link #execute} would use in the current thread
+     */
+    public RetryMode currentMode() {
+        return currentJob() != null ? RetryMode.JOB_EXECUTOR : RetryMode.IN_THREAD;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Validation and business errors fail the same way on every attempt, so they are not retried
+     */
+    private static boolean isTransient(Exception e) {
+        return !(e instanceof IllegalArgumentException) && !(e instanceof BpmnError);
+    }
+
+    private static JobEntity currentJob() {
+        JobExecutorContext jobExecutorContext = Context.getJobExecutorContext();
+        return jobExecutorContext != null ? jobExecutorContext.getCurrentJob() : null;
+    }
+}
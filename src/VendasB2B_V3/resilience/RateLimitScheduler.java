@@ -0,0 +1,386 @@
+package com.austa.vendas.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RateLimitScheduler - Shared token bucket with priority lanes for one vendor API
+ *
+ * Purpose: Salesforce daily API limits and HubSpot burst limits are shared by every CRM
+ * delegate and worker. Each call takes a token from the vendor's bucket before it is sent;
+ * callers wait in their {@link ApiPriority} lane, and the lanes are served strictly in
+ * priority order, so stage changes go out first when the budget is tight.
+ *
+ * Admission:
+ * - CRITICAL and NORMAL calls need one token; BULK calls also leave BULK_HEADROOM of the
+ *   bucket untouched, so a backlog drain never empties it ahead of a stage change
+ * - When the daily quota reported by the vendor drops below QUOTA_BULK_FLOOR, BULK calls
+ *   wait; below QUOTA_NORMAL_FLOOR only CRITICAL calls run
+ *
+ * Adaptation:
+ * - {@link #observe(int, Map)} reads the vendor's quota headers after each response
+ *   (Sforce-Limit-Info; X-HubSpot-RateLimit-*; Retry-After) and adopts the server's
+ *   interval limit as the bucket size and ceiling rate; it turns a 429 into a
+ *   RateLimitedException. Until the CRM calls are real, SimulatedCrmQuota answers
+ *   them with the vendor's headers and 429s
+ * - A 429 ({@link RateLimitedException}) empties the bucket, pauses it for Retry-After and
+ *   halves the refill rate; each successful call raises it again by RECOVERY_STEP of the
+ *   ceiling (additive increase, multiplicative decrease), so throughput settles just
+ *   under the server's limit instead of oscillating through 429 storms
+ *
+ * Bucket defaults per vendor (system properties austa.ratelimit.{vendor}.rate-per-second
+ * and austa.ratelimit.{vendor}.burst): salesforce 5/s burst 25, hubspot 10/s burst 100.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class RateLimitScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateLimitScheduler.class);
+    private static final ConcurrentMap<String, RateLimitScheduler> SCHEDULERS = new ConcurrentHashMap<>();
+
+    public static final String SALESFORCE = "salesforce";
+    public static final String HUBSPOT = "hubspot";
+
+    private static final double BULK_HEADROOM = 0.2;
+    private static final double QUOTA_BULK_FLOOR = 0.25;
+    private static final double QUOTA_NORMAL_FLOOR = 0.10;
+    private static final double RECOVERY_STEP = 0.05;
+    private static final double MIN_RATE_FRACTION = 0.05;
+    private static final long DEFAULT_RETRY_AFTER_MS = 1000;
+    private static final long QUOTA_RECHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_QUEUE_WAIT_MS = 300000;
+
+    // Applied in this order: the interval limit depends on the bucket size
+    private static final List<String> QUOTA_HEADERS = List.of(
+        "sforce-limit-info",
+        "x-hubspot-ratelimit-daily", "x-hubspot-ratelimit-daily-remaining",
+        "x-hubspot-ratelimit-max", "x-hubspot-ratelimit-interval-milliseconds",
+        "x-hubspot-ratelimit-remaining", "retry-after");
+
+    private final String vendor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final List<ArrayDeque<Object>> lanes;
+
+    private double capacity;
+    private double ceilingRate;
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    private long quotaRemaining = -1;
+    private long quotaMax = -1;
+    private long granted;
+    private long throttled;
+
+    private RateLimitScheduler(String vendor, double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive for " + vendor);
+        }
+        this.vendor = vendor;
+        this.capacity = burst;
+        this.ceilingRate = ratePerSecond;
+        this.rate = ratePerSecond;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.lanes = new ArrayList<>(ApiPriority.values().length);
+        for (int i = 0; i < ApiPriority.values().length; i++) {
+            lanes.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Returns the scheduler shared by every caller of this vendor's API
+     */
+    public static RateLimitScheduler forVendor(String vendor) {
+        return SCHEDULERS.computeIfAbsent(vendor, v -> {
+            boolean hubspot = HUBSPOT.equals(v);
+            String rate = System.getProperty("austa.ratelimit." + v + ".rate-per-second", hubspot ? "10" : "5");
+            return new RateLimitScheduler(v, Double.parseDouble(rate),
+                Integer.getInteger("austa.ratelimit." + v + ".burst", hubspot ? 100 : 25));
+        });
+    }
+
+    /**
+     * Waits for a token in the given lane, runs the call and feeds a 429 back into the bucket
+     */
+    public <T> T call(ApiPriority priority, Callable<T> call) throws Exception {
+        acquire(priority);
+        try {
+            T result = call.call();
+            recordSuccess();
+            return result;
+        } catch (RateLimitedException e) {
+            throttle(e.getRetryAfterMs());
+            throw e;
+        }
+    }
+
+    /**
+     * Blocks until the lane's turn and a token are available; RateLimitedException after MAX_QUEUE_WAIT_MS
+     */
+    public void acquire(ApiPriority priority) throws InterruptedException {
+        Object ticket = new Object();
+        ArrayDeque<Object> lane = lanes.get(priority.ordinal());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_QUEUE_WAIT_MS);
+
+        lock.lockInterruptibly();
+        try {
+            lane.addLast(ticket);
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+                if (lane.peekFirst() == ticket && admissible(priority, now) && tokens >= tokensNeeded(priority)) {
+                    tokens -= 1;
+                    granted++;
+                    return;
+                }
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    throw new RateLimitedException(vendor, 0,
+                        vendor + " rate limit: " + priority + " call waited " + MAX_QUEUE_WAIT_MS + " ms");
+                }
+                changed.awaitNanos(Math.min(remaining, nanosUntilNextChance(priority, now)));
+            }
+        } finally {
+            lane.remove(ticket);
+            changed.signalAll();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Feeds a response back: adapts the bucket to its quota headers and throws
+     * RateLimitedException for a 429, which the enclosing {@link #call} turns into a throttle
+     */
+    public void observe(int statusCode, Map<String, String> headers) {
+        observe(headers);
+        if (statusCode == 429) {
+            throw new RateLimitedException(vendor, retryAfterMs(headers), vendor + " API answered 429");
+        }
+    }
+
+    /**
+     * Adapts the bucket to the vendor's quota headers of a response (header names are case-insensitive)
+     */
+    public void observe(Map<String, String> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return;
+        }
+        Map<String, String> byName = new HashMap<>();
+        headers.forEach((name, value) -> byName.put(name.toLowerCase(), value.trim()));
+
+        lock.lock();
+        try {
+            for (String name : QUOTA_HEADERS) {
+                String value = byName.get(name);
+                if (value != null) {
+                    applyHeader(name, value);
+                }
+            }
+            changed.signalAll();
+        } catch (NumberFormatException e) {
+            LOGGER.debug("Ignoring malformed {} rate-limit header: {}", vendor, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a 429: empties and pauses the bucket and halves the refill rate
+     */
+    public void throttle(long retryAfterMs) {
+        long pauseMs = retryAfterMs > 0 ? retryAfterMs : DEFAULT_RETRY_AFTER_MS;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            pausedUntilNanos = Math.max(pausedUntilNanos, now + TimeUnit.MILLISECONDS.toNanos(pauseMs));
+            tokens = 0;
+            rate = Math.max(ceilingRate * MIN_RATE_FRACTION, rate / 2);
+            throttled++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        LOGGER.warn("{} API throttled: pausing {} ms, rate lowered to {}/s", vendor, pauseMs, String.format("%.2f", rate));
+    }
+
+    public String getVendor() {
+        return vendor;
+    }
+
+    public double getRatePerSecond() {
+        lock.lock();
+        try {
+            return rate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getGranted() {
+        lock.lock();
+        try {
+            return granted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getThrottled() {
+        lock.lock();
+        try {
+            return throttled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting(ApiPriority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority.ordinal()).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long retryAfterMs(Map<String, String> headers) {
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase("retry-after")) {
+                    try {
+                        return TimeUnit.SECONDS.toMillis(Long.parseLong(header.getValue().trim()));
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void recordSuccess() {
+        lock.lock();
+        try {
+            rate = Math.min(ceilingRate, rate + ceilingRate * RECOVERY_STEP);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Must be called holding the lock
+     */
+    private void refill(long now) {
+        long from = Math.max(lastRefillNanos, pausedUntilNanos);
+        if (now > from) {
+            tokens = Math.min(capacity, tokens + rate * (now - from) / 1e9);
+        }
+        lastRefillNanos = now;
+    }
+
+    /**
+     * Must be called holding the lock
+     */
+    private boolean admissible(ApiPriority priority, long now) {
+        if (now < pausedUntilNanos) {
+            return false;
+        }
+        for (int higher = 0; higher < priority.ordinal(); higher++) {
+            if (!lanes.get(higher).isEmpty()) {
+                return false;
+            }
+        }
+        if (quotaMax > 0) {
+            double left = (double) quotaRemaining / quotaMax;
+            switch (priority) {
+                case CRITICAL:
+                    return quotaRemaining > 0;
+                case NORMAL:
+                    return left > QUOTA_NORMAL_FLOOR;
+                default:
+                    return left > QUOTA_BULK_FLOOR;
+            }
+        }
+        return true;
+    }
+
+    private double tokensNeeded(ApiPriority priority) {
+        return priority == ApiPriority.BULK ? 1 + capacity * BULK_HEADROOM : 1;
+    }
+
+    /**
+     * Must be called holding the lock
+     */
+    private long nanosUntilNextChance(ApiPriority priority, long now) {
+        if (now < pausedUntilNanos) {
+            return pausedUntilNanos - now;
+        }
+        double missing = tokensNeeded(priority) - tokens;
+        if (missing <= 0) {
+            // Waiting for its turn or for quota; woken by signal, rechecked periodically
+            return QUOTA_RECHECK_NANOS;
+        }
+        return Math.max(TimeUnit.MILLISECONDS.toNanos(1), (long) (missing / rate * 1e9));
+    }
+
+    /**
+     * Must be called holding the lock
+     */
+    private void applyHeader(String name, String value) {
+        switch (name) {
+            case "sforce-limit-info": {
+                // api-usage=18/15000
+                int eq = value.indexOf('=');
+                int slash = value.indexOf('/');
+                if (eq >= 0 && slash > eq) {
+                    long used = Long.parseLong(value.substring(eq + 1, slash).trim());
+                    quotaMax = Long.parseLong(value.substring(slash + 1).trim());
+                    quotaRemaining = Math.max(0, quotaMax - used);
+                }
+                break;
+            }
+            case "x-hubspot-ratelimit-daily":
+                quotaMax = Long.parseLong(value);
+                break;
+            case "x-hubspot-ratelimit-daily-remaining":
+                quotaRemaining = Long.parseLong(value);
+                break;
+            case "x-hubspot-ratelimit-max":
+                capacity = Math.max(1, Long.parseLong(value));
+                tokens = Math.min(tokens, capacity);
+                break;
+            case "x-hubspot-ratelimit-interval-milliseconds":
+                long intervalMs = Long.parseLong(value);
+                if (intervalMs > 0) {
+                    ceilingRate = capacity * 1000.0 / intervalMs;
+                    rate = Math.min(rate, ceilingRate);
+                }
+                break;
+            case "x-hubspot-ratelimit-remaining":
+                // The server's view of the current interval wins over our estimate
+                tokens = Math.min(tokens, Long.parseLong(value));
+                break;
+            case "retry-after":
+                pausedUntilNanos = Math.max(pausedUntilNanos,
+                    System.nanoTime() + TimeUnit.SECONDS.toNanos(Long.parseLong(value)));
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.austa.vendas.resilience;
+
+/**
+ * RateLimitedException - A vendor API answered 429 or the rate-limit queue wait ran out
+ *
+ * Not a fault of the integration: circuit breakers of rate-limited integrations list it in
+ * ignoreExceptions so throttling never opens them, while {@link JobRetryPolicy} still
+ * retries the activity.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public class RateLimitedException extends RuntimeException {
+
+    private final String vendor;
+    private final long retryAfterMs;
+
+    public RateLimitedException(String vendor, long retryAfterMs, String message) {
+        super(message);
+        this.vendor = vendor;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public String getVendor() {
+        return vendor;
+    }
+
+    /**
+     * Server-suggested wait before the next call, 0 when unknown
+     */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
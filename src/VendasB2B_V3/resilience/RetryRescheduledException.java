@@ -0,0 +1,25 @@
+package com.austa.vendas.resilience;
+
+/**
+ * RetryRescheduledException - Signals that a failed attempt was handed back to the job executor
+ *
+ * Thrown by {@link JobRetryPolicy} in JOB_EXECUTOR mode. Delegates must let it propagate
+ * (it must not be converted into a fallback result) so the engine can roll back the
+ * transaction and reschedule the job with the configured failedJobRetryTimeCycle.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public class RetryRescheduledException extends RuntimeException {
+
+    private final String policyName;
+
+    public RetryRescheduledException(String policyName, Throwable cause) {
+        super(policyName + " attempt failed, job rescheduled: " + cause.getMessage(), cause);
+        this.policyName = policyName;
+    }
+
+    public String getPolicyName() {
+        return policyName;
+    }
+}
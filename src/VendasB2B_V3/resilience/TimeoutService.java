@@ -0,0 +1,205 @@
+package com.austa.vendas.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * TimeoutService - Shared executor that enforces integration timeouts on virtual threads
+ *
+ * Purpose: Replaces per-call executors (one platform thread per invocation) with a single
+ * virtual-thread-per-task executor shared by all delegates. Each call gets:
+ *
+ * - Deadline propagation: the effective deadline is the earlier of the integration's
+ *   timeout and the caller's own {@link Deadline}, and it is visible to nested calls
+ * - Cancellation: a call that misses its deadline is interrupted and the caller gets an
+ *   {@link IntegrationTimeoutException}; interrupting the caller cancels the call too.
+ *   A blocking call runs inside the caller's Camunda CommandContext, so the caller only
+ *   returns once the cancelled call has actually ended, however long the provider client
+ *   ignores the interrupt; forked calls carry no context and are given a short grace period
+ * - Concurrency caps: each integration name has a fixed number of slots, so one slow
+ *   provider cannot absorb every thread; waiting for a slot counts against the deadline
+ *
+ * Delegates obtain a handle once, usually through {@link IntegrationTimeout#of}.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class TimeoutService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimeoutService.class);
+    private static final TimeoutService SHARED = new TimeoutService();
+
+    static final int DEFAULT_MAX_CONCURRENT_CALLS = 64;
+    private static final long CANCELLATION_GRACE_MS = 1000;
+
+    private final ExecutorService executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("integration-call-", 0).factory());
+    private final ConcurrentMap<String, Semaphore> slotsByIntegration = new ConcurrentHashMap<>();
+
+    private TimeoutService() {
+    }
+
+    public static TimeoutService shared() {
+        return SHARED;
+    }
+
+    public IntegrationTimeout integration(String name, long timeoutMs) {
+        return integration(name, timeoutMs, DEFAULT_MAX_CONCURRENT_CALLS);
+    }
+
+    /**
+     * Returns a handle for an integration; the first registration of a name fixes its slot count
+     */
+    public IntegrationTimeout integration(String name, long timeoutMs, int maxConcurrentCalls) {
+        Semaphore slots = slotsByIntegration.computeIfAbsent(name, n -> new Semaphore(maxConcurrentCalls));
+        return new IntegrationTimeout(this, name, timeoutMs, slots);
+    }
+
+    <T> T call(String integration, long timeoutMs, Semaphore slots, Callable<T> callable) throws Exception {
+        return submit(integration, timeoutMs, slots, callable, true).await();
+    }
+
+    /**
+     * Starts the call and returns without waiting; the slot is acquired before returning.
+     * Only blocking calls carry the engine context, since a forked call runs alongside its caller.
+     */
+    <T> PendingCall<T> submit(String integration, long timeoutMs, Semaphore slots, Callable<T> callable,
+                              boolean propagateEngineContext) throws InterruptedException {
+        Deadline deadline = Deadline.within(timeoutMs);
+
+        if (!slots.tryAcquire(deadline.remainingMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IntegrationTimeoutException(integration,
+                integration + ": no free call slot within " + timeoutMs + " ms");
+        }
+
+        EngineContextSnapshot engineContext = propagateEngineContext ? EngineContextSnapshot.capture() : null;
+        CountDownLatch finished = new CountDownLatch(1);
+        try {
+            Future<T> future = executor.submit(() -> {
+                Deadline.bind(deadline);
+                if (engineContext != null) {
+                    engineContext.install();
+                }
+                try {
+                    return callable.call();
+                } finally {
+                    if (engineContext != null) {
+                        engineContext.uninstall();
+                    }
+                    Deadline.unbind();
+                    slots.release();
+                    finished.countDown();
+                }
+            });
+            return new PendingCall<>(integration, deadline, future, finished,
+                engineContext != null && engineContext.hasCommandContext());
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * PendingCall - A call started on the shared executor, awaited under its deadline
+     */
+    public static final class PendingCall<T> {
+
+        private final String integration;
+        private final Deadline deadline;
+        private final Future<T> future;
+        private final CountDownLatch finished;
+        private final boolean holdsEngineContext;
+        private final long start = System.currentTimeMillis();
+
+        private PendingCall(String integration, Deadline deadline, Future<T> future, CountDownLatch finished,
+                            boolean holdsEngineContext) {
+            this.integration = integration;
+            this.deadline = deadline;
+            this.future = future;
+            this.finished = finished;
+            this.holdsEngineContext = holdsEngineContext;
+        }
+
+        /**
+         * Waits for the result; past the deadline the call is cancelled and IntegrationTimeoutException thrown
+         */
+        public T await() throws Exception {
+            try {
+                return future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                cancel();
+                throw new IntegrationTimeoutException(integration,
+                    integration + " call timed out after " + (System.currentTimeMillis() - start) + " ms");
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Interrupts the call; a call holding the caller's engine context is waited for until
+         * it ends, any other for a short grace period
+         */
+        public void cancel() throws InterruptedException {
+            future.cancel(true);
+            if (holdsEngineContext) {
+                awaitEngineContextRelease();
+            } else if (!finished.await(CANCELLATION_GRACE_MS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("{} call still running {} ms after cancellation", integration, CANCELLATION_GRACE_MS);
+            }
+        }
+
+        /**
+         * Returning earlier would let the caller commit or close its CommandContext while the
+         * call still uses it, so this wait ignores interrupts (they are restored afterwards)
+         */
+        private void awaitEngineContextRelease() {
+            boolean interrupted = false;
+            long waitedMs = 0;
+            while (true) {
+                try {
+                    if (finished.await(CANCELLATION_GRACE_MS, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                    waitedMs += CANCELLATION_GRACE_MS;
+                    if (waitedMs == CANCELLATION_GRACE_MS || waitedMs % 30000 == 0) {
+                        LOGGER.warn("{} call still running {} ms after cancellation; waiting for it to release "
+                            + "the engine context", integration, waitedMs);
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public String getIntegration() {
+            return integration;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.austa.vendas.cards;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CardPipelineTest - Ordering, failure and interruption of {@link CardPipeline} runs
+ *
+ * Each run is driven from its own thread and joined with a deadline, so a run that never
+ * drains its in-flight cards fails the test instead of hanging it.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+class CardPipelineTest {
+
+    private static final long DEADLINE_MS = 10_000;
+
+    private final CardPipeline pipeline = new CardPipeline(2, 4, 8);
+
+    @Test
+    void returnsUrlsInInputOrder() throws Exception {
+        List<Integer> inputs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            inputs.add(i);
+        }
+
+        List<String> urls = pipeline.run(inputs, input -> "card-" + input, card -> "s3://cards/" + card);
+
+        assertEquals(500, urls.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("s3://cards/card-" + i, urls.get(i));
+        }
+    }
+
+    @Test
+    void renderErrorFailsRunInsteadOfHanging() throws Exception {
+        List<Integer> inputs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            inputs.add(i);
+        }
+
+        Throwable outcome = runInThread(() -> pipeline.run(inputs, input -> {
+            if (input == 10) {
+                throw new AssertionError("renderer crashed");
+            }
+            return "card-" + input;
+        }, card -> "s3://cards/" + card));
+
+        CardPipelineException failure = assertInstanceOf(CardPipelineException.class, outcome);
+        assertEquals(10, failure.getIndex());
+        assertInstanceOf(AssertionError.class, failure.getCause());
+    }
+
+    @Test
+    void uploadErrorFailsRunInsteadOfHanging() throws Exception {
+        Throwable outcome = runInThread(() -> pipeline.run(List.of(0, 1, 2), input -> "card-" + input, card -> {
+            if (card.equals("card-1")) {
+                throw new StackOverflowError();
+            }
+            return "s3://cards/" + card;
+        }));
+
+        CardPipelineException failure = assertInstanceOf(CardPipelineException.class, outcome);
+        assertEquals(1, failure.getIndex());
+    }
+
+    @Test
+    void interruptWhileDrainingFailsRun() throws Exception {
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger uploads = new AtomicInteger();
+        AtomicReference<Throwable> outcome = new AtomicReference<>();
+
+        Thread submitter = Thread.ofPlatform().start(() -> {
+            try {
+                pipeline.run(List.of(0), input -> {
+                    rendering.countDown();
+                    release.await();
+                    return "card-" + input;
+                }, card -> {
+                    uploads.incrementAndGet();
+                    return "s3://cards/" + card;
+                });
+            } catch (Throwable e) {
+                outcome.set(e);
+            }
+        });
+        assertTrue(rendering.await(DEADLINE_MS, TimeUnit.MILLISECONDS));
+        submitter.interrupt();
+        submitter.join(DEADLINE_MS);
+        assertFalse(submitter.isAlive());
+        assertInstanceOf(InterruptedException.class, outcome.get());
+
+        // The card still rendering sees the failed run and is not uploaded
+        release.countDown();
+        Thread.sleep(200);
+        assertEquals(0, uploads.get());
+    }
+
+    private static Throwable runInThread(PipelineRun body) throws InterruptedException {
+        AtomicReference<Throwable> outcome = new AtomicReference<>();
+        Thread thread = Thread.ofPlatform().start(() -> {
+            try {
+                body.run();
+            } catch (Throwable e) {
+                outcome.set(e);
+            }
+        });
+        thread.join(DEADLINE_MS);
+        assertFalse(thread.isAlive(), "Card pipeline run did not finish");
+        return outcome.get();
+    }
+
+    @FunctionalInterface
+    private interface PipelineRun {
+        void run() throws Exception;
+    }
+}
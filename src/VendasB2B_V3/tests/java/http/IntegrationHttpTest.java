@@ -0,0 +1,139 @@
+package com.austa.vendas.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IntegrationHttpTest - Streamed request bodies against a {@link StubIntegrationServer}
+ *
+ * Bodies are larger than the hand-off buffer and written in paced chunks, so the client
+ * reads them over several of its own threads; each must arrive complete and in order.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+class IntegrationHttpTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+    private static final String PATH = "/api/v1/records";
+
+    private StubIntegrationServer stub;
+    private IntegrationHttp api;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = StubIntegrationServer.start();
+        stub.respond("POST", PATH, 201, "{\"id\":\"REC-1\"}");
+        api = handle(false);
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void postsBodyLargerThanHandOffBuffer() throws Exception {
+        String body = payload(1024 * 1024);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            HttpRequest request = api.post("api/v1/records", "text/plain", out -> writePaced(out, body, 0));
+            try (IntegrationResponse response = api.send(request)) {
+                assertEquals(201, response.getStatusCode());
+                assertEquals("{\"id\":\"REC-1\"}", response.bodyAsString());
+            }
+        }
+
+        List<StubIntegrationServer.RecordedRequest> received = stub.getRequests(PATH);
+        assertEquals(3, received.size());
+        for (StubIntegrationServer.RecordedRequest request : received) {
+            assertEquals(body.length(), request.body().length(), "body length");
+            assertTrue(body.equals(request.body()), "body content");
+        }
+    }
+
+    @Test
+    void postsSlowlyWrittenBody() throws Exception {
+        String body = payload(256 * 1024);
+
+        HttpRequest request = api.post("api/v1/records", "text/plain", out -> writePaced(out, body, 1));
+        try (IntegrationResponse response = api.send(request)) {
+            assertEquals(201, response.getStatusCode());
+        }
+
+        assertTrue(body.equals(stub.getRequests(PATH).get(0).body()), "body content");
+    }
+
+    @Test
+    void postsGzipBody() throws Exception {
+        IntegrationHttp gzipApi = handle(true);
+        String body = payload(200 * 1024);
+
+        HttpRequest request = gzipApi.post("api/v1/records", "text/plain", out -> writePaced(out, body, 0));
+        try (IntegrationResponse response = gzipApi.send(request)) {
+            assertEquals(201, response.getStatusCode());
+        }
+
+        StubIntegrationServer.RecordedRequest received = stub.getRequests(PATH).get(0);
+        assertTrue(received.gzipped(), "gzip encoded");
+        assertTrue(body.equals(received.body()), "body content");
+    }
+
+    @Test
+    void failedWriterAbortsRequestInsteadOfTruncating() {
+        HttpRequest request = api.post("api/v1/records", "text/plain", out -> {
+            out.write(payload(100 * 1024).getBytes(StandardCharsets.US_ASCII));
+            throw new IOException("source unavailable");
+        });
+
+        long start = System.currentTimeMillis();
+        assertThrows(IOException.class, () -> api.send(request).close());
+        assertTrue(System.currentTimeMillis() - start < TIMEOUT_MS, "failed before the request timeout");
+        assertTrue(stub.getRequests(PATH).stream().noneMatch(r -> r.body().length() <= 100 * 1024),
+            "no truncated body delivered");
+    }
+
+    private IntegrationHttp handle(boolean gzipRequests) {
+        return new IntegrationHttp(HttpClientPool.shared(), "stub", URI.create(stub.getBaseUrl() + "/"),
+            TIMEOUT_MS, gzipRequests);
+    }
+
+    /**
+     * Writes the body in 8 KB pieces, pausing pauseMs between them
+     */
+    private static void writePaced(OutputStream out, String body, long pauseMs) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        for (int offset = 0; offset < bytes.length; offset += 8192) {
+            out.write(bytes, offset, Math.min(8192, bytes.length - offset));
+            if (pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted", e);
+                }
+            }
+        }
+    }
+
+    private static String payload(int length) {
+        StringBuilder payload = new StringBuilder(length);
+        for (int i = 0; payload.length() < length; i++) {
+            payload.append("line ").append(i).append('\n');
+        }
+        payload.setLength(length);
+        return payload.toString();
+    }
+}
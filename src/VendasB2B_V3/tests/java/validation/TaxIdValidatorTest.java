@@ -0,0 +1,181 @@
+package com.austa.vendas.validation;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TaxIdValidatorTest - CPF and CNPJ check digits, formatting and the bulk APIs
+ *
+ * Valid vectors are ids with published, independently computed check digits; each invalid
+ * vector differs from a valid one in a single check digit.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+class TaxIdValidatorTest {
+
+    private static final List<String> VALID_CPFS = List.of("52998224725", "11144477735", "12345678909");
+    private static final List<String> INVALID_CPFS = List.of("52998224726", "11144477734", "12345678900");
+    private static final List<String> VALID_CNPJS = List.of("11222333000181", "11444777000161");
+    private static final List<String> INVALID_CNPJS = List.of("11222333000182", "11444777000162");
+
+    @Test
+    void acceptsKnownValidCpfs() {
+        for (String cpf : VALID_CPFS) {
+            assertTrue(TaxIdValidator.isValidCpf(cpf), cpf);
+        }
+    }
+
+    @Test
+    void rejectsWrongCpfCheckDigits() {
+        for (String cpf : INVALID_CPFS) {
+            assertFalse(TaxIdValidator.isValidCpf(cpf), cpf);
+        }
+    }
+
+    @Test
+    void acceptsKnownValidCnpjs() {
+        for (String cnpj : VALID_CNPJS) {
+            assertTrue(TaxIdValidator.isValidCnpj(cnpj), cnpj);
+        }
+    }
+
+    @Test
+    void rejectsWrongCnpjCheckDigits() {
+        for (String cnpj : INVALID_CNPJS) {
+            assertFalse(TaxIdValidator.isValidCnpj(cnpj), cnpj);
+        }
+    }
+
+    @Test
+    void formattedAndUnformattedInputAgree() {
+        assertTrue(TaxIdValidator.isValidCpf("529.982.247-25"));
+        assertTrue(TaxIdValidator.isValidCpf(" 529 982 247 25 "));
+        assertFalse(TaxIdValidator.isValidCpf("529.982.247-26"));
+        assertTrue(TaxIdValidator.isValidCnpj("11.222.333/0001-81"));
+        assertFalse(TaxIdValidator.isValidCnpj("11.222.333/0001-82"));
+
+        assertEquals("52998224725", TaxIdValidator.normalizeCpf("529.982.247-25"));
+        assertEquals("11222333000181", TaxIdValidator.normalizeCnpj("11.222.333/0001-81"));
+        assertTrue(TaxIdValidator.isValidCpf(new StringBuilder("529.982.247-25")));
+    }
+
+    @Test
+    void rejectsWrongLengthAndStrayCharacters() {
+        assertFalse(TaxIdValidator.isValidCpf("5299822472"));
+        assertFalse(TaxIdValidator.isValidCpf("529982247250"));
+        assertFalse(TaxIdValidator.isValidCpf("529_982_247_25"));
+        assertFalse(TaxIdValidator.isValidCpf(""));
+        assertFalse(TaxIdValidator.isValidCpf(null));
+        assertFalse(TaxIdValidator.isValidCnpj("1122233300018"));
+        assertFalse(TaxIdValidator.isValidCnpj(null));
+        assertNull(TaxIdValidator.normalizeCpf("52998224726"));
+        assertNull(TaxIdValidator.normalizeCnpj("11.222.333/0001"));
+    }
+
+    @Test
+    void rejectsAllEqualDigits() {
+        for (char digit = '0'; digit <= '9'; digit++) {
+            String cpf = String.valueOf(digit).repeat(TaxIdValidator.CPF_LENGTH);
+            String cnpj = String.valueOf(digit).repeat(TaxIdValidator.CNPJ_LENGTH);
+            assertFalse(TaxIdValidator.isValidCpf(cpf), cpf);
+            assertFalse(TaxIdValidator.isValidCnpj(cnpj), cnpj);
+        }
+        assertFalse(TaxIdValidator.isValidCpf("111.111.111-11"));
+    }
+
+    @Test
+    void acceptsAlphanumericCnpj() {
+        assertTrue(TaxIdValidator.isValidCnpj("12.ABC.345/01DE-35"));
+        assertTrue(TaxIdValidator.isValidCnpj("12abc34501de35"));
+        assertFalse(TaxIdValidator.isValidCnpj("12.ABC.345/01DE-36"));
+        assertEquals("12ABC34501DE35", TaxIdValidator.normalizeCnpj("12.abc.345/01de-35"));
+
+        // Letters are only allowed before the check digits, and never in a CPF
+        assertFalse(TaxIdValidator.isValidCnpj("12ABC34501DE3A"));
+        assertFalse(TaxIdValidator.isValidCpf("5299822472A"));
+    }
+
+    @Test
+    void rejectsNonAsciiInput() {
+        // Fullwidth and Arabic-Indic digits are digits to Character.isDigit, not to the Receita
+        assertFalse(TaxIdValidator.isValidCpf("52998224７２５"));
+        assertFalse(TaxIdValidator.isValidCpf("٥٢٩٩٨٢٢٤٧٢٥"));
+        assertFalse(TaxIdValidator.isValidCpf("529.982.247-25é"));
+        assertFalse(TaxIdValidator.isValidCnpj("11.222.333/0001-8¹"));
+        assertNull(TaxIdValidator.normalizeCnpj("11222333000181 "));
+
+        byte[] utf8 = "529982247é25".getBytes(StandardCharsets.UTF_8);
+        assertFalse(TaxIdValidator.isValidCpf(utf8, 0, utf8.length));
+    }
+
+    @Test
+    void validatesCharSequenceAndByteRanges() {
+        String text = "cpf=529.982.247-25;";
+        assertTrue(TaxIdValidator.isValidCpf(text, 4, 18));
+        assertFalse(TaxIdValidator.isValidCpf(text, 4, 17));
+
+        byte[] ascii = "xx11.222.333/0001-81yy".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(TaxIdValidator.isValidCnpj(ascii, 2, 20));
+        assertFalse(TaxIdValidator.isValidCnpj(ascii, 2, 21));
+    }
+
+    @Test
+    void validatesLists() {
+        List<String> ids = List.of("529.982.247-25", "52998224726", "11144477735", "00000000000");
+        boolean[] valid = new boolean[ids.size()];
+
+        assertEquals(2, TaxIdValidator.validateCpfs(ids, valid));
+        assertArrayEquals(new boolean[] {true, false, true, false}, valid);
+
+        boolean[] cnpjValid = new boolean[2];
+        assertEquals(1, TaxIdValidator.validateCnpjs(List.of("11222333000181", "11222333000182"), cnpjValid));
+        assertArrayEquals(new boolean[] {true, false}, cnpjValid);
+    }
+
+    @Test
+    void validatesLinesWithCrlfBlankAndUnterminatedLines() {
+        byte[] lines = "529.982.247-25\r\n52998224726\n\n11144477735".getBytes(StandardCharsets.US_ASCII);
+        boolean[] valid = new boolean[4];
+
+        assertEquals(4, TaxIdValidator.validateCpfLines(lines, 0, lines.length, valid));
+        assertArrayEquals(new boolean[] {true, false, false, true}, valid);
+    }
+
+    @Test
+    void trailingNewlineDoesNotAddALine() {
+        byte[] lines = "11222333000181\r\n11.222.333/0001-82\n".getBytes(StandardCharsets.US_ASCII);
+        boolean[] valid = new boolean[3];
+
+        assertEquals(2, TaxIdValidator.validateCnpjLines(lines, 0, lines.length, valid));
+        assertArrayEquals(new boolean[] {true, false, false}, valid);
+    }
+
+    @Test
+    void validatesLinesWithinARange() {
+        byte[] lines = "header\n52998224725\n11144477735\nfooter".getBytes(StandardCharsets.US_ASCII);
+        boolean[] valid = new boolean[2];
+
+        assertEquals(2, TaxIdValidator.validateCpfLines(lines, 7, 31, valid));
+        assertArrayEquals(new boolean[] {true, true}, valid);
+    }
+
+    @Test
+    void rejectsTooSmallResultArrays() {
+        byte[] lines = "52998224725\n11144477735".getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> TaxIdValidator.validateCpfLines(lines, 0, lines.length, new boolean[1]));
+        assertThrows(IllegalArgumentException.class,
+            () -> TaxIdValidator.validateCpfs(List.of("52998224725", "11144477735"), new boolean[1]));
+    }
+}
@@ -0,0 +1,352 @@
+package com.austa.vendas.validation;
+
+import java.util.List;
+
+/**
+ * TaxIdValidator - CPF and CNPJ check-digit validation without allocation
+ *
+ * Purpose: One implementation of the Receita Federal check-digit rules for every delegate
+ * and cache that handles a CPF or CNPJ, replacing the per-delegate regex and length-only
+ * checks. Validation reads the characters in place from a CharSequence (String, CharBuffer,
+ * StringBuilder) or from an ASCII byte buffer, normalizing formatting as it goes, and
+ * allocates nothing; only {@link #normalizeCpf} and {@link #normalizeCnpj} create their
+ * result string.
+ *
+ * Formatting: the separators '.', '-', '/' and spaces are skipped wherever they appear
+ * ("529.982.247-25" equals "52998224725"); any other character makes the id invalid.
+ *
+ * Rules:
+ * - CPF: 11 digits, not all equal, two mod-11 check digits (weights 10..2 and 11..2)
+ * - CNPJ: 14 characters, not all equal, two mod-11 check digits (weights 5..2,9..2 and
+ *   6..2,9..2); the first 12 may be letters as in the alphanumeric CNPJ, each worth its
+ *   ASCII code minus 48, lower case read as upper case; the check digits are numeric
+ *
+ * Bulk API: {@link #validateCpfs}/{@link #validateCnpjs} validate a list into a result
+ * array, and {@link #validateCpfLines}/{@link #validateCnpjLines} validate a buffer of
+ * newline-separated ids (e.g. a roster column read from a file) without creating a string
+ * per id.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class TaxIdValidator {
+
+    public static final int CPF_LENGTH = 11;
+    public static final int CNPJ_LENGTH = 14;
+
+    private static final int[] CNPJ_WEIGHTS_1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+    private static final int[] CNPJ_WEIGHTS_2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+
+    /** Character classes: value 0-9 for digits, 17-42 for letters, or one of these */
+    private static final int SEPARATOR = -1;
+    private static final int INVALID = -2;
+    private static final int[] CHAR_VALUES = new int[128];
+
+    static {
+        for (int c = 0; c < CHAR_VALUES.length; c++) {
+            CHAR_VALUES[c] = INVALID;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_VALUES[c] = c - '0';
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            CHAR_VALUES[c] = c - '0';
+            CHAR_VALUES[c + ('a' - 'A')] = c - '0';
+        }
+        for (char c : new char[] {'.', '-', '/', ' ', '\t'}) {
+            CHAR_VALUES[c] = SEPARATOR;
+        }
+    }
+
+    private TaxIdValidator() {
+    }
+
+    public static boolean isValidCpf(CharSequence cpf) {
+        return cpf != null && isValidCpf(cpf, 0, cpf.length());
+    }
+
+    /**
+     * Validates the CPF in chars [from, to) of the sequence
+     */
+    public static boolean isValidCpf(CharSequence text, int from, int to) {
+        int count = 0;
+        int first = -1;
+        boolean allSame = true;
+        int sum1 = 0;
+        int sum2 = 0;
+        int check1 = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            int value = c < 128 ? CHAR_VALUES[c] : INVALID;
+            if (value == SEPARATOR) {
+                continue;
+            }
+            if (value < 0 || value > 9 || count == CPF_LENGTH) {
+                return false;
+            }
+            if (count == 0) {
+                first = value;
+            }
+            allSame &= value == first;
+            if (count < 9) {
+                sum1 += value * (10 - count);
+                sum2 += value * (11 - count);
+            } else if (count == 9) {
+                check1 = cpfCheckDigit(sum1);
+                if (value != check1) {
+                    return false;
+                }
+            } else if (value != cpfCheckDigit(sum2 + check1 * 2)) {
+                return false;
+            }
+            count++;
+        }
+        return count == CPF_LENGTH && !allSame;
+    }
+
+    /**
+     * Validates the CPF in ASCII bytes [from, to) of the buffer
+     */
+    public static boolean isValidCpf(byte[] ascii, int from, int to) {
+        int count = 0;
+        int first = -1;
+        boolean allSame = true;
+        int sum1 = 0;
+        int sum2 = 0;
+        int check1 = 0;
+        for (int i = from; i < to; i++) {
+            int b = ascii[i];
+            int value = b >= 0 ? CHAR_VALUES[b] : INVALID;
+            if (value == SEPARATOR) {
+                continue;
+            }
+            if (value < 0 || value > 9 || count == CPF_LENGTH) {
+                return false;
+            }
+            if (count == 0) {
+                first = value;
+            }
+            allSame &= value == first;
+            if (count < 9) {
+                sum1 += value * (10 - count);
+                sum2 += value * (11 - count);
+            } else if (count == 9) {
+                check1 = cpfCheckDigit(sum1);
+                if (value != check1) {
+                    return false;
+                }
+            } else if (value != cpfCheckDigit(sum2 + check1 * 2)) {
+                return false;
+            }
+            count++;
+        }
+        return count == CPF_LENGTH && !allSame;
+    }
+
+    public static boolean isValidCnpj(CharSequence cnpj) {
+        return cnpj != null && isValidCnpj(cnpj, 0, cnpj.length());
+    }
+
+    /**
+     * Validates the CNPJ in chars [from, to) of the sequence
+     */
+    public static boolean isValidCnpj(CharSequence text, int from, int to) {
+        int count = 0;
+        int first = -1;
+        boolean allSame = true;
+        int sum1 = 0;
+        int sum2 = 0;
+        int check1 = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            int value = c < 128 ? CHAR_VALUES[c] : INVALID;
+            if (value == SEPARATOR) {
+                continue;
+            }
+            if (value < 0 || count == CNPJ_LENGTH || (count >= 12 && value > 9)) {
+                return false;
+            }
+            if (count == 0) {
+                first = value;
+            }
+            allSame &= value == first;
+            if (count < 12) {
+                sum1 += value * CNPJ_WEIGHTS_1[count];
+                sum2 += value * CNPJ_WEIGHTS_2[count];
+            } else if (count == 12) {
+                check1 = cnpjCheckDigit(sum1);
+                if (value != check1) {
+                    return false;
+                }
+            } else if (value != cnpjCheckDigit(sum2 + check1 * 2)) {
+                return false;
+            }
+            count++;
+        }
+        return count == CNPJ_LENGTH && !allSame;
+    }
+
+    /**
+     * Validates the CNPJ in ASCII bytes [from, to) of the buffer
+     */
+    public static boolean isValidCnpj(byte[] ascii, int from, int to) {
+        int count = 0;
+        int first = -1;
+        boolean allSame = true;
+        int sum1 = 0;
+        int sum2 = 0;
+        int check1 = 0;
+        for (int i = from; i < to; i++) {
+            int b = ascii[i];
+            int value = b >= 0 ? CHAR_VALUES[b] : INVALID;
+            if (value == SEPARATOR) {
+                continue;
+            }
+            if (value < 0 || count == CNPJ_LENGTH || (count >= 12 && value > 9)) {
+                return false;
+            }
+            if (count == 0) {
+                first = value;
+            }
+            allSame &= value == first;
+            if (count < 12) {
+                sum1 += value * CNPJ_WEIGHTS_1[count];
+                sum2 += value * CNPJ_WEIGHTS_2[count];
+            } else if (count == 12) {
+                check1 = cnpjCheckDigit(sum1);
+                if (value != check1) {
+                    return false;
+                }
+            } else if (value != cnpjCheckDigit(sum2 + check1 * 2)) {
+                return false;
+            }
+            count++;
+        }
+        return count == CNPJ_LENGTH && !allSame;
+    }
+
+    /**
+     * The 11 CPF digits without formatting, or null unless the CPF is valid
+     */
+    public static String normalizeCpf(CharSequence cpf) {
+        return isValidCpf(cpf) ? strip(cpf, CPF_LENGTH) : null;
+    }
+
+    /**
+     * The 14 CNPJ characters without formatting, letters in upper case, or null unless the
+     * input has that shape. Check digits are not verified, so lookups keyed by CNPJ behave
+     * as before for ids that only fail the checksum; use {@link #isValidCnpj} to verify.
+     */
+    public static String normalizeCnpj(CharSequence cnpj) {
+        if (cnpj == null) {
+            return null;
+        }
+        int count = 0;
+        for (int i = 0; i < cnpj.length(); i++) {
+            char c = cnpj.charAt(i);
+            int value = c < 128 ? CHAR_VALUES[c] : INVALID;
+            if (value == SEPARATOR) {
+                continue;
+            }
+            if (value < 0 || count == CNPJ_LENGTH || (count >= 12 && value > 9)) {
+                return null;
+            }
+            count++;
+        }
+        return count == CNPJ_LENGTH ? strip(cnpj, CNPJ_LENGTH) : null;
+    }
+
+    /**
+     * Validates each CPF into valid[i]; returns the number of valid ids
+     */
+    public static int validateCpfs(List<? extends CharSequence> ids, boolean[] valid) {
+        checkCapacity(ids.size(), valid);
+        int validCount = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            valid[i] = isValidCpf(ids.get(i));
+            validCount += valid[i] ? 1 : 0;
+        }
+        return validCount;
+    }
+
+    /**
+     * Validates each CNPJ into valid[i]; returns the number of valid ids
+     */
+    public static int validateCnpjs(List<? extends CharSequence> ids, boolean[] valid) {
+        checkCapacity(ids.size(), valid);
+        int validCount = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            valid[i] = isValidCnpj(ids.get(i));
+            validCount += valid[i] ? 1 : 0;
+        }
+        return validCount;
+    }
+
+    /**
+     * Validates newline-separated CPFs in ASCII bytes [from, to) into valid[line]; a
+     * trailing '\r' is skipped and a final line without newline counts. Returns the number
+     * of lines.
+     */
+    public static int validateCpfLines(byte[] ascii, int from, int to, boolean[] valid) {
+        int line = 0;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to ? i > start : ascii[i] == '\n') {
+                checkCapacity(line + 1, valid);
+                valid[line++] = isValidCpf(ascii, start, lineEnd(ascii, start, i));
+                start = i + 1;
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Validates newline-separated CNPJs in ASCII bytes [from, to) into valid[line]; see
+     * {@link #validateCpfLines}
+     */
+    public static int validateCnpjLines(byte[] ascii, int from, int to, boolean[] valid) {
+        int line = 0;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to ? i > start : ascii[i] == '\n') {
+                checkCapacity(line + 1, valid);
+                valid[line++] = isValidCnpj(ascii, start, lineEnd(ascii, start, i));
+                start = i + 1;
+            }
+        }
+        return line;
+    }
+
+    private static int cpfCheckDigit(int sum) {
+        int digit = 11 - sum % 11;
+        return digit >= 10 ? 0 : digit;
+    }
+
+    private static int cnpjCheckDigit(int sum) {
+        int remainder = sum % 11;
+        return remainder < 2 ? 0 : 11 - remainder;
+    }
+
+    private static int lineEnd(byte[] ascii, int start, int newline) {
+        return newline > start && ascii[newline - 1] == '\r' ? newline - 1 : newline;
+    }
+
+    private static String strip(CharSequence id, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (CHAR_VALUES[c] != SEPARATOR) {
+                chars[count++] = c >= 'a' ? (char) (c - ('a' - 'A')) : c;
+            }
+        }
+        return new String(chars);
+    }
+
+    private static void checkCapacity(int needed, boolean[] valid) {
+        if (valid.length < needed) {
+            throw new IllegalArgumentException("Result array holds " + valid.length + " entries, "
+                + needed + " needed");
+        }
+    }
+}
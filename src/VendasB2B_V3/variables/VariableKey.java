@@ -0,0 +1,100 @@
+package com.austa.vendas.variables;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * VariableKey - Typed name of a process variable read by a delegate
+ *
+ * Declaring inputs as keys moves the type check from scattered casts to one place:
+ * {@link VariableSnapshot} converts each value when it is loaded and reports the
+ * variable name if the stored type is wrong, instead of a ClassCastException deep
+ * inside payload building. Numeric keys accept any Number, since values arriving from
+ * forms, REST or JSON are often Long or Integer where the delegate expects Double.
+ *
+ * @param <T> Java type exposed to the delegate
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class VariableKey<T> {
+
+    private final String name;
+    private final String typeName;
+    private final Function<Object, T> converter;
+
+    private VariableKey(String name, String typeName, Function<Object, T> converter) {
+        this.name = name;
+        this.typeName = typeName;
+        this.converter = converter;
+    }
+
+    public static VariableKey<String> string(String name) {
+        return of(name, String.class);
+    }
+
+    public static VariableKey<Boolean> bool(String name) {
+        return of(name, Boolean.class);
+    }
+
+    public static VariableKey<Date> date(String name) {
+        return of(name, Date.class);
+    }
+
+    public static VariableKey<Double> decimal(String name) {
+        return new VariableKey<>(name, "Double", value ->
+            value instanceof Number ? ((Number) value).doubleValue() : mismatch(name, "Double", value));
+    }
+
+    public static VariableKey<Integer> integer(String name) {
+        return new VariableKey<>(name, "Integer", value -> {
+            if (value instanceof Integer) {
+                return (Integer) value;
+            }
+            if (value instanceof Number && ((Number) value).doubleValue() == ((Number) value).intValue()) {
+                return ((Number) value).intValue();
+            }
+            return mismatch(name, "Integer", value);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public static VariableKey<Map<String, Object>> map(String name) {
+        return new VariableKey<>(name, "Map", value ->
+            value instanceof Map ? (Map<String, Object>) value : mismatch(name, "Map", value));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> VariableKey<List<E>> list(String name) {
+        return new VariableKey<>(name, "List", value ->
+            value instanceof List ? (List<E>) value : mismatch(name, "List", value));
+    }
+
+    public static <T> VariableKey<T> of(String name, Class<T> type) {
+        return new VariableKey<>(name, type.getSimpleName(), value ->
+            type.isInstance(value) ? type.cast(value) : mismatch(name, type.getSimpleName(), value));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Converts a raw variable value; null stays null
+     */
+    T convert(Object value) {
+        return value == null ? null : converter.apply(value);
+    }
+
+    private static <T> T mismatch(String name, String expected, Object value) {
+        throw new IllegalArgumentException("Variable '" + name + "' must be " + expected
+            + " but was " + value.getClass().getSimpleName());
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + typeName;
+    }
+}
@@ -0,0 +1,91 @@
+package com.austa.vendas.variables;
+
+import org.camunda.bpm.engine.ProcessEngineServices;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * VariableSnapshot - Typed, read-only view of the inputs a delegate declares
+ *
+ * Purpose: Payload builders used to call execution.getVariable(...) a dozen or more times,
+ * each walking the scope hierarchy and deserializing on its own, followed by an unchecked
+ * cast. A snapshot fetches every declared input in one bulk variable read, converts each
+ * value once, and hands out typed values:
+ *
+ * <pre>
+ *   private static final VariableKey&lt;String&gt; CNPJ = VariableKey.string("cnpj");
+ *   private static final VariableKey&lt;Integer&gt; NUMERO_VIDAS = VariableKey.integer("numeroVidas");
+ *   private static final List&lt;VariableKey&lt;?&gt;&gt; CUSTOMER_INPUTS = List.of(CNPJ, NUMERO_VIDAS);
+ *   ...
+ *   VariableSnapshot inputs = VariableSnapshot.load(execution, CUSTOMER_INPUTS);
+ *   payload.put("documentNumber", inputs.get(CNPJ));
+ * </pre>
+ *
+ * Reading a key that was not declared fails fast, so the declaration list stays complete.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class VariableSnapshot {
+
+    private final Map<String, Object> values;
+
+    private VariableSnapshot(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    public static VariableSnapshot load(DelegateExecution execution, VariableKey<?>... keys) {
+        return load(execution, Arrays.asList(keys));
+    }
+
+    public static VariableSnapshot load(DelegateExecution execution, Collection<VariableKey<?>> keys) {
+        List<String> names = new ArrayList<>(keys.size());
+        for (VariableKey<?> key : keys) {
+            names.add(key.getName());
+        }
+
+        Map<String, Object> raw = fetch(execution, names);
+
+        Map<String, Object> values = new HashMap<>(keys.size() * 2);
+        for (VariableKey<?> key : keys) {
+            values.put(key.getName(), key.convert(raw.get(key.getName())));
+        }
+        return new VariableSnapshot(values);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(VariableKey<T> key) {
+        if (!values.containsKey(key.getName())) {
+            throw new IllegalStateException("Variable '" + key.getName() + "' was not declared for this snapshot");
+        }
+        return (T) values.get(key.getName());
+    }
+
+    public <T> T getOrDefault(VariableKey<T> key, T defaultValue) {
+        T value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * One bulk read through the runtime service; executions without engine services
+     * (external task workers) already hold their variables in memory
+     */
+    private static Map<String, Object> fetch(DelegateExecution execution, List<String> names) {
+        ProcessEngineServices services = execution.getProcessEngineServices();
+        if (services != null) {
+            return services.getRuntimeService().getVariables(execution.getId(), names);
+        }
+
+        Map<String, Object> raw = new HashMap<>();
+        for (String name : names) {
+            raw.put(name, execution.getVariable(name));
+        }
+        return raw;
+    }
+}
@@ -0,0 +1,114 @@
+package com.austa.vendas.warehouse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * JdbcWarehouseSink - Loads staged batches into a JDBC table with batched inserts
+ *
+ * Purpose: Generic bulk-load target; with an H2 URL it gives a local warehouse for
+ * development and integration tests. Each staged batch is inserted with one batched
+ * statement in one transaction, so a batch is either fully loaded or not at all.
+ *
+ * The table is created on first use:
+ * <pre>
+ *   process_instance_id, business_key, data_type, sync_mode, synced_at,
+ *   workflow_data (JSON text), removed_variables, batch_id
+ * </pre>
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public class JdbcWarehouseSink implements WarehouseSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcWarehouseSink.class);
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{0,62}");
+
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final String table;
+    private volatile boolean tableReady;
+
+    public JdbcWarehouseSink(String jdbcUrl, String username, String password, String table) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid warehouse table name: " + table);
+        }
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.table = table;
+    }
+
+    /**
+     * Local H2 database file, for development and testing
+     */
+    public static JdbcWarehouseSink h2(String databasePath) {
+        return new JdbcWarehouseSink("jdbc:h2:file:" + databasePath, "sa", "", "dw_workflow_sync");
+    }
+
+    @Override
+    public String getName() {
+        return "jdbc:" + table;
+    }
+
+    @Override
+    public void load(StagedBatch batch) throws Exception {
+        List<WarehouseRecord> records = batch.readRecords();
+
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+            ensureTable(connection);
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table
+                    + " (process_instance_id, business_key, data_type, sync_mode, synced_at,"
+                    + " workflow_data, removed_variables, batch_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (WarehouseRecord record : records) {
+                    insert.setString(1, record.getProcessInstanceId());
+                    insert.setString(2, record.getBusinessKey());
+                    insert.setString(3, record.getDataType());
+                    insert.setString(4, record.getSyncMode());
+                    insert.setTimestamp(5, new Timestamp(record.getSyncedAt()));
+                    insert.setString(6, record.getWorkflowData());
+                    insert.setString(7, record.getRemovedVariables());
+                    insert.setString(8, batch.getBatchId());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+
+        LOGGER.debug("Loaded batch {} into {}: {} rows", batch.getBatchId(), table, records.size());
+    }
+
+    private void ensureTable(Connection connection) throws SQLException {
+        if (tableReady) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "process_instance_id VARCHAR(64), "
+                + "business_key VARCHAR(255), "
+                + "data_type VARCHAR(64), "
+                + "sync_mode VARCHAR(16), "
+                + "synced_at TIMESTAMP, "
+                + "workflow_data CLOB, "
+                + "removed_variables CLOB, "
+                + "batch_id VARCHAR(64))");
+        }
+        tableReady = true;
+    }
+}
@@ -0,0 +1,112 @@
+package com.austa.vendas.warehouse;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * JsonText - Minimal JSON encoder for workflow variable values
+ *
+ * Maps become objects, collections and arrays become arrays, numbers and booleans stay
+ * native, dates become epoch milliseconds and anything else is written as its string form.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+final class JsonText {
+
+    private JsonText() {
+    }
+
+    static String encode(Object value) {
+        StringBuilder json = new StringBuilder(256);
+        append(json, value);
+        return json.toString();
+    }
+
+    private static void append(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            appendNumberOrBoolean(json, value);
+        } else if (value instanceof Date) {
+            json.append(((Date) value).getTime());
+        } else if (value instanceof Map) {
+            json.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                appendString(json, String.valueOf(entry.getKey()));
+                json.append(':');
+                append(json, entry.getValue());
+            }
+            json.append('}');
+        } else if (value instanceof Collection) {
+            json.append('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                append(json, element);
+            }
+            json.append(']');
+        } else if (value.getClass().isArray()) {
+            json.append('[');
+            for (int i = 0; i < Array.getLength(value); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                append(json, Array.get(value, i));
+            }
+            json.append(']');
+        } else {
+            appendString(json, value.toString());
+        }
+    }
+
+    private static void appendNumberOrBoolean(StringBuilder json, Object value) {
+        if (value instanceof Double && !Double.isFinite((Double) value)
+                || value instanceof Float && !Float.isFinite((Float) value)) {
+            json.append("null");
+        } else {
+            json.append(value);
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
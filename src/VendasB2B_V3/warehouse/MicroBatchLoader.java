@@ -0,0 +1,382 @@
+package com.austa.vendas.warehouse;
+
+import com.austa.vendas.queue.DurableQueue;
+import com.austa.vendas.queue.QueuedEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MicroBatchLoader - Buffers warehouse records from many executions into bulk loads
+ *
+ * Purpose: Replaces one warehouse write per process execution with a few large appends.
+ * Records are buffered in memory and flushed when the batch reaches maxBatchRecords or
+ * the oldest buffered record has waited maxBatchDelayMs, whichever comes first. A flushed
+ * batch is staged to a local columnar file ({@link StagedBatch}) and handed to the sink.
+ *
+ * Two ways in:
+ * - {@link #accept}: the record is appended to a durable journal and the call returns; the
+ *   journal entry is acknowledged once its batch is loaded. A failed batch puts its
+ *   journaled records back into the buffer with backoff, and after MAX_ATTEMPTS moves them
+ *   to the {journal}-dead queue. Records left in the journal by a previous run are loaded
+ *   on startup. Callers never wait for a flush.
+ * - {@link #submit}: the record is only buffered in memory and the future completes when
+ *   its batch is loaded (or fails with the sink's error). A submitter that stops waiting
+ *   can cancel its future; cancelled records are dropped from the batch if it has not been
+ *   flushed yet.
+ *
+ * Batches are loaded one at a time, in flush order.
+ *
+ * Shared loader configuration (system properties):
+ * - austa.warehouse.jdbc-url: JDBC URL of the sync table (default: simulated sink)
+ * - austa.warehouse.jdbc-user / austa.warehouse.jdbc-password
+ * - austa.warehouse.staging-dir: staging directory (default: java.io.tmpdir/austa-dw-staging)
+ * - austa.warehouse.batch-records: max records per batch (default 500)
+ * - austa.warehouse.batch-delay-ms: max buffering delay (default 5000)
+ * - journal: the warehouse-records durable queue (see DurableQueue for its directory)
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class MicroBatchLoader implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicroBatchLoader.class);
+
+    public static final int DEFAULT_BATCH_RECORDS = 500;
+    public static final long DEFAULT_BATCH_DELAY_MS = 5000;
+
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long MAX_RETRY_DELAY_MS = 300000;
+    private static final int MAX_REPLAYED_RECORDS = 100000;
+
+    private static volatile MicroBatchLoader shared;
+
+    private final WarehouseSink sink;
+    private final Path stagingDir;
+    private final int maxBatchRecords;
+    private final long maxBatchDelayMs;
+    private final DurableQueue journal;
+    private final ScheduledExecutorService flushTimer;
+    private final ExecutorService loadExecutor;
+    private final AtomicLong batchSequence = new AtomicLong();
+
+    private List<PendingRecord> buffer = new ArrayList<>();
+    private long bufferGeneration;
+    private boolean closed;
+
+    public MicroBatchLoader(WarehouseSink sink, Path stagingDir, int maxBatchRecords, long maxBatchDelayMs) {
+        this(sink, stagingDir, maxBatchRecords, maxBatchDelayMs, null);
+    }
+
+    /**
+     * A loader whose {@link #accept}ed records are kept in the journal until loaded
+     */
+    public MicroBatchLoader(WarehouseSink sink, Path stagingDir, int maxBatchRecords, long maxBatchDelayMs,
+                            DurableQueue journal) {
+        if (maxBatchRecords < 1 || maxBatchDelayMs < 1) {
+            throw new IllegalArgumentException("Batch size and delay must be positive");
+        }
+        this.sink = sink;
+        this.stagingDir = stagingDir;
+        this.maxBatchRecords = maxBatchRecords;
+        this.maxBatchDelayMs = maxBatchDelayMs;
+        this.journal = journal;
+        this.flushTimer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dw-batch-timer").daemon(true).factory());
+        this.loadExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("dw-batch-loader").daemon(true).factory());
+        if (journal != null) {
+            replay();
+        }
+    }
+
+    /**
+     * Process-wide loader configured from system properties; flushed on JVM shutdown
+     */
+    public static MicroBatchLoader shared() {
+        MicroBatchLoader loader = shared;
+        if (loader == null) {
+            synchronized (MicroBatchLoader.class) {
+                loader = shared;
+                if (loader == null) {
+                    loader = fromSystemProperties();
+                    Runtime.getRuntime().addShutdownHook(new Thread(loader::close, "dw-batch-shutdown"));
+                    shared = loader;
+                }
+            }
+        }
+        return loader;
+    }
+
+    private static MicroBatchLoader fromSystemProperties() {
+        String jdbcUrl = System.getProperty("austa.warehouse.jdbc-url");
+        WarehouseSink sink = jdbcUrl != null
+            ? new JdbcWarehouseSink(jdbcUrl, System.getProperty("austa.warehouse.jdbc-user", "sa"),
+                System.getProperty("austa.warehouse.jdbc-password", ""), "dw_workflow_sync")
+            : new SimulatedWarehouseSink();
+        Path stagingDir = Paths.get(System.getProperty("austa.warehouse.staging-dir",
+            Paths.get(System.getProperty("java.io.tmpdir"), "austa-dw-staging").toString()));
+
+        return new MicroBatchLoader(sink, stagingDir,
+            Integer.getInteger("austa.warehouse.batch-records", DEFAULT_BATCH_RECORDS),
+            Long.getLong("austa.warehouse.batch-delay-ms", DEFAULT_BATCH_DELAY_MS),
+            DurableQueue.named("warehouse-records"));
+    }
+
+    /**
+     * Appends the record to the journal and buffers it; returns once it is durable, not
+     * when it is loaded
+     */
+    public void accept(WarehouseRecord record) throws IOException {
+        if (journal == null) {
+            throw new IllegalStateException("Warehouse loader has no journal");
+        }
+        long entryId = journal.append(record.getProcessInstanceId(), record.toPayload());
+        buffer(new PendingRecord(record, entryId, 0));
+    }
+
+    /**
+     * Buffers the record; the future completes with the loaded batch size
+     */
+    public CompletableFuture<Integer> submit(WarehouseRecord record) {
+        PendingRecord pending = new PendingRecord(record, 0, 0);
+        buffer(pending);
+        return pending.result;
+    }
+
+    private void buffer(PendingRecord pending) {
+        List<PendingRecord> full = null;
+
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Warehouse loader is closed");
+            }
+            buffer.add(pending);
+            if (buffer.size() >= maxBatchRecords) {
+                full = takeBuffer();
+            } else if (buffer.size() == 1) {
+                long generation = bufferGeneration;
+                flushTimer.schedule(() -> flushIfGeneration(generation), maxBatchDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (full != null) {
+            dispatch(full);
+        }
+    }
+
+    /**
+     * Flushes whatever is buffered without waiting for size or delay
+     */
+    public void flush() {
+        List<PendingRecord> batch;
+        synchronized (this) {
+            batch = takeBuffer();
+        }
+        dispatch(batch);
+    }
+
+    public WarehouseSink getSink() {
+        return sink;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flush();
+        flushTimer.shutdownNow();
+        loadExecutor.shutdown();
+        try {
+            if (!loadExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("Warehouse loader closed with batches still loading");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushIfGeneration(long generation) {
+        List<PendingRecord> batch = null;
+        synchronized (this) {
+            if (bufferGeneration == generation) {
+                batch = takeBuffer();
+            }
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Must be called holding the lock
+     */
+    private List<PendingRecord> takeBuffer() {
+        List<PendingRecord> batch = buffer;
+        buffer = new ArrayList<>();
+        bufferGeneration++;
+        return batch;
+    }
+
+    private void dispatch(List<PendingRecord> batch) {
+        if (!batch.isEmpty()) {
+            loadExecutor.execute(() -> load(batch));
+        }
+    }
+
+    private void load(List<PendingRecord> pending) {
+        List<PendingRecord> live = new ArrayList<>(pending.size());
+        List<WarehouseRecord> records = new ArrayList<>(pending.size());
+        for (PendingRecord record : pending) {
+            if (!record.result.isDone()) {
+                live.add(record);
+                records.add(record.record);
+            }
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+
+        String batchId = "dw-" + System.currentTimeMillis() + "-" + batchSequence.incrementAndGet();
+        StagedBatch staged = null;
+        long start = System.nanoTime();
+        try {
+            staged = StagedBatch.write(stagingDir, batchId, records);
+            long stagedBytes = staged.getSizeBytes();
+            sink.load(staged);
+
+            acknowledge(live);
+            for (PendingRecord record : live) {
+                record.result.complete(records.size());
+            }
+
+            LOGGER.info("Loaded warehouse batch {} into {}: {} records, {} bytes staged, {} ms",
+                       batchId, sink.getName(), records.size(), stagedBytes,
+                       TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            LOGGER.error("Warehouse batch {} failed: {} records", batchId, records.size(), e);
+            for (PendingRecord record : live) {
+                record.result.completeExceptionally(e);
+            }
+            retryLater(live, e);
+        } finally {
+            if (staged != null) {
+                staged.delete();
+            }
+        }
+    }
+
+    private void acknowledge(List<PendingRecord> loaded) {
+        List<Long> entryIds = new ArrayList<>();
+        for (PendingRecord record : loaded) {
+            if (record.entryId != 0) {
+                entryIds.add(record.entryId);
+            }
+        }
+        if (!entryIds.isEmpty()) {
+            try {
+                journal.ack(entryIds);
+            } catch (IOException e) {
+                // Left in the journal: loaded again after a restart, as a duplicate
+                LOGGER.warn("Warehouse journal acknowledgement failed for {} records: {}",
+                           entryIds.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Buffers the journaled records of a failed batch again after a backoff, or dead-letters them
+     */
+    private void retryLater(List<PendingRecord> failed, Exception failure) {
+        List<PendingRecord> retries = new ArrayList<>();
+        List<Long> deadEntryIds = new ArrayList<>();
+        for (PendingRecord record : failed) {
+            if (record.entryId == 0) {
+                continue;
+            }
+            int attempts = record.attempts + 1;
+            if (attempts < MAX_ATTEMPTS) {
+                retries.add(new PendingRecord(record.record, record.entryId, attempts));
+                continue;
+            }
+            try {
+                Map<String, Object> envelope = new HashMap<>(record.record.toPayload());
+                envelope.put("lastError", String.valueOf(failure.getMessage()));
+                DurableQueue.named(journal.getName() + "-dead").append(record.record.getProcessInstanceId(), envelope);
+                deadEntryIds.add(record.entryId);
+            } catch (IOException e) {
+                LOGGER.warn("Warehouse record of {} not dead-lettered: {}",
+                           record.record.getProcessInstanceId(), e.getMessage());
+            }
+        }
+        if (!deadEntryIds.isEmpty()) {
+            try {
+                journal.ack(deadEntryIds);
+            } catch (IOException e) {
+                LOGGER.warn("Warehouse journal acknowledgement failed for {} dead-lettered records: {}",
+                           deadEntryIds.size(), e.getMessage());
+            }
+            LOGGER.error("{} warehouse records dead-lettered after {} attempts: {}",
+                        deadEntryIds.size(), MAX_ATTEMPTS, failure.getMessage());
+        }
+        if (retries.isEmpty()) {
+            return;
+        }
+        int attempts = retries.get(0).attempts;
+        long delayMs = Math.min(MAX_RETRY_DELAY_MS, Math.max(maxBatchDelayMs, 1000) << Math.min(attempts, 16));
+        try {
+            flushTimer.schedule(() -> retries.forEach(this::buffer), delayMs, TimeUnit.MILLISECONDS);
+            LOGGER.warn("{} warehouse records retried in {} ms (attempt {})", retries.size(), delayMs, attempts);
+        } catch (RejectedExecutionException e) {
+            // Closing: the records stay in the journal and are loaded on the next start
+            LOGGER.warn("{} warehouse records left in the journal for the next start", retries.size());
+        }
+    }
+
+    /**
+     * Buffers records left in the journal by a previous run
+     */
+    private void replay() {
+        List<QueuedEntry> entries = journal.peek(MAX_REPLAYED_RECORDS);
+        for (QueuedEntry entry : entries) {
+            buffer(new PendingRecord(WarehouseRecord.fromPayload(entry.getPayload()), entry.getId(), 0));
+        }
+        if (!entries.isEmpty()) {
+            LOGGER.info("Warehouse loader replayed {} journaled records", entries.size());
+        }
+    }
+
+    private static final class PendingRecord {
+        final WarehouseRecord record;
+        final long entryId;
+        final int attempts;
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        /**
+         * entryId 0: in memory only
+         */
+        PendingRecord(WarehouseRecord record, long entryId, int attempts) {
+            this.record = record;
+            this.entryId = entryId;
+            this.attempts = attempts;
+        }
+    }
+}
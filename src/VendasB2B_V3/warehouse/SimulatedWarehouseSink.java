@@ -0,0 +1,35 @@
+package com.austa.vendas.warehouse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SimulatedWarehouseSink - Placeholder bulk load until the warehouse API is wired
+ *
+ * Stands in for the real ETL target (Snowflake, Redshift, BigQuery or on-prem) with the
+ * same simulated latency the per-execution sync used, now paid once per batch.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public class SimulatedWarehouseSink implements WarehouseSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulatedWarehouseSink.class);
+    private static final long SIMULATED_LOAD_MS = 2000;
+
+    @Override
+    public String getName() {
+        return "simulated";
+    }
+
+    @Override
+    public void load(StagedBatch batch) throws Exception {
+        // TODO: Implement actual Data Warehouse bulk load
+        // e.g. PUT the staged file to the warehouse stage, then COPY INTO the sync table
+
+        LOGGER.debug("Bulk loading batch {}: {} rows, {} bytes staged",
+                    batch.getBatchId(), batch.getRowCount(), batch.getSizeBytes());
+
+        Thread.sleep(SIMULATED_LOAD_MS); // Simulate bulk load
+    }
+}
@@ -0,0 +1,104 @@
+package com.austa.vendas.warehouse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * VariableChangeSet - Process variables to ship in one warehouse sync
+ *
+ * Purpose: Compares the current variables of a process instance with the fingerprints
+ * recorded at its last successful sync. An incremental change set holds only the variables
+ * whose fingerprint changed or that are new, plus the names of variables that disappeared;
+ * a full change set holds every variable and is used for the first sync and for periodic
+ * reconciliation snapshots.
+ *
+ * Both kinds carry the fingerprints of all current variables, which become the new
+ * watermark once the sync succeeds. Excluded names (the sync's own bookkeeping variables)
+ * are never shipped or fingerprinted.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class VariableChangeSet {
+
+    private final boolean fullSnapshot;
+    private final Map<String, Object> variables;
+    private final List<String> removedVariables;
+    private final Map<String, Long> fingerprints;
+
+    private VariableChangeSet(boolean fullSnapshot, Map<String, Object> variables,
+                              List<String> removedVariables, Map<String, Long> fingerprints) {
+        this.fullSnapshot = fullSnapshot;
+        this.variables = variables;
+        this.removedVariables = removedVariables;
+        this.fingerprints = fingerprints;
+    }
+
+    public static VariableChangeSet full(Map<String, Object> current, Set<String> excluded) {
+        Map<String, Object> variables = new HashMap<>();
+        Map<String, Long> fingerprints = new HashMap<>();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            if (!excluded.contains(entry.getKey())) {
+                variables.put(entry.getKey(), entry.getValue());
+                fingerprints.put(entry.getKey(), VariableFingerprint.of(entry.getValue()));
+            }
+        }
+        return new VariableChangeSet(true, variables, Collections.emptyList(), fingerprints);
+    }
+
+    public static VariableChangeSet incremental(Map<String, Object> current, Map<String, Long> previous,
+                                                Set<String> excluded) {
+        Map<String, Object> changed = new HashMap<>();
+        Map<String, Long> fingerprints = new HashMap<>();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            if (excluded.contains(entry.getKey())) {
+                continue;
+            }
+            long fingerprint = VariableFingerprint.of(entry.getValue());
+            fingerprints.put(entry.getKey(), fingerprint);
+
+            Long previousFingerprint = previous.get(entry.getKey());
+            if (previousFingerprint == null || previousFingerprint != fingerprint) {
+                changed.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        for (String name : previous.keySet()) {
+            if (!fingerprints.containsKey(name)) {
+                removed.add(name);
+            }
+        }
+        return new VariableChangeSet(false, changed, removed, fingerprints);
+    }
+
+    public boolean isFullSnapshot() {
+        return fullSnapshot;
+    }
+
+    /**
+     * True when an incremental change set has nothing to ship
+     */
+    public boolean isEmpty() {
+        return !fullSnapshot && variables.isEmpty() && removedVariables.isEmpty();
+    }
+
+    public Map<String, Object> getVariables() {
+        return variables;
+    }
+
+    public List<String> getRemovedVariables() {
+        return removedVariables;
+    }
+
+    /**
+     * Watermark to record after this change set has been synced
+     */
+    public Map<String, Long> getFingerprints() {
+        return fingerprints;
+    }
+}
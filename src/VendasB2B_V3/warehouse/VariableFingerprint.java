@@ -0,0 +1,105 @@
+package com.austa.vendas.warehouse;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * VariableFingerprint - 64-bit content hash of a process variable value
+ *
+ * Purpose: Lets the warehouse sync tell whether a variable changed since the last sync
+ * without keeping a copy of the value. Maps, collections and arrays are hashed by content
+ * (maps and sets independent of iteration order), so a beneficiary list or ROI report
+ * deserialized again from the engine keeps its fingerprint as long as its content is the
+ * same.
+ *
+ * Values of other types fall back to their hashCode. Types without a content-based
+ * hashCode therefore look changed on every sync, which ships them again rather than
+ * risking a missed change.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class VariableFingerprint {
+
+    private static final long NULL_HASH = 0x9E3779B97F4A7C15L;
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private VariableFingerprint() {
+    }
+
+    public static long of(Object value) {
+        if (value == null) {
+            return NULL_HASH;
+        }
+        if (value instanceof String) {
+            return hashChars((String) value);
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return mix(1, Double.doubleToLongBits(((Number) value).doubleValue()));
+        }
+        if (value instanceof Number && !(value instanceof BigDecimal) && !(value instanceof BigInteger)) {
+            return mix(2, ((Number) value).longValue());
+        }
+        if (value instanceof Boolean) {
+            return mix(3, (Boolean) value ? 1 : 0);
+        }
+        if (value instanceof Date) {
+            return mix(4, ((Date) value).getTime());
+        }
+        if (value instanceof Map) {
+            long hash = mix(5, ((Map<?, ?>) value).size());
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                hash += mix(of(entry.getKey()), of(entry.getValue()));
+            }
+            return hash;
+        }
+        if (value instanceof Set) {
+            long hash = mix(6, ((Set<?>) value).size());
+            for (Object element : (Set<?>) value) {
+                hash += of(element);
+            }
+            return hash;
+        }
+        if (value instanceof Collection) {
+            long hash = mix(7, ((Collection<?>) value).size());
+            for (Object element : (Collection<?>) value) {
+                hash = mix(hash, of(element));
+            }
+            return hash;
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            long hash = mix(8, length);
+            for (int i = 0; i < length; i++) {
+                hash = mix(hash, of(Array.get(value, i)));
+            }
+            return hash;
+        }
+        return mix(hashChars(value.getClass().getName()), value.hashCode());
+    }
+
+    private static long hashChars(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Order-sensitive combination of two hashes (SplitMix64 finalizer)
+     */
+    private static long mix(long seed, long value) {
+        long hash = seed * 31 + value + NULL_HASH;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,100 @@
+package com.austa.vendas.warehouse;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WarehouseRecord - One workflow sync row bound for the data warehouse
+ *
+ * Purpose: Flat, column-oriented form of a DataWarehouseDelegate payload. Workflow
+ * variables are encoded to JSON text when the record is created, so staging and loading
+ * never touch the live variable objects again.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class WarehouseRecord {
+
+    private final String processInstanceId;
+    private final String businessKey;
+    private final String dataType;
+    private final String syncMode;
+    private final long syncedAt;
+    private final String workflowData;
+    private final String removedVariables;
+
+    WarehouseRecord(String processInstanceId, String businessKey, String dataType, String syncMode,
+                    long syncedAt, String workflowData, String removedVariables) {
+        this.processInstanceId = processInstanceId;
+        this.businessKey = businessKey;
+        this.dataType = dataType;
+        this.syncMode = syncMode;
+        this.syncedAt = syncedAt;
+        this.workflowData = workflowData;
+        this.removedVariables = removedVariables;
+    }
+
+    public static WarehouseRecord of(String processInstanceId, String businessKey, String dataType,
+                                     String syncMode, Date syncedAt, Map<String, Object> workflowData,
+                                     Collection<String> removedVariables) {
+        return new WarehouseRecord(processInstanceId, businessKey, dataType, syncMode, syncedAt.getTime(),
+            JsonText.encode(workflowData), String.join(",", removedVariables));
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    public String getBusinessKey() {
+        return businessKey;
+    }
+
+    public String getDataType() {
+        return dataType;
+    }
+
+    public String getSyncMode() {
+        return syncMode;
+    }
+
+    public long getSyncedAt() {
+        return syncedAt;
+    }
+
+    /**
+     * Shipped workflow variables as a JSON object
+     */
+    public String getWorkflowData() {
+        return workflowData;
+    }
+
+    /**
+     * Comma-separated names of variables removed since the last sync
+     */
+    public String getRemovedVariables() {
+        return removedVariables;
+    }
+
+    /**
+     * Journal form of the record, see {@link #fromPayload}
+     */
+    Map<String, Object> toPayload() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("processInstanceId", processInstanceId);
+        payload.put("businessKey", businessKey);
+        payload.put("dataType", dataType);
+        payload.put("syncMode", syncMode);
+        payload.put("syncedAt", syncedAt);
+        payload.put("workflowData", workflowData);
+        payload.put("removedVariables", removedVariables);
+        return payload;
+    }
+
+    static WarehouseRecord fromPayload(Map<String, Object> payload) {
+        return new WarehouseRecord((String) payload.get("processInstanceId"), (String) payload.get("businessKey"),
+            (String) payload.get("dataType"), (String) payload.get("syncMode"), (Long) payload.get("syncedAt"),
+            (String) payload.get("workflowData"), (String) payload.get("removedVariables"));
+    }
+}
@@ -0,0 +1,18 @@
+package com.austa.vendas.warehouse;
+
+/**
+ * WarehouseSink - Bulk-load target for staged warehouse batches
+ *
+ * Implementations append a whole staged batch in one operation (COPY, bulk insert, batched
+ * JDBC). A load either succeeds for the whole batch or throws, in which case every record
+ * in the batch is reported as failed to its submitter.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public interface WarehouseSink {
+
+    String getName();
+
+    void load(StagedBatch batch) throws Exception;
+}
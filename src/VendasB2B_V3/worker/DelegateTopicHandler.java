@@ -0,0 +1,95 @@
+package com.austa.vendas.worker;
+
+import org.camunda.bpm.client.task.ExternalTask;
+import org.camunda.bpm.client.task.ExternalTaskService;
+import org.camunda.bpm.engine.delegate.BpmnError;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * DelegateTopicHandler - Runs a JavaDelegate as the handler of one external task topic
+ *
+ * Outcome mapping:
+ * - Delegate returns normally → complete the task with the variables it set
+ * - BpmnError → handleBpmnError, so boundary error events fire as with the embedded delegate
+ * - Any other exception → handleFailure with decremented retries and exponential backoff;
+ *   an incident is raised by the engine when retries reach zero
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+class DelegateTopicHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DelegateTopicHandler.class);
+
+    private final String topic;
+    private final String delegateName;
+    private final JavaDelegate delegate;
+    private final int maxRetries;
+    private final long retryTimeoutMs;
+
+    DelegateTopicHandler(String topic, String delegateName, JavaDelegate delegate,
+                         int maxRetries, long retryTimeoutMs) {
+        this.topic = topic;
+        this.delegateName = delegateName;
+        this.delegate = delegate;
+        this.maxRetries = maxRetries;
+        this.retryTimeoutMs = retryTimeoutMs;
+    }
+
+    void handle(ExternalTask task, ExternalTaskService service) {
+        ExternalTaskExecution execution = ExternalTaskExecution.of(task);
+        long start = System.currentTimeMillis();
+
+        try {
+            delegate.execute(execution.asDelegateExecution());
+            service.complete(task, execution.getModifiedVariables());
+
+            LOGGER.debug("Task {} on topic {} completed by {} in {} ms",
+                        task.getId(), topic, delegateName, System.currentTimeMillis() - start);
+
+        } catch (BpmnError e) {
+            LOGGER.info("Task {} on topic {} raised BPMN error {}", task.getId(), topic, e.getErrorCode());
+            service.handleBpmnError(task, e.getErrorCode(), e.getMessage(), execution.getModifiedVariables());
+
+        } catch (Exception e) {
+            int retries = remainingRetries(task);
+            long retryTimeout = retryTimeout(retries);
+
+            LOGGER.error("Task {} on topic {} failed in {} ({} retries left, next in {} ms)",
+                        task.getId(), topic, delegateName, retries, retryTimeout, e);
+            service.handleFailure(task, e.getMessage(), stackTrace(e), retries, retryTimeout);
+        }
+    }
+
+    String getTopic() {
+        return topic;
+    }
+
+    String getDelegateName() {
+        return delegateName;
+    }
+
+    /**
+     * The engine reports null retries until the first failure
+     */
+    private int remainingRetries(ExternalTask task) {
+        Integer retries = task.getRetries();
+        return Math.max(0, (retries != null ? retries : maxRetries) - 1);
+    }
+
+    private long retryTimeout(int remainingRetries) {
+        int attempt = Math.max(0, maxRetries - 1 - remainingRetries);
+        return retryTimeoutMs << Math.min(attempt, 10);
+    }
+
+    private static String stackTrace(Exception e) {
+        StringWriter writer = new StringWriter();
+        e.printStackTrace(new PrintWriter(writer));
+        return writer.toString();
+    }
+}
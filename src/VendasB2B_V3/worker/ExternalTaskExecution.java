@@ -0,0 +1,124 @@
+package com.austa.vendas.worker;
+
+import org.camunda.bpm.client.task.ExternalTask;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ExternalTaskExecution - DelegateExecution view over a locked external task
+ *
+ * Lets the existing JavaDelegates run unchanged inside the worker runtime. Reads are
+ * served from the variables fetched with the task; writes are collected and sent back
+ * with the complete (or BPMN error) call. Only the execution methods the delegates use
+ * are supported; anything else throws UnsupportedOperationException, because it would
+ * need a live engine context the worker does not have.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+final class ExternalTaskExecution implements InvocationHandler {
+
+    private final ExternalTask task;
+    private final Map<String, Object> variables;
+    private final Map<String, Object> modifiedVariables = new HashMap<>();
+
+    private ExternalTaskExecution(ExternalTask task) {
+        this.task = task;
+        this.variables = new HashMap<>(task.getAllVariables());
+    }
+
+    static ExternalTaskExecution of(ExternalTask task) {
+        return new ExternalTaskExecution(task);
+    }
+
+    DelegateExecution asDelegateExecution() {
+        return (DelegateExecution) Proxy.newProxyInstance(
+            DelegateExecution.class.getClassLoader(),
+            new Class<?>[] { DelegateExecution.class },
+            this);
+    }
+
+    /**
+     * Variables written by the delegate, to be submitted with the task completion
+     */
+    Map<String, Object> getModifiedVariables() {
+        return modifiedVariables;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getVariable":
+            case "getVariableLocal":
+                return variables.get((String) args[0]);
+            case "hasVariable":
+            case "hasVariableLocal":
+                return variables.containsKey((String) args[0]);
+            case "getVariables":
+            case "getVariablesLocal":
+                return args == null || args.length == 0
+                    ? new HashMap<>(variables)
+                    : selectVariables((Collection<String>) args[0]);
+            case "getVariableNames":
+            case "getVariableNamesLocal":
+                return variables.keySet();
+            case "setVariable":
+            case "setVariableLocal":
+                variables.put((String) args[0], args[1]);
+                modifiedVariables.put((String) args[0], args[1]);
+                return null;
+            case "setVariables":
+            case "setVariablesLocal":
+                variables.putAll((Map<String, Object>) args[0]);
+                modifiedVariables.putAll((Map<String, Object>) args[0]);
+                return null;
+            case "getId":
+                return task.getExecutionId();
+            case "getProcessInstanceId":
+                return task.getProcessInstanceId();
+            case "getProcessDefinitionId":
+                return task.getProcessDefinitionId();
+            case "getBusinessKey":
+            case "getProcessBusinessKey":
+                return task.getBusinessKey();
+            case "getCurrentActivityId":
+                return task.getActivityId();
+            case "getCurrentActivityName":
+                return task.getTopicName();
+            case "getActivityInstanceId":
+                return task.getActivityInstanceId();
+            case "getTenantId":
+                return task.getTenantId();
+            case "getProcessEngineServices":
+            case "getProcessEngine":
+                // No engine in the worker; callers fall back to the fetched variables
+                return null;
+            case "toString":
+                return "ExternalTaskExecution[" + task.getTopicName() + ", " + task.getId() + "]";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                throw new UnsupportedOperationException(
+                    method.getName() + " is not available to delegates running as external task workers");
+        }
+    }
+
+    private Map<String, Object> selectVariables(Collection<String> names) {
+        Map<String, Object> selected = new HashMap<>();
+        for (String name : names) {
+            if (variables.containsKey(name)) {
+                selected.put(name, variables.get(name));
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,121 @@
+package com.austa.vendas.worker;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * ExternalTaskWorkerProperties - Configuration for the external task worker runtime
+ *
+ * Bound from the "austa.external-task-worker" prefix, e.g.:
+ * <pre>
+ *   austa.external-task-worker.enabled=true
+ *   austa.external-task-worker.base-url=http://camunda:8080/engine-rest
+ *   austa.external-task-worker.max-tasks=20
+ * </pre>
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "austa.external-task-worker")
+public class ExternalTaskWorkerProperties {
+
+    /** Starts the worker with the application context (off for engine-only nodes) */
+    private boolean enabled = false;
+
+    /** Camunda REST endpoint */
+    private String baseUrl = "http://localhost:8080/engine-rest";
+
+    /** Worker id reported to the engine; defaults to a random id per node */
+    private String workerId;
+
+    /** Maximum tasks locked per fetchAndLock request */
+    private int maxTasks = 10;
+
+    /** Maximum handlers running at once; fetching pauses while all slots are busy */
+    private int maxConcurrentTasks = 100;
+
+    /** Long-polling timeout for fetchAndLock */
+    private long asyncResponseTimeoutMs = 30000;
+
+    /** Lock duration; locks of running handlers are extended every half period */
+    private long lockDurationMs = 60000;
+
+    /** Retries assigned when a task fails for the first time */
+    private int maxRetries = 3;
+
+    /** Base delay before a failed task is fetched again, doubled per attempt */
+    private long retryTimeoutMs = 5000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    public void setWorkerId(String workerId) {
+        this.workerId = workerId;
+    }
+
+    public int getMaxTasks() {
+        return maxTasks;
+    }
+
+    public void setMaxTasks(int maxTasks) {
+        this.maxTasks = maxTasks;
+    }
+
+    public int getMaxConcurrentTasks() {
+        return maxConcurrentTasks;
+    }
+
+    public void setMaxConcurrentTasks(int maxConcurrentTasks) {
+        this.maxConcurrentTasks = maxConcurrentTasks;
+    }
+
+    public long getAsyncResponseTimeoutMs() {
+        return asyncResponseTimeoutMs;
+    }
+
+    public void setAsyncResponseTimeoutMs(long asyncResponseTimeoutMs) {
+        this.asyncResponseTimeoutMs = asyncResponseTimeoutMs;
+    }
+
+    public long getLockDurationMs() {
+        return lockDurationMs;
+    }
+
+    public void setLockDurationMs(long lockDurationMs) {
+        this.lockDurationMs = lockDurationMs;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryTimeoutMs() {
+        return retryTimeoutMs;
+    }
+
+    public void setRetryTimeoutMs(long retryTimeoutMs) {
+        this.retryTimeoutMs = retryTimeoutMs;
+    }
+}
@@ -0,0 +1,197 @@
+package com.austa.vendas.worker;
+
+import org.camunda.bpm.client.ExternalTaskClient;
+import org.camunda.bpm.client.task.ExternalTask;
+import org.camunda.bpm.client.task.ExternalTaskService;
+import org.camunda.bpm.client.topic.TopicSubscription;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExternalTaskWorkerRuntime - Serves the BPMN external task topics with the existing delegates
+ *
+ * Purpose: The subprocesses declare their service tasks as camunda:type="external", so
+ * they are executed by workers that poll the engine instead of by the engine's job
+ * executor. This runtime lets worker nodes scale independently of engine nodes while
+ * reusing the @Component delegates through {@link TopicBindings}.
+ *
+ * Execution model:
+ * - Long-polls fetchAndLock (asyncResponseTimeoutMs) locking up to maxTasks per request
+ * - Each task runs on its own virtual thread, so slow provider calls do not hold
+ *   platform threads; maxConcurrentTasks caps in-flight tasks and pauses fetching
+ *   while all slots are busy
+ * - Locks are extended every lockDurationMs / 2 while a handler is still running, so
+ *   slow calls are not picked up twice by another worker
+ *
+ * Disabled by default; set austa.external-task-worker.enabled=true on worker nodes.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+@Component
+public class ExternalTaskWorkerRuntime implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExternalTaskWorkerRuntime.class);
+
+    private final ExternalTaskWorkerProperties properties;
+    private final Map<String, JavaDelegate> delegates;
+    private final List<TopicSubscription> subscriptions = new ArrayList<>();
+
+    private ExternalTaskClient client;
+    private ExecutorService handlerExecutor;
+    private ScheduledExecutorService lockExtender;
+    private Semaphore slots;
+    private volatile boolean running;
+
+    public ExternalTaskWorkerRuntime(ExternalTaskWorkerProperties properties,
+                                     Map<String, JavaDelegate> delegates) {
+        this.properties = properties;
+        this.delegates = delegates;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        String workerId = properties.getWorkerId() != null
+            ? properties.getWorkerId()
+            : "austa-vendas-worker-" + UUID.randomUUID();
+
+        handlerExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        lockExtender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "external-task-lock-extender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        slots = new Semaphore(properties.getMaxConcurrentTasks());
+
+        client = ExternalTaskClient.create()
+            .baseUrl(properties.getBaseUrl())
+            .workerId(workerId)
+            .maxTasks(properties.getMaxTasks())
+            .asyncResponseTimeout(properties.getAsyncResponseTimeoutMs())
+            .lockDuration(properties.getLockDurationMs())
+            .build();
+
+        for (String topic : TopicBindings.topics()) {
+            DelegateTopicHandler handler = createHandler(topic);
+            if (handler != null) {
+                subscriptions.add(client.subscribe(topic)
+                    .lockDuration(properties.getLockDurationMs())
+                    .handler((task, service) -> dispatch(handler, task, service))
+                    .open());
+            }
+        }
+
+        running = true;
+        LOGGER.info("External task worker {} started: {} topics, maxTasks={}, maxConcurrentTasks={}",
+                   workerId, subscriptions.size(), properties.getMaxTasks(), properties.getMaxConcurrentTasks());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        subscriptions.forEach(TopicSubscription::close);
+        subscriptions.clear();
+        client.stop();
+
+        handlerExecutor.shutdown();
+        try {
+            if (!handlerExecutor.awaitTermination(properties.getLockDurationMs(), TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("External task handlers still running at shutdown; their locks will expire");
+                handlerExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            handlerExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        lockExtender.shutdownNow();
+
+        LOGGER.info("External task worker stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.isEnabled();
+    }
+
+    private DelegateTopicHandler createHandler(String topic) {
+        String delegateName = TopicBindings.delegateFor(topic);
+        if (delegateName == null) {
+            LOGGER.warn("Topic {} has no delegate binding and will not be served by this worker", topic);
+            return null;
+        }
+
+        JavaDelegate delegate = delegates.get(delegateName);
+        if (delegate == null) {
+            LOGGER.warn("Topic {} is bound to missing delegate bean {}", topic, delegateName);
+            return null;
+        }
+
+        return new DelegateTopicHandler(topic, delegateName, delegate,
+            properties.getMaxRetries(), properties.getRetryTimeoutMs());
+    }
+
+    /**
+     * Runs on the client's fetch thread: waits for a free slot, then hands the task to a virtual thread
+     */
+    private void dispatch(DelegateTopicHandler handler, ExternalTask task, ExternalTaskService service) {
+        slots.acquireUninterruptibly();
+        try {
+            handlerExecutor.execute(() -> runWithLockExtension(handler, task, service));
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            LOGGER.warn("Worker shutting down, releasing task {} on topic {}", task.getId(), handler.getTopic());
+            service.unlock(task);
+        }
+    }
+
+    private void runWithLockExtension(DelegateTopicHandler handler, ExternalTask task,
+                                      ExternalTaskService service) {
+        long extensionPeriod = properties.getLockDurationMs() / 2;
+        ScheduledFuture<?> extension = lockExtender.scheduleAtFixedRate(
+            () -> extendLock(task, service), extensionPeriod, extensionPeriod, TimeUnit.MILLISECONDS);
+
+        try {
+            handler.handle(task, service);
+        } finally {
+            extension.cancel(false);
+            slots.release();
+        }
+    }
+
+    private void extendLock(ExternalTask task, ExternalTaskService service) {
+        try {
+            service.extendLock(task, properties.getLockDurationMs());
+            LOGGER.debug("Extended lock of task {} on topic {}", task.getId(), task.getTopicName());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not extend lock of task {}: {}", task.getId(), e.getMessage());
+        }
+    }
+}
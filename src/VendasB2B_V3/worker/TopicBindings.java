@@ -0,0 +1,91 @@
+package com.austa.vendas.worker;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TopicBindings - Maps BPMN external task topics to delegate beans
+ *
+ * Every camunda:topic declared in bpmn/*.bpmn is listed here. Topics bound to a delegate
+ * bean name are served by the worker runtime; topics bound to null have no Java
+ * implementation yet and are reported at startup so they are not silently ignored.
+ *
+ * @author AUSTA V3 Backend Team
+ * @version 3.0.0
+ */
+public final class TopicBindings {
+
+    private static final String UNBOUND = "";
+
+    private static final Map<String, String> TOPIC_DELEGATES = Map.ofEntries(
+        // qualification-subprocess-v3
+        Map.entry("lead-enrichment-v3", "leadEnrichmentDelegate"),
+        Map.entry("crm-update-v3", "crmUpdateDelegate"),
+        Map.entry("notification-v3", "slackNotificationDelegate"),
+
+        // engagement-subprocess-v3
+        Map.entry("roi-calculator-engagement", "roiCalculatorDelegate"),
+        Map.entry("send-executive-material", "sendGridEmailDelegate"),
+        Map.entry("generate-custom-roi", "roiCalculatorDelegate"),
+        Map.entry("send-clinical-cases", "sendGridEmailDelegate"),
+        Map.entry("crm-update-engagement", "crmUpdateDelegate"),
+
+        // value-demonstration-subprocess-v3
+        Map.entry("execute-pilot-program", UNBOUND),
+        Map.entry("generate-value-report", "crmReportingDelegate"),
+        Map.entry("crm-update-value", "crmUpdateDelegate"),
+
+        // negotiation-subprocess-v3
+        Map.entry("send-proposal", "sendGridEmailDelegate"),
+        Map.entry("auto-approve", UNBOUND),
+
+        // closing-subprocess-v3
+        Map.entry("crm-update-closing", "crmUpdateDelegate"),
+        Map.entry("financial-integration", "tasyERPIntegrationDelegate"),
+        Map.entry("initiate-implementation", UNBOUND),
+
+        // implementation-planning / project-execution
+        Map.entry("analyze-implementation-risks", "predictiveAnalyticsDelegate"),
+        Map.entry("generate-implementation-plan", UNBOUND),
+        Map.entry("system-integration", "tasyERPIntegrationDelegate"),
+        Map.entry("data-migration", UNBOUND),
+
+        // beneficiary-onboarding-subprocess-v3
+        Map.entry("collect-beneficiary-data", "ocrProcessingDelegate"),
+        Map.entry("validate-beneficiary-data", UNBOUND),
+        Map.entry("send-welcome-kit", "sendGridEmailDelegate"),
+
+        // digital-services-subprocess-v3
+        Map.entry("activate-digital-accounts", "digitalCardDelegate"),
+        Map.entry("activate-mobile-app", "mobileAppProvisioningDelegate"),
+        Map.entry("activate-web-portal", "portalActivationDelegate"),
+        Map.entry("activate-telemedicine", "telehealthSetupDelegate"),
+        Map.entry("activate-chat-support", UNBOUND),
+        Map.entry("validate-all-services", UNBOUND),
+
+        // post-launch-setup / post-launch-monitoring
+        Map.entry("setup-initial-support", UNBOUND),
+        Map.entry("notify-post-launch-stakeholders", "sendGridEmailDelegate"),
+        Map.entry("collect-baseline-kpis", "kpiDashboardDelegate"),
+        Map.entry("analyze-day7-kpis", "kpiDashboardDelegate"),
+        Map.entry("generate-monitoring-report", "crmReportingDelegate"),
+
+        // contract-expansion-subprocess-v3
+        Map.entry("update-contract-expansion", "contractGenerationDelegate")
+    );
+
+    private TopicBindings() {
+    }
+
+    public static Set<String> topics() {
+        return TOPIC_DELEGATES.keySet();
+    }
+
+    /**
+     * Returns the delegate bean name for a topic, or null if the topic has no Java implementation
+     */
+    public static String delegateFor(String topic) {
+        String beanName = TOPIC_DELEGATES.get(topic);
+        return beanName == null || beanName.isEmpty() ? null : beanName;
+    }
+}